@@ -0,0 +1,101 @@
+package com.lx.questionnaire.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lx.questionnaire.dto.ReferenceCacheStatsVO;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 参考数据（角色、权限、院系、预设选项）的进程内近端缓存。
+ * <p>
+ * 缓存键带上表的当前版本：写操作提交后版本递增，旧版本的条目即不可达并被清除；失效前已开始的加载
+ * 只会写回旧版本键，不会把旧数据带到新版本。TTL 兜底其它实例或直接改库的情况。
+ * 缓存值由多个请求共享，调用方只读不改；需要修改时应从 Mapper 重新查询。
+ */
+@Component
+public class ReferenceDataCache {
+
+    private static final long MAX_ENTRIES = 5_000;
+    public static final Duration TTL = Duration.ofMinutes(10);
+    /** Caffeine 不存 null，查询结果为空时以此占位 */
+    private static final Object NULL = new Object();
+
+    private final Map<ReferenceTable, AtomicLong> versions = new EnumMap<>(ReferenceTable.class);
+    private final Map<ReferenceTable, LongAdder> hits = new EnumMap<>(ReferenceTable.class);
+    private final Map<ReferenceTable, LongAdder> misses = new EnumMap<>(ReferenceTable.class);
+    private final Cache<Key, Object> cache = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(TTL)
+            .build();
+
+    public ReferenceDataCache() {
+        for (ReferenceTable t : ReferenceTable.values()) {
+            versions.put(t, new AtomicLong());
+            hits.put(t, new LongAdder());
+            misses.put(t, new LongAdder());
+        }
+    }
+
+    /**
+     * 取缓存值，未命中时调用 loader 加载；同一键并发未命中时只加载一次
+     *
+     * @param key 表内唯一的缓存键，如 "all"、"id:3"
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ReferenceTable table, String key, Supplier<T> loader) {
+        Key k = new Key(table, versions.get(table).get(), key);
+        Object v = cache.getIfPresent(k);
+        if (v != null) {
+            hits.get(table).increment();
+        } else {
+            misses.get(table).increment();
+            v = cache.get(k, kk -> {
+                T loaded = loader.get();
+                return loaded == null ? NULL : loaded;
+            });
+        }
+        return v == NULL ? null : (T) v;
+    }
+
+    /** 表的当前版本，每次写操作提交后递增（可用作 ETag 等） */
+    public long version(ReferenceTable table) {
+        return versions.get(table).get();
+    }
+
+    public void invalidate(ReferenceTable table) {
+        versions.get(table).incrementAndGet();
+        cache.asMap().keySet().removeIf(k -> k.table() == table);
+    }
+
+    /** 提交后失效；无事务时立即失效 */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        invalidate(event.table());
+    }
+
+    /** 各表命中/未命中次数（启动以来累计） */
+    public List<ReferenceCacheStatsVO> stats() {
+        List<ReferenceCacheStatsVO> list = new ArrayList<>();
+        for (ReferenceTable t : ReferenceTable.values()) {
+            long h = hits.get(t).sum();
+            long m = misses.get(t).sum();
+            long entries = cache.asMap().keySet().stream().filter(k -> k.table() == t).count();
+            list.add(new ReferenceCacheStatsVO(t.name(), versions.get(t).get(), entries, h, m,
+                    h + m == 0 ? 0 : (double) h / (h + m)));
+        }
+        return list;
+    }
+
+    private record Key(ReferenceTable table, long version, String key) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.lx.questionnaire.cache;
+
+/**
+ * 参考数据增删改后由对应 Service 发布；ReferenceDataCache 在事务提交后递增该表版本并清除其缓存
+ */
+public record ReferenceDataChangedEvent(ReferenceTable table) {
+}
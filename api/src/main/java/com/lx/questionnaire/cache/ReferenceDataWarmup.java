@@ -0,0 +1,42 @@
+package com.lx.questionnaire.cache;
+
+import com.lx.questionnaire.security.DepartmentTreeCache;
+import com.lx.questionnaire.service.DepartmentService;
+import com.lx.questionnaire.service.PermissionService;
+import com.lx.questionnaire.service.PresetOptionService;
+import com.lx.questionnaire.service.RoleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动完成后预加载参考数据，避免首批请求集中回源；失败只记日志，不影响启动
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataWarmup {
+
+    private final RoleService roleService;
+    private final PermissionService permissionService;
+    private final DepartmentService departmentService;
+    private final PresetOptionService presetOptionService;
+    private final DepartmentTreeCache departmentTreeCache;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            roleService.listAll();
+            permissionService.listAll();
+            departmentService.listAll();
+            departmentTreeCache.get();
+            presetOptionService.getEnabledTree();
+            log.info("reference data cache warmed up in {} ms", System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("reference data cache warmup failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.lx.questionnaire.cache;
+
+/**
+ * 由 ReferenceDataCache 缓存的参考数据表（行数少、读多写少）；每张表独立维护版本号
+ */
+public enum ReferenceTable {
+    ROLE,
+    PERMISSION,
+    DEPARTMENT,
+    /** preset_option_group + preset_option_item */
+    PRESET_OPTION
+}
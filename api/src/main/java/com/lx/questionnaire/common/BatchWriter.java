@@ -0,0 +1,64 @@
+package com.lx.questionnaire.common;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.MyBatisExceptionTranslator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.function.BiConsumer;
+
+/**
+ * 批量写入：在 ExecutorType.BATCH 会话中逐条调用 Mapper 方法，同一语句的参数攒成 JDBC batch，
+ * 每 flushSize 条下发一次；配合连接串 rewriteBatchedStatements=true，驱动会把 INSERT 合并为多值插入、
+ * 其余语句合并为多语句包，N 条写入只需约 N / flushSize 次往返。
+ * <p>
+ * 会话经 SpringManagedTransaction 取连接：处于 Spring 事务中时与事务共用连接、随事务提交回滚；
+ * 不在事务中时每次 flush 自动提交。BATCH 会话与当前事务里普通 Mapper 的会话相互独立，
+ * 写入后同一事务内参数完全相同的查询可能命中后者的一级缓存，需要回读时请换用不同条件或在写入前读取。
+ * 自增主键在 flush 后回填到实体。
+ */
+@Component
+public class BatchWriter {
+
+    public static final int DEFAULT_FLUSH_SIZE = 500;
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final MyBatisExceptionTranslator exceptionTranslator;
+
+    public BatchWriter(SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.exceptionTranslator = new MyBatisExceptionTranslator(
+                sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(), true);
+    }
+
+    public <M, T> void execute(Class<M> mapperType, Collection<T> items, BiConsumer<M, T> statement) {
+        execute(mapperType, items, DEFAULT_FLUSH_SIZE, statement);
+    }
+
+    /**
+     * @param statement 对单条数据调用的 Mapper 方法，如 {@code SurveyQuestionMapper::insert}
+     */
+    public <M, T> void execute(Class<M> mapperType, Collection<T> items, int flushSize, BiConsumer<M, T> statement) {
+        if (items == null || items.isEmpty()) return;
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            M mapper = session.getMapper(mapperType);
+            int pending = 0;
+            for (T item : items) {
+                statement.accept(mapper, item);
+                if (++pending >= flushSize) {
+                    session.flushStatements();
+                    pending = 0;
+                }
+            }
+            // 事务内 commit 只 flush，提交由外层事务负责
+            session.commit();
+        } catch (PersistenceException e) {
+            DataAccessException translated = exceptionTranslator.translateExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.lx.questionnaire.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标翻页的不透明游标：编码 (排序时间, id)，前端只需原样回传 nextCursor。
+ * 排序时间可以为 null（如存量答卷缺 submitted_at），编码为空串，调用方据此只按 id 继续翻 NULL 区段
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetCursor {
+    /** 单页条数上限，LIMIT 不随请求参数无限放大 */
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final LocalDateTime time;
+    private final Long id;
+
+    public String encode() {
+        String raw = (time != null ? time.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** 解析游标，格式非法时抛参数错误；空串返回 null */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            String time = raw.substring(0, sep);
+            return new KeysetCursor(time.isEmpty() ? null : LocalDateTime.parse(time), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "无效的分页游标"));
+        }
+    }
+
+    /** 将请求的每页条数限制在 1..MAX_PAGE_SIZE */
+    public static int clampPageSize(int pageSize) {
+        return Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,31 @@
+package com.lx.questionnaire.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 无状态登录令牌（auth.token.enabled=true 时启用，替代服务端会话）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth.token")
+public class AuthTokenProperties {
+    /** 是否启用；关闭时沿用 HTTP 会话 */
+    private boolean enabled = false;
+    private String cookieName = "QN_TOKEN";
+    /** 令牌有效期；剩余不足一半时随请求续签 */
+    private Duration ttl = Duration.ofHours(2);
+    /** Cookie 是否仅 HTTPS 发送 */
+    private boolean cookieSecure = false;
+    /** 签发新令牌使用的密钥 id */
+    private String activeKeyId;
+    /** 密钥 id → Base64 密钥（至少 32 字节）。轮换时先加入新密钥并切换 activeKeyId，旧密钥保留一个 ttl 后再移除 */
+    private Map<String, String> keys = new LinkedHashMap<>();
+    /** 吊销版本的本地缓存时间，即吊销最长生效延迟 */
+    private Duration revocationCacheTtl = Duration.ofSeconds(30);
+}
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Data
 @Component
 @ConfigurationProperties(prefix = "cas")
@@ -18,4 +20,16 @@ public class CasProperties {
     private String serviceCallbackUrl;
     /** 回调成功后重定向到的前端地址，如 http://localhost:3000 */
     private String frontendRedirectUrl = "http://localhost:3000";
+    /** 校验请求连接超时 */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    /** 校验请求读取超时 */
+    private Duration readTimeout = Duration.ofSeconds(5);
+    /** 同时进行的校验请求上限（亦为连接池大小），超出时等待 connectTimeout 后直接失败 */
+    private int maxConcurrent = 50;
+    /** 连续失败多少次后熔断 */
+    private int circuitFailureThreshold = 5;
+    /** 熔断持续时间，到期后放行一次试探请求 */
+    private Duration circuitOpenDuration = Duration.ofSeconds(30);
+    /** 已校验 ticket 的缓存时间，吸收重复回调 */
+    private Duration ticketCacheTtl = Duration.ofSeconds(60);
 }
@@ -0,0 +1,27 @@
+package com.lx.questionnaire.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 过期草稿清理（见 DraftPurgeJob）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "draft-purge")
+public class DraftPurgeProperties {
+    private boolean enabled = true;
+    /** 运行周期（DraftPurgeJob 的 @Scheduled 直接读取该配置） */
+    private String cron = "0 */10 * * * *";
+    /** 问卷未设置 draft_ttl_hours 时草稿的保留时长 */
+    private Duration defaultTtl = Duration.ofDays(14);
+    /** 每个事务删除的草稿数（其答卷项一并删除） */
+    private int chunkSize = 200;
+    /** 删除速率上限（答卷 + 答卷项行数/秒），超出时在分片之间等待 */
+    private int maxRowsPerSecond = 2000;
+    /** 单次运行时长上限，未清完的留到下次 */
+    private Duration maxRunDuration = Duration.ofMinutes(10);
+}
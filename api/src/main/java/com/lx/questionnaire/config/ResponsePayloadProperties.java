@@ -0,0 +1,17 @@
+package com.lx.questionnaire.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 答卷答案紧凑编码（见 ResponsePayload）。编码只是读取加速用的副本：response_item 仍全量写入，
+ * 答卷筛选（选项、量表、填空都可作条件）、全文检索与草稿都只读 response_item，不能据此省掉答卷项
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "response-payload")
+public class ResponsePayloadProperties {
+    /** 开启后提交答卷时额外写入 response.response_payload；统计、导出、详情一律优先读取已有的编码，与该开关无关 */
+    private boolean readAcceleration = false;
+}
@@ -0,0 +1,45 @@
+package com.lx.questionnaire.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 启用 @Scheduled 后台任务（见 com.lx.questionnaire.job）。
+ * <p>
+ * 默认只有一个调度线程，清理、回填等限速批处理一跑就是几分钟，会让其它任务排队。
+ * 这里拆成两个调度器：问卷定时开始/截止（SurveyLifecycleScheduler 的时间轮推进与加载）独占一个线程，
+ * 不会被批处理拖住；其余任务共用 taskScheduler，线程数不少于批处理任务数，彼此也不排队。
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /** 问卷定时开始/截止专用调度器的 bean 名，供 @Scheduled(scheduler = ...) 引用 */
+    public static final String LIFECYCLE_SCHEDULER = "lifecycleTaskScheduler";
+
+    /** 清理、回填、对账等批处理任务数 */
+    private static final int JOB_POOL_SIZE = 5;
+
+    /** @Scheduled 未指定调度器时按名称 taskScheduler 选用 */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        return scheduler(JOB_POOL_SIZE, "job-");
+    }
+
+    /** 单线程：时间轮推进（tick）与加载（load）仍在同一线程内串行执行 */
+    @Bean(LIFECYCLE_SCHEDULER)
+    public ThreadPoolTaskScheduler lifecycleTaskScheduler() {
+        return scheduler(1, "survey-lifecycle-");
+    }
+
+    private static ThreadPoolTaskScheduler scheduler(int poolSize, String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+}
@@ -1,5 +1,9 @@
 package com.lx.questionnaire.config;
 
+import com.lx.questionnaire.security.AuthTokenFilter;
+import com.lx.questionnaire.security.AuthTokenService;
+import com.lx.questionnaire.security.CurrentUserDetails;
+import com.lx.questionnaire.security.EffectivePermissionCache;
 import com.lx.questionnaire.security.LocalAccountUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -8,7 +12,9 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.logout.LogoutFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -16,6 +22,9 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
 
     private final LocalAccountUserDetailsService userDetailsService;
+    private final AuthTokenProperties authTokenProperties;
+    private final AuthTokenService authTokenService;
+    private final EffectivePermissionCache permissionCache;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -31,6 +40,10 @@ public class SecurityConfig {
                         .loginPage("/auth/login")
                         .loginProcessingUrl("/api/auth/login")
                         .successHandler((request, response, authentication) -> {
+                            if (authTokenService.isEnabled()
+                                    && authentication.getPrincipal() instanceof CurrentUserDetails details) {
+                                authTokenService.writeCookie(response, details.getUserId());
+                            }
                             response.setContentType("application/json;charset=UTF-8");
                             response.getWriter().write("{\"code\":200,\"message\":\"登录成功\"}");
                         })
@@ -44,6 +57,11 @@ public class SecurityConfig {
                 .logout(logout -> logout
                         .logoutUrl("/api/auth/logout")
                         .logoutSuccessHandler((request, response, authentication) -> {
+                            if (authTokenService.isEnabled()) {
+                                // 只清除本设备的 Cookie，不影响该用户在其它设备的登录。令牌不带单独编号，无法只吊销这一枚：
+                                // 被截获的 Cookie 在到期前仍可用，需要时由管理员调用 /api/users/{id}/revoke-tokens 吊销该用户全部令牌
+                                authTokenService.clearCookie(response);
+                            }
                             response.setContentType("application/json;charset=UTF-8");
                             response.getWriter().write("{\"code\":200,\"message\":\"已登出\"}");
                         })
@@ -51,6 +69,14 @@ public class SecurityConfig {
                 )
                 .userDetailsService(userDetailsService);
 
+        // 无状态模式：不创建会话，每个请求由 Cookie 中的签名令牌还原登录态，API 节点可任意水平扩展
+        if (authTokenProperties.isEnabled()) {
+            http.sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                    // 放在 LogoutFilter 之前，登出请求也按令牌还原登录态
+                    .addFilterBefore(new AuthTokenFilter(authTokenProperties.getCookieName(), authTokenService, permissionCache),
+                            LogoutFilter.class);
+        }
+
         return http.build();
     }
 }
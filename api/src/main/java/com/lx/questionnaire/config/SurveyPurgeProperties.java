@@ -0,0 +1,27 @@
+package com.lx.questionnaire.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 已删除问卷的异步清理（见 SurveyPurgeJob）
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "survey-purge")
+public class SurveyPurgeProperties {
+    private boolean enabled = true;
+    /** 每个事务删除的答卷数（其答卷项一并删除）；题目与版本快照同样按该行数分批 */
+    private int chunkSize = 200;
+    /** 删除速率上限（行/秒），超出时在分片之间等待 */
+    private int maxRowsPerSecond = 2000;
+    /** 单次运行时长上限，未清完的留到下次 */
+    private Duration maxRunDuration = Duration.ofMinutes(5);
+    /** 任务失败后的首次重试间隔，之后每次连续失败翻倍 */
+    private Duration retryBaseDelay = Duration.ofMinutes(1);
+    /** 重试间隔上限 */
+    private Duration retryMaxDelay = Duration.ofHours(1);
+}
@@ -3,7 +3,9 @@ package com.lx.questionnaire.controller;
 import com.lx.questionnaire.common.Result;
 import com.lx.questionnaire.config.CasProperties;
 import com.lx.questionnaire.entity.User;
+import com.lx.questionnaire.security.AuthTokenService;
 import com.lx.questionnaire.security.CurrentUserDetails;
+import com.lx.questionnaire.security.EffectivePermissionCache;
 import com.lx.questionnaire.service.AuthService;
 import com.lx.questionnaire.service.CasValidateService;
 import com.lx.questionnaire.service.UserService;
@@ -34,6 +36,8 @@ public class AuthController {
     private final AuthService authService;
     private final CasValidateService casValidateService;
     private final CasProperties casProperties;
+    private final EffectivePermissionCache permissionCache;
+    private final AuthTokenService authTokenService;
 
     @GetMapping("/me")
     public Result<CurrentUserVO> getCurrentUser() {
@@ -89,17 +93,26 @@ public class AuthController {
             return;
         }
         User user = authService.findOrCreateUserByCasLoginId(loginId);
-        CurrentUserDetails details = new CurrentUserDetails(user.getId(), "");
+        if (authTokenService.isEnabled()) {
+            authTokenService.writeCookie(response, user.getId());
+            response.sendRedirect(frontendRedirectUrl());
+            return;
+        }
+        CurrentUserDetails details = new CurrentUserDetails(user.getId(), "", permissionCache.get(user.getId()));
         org.springframework.security.authentication.UsernamePasswordAuthenticationToken token =
                 new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(
                         details, null, details.getAuthorities());
         SecurityContextHolder.getContext().setAuthentication(token);
         request.getSession(true);
+        response.sendRedirect(frontendRedirectUrl());
+    }
+
+    private String frontendRedirectUrl() {
         String redirectUrl = casProperties.getFrontendRedirectUrl();
         if (redirectUrl == null || redirectUrl.isBlank()) {
             redirectUrl = "http://localhost:3000";
         }
-        response.sendRedirect(redirectUrl);
+        return redirectUrl;
     }
 
     private void redirectToFrontendWithError(HttpServletResponse response, String message) throws IOException {
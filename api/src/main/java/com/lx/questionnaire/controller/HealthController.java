@@ -1,6 +1,10 @@
 package com.lx.questionnaire.controller;
 
+import com.lx.questionnaire.cache.ReferenceDataCache;
 import com.lx.questionnaire.common.Result;
+import com.lx.questionnaire.dto.DraftPurgeStatsVO;
+import com.lx.questionnaire.dto.ReferenceCacheStatsVO;
+import com.lx.questionnaire.job.DraftPurgeJob;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -8,12 +12,16 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Instant;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class HealthController {
 
+    private final ReferenceDataCache referenceDataCache;
+    private final DraftPurgeJob draftPurgeJob;
+
     @GetMapping("/health")
     public Result<HealthVO> health() {
         HealthVO vo = new HealthVO();
@@ -23,6 +31,18 @@ public class HealthController {
         return Result.ok(vo);
     }
 
+    /** 参考数据缓存各表的版本与命中情况 */
+    @GetMapping("/health/cache")
+    public Result<List<ReferenceCacheStatsVO>> cacheStats() {
+        return Result.ok(referenceDataCache.stats());
+    }
+
+    /** 过期草稿清理的累计删除量与滞后 */
+    @GetMapping("/health/draft-purge")
+    public Result<DraftPurgeStatsVO> draftPurgeStats() {
+        return Result.ok(draftPurgeJob.stats());
+    }
+
     @Data
     public static class HealthVO {
         private String status;
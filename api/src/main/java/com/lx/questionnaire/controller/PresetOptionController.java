@@ -4,14 +4,18 @@ import com.lx.questionnaire.common.BusinessException;
 import com.lx.questionnaire.common.ErrorCode;
 import com.lx.questionnaire.common.PaginatedResponse;
 import com.lx.questionnaire.common.Result;
-import com.lx.questionnaire.dto.PresetOptionCategoryVO;
 import com.lx.questionnaire.dto.PresetOptionGroupDetailVO;
 import com.lx.questionnaire.dto.PresetOptionGroupUpsertDTO;
 import com.lx.questionnaire.dto.PresetOptionGroupVO;
+import com.lx.questionnaire.dto.PresetOptionSuggestionVO;
+import com.lx.questionnaire.dto.PresetOptionTreeSnapshot;
 import com.lx.questionnaire.service.PresetOptionService;
 import com.lx.questionnaire.service.UserService;
 import com.lx.questionnaire.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -43,11 +47,29 @@ public class PresetOptionController {
         }
     }
 
-    /** 给问卷编辑端使用：按分类返回启用的预定义选项组（含明细） */
+    /**
+     * 给问卷编辑端使用：按分类返回启用的预定义选项组（含明细）。
+     * 直接写出预序列化的响应体；带 ETag，浏览器携带 If-None-Match 且未变化时返回 304
+     */
     @GetMapping("/tree")
-    public Result<List<PresetOptionCategoryVO>> getEnabledTree() {
+    public ResponseEntity<byte[]> getEnabledTree() {
         requireLogin();
-        return Result.ok(presetOptionService.getEnabledTree());
+        PresetOptionTreeSnapshot snapshot = presetOptionService.getEnabledTreeSnapshot();
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.json());
+    }
+
+    /** 问卷编辑端输入联想：q 为前缀（支持拼音全拼/首字母），limit 最大 20 */
+    @GetMapping("/suggest")
+    public Result<List<PresetOptionSuggestionVO>> suggest(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        requireLogin();
+        return Result.ok(presetOptionService.suggest(q, limit));
     }
 
     // ---------- 系统管理（校管） ----------
@@ -5,12 +5,15 @@ import com.lx.questionnaire.dto.*;
 import com.lx.questionnaire.entity.Survey;
 import com.lx.questionnaire.entity.SurveyQuestion;
 import com.lx.questionnaire.service.SurveyService;
+import com.lx.questionnaire.service.export.ExportFormat;
+import com.lx.questionnaire.service.export.ResponseExportTask;
 import com.lx.questionnaire.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -61,7 +64,7 @@ public class SurveyController {
         if (dto == null) dto = new UpdateSettingsDTO();
         surveyService.updateSettings(id, userId, dto.getLimitOncePerUser(), dto.getAllowAnonymous(),
                 dto.getStartTime(), dto.getEndTime(), dto.getThankYouText(),
-                dto.getLimitByIp(), dto.getLimitByDevice());
+                dto.getLimitByIp(), dto.getLimitByDevice(), dto.getDraftTtlHours());
         return Result.ok();
     }
 
@@ -99,11 +102,17 @@ public class SurveyController {
         return Result.ok(surveyService.copy(id, userId));
     }
 
+    /** 软删除并异步清理；dryRun=true 只返回将被删除的行数 */
     @DeleteMapping("/{id}")
-    public Result<Void> delete(@PathVariable String id) {
+    public Result<SurveyPurgeVO> delete(@PathVariable String id, @RequestParam(defaultValue = "false") boolean dryRun) {
         String userId = SecurityUtils.getCurrentUserId();
-        surveyService.delete(id, userId);
-        return Result.ok();
+        return Result.ok(surveyService.delete(id, userId, dryRun));
+    }
+
+    @GetMapping("/{id}/purge")
+    public Result<SurveyPurgeVO> getPurgeProgress(@PathVariable String id) {
+        String userId = SecurityUtils.getCurrentUserId();
+        return Result.ok(surveyService.getPurgeProgress(id, userId));
     }
 
     @GetMapping("/{id}/fill-url")
@@ -145,6 +154,13 @@ public class SurveyController {
         return Result.ok(surveyService.copyQuestion(surveyId, questionId, userId));
     }
 
+    /** 整卷保存：提交完整有序题目列表，服务端比对后批量增删改 */
+    @PutMapping("/{surveyId}/questions:bulk")
+    public Result<BulkSaveQuestionsResult> bulkSaveQuestions(@PathVariable String surveyId, @RequestBody BulkSaveQuestionsDTO dto) {
+        String userId = SecurityUtils.getCurrentUserId();
+        return Result.ok(surveyService.bulkSaveQuestions(surveyId, userId, dto));
+    }
+
     @DeleteMapping("/{surveyId}/questions/{questionId}")
     public Result<Void> deleteQuestion(@PathVariable String surveyId, @PathVariable Long questionId) {
         String userId = SecurityUtils.getCurrentUserId();
@@ -157,9 +173,23 @@ public class SurveyController {
     public Result<ResponseListResponse> listResponses(
             @PathVariable String id,
             @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "20") int pageSize,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean withTotal,
+            ResponseFilter filter) {
+        String userId = SecurityUtils.getCurrentUserId();
+        return Result.ok(surveyService.listResponses(id, userId, page, pageSize, cursor, withTotal, filter));
+    }
+
+    @GetMapping("/{id}/responses/search")
+    public Result<ResponseSearchResponse> searchResponses(
+            @PathVariable String id,
+            @RequestParam String q,
+            @RequestParam(required = false) Long questionId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int pageSize) {
         String userId = SecurityUtils.getCurrentUserId();
-        return Result.ok(surveyService.listResponses(id, userId, page, pageSize));
+        return Result.ok(surveyService.searchResponses(id, userId, q, questionId, cursor, pageSize));
     }
 
     @GetMapping("/{surveyId}/responses/{responseId}")
@@ -174,13 +204,18 @@ public class SurveyController {
         return Result.ok(surveyService.getAnalytics(id, userId));
     }
 
-    @GetMapping(value = "/{id}/export", produces = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
-    public ResponseEntity<byte[]> exportResponses(@PathVariable String id) {
+    /**
+     * 导出答卷。format=xlsx（默认）| parquet；权限在开始写出前校验，答卷按批次流式写入响应
+     */
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportResponses(@PathVariable String id,
+                                                                 @RequestParam(required = false) String format) {
         String userId = SecurityUtils.getCurrentUserId();
-        byte[] body = surveyService.exportResponses(id, userId);
+        ExportFormat exportFormat = ExportFormat.of(format);
+        ResponseExportTask task = surveyService.exportResponses(id, userId, exportFormat);
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"responses-" + id + ".xlsx\"");
-        return ResponseEntity.ok().headers(headers).body(body);
+        headers.setContentType(MediaType.parseMediaType(exportFormat.getContentType()));
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"responses-" + id + "." + exportFormat.getExtension() + "\"");
+        return ResponseEntity.ok().headers(headers).body(task::writeTo);
     }
 }
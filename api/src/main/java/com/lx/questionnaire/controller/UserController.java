@@ -3,18 +3,22 @@ package com.lx.questionnaire.controller;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.lx.questionnaire.common.PaginatedResponse;
 import com.lx.questionnaire.common.Result;
+import com.lx.questionnaire.dto.UserImportResult;
 import com.lx.questionnaire.entity.User;
+import com.lx.questionnaire.service.UserImportService;
 import com.lx.questionnaire.service.UserService;
 import com.lx.questionnaire.common.BusinessException;
 import com.lx.questionnaire.common.ErrorCode;
 import com.lx.questionnaire.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
 /**
- * 用户管理（校管）：列表、详情、创建、更新、删除。
+ * 用户管理（校管）：列表、详情、创建、更新、删除、批量导入。
  */
 @RestController
 @RequestMapping("/api/users")
@@ -24,6 +28,7 @@ public class UserController {
     private static final String ROLE_SCHOOL_ADMIN = "SCHOOL_ADMIN";
 
     private final UserService userService;
+    private final UserImportService userImportService;
 
     private void requireSchoolAdmin() {
         String userId = SecurityUtils.getCurrentUserId();
@@ -64,6 +69,13 @@ public class UserController {
         return Result.ok();
     }
 
+    /** 批量导入（CSV / XLSX），返回逐行错误报告 */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Result<UserImportResult> importUsers(@RequestParam("file") MultipartFile file) {
+        requireSchoolAdmin();
+        return Result.ok(userImportService.importUsers(file, SecurityUtils.getCurrentUserId()));
+    }
+
     @PutMapping("/{id}")
     public Result<Void> updateUser(@PathVariable String id, @RequestBody User user) {
         requireSchoolAdmin();
@@ -78,6 +90,14 @@ public class UserController {
         return Result.ok();
     }
 
+    /** 强制该用户在所有设备重新登录（仅无状态令牌模式有效） */
+    @PostMapping("/{id}/revoke-tokens")
+    public Result<Void> revokeTokens(@PathVariable String id) {
+        requireSchoolAdmin();
+        userService.revokeTokens(id);
+        return Result.ok();
+    }
+
     @GetMapping("/{id}/roles")
     public Result<List<Long>> getUserRoleIds(@PathVariable String id) {
         requireSchoolAdmin();
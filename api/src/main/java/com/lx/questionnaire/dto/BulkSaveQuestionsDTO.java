@@ -0,0 +1,17 @@
+package com.lx.questionnaire.dto;
+
+import com.lx.questionnaire.entity.SurveyQuestion;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 整卷保存题目：questions 为完整的有序题目列表，带 id 的视为已有题目，不带 id 的新建，未出现的已有题目删除；
+ * sortOrder 以列表下标为准，忽略请求中的值
+ */
+@Data
+public class BulkSaveQuestionsDTO {
+    /** 编辑器读取题目时的 schemaVersion；为空不校验，不一致时拒绝保存，避免覆盖他人的修改 */
+    private Integer baseSchemaVersion;
+    private List<SurveyQuestion> questions;
+}
@@ -0,0 +1,18 @@
+package com.lx.questionnaire.dto;
+
+import com.lx.questionnaire.entity.SurveyQuestion;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 整卷保存结果：questions 为保存后的题目（新建题目已回填 id），schemaVersion 供下次保存作为 baseSchemaVersion
+ */
+@Data
+public class BulkSaveQuestionsResult {
+    private int schemaVersion;
+    private int inserted;
+    private int updated;
+    private int deleted;
+    private List<SurveyQuestion> questions;
+}
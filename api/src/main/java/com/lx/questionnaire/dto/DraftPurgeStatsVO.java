@@ -0,0 +1,20 @@
+package com.lx.questionnaire.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 草稿清理指标：累计值自进程启动起计，last* 为最近一次运行
+ */
+@Data
+public class DraftPurgeStatsVO {
+    private long responsesRemoved;
+    private long itemsRemoved;
+    private long runs;
+    private LocalDateTime lastRunStartedAt;
+    private long lastRunMillis;
+    private long lastRunResponsesRemoved;
+    /** 最近一次运行结束时仍未清除的最早过期草稿已过期的秒数，0 表示已清完 */
+    private long lagSeconds;
+}
@@ -13,6 +13,8 @@ public class FillSurveyVO {
     private String title;
     private String description;
     private String thankYouText;
+    /** 题目所属的问卷版本；预览时为 null */
+    private Long versionId;
     private List<SurveyQuestion> questions;
 
     public static FillSurveyVO from(Survey s, List<SurveyQuestion> questions) {
@@ -0,0 +1,19 @@
+package com.lx.questionnaire.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PresetOptionSuggestionVO {
+    /** GROUP | CATEGORY | ITEM */
+    private String type;
+    /** 命中的文本：组名、分类名或选项文案 */
+    private String text;
+    private String category;
+    /** type 为 CATEGORY 时为 null */
+    private Long groupId;
+    private String groupName;
+}
@@ -0,0 +1,12 @@
+package com.lx.questionnaire.dto;
+
+import java.util.List;
+
+/**
+ * 启用的预定义选项树快照：树本身、序列化好的响应体（Result 包装后的 JSON）及其 ETag。
+ * 仅在选项库增删改后重建，编辑端打开时直接写出 json，不查库也不再序列化。
+ *
+ * @param etag 基于 json 内容的哈希，多实例间一致
+ */
+public record PresetOptionTreeSnapshot(List<PresetOptionCategoryVO> tree, byte[] json, String etag) {
+}
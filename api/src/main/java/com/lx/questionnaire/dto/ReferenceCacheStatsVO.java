@@ -0,0 +1,18 @@
+package com.lx.questionnaire.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReferenceCacheStatsVO {
+    private String table;
+    private long version;
+    /** 当前缓存条目数 */
+    private long entries;
+    private long hits;
+    private long misses;
+    private double hitRate;
+}
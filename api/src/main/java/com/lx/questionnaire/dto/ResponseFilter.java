@@ -0,0 +1,107 @@
+package com.lx.questionnaire.dto;
+
+import com.lx.questionnaire.common.BusinessException;
+import com.lx.questionnaire.common.ErrorCode;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 答卷列表筛选条件（GET /api/surveys/{id}/responses 的查询参数），各条件之间为 AND。
+ * <p>
+ * answer 可重复，格式 {@code 题目id:操作:值}：
+ * <ul>
+ *   <li>{@code 12:option:1} 选择了下标为 1 的选项（单选/多选）</li>
+ *   <li>{@code 12:scale:3..5} 量表分值在区间内，可省略一端，如 {@code 4..}</li>
+ *   <li>{@code 12:text:关键字} 填空内容包含关键字</li>
+ * </ul>
+ */
+@Data
+public class ResponseFilter {
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime submittedFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime submittedTo;
+    /** 用时下限（秒，含） */
+    private Integer minDuration;
+    /** 用时上限（秒，含） */
+    private Integer maxDuration;
+    private List<String> answer;
+
+    public enum Op { OPTION, SCALE, TEXT }
+
+    /** 解析后的单题条件；SCALE 时 min/max 可为 null，OPTION 时取 min 为选项下标 */
+    public record AnswerPredicate(Long questionId, Op op, Integer min, Integer max, String text) {
+
+        /**
+         * 校验条件与题型匹配：option 仅用于单选/多选，scale 仅用于量表，text 用于填空及选择题的「其他」补充内容；
+         * 不匹配时抛 BusinessException，避免静默返回空结果
+         */
+        public void checkApplicableTo(String questionType) {
+            boolean choice = "SINGLE_CHOICE".equals(questionType) || "MULTIPLE_CHOICE".equals(questionType);
+            boolean applicable = switch (op) {
+                case OPTION -> choice;
+                case SCALE -> "SCALE".equals(questionType);
+                case TEXT -> choice || "SHORT_TEXT".equals(questionType) || "LONG_TEXT".equals(questionType);
+            };
+            if (!applicable) {
+                throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(),
+                        "题目 " + questionId + " 的题型不支持 " + op.name().toLowerCase() + " 筛选"));
+            }
+            if (op == Op.OPTION && min < 0) {
+                throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "选项下标不能为负：" + min));
+            }
+            if (op == Op.SCALE && min != null && max != null && min > max) {
+                throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(),
+                        "量表筛选区间下限大于上限：" + min + ".." + max));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return submittedFrom == null && submittedTo == null && minDuration == null && maxDuration == null
+                && (answer == null || answer.isEmpty());
+    }
+
+    public List<AnswerPredicate> parseAnswers() {
+        List<AnswerPredicate> result = new ArrayList<>();
+        if (answer == null) return result;
+        for (String raw : answer) {
+            if (raw == null || raw.isBlank()) continue;
+            String[] parts = raw.split(":", 3);
+            if (parts.length < 3 || parts[2].isEmpty()) throw invalid(raw);
+            try {
+                Long questionId = Long.valueOf(parts[0].trim());
+                switch (parts[1].trim().toLowerCase()) {
+                    case "option" -> result.add(new AnswerPredicate(questionId, Op.OPTION, Integer.valueOf(parts[2].trim()), null, null));
+                    case "scale" -> {
+                        String range = parts[2].trim();
+                        int sep = range.indexOf("..");
+                        if (sep < 0) {
+                            Integer v = Integer.valueOf(range);
+                            result.add(new AnswerPredicate(questionId, Op.SCALE, v, v, null));
+                        } else {
+                            String lo = range.substring(0, sep).trim();
+                            String hi = range.substring(sep + 2).trim();
+                            if (lo.isEmpty() && hi.isEmpty()) throw invalid(raw);
+                            result.add(new AnswerPredicate(questionId, Op.SCALE,
+                                    lo.isEmpty() ? null : Integer.valueOf(lo), hi.isEmpty() ? null : Integer.valueOf(hi), null));
+                        }
+                    }
+                    case "text" -> result.add(new AnswerPredicate(questionId, Op.TEXT, null, null, parts[2]));
+                    default -> throw invalid(raw);
+                }
+            } catch (NumberFormatException e) {
+                throw invalid(raw);
+            }
+        }
+        return result;
+    }
+
+    private static BusinessException invalid(String raw) {
+        return new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "无效的答案筛选条件：" + raw));
+    }
+}
@@ -11,5 +11,8 @@ import java.util.List;
 @NoArgsConstructor
 public class ResponseListResponse {
     private List<ResponseListItemVO> list;
-    private long total;
+    /** 已提交答卷总数；withTotal=false 时不统计，为 null */
+    private Long total;
+    /** 下一页游标，没有更多数据时为 null */
+    private String nextCursor;
 }
@@ -0,0 +1,18 @@
+package com.lx.questionnaire.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class ResponseSearchHitVO {
+    private Long responseId;
+    private Long questionId;
+    private String questionTitle;
+    private LocalDateTime submittedAt;
+    /** 命中内容摘录，截断处带省略号 */
+    private String snippet;
+    /** 关键字在 snippet 中的区间 [start, end) */
+    private List<int[]> highlights;
+}
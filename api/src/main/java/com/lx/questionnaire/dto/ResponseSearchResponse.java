@@ -0,0 +1,16 @@
+package com.lx.questionnaire.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResponseSearchResponse {
+    private List<ResponseSearchHitVO> list;
+    /** 下一页游标，没有更多数据时为 null */
+    private String nextCursor;
+}
@@ -20,8 +20,11 @@ public class SurveyDetailVO {
     private String thankYouText;
     private Integer limitByIp;
     private Integer limitByDevice;
+    private Integer draftTtlHours;
     private java.time.LocalDateTime createdAt;
     private java.time.LocalDateTime updatedAt;
+    /** 题目结构版本，整卷保存时作为 baseSchemaVersion 回传 */
+    private Integer schemaVersion;
     private List<SurveyQuestion> questions;
 
     public static SurveyDetailVO from(Survey s, List<SurveyQuestion> questions) {
@@ -38,8 +41,10 @@ public class SurveyDetailVO {
         vo.setThankYouText(s.getThankYouText());
         vo.setLimitByIp(s.getLimitByIp());
         vo.setLimitByDevice(s.getLimitByDevice());
+        vo.setDraftTtlHours(s.getDraftTtlHours());
         vo.setCreatedAt(s.getCreatedAt());
         vo.setUpdatedAt(s.getUpdatedAt());
+        vo.setSchemaVersion(s.getSchemaVersion());
         vo.setQuestions(questions);
         return vo;
     }
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * 问卷列表按权限范围的过滤条件（基于 survey.creator_id / survey.department_id，不拉取大批 creator 列表）。
  */
@@ -15,8 +17,8 @@ public class SurveyListFilter {
     private boolean allowAll;
     /** 仅本人：按创建人过滤 */
     private String creatorId;
-    /** 本院系：按问卷归属院系过滤（department_id 为 null 的问卷仅本人可见） */
-    private Long departmentId;
+    /** 本院系及下级院系：按问卷归属院系 IN 过滤（department_id 为 null 的问卷仅本人可见） */
+    private List<Long> departmentIds;
 
     public static SurveyListFilter noAccess() {
         return new SurveyListFilter(false, null, null);
@@ -0,0 +1,48 @@
+package com.lx.questionnaire.dto;
+
+import com.lx.questionnaire.entity.SurveyPurgeTask;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 问卷删除结果与清理进度；dryRun 时各 removed 字段为将要删除的行数，问卷本身不受影响
+ */
+@Data
+public class SurveyPurgeVO {
+    private String surveyId;
+    private boolean dryRun;
+    /** PENDING / RUNNING / DONE / FAILED；dryRun 时为 null */
+    private String status;
+    private long questionsRemoved;
+    private long responsesRemoved;
+    private long itemsRemoved;
+    private long versionsRemoved;
+    /** 删除时的答卷总数，与 responsesRemoved 对比即为进度 */
+    private long responsesTotal;
+    private String error;
+    /** 失败后的下次重试时间 */
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+
+    public static SurveyPurgeVO from(SurveyPurgeTask t) {
+        SurveyPurgeVO vo = new SurveyPurgeVO();
+        vo.setSurveyId(t.getSurveyId());
+        vo.setStatus(t.getStatus());
+        vo.setQuestionsRemoved(orZero(t.getQuestionsRemoved()));
+        vo.setResponsesRemoved(orZero(t.getResponsesRemoved()));
+        vo.setItemsRemoved(orZero(t.getItemsRemoved()));
+        vo.setVersionsRemoved(orZero(t.getVersionsRemoved()));
+        vo.setResponsesTotal(orZero(t.getResponsesTotal()));
+        vo.setError(t.getError());
+        vo.setNextAttemptAt(t.getNextAttemptAt());
+        vo.setCreatedAt(t.getCreatedAt());
+        vo.setFinishedAt(t.getFinishedAt());
+        return vo;
+    }
+
+    private static long orZero(Long v) {
+        return v != null ? v : 0;
+    }
+}
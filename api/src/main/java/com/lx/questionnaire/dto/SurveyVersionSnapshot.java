@@ -0,0 +1,20 @@
+package com.lx.questionnaire.dto;
+
+import com.lx.questionnaire.entity.SurveyQuestion;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 已冻结的问卷版本：按顺序的题目、按题目 id 的索引及解析好的题型配置。
+ * 版本不可变，快照可无限期缓存，题目对象为共享实例，调用方不得修改。
+ *
+ * @param configs 题目 id → 解析后的 config，config 为空或非法时为空 Map
+ */
+public record SurveyVersionSnapshot(Long id, String surveyId, int schemaVersion, List<SurveyQuestion> questions,
+                                    Map<Long, SurveyQuestion> questionMap, Map<Long, Map<String, Object>> configs) {
+
+    public Map<String, Object> config(Long questionId) {
+        return configs.getOrDefault(questionId, Map.of());
+    }
+}
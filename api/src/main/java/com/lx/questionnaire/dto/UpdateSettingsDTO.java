@@ -15,4 +15,6 @@ public class UpdateSettingsDTO {
     private Integer limitByIp;
     /** 每设备限填次数，0=不限制 */
     private Integer limitByDevice;
+    /** 草稿保留小时数，0=使用系统默认 */
+    private Integer draftTtlHours;
 }
@@ -0,0 +1,23 @@
+package com.lx.questionnaire.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用户批量导入结果：errors 最多保留前 UserImportServiceImpl.MAX_REPORTED_ERRORS 条，超出时 errorsTruncated=true
+ */
+@Data
+public class UserImportResult {
+    /** 数据行数（不含表头） */
+    private int total;
+    /** 新建用户数 */
+    private int created;
+    /** 已存在、按文件内容更新的用户数 */
+    private int updated;
+    private int failed;
+    private List<UserImportRowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+    private long elapsedMillis;
+}
@@ -0,0 +1,15 @@
+package com.lx.questionnaire.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportRowError {
+    /** 文件中的行号（含表头，从 1 开始） */
+    private int rowNumber;
+    private String loginId;
+    private String message;
+}
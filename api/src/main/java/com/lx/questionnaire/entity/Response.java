@@ -23,6 +23,13 @@ public class Response {
     private Integer durationSeconds;
     private String submittedIp;
     private String deviceId;
+    /** 列表摘要（前两题答案），提交时生成；NULL 表示存量数据尚未回填 */
+    private String summary;
+    /** 作答所依据的问卷版本（survey_version.id），存量答卷为 null */
+    private Long surveyVersionId;
+    /** 全部答案的紧凑编码（见 ResponsePayload），response-payload.read-acceleration 开启后提交时写入；体积较大，默认查询不取 */
+    @TableField(select = false)
+    private byte[] responsePayload;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
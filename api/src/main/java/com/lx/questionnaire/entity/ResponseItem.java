@@ -16,7 +16,9 @@ public class ResponseItem {
     private Long questionId;
     private String valueType; // OPTION, TEXT, SCALE
     private Integer optionIndex;
-    private String optionIndices; // JSON array for multiple choice
+    private String optionIndices; // JSON array for multiple choice, still written alongside optionMask
+    /** 多选位图（见 OptionMask），下标超过 63 时为 null */
+    private Long optionMask;
     private String textValue;
     private Integer scaleValue;
     private LocalDateTime createdAt;
@@ -1,7 +1,10 @@
 package com.lx.questionnaire.entity;
 
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
 import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableLogic;
 import com.baomidou.mybatisplus.annotation.TableName;
 import lombok.Data;
 
@@ -14,7 +17,7 @@ public class Survey {
     private String id;
     private String title;
     private String description;
-    private String status; // DRAFT, COLLECTING, PAUSED, ENDED
+    private String status; // DRAFT, SCHEDULED, COLLECTING, PAUSED, ENDED
     private String creatorId;
     /** 问卷归属院系，创建时写入、不跟人走；null 表示无部门/仅本人可见 */
     private Long departmentId;
@@ -27,6 +30,20 @@ public class Survey {
     private Integer limitByIp;
     /** 每设备限填次数，0=不限制 */
     private Integer limitByDevice;
+    /** 草稿保留小时数，null 或 0 使用 draft-purge.default-ttl；问卷截止后草稿立即清理 */
+    private Integer draftTtlHours;
+    /** 已提交答卷数，只由 SurveyMapper.incrementResponseCounts / reconcileResponseCounts 维护，updateById 不回写 */
+    @TableField(insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    private Integer submittedCount;
+    /** 草稿答卷数，维护方式同 submittedCount */
+    @TableField(insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    private Integer draftCount;
+    /** 题目结构版本，只由 SurveyMapper.incrementSchemaVersion 维护，updateById 不回写 */
+    @TableField(insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    private Integer schemaVersion;
+    /** 软删除时间：BaseMapper 的查询自动过滤已删除问卷，deleteById 只打标记，行由 SurveyPurgeJob 清理子表后物理删除 */
+    @TableLogic(value = "null", delval = "now()")
+    private LocalDateTime deletedAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
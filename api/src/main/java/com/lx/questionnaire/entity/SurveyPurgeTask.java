@@ -0,0 +1,32 @@
+package com.lx.questionnaire.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/** 问卷删除后的异步清理任务，进度计数只由 SurveyPurgeTaskMapper.addProgress 累加 */
+@Data
+@TableName("survey_purge_task")
+public class SurveyPurgeTask {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private String surveyId;
+    private String requestedBy;
+    private String status; // PENDING, RUNNING, DONE, FAILED
+    private Long responsesTotal;
+    private Long questionsRemoved;
+    private Long responsesRemoved;
+    private Long itemsRemoved;
+    private Long versionsRemoved;
+    private String error;
+    /** 连续失败次数，有进展时清零 */
+    private Integer attempts;
+    /** 失败后最早的重试时间 */
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,22 @@
+package com.lx.questionnaire.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/** 问卷版本快照，只插入不更新 */
+@Data
+@TableName("survey_version")
+public class SurveyVersion {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private String surveyId;
+    /** 冻结时的 survey.schema_version，(surveyId, schemaVersion) 唯一 */
+    private Integer schemaVersion;
+    /** 题目列表 JSON */
+    private String questions;
+    private LocalDateTime createdAt;
+}
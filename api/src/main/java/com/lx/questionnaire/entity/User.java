@@ -1,7 +1,10 @@
 package com.lx.questionnaire.entity;
 
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -20,4 +23,8 @@ public class User {
     private LocalDateTime updatedAt;
     private String creator;
     private String updator;
+    /** 登录令牌版本，只由 UserMapper.incrementTokenVersion 维护 */
+    @JsonIgnore
+    @TableField(insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    private Integer tokenVersion;
 }
@@ -0,0 +1,160 @@
+package com.lx.questionnaire.job;
+
+import com.lx.questionnaire.config.DraftPurgeProperties;
+import com.lx.questionnaire.dto.DraftPurgeStatsVO;
+import com.lx.questionnaire.entity.Survey;
+import com.lx.questionnaire.mapper.ResponseItemMapper;
+import com.lx.questionnaire.mapper.ResponseMapper;
+import com.lx.questionnaire.mapper.SchedulerLockMapper;
+import com.lx.questionnaire.mapper.SurveyMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 清理过期草稿：按主键游标遍历有草稿的问卷（draft_count &gt; 0），在每个问卷内按草稿主键游标分片，
+ * 每片一个短事务：锁定仍为过期草稿的答卷 → 删答卷项 → 删答卷 → 扣减 draft_count。
+ * 已截止问卷的草稿不再可能提交，全部立即清理；其余按问卷的 draft_ttl_hours（或默认时长）判断。
+ * 分片之间按 maxRowsPerSecond 限速，单次运行超过 maxRunDuration 即停止，剩余部分计入滞后指标。
+ * 多实例部署时通过 scheduler_lock 租约保证同一时刻只有一个实例在删，统计指标只反映本实例的运行。
+ */
+@Slf4j
+@Component
+public class DraftPurgeJob {
+
+    private static final String LOCK_NAME = "draft-purge";
+    private static final int SURVEY_BATCH_SIZE = 200;
+    private static final String STATUS_ENDED = "ENDED";
+
+    private final SurveyMapper surveyMapper;
+    private final ResponseMapper responseMapper;
+    private final ResponseItemMapper responseItemMapper;
+    private final SchedulerLockMapper schedulerLockMapper;
+    private final DraftPurgeProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId;
+
+    private final AtomicLong responsesRemoved = new AtomicLong();
+    private final AtomicLong itemsRemoved = new AtomicLong();
+    private final AtomicLong runs = new AtomicLong();
+    private volatile DraftPurgeStatsVO lastRun = new DraftPurgeStatsVO();
+
+    public DraftPurgeJob(SurveyMapper surveyMapper, ResponseMapper responseMapper, ResponseItemMapper responseItemMapper,
+                         SchedulerLockMapper schedulerLockMapper, DraftPurgeProperties properties,
+                         PlatformTransactionManager transactionManager) {
+        this.surveyMapper = surveyMapper;
+        this.responseMapper = responseMapper;
+        this.responseItemMapper = responseItemMapper;
+        this.schedulerLockMapper = schedulerLockMapper;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    @Scheduled(cron = "${draft-purge.cron:0 */10 * * * *}")
+    public synchronized void run() {
+        if (!properties.isEnabled()) return;
+        // 租约比单次运行上限多留一分钟，运行期间不会被其他实例接手
+        int leaseSeconds = (int) properties.getMaxRunDuration().toSeconds() + 60;
+        if (schedulerLockMapper.tryAcquire(LOCK_NAME, instanceId, leaseSeconds) != 1) return;
+        try {
+            purgeExpired();
+        } finally {
+            schedulerLockMapper.release(LOCK_NAME, instanceId);
+        }
+    }
+
+    private void purgeExpired() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxRunDuration().toNanos();
+        long removedThisRun = 0;
+        RowRateLimiter limiter = new RowRateLimiter(properties.getMaxRowsPerSecond());
+        long lagSeconds = 0;
+
+        String afterSurveyId = "";
+        outer:
+        while (true) {
+            List<Survey> surveys = surveyMapper.selectWithDraftsAfter(afterSurveyId, SURVEY_BATCH_SIZE);
+            if (surveys.isEmpty()) break;
+            for (Survey s : surveys) {
+                LocalDateTime cutoff = cutoffFor(s, LocalDateTime.now());
+                long afterId = 0;
+                while (true) {
+                    if (System.nanoTime() > deadline) {
+                        lagSeconds = lagOf(s.getId(), cutoff);
+                        break outer;
+                    }
+                    List<Long> ids = responseMapper.selectExpiredDraftIds(s.getId(), cutoff, afterId, properties.getChunkSize());
+                    if (ids.isEmpty()) break;
+                    long chunkStart = System.nanoTime();
+                    int[] removed = purgeChunk(s.getId(), ids, cutoff);
+                    removedThisRun += removed[0];
+                    afterId = ids.get(ids.size() - 1);
+                    limiter.pace(chunkStart, removed[0] + removed[1]);
+                }
+            }
+            afterSurveyId = surveys.get(surveys.size() - 1).getId();
+        }
+
+        runs.incrementAndGet();
+        DraftPurgeStatsVO last = new DraftPurgeStatsVO();
+        last.setLastRunStartedAt(startedAt);
+        last.setLastRunMillis(Duration.ofNanos(System.nanoTime() - start).toMillis());
+        last.setLastRunResponsesRemoved(removedThisRun);
+        last.setLagSeconds(lagSeconds);
+        lastRun = last;
+        if (removedThisRun > 0 || lagSeconds > 0) {
+            log.info("Draft purge removed {} drafts in {} ms, lag {} s", removedThisRun, last.getLastRunMillis(), lagSeconds);
+        }
+    }
+
+    public DraftPurgeStatsVO stats() {
+        DraftPurgeStatsVO last = lastRun;
+        DraftPurgeStatsVO vo = new DraftPurgeStatsVO();
+        vo.setResponsesRemoved(responsesRemoved.get());
+        vo.setItemsRemoved(itemsRemoved.get());
+        vo.setRuns(runs.get());
+        vo.setLastRunStartedAt(last.getLastRunStartedAt());
+        vo.setLastRunMillis(last.getLastRunMillis());
+        vo.setLastRunResponsesRemoved(last.getLastRunResponsesRemoved());
+        vo.setLagSeconds(last.getLagSeconds());
+        return vo;
+    }
+
+    /** 删除一片草稿，返回 {答卷数, 答卷项数} */
+    int[] purgeChunk(String surveyId, List<Long> candidateIds, LocalDateTime cutoff) {
+        int[] removed = transactionTemplate.execute(status -> {
+            // 加锁后复核：期间被提交或重新保存的草稿不删
+            List<Long> ids = responseMapper.lockExpiredDrafts(candidateIds, cutoff);
+            if (ids.isEmpty()) return new int[]{0, 0};
+            int items = responseItemMapper.deleteByResponseIds(ids);
+            int responses = responseMapper.deleteDrafts(ids);
+            surveyMapper.incrementResponseCounts(surveyId, 0, -responses);
+            itemsRemoved.addAndGet(items);
+            responsesRemoved.addAndGet(responses);
+            return new int[]{responses, items};
+        });
+        return removed != null ? removed : new int[]{0, 0};
+    }
+
+    LocalDateTime cutoffFor(Survey s, LocalDateTime now) {
+        if (STATUS_ENDED.equals(s.getStatus())) return now;
+        Integer hours = s.getDraftTtlHours();
+        return hours != null && hours > 0 ? now.minusHours(hours) : now.minus(properties.getDefaultTtl());
+    }
+
+    private long lagOf(String surveyId, LocalDateTime cutoff) {
+        LocalDateTime oldest = responseMapper.selectOldestExpiredDraft(surveyId, cutoff);
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, cutoff).getSeconds());
+    }
+}
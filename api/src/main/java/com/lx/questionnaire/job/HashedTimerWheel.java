@@ -0,0 +1,68 @@
+package com.lx.questionnaire.job;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * 哈希时间轮：到期时间按 tick 取模落入槽位，推进时只检查经过的槽位，登记与到期均为 O(1) 摊还。
+ * 超过一圈的任务留在槽内，直到所在 tick 真正到达才取出；推进跨度超过一圈时整轮扫描一次即可。
+ * 不自带线程，由调用方定期 {@link #advance(long)}。
+ */
+class HashedTimerWheel<T> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<LinkedList<Entry<T>>> buckets;
+    /** 下一个待处理的 tick（自纪元起的 tick 序号） */
+    private long nextTick;
+    private int size;
+
+    /**
+     * @param wheelSize 槽位数，须为 2 的幂
+     */
+    HashedTimerWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (Integer.bitCount(wheelSize) != 1) throw new IllegalArgumentException("wheelSize must be a power of two");
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) buckets.add(new LinkedList<>());
+        this.nextTick = startMillis / tickMillis;
+    }
+
+    /** 登记在 deadlineMillis 到期的任务；已过期的在下一次推进时立即返回 */
+    synchronized void schedule(long deadlineMillis, T item) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), nextTick);
+        buckets.get((int) (tick & mask)).add(new Entry<>(tick, item));
+        size++;
+    }
+
+    /** 推进到 nowMillis，返回期间到期的任务（按槽位顺序） */
+    synchronized List<T> advance(long nowMillis) {
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        List<T> expired = new ArrayList<>();
+        if (target < nextTick) return expired;
+        long steps = Math.min(target - nextTick + 1, mask + 1L);
+        for (long i = 0; i < steps; i++) {
+            Iterator<Entry<T>> it = buckets.get((int) ((nextTick + i) & mask)).iterator();
+            while (it.hasNext()) {
+                Entry<T> e = it.next();
+                if (e.tick <= target) {
+                    expired.add(e.item);
+                    it.remove();
+                    size--;
+                }
+            }
+        }
+        nextTick = target + 1;
+        return expired;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private record Entry<T>(long tick, T item) {
+    }
+}
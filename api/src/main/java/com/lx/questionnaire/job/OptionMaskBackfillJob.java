@@ -0,0 +1,67 @@
+package com.lx.questionnaire.job;
+
+import com.lx.questionnaire.mapper.ResponseItemMapper;
+import com.lx.questionnaire.mapper.SchedulerLockMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+/**
+ * 为 V25 之前提交的多选答案回填 response_item.option_mask。
+ * 按主键区间推进，每个区间一条 UPDATE（自动提交），单条语句只锁 RANGE_SIZE 个主键范围内的行；
+ * 上界取首次运行时的最大主键，之后写入的答卷在提交时已带位图，扫到上界后本进程内不再执行。
+ * <p>
+ * 多实例部署时通过 scheduler_lock 租约保证同一时刻只有一个实例在回填。游标只保存在本进程内：
+ * 写入以 option_mask IS NULL 为条件，租约换到别的实例后从头扫描也只会处理仍未回填的行。
+ */
+@Slf4j
+@Component
+public class OptionMaskBackfillJob {
+
+    private static final String LOCK_NAME = "option-mask-backfill";
+    /** 单次运行最多 MAX_RANGES_PER_RUN 个区间，租约留足余量 */
+    private static final int LEASE_SECONDS = 600;
+    private static final int RANGE_SIZE = 5000;
+    /** 单次调度最多处理的区间数，避免长时间占用调度线程 */
+    private static final int MAX_RANGES_PER_RUN = 100;
+
+    private final ResponseItemMapper responseItemMapper;
+    private final SchedulerLockMapper schedulerLockMapper;
+    private final String instanceId;
+
+    private long lastId;
+    private long maxId = -1;
+    private volatile boolean finished;
+
+    public OptionMaskBackfillJob(ResponseItemMapper responseItemMapper, SchedulerLockMapper schedulerLockMapper) {
+        this.responseItemMapper = responseItemMapper;
+        this.schedulerLockMapper = schedulerLockMapper;
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    @Scheduled(initialDelay = 45_000, fixedDelay = 60_000)
+    public synchronized void run() {
+        if (finished) return;
+        if (schedulerLockMapper.tryAcquire(LOCK_NAME, instanceId, LEASE_SECONDS) != 1) return;
+        try {
+            if (maxId < 0) maxId = responseItemMapper.selectMaxId();
+            int filled = 0;
+            for (int range = 0; range < MAX_RANGES_PER_RUN; range++) {
+                if (lastId >= maxId) {
+                    finished = true;
+                    log.info("Option mask backfill finished, last id {}", lastId);
+                    break;
+                }
+                long toId = Math.min(lastId + RANGE_SIZE, maxId);
+                filled += responseItemMapper.backfillOptionMask(lastId + 1, toId);
+                lastId = toId;
+            }
+            if (filled > 0) log.info("Backfilled option mask for {} response items, up to id {}", filled, lastId);
+        } finally {
+            schedulerLockMapper.release(LOCK_NAME, instanceId);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.lx.questionnaire.job;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.lx.questionnaire.entity.Response;
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.mapper.ResponseItemMapper;
+import com.lx.questionnaire.mapper.ResponseMapper;
+import com.lx.questionnaire.mapper.SchedulerLockMapper;
+import com.lx.questionnaire.mapper.SurveyQuestionMapper;
+import com.lx.questionnaire.util.AnswerFormatUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 为 V13 之前提交的答卷回填列表摘要 response.summary。
+ * 按主键游标分批处理，每批只加载涉及问卷的前两题及其答卷项，整批摘要用一条 UPDATE 写回；
+ * 扫到表尾后本进程内不再执行（新答卷在提交时已生成摘要）。
+ * <p>
+ * 多实例部署时通过 scheduler_lock 租约保证同一时刻只有一个实例在回填。游标只保存在本进程内，仅用于跳过已扫过的区间：
+ * 查询与写入都以 summary IS NULL 为条件，租约换到别的实例后从头扫描也只会处理仍未回填的行，不会重复写入或覆盖。
+ */
+@Slf4j
+@Component
+public class ResponseSummaryBackfillJob {
+
+    private static final String LOCK_NAME = "response-summary-backfill";
+    /** 单次运行最多 MAX_BATCHES_PER_RUN 批，租约留足余量 */
+    private static final int LEASE_SECONDS = 600;
+    private static final int BATCH_SIZE = 200;
+    /** 单次调度最多处理的批数，避免长时间占用调度线程 */
+    private static final int MAX_BATCHES_PER_RUN = 50;
+
+    private final ResponseMapper responseMapper;
+    private final ResponseItemMapper responseItemMapper;
+    private final SurveyQuestionMapper surveyQuestionMapper;
+    private final SchedulerLockMapper schedulerLockMapper;
+    private final String instanceId;
+
+    private long lastId;
+    private volatile boolean finished;
+
+    public ResponseSummaryBackfillJob(ResponseMapper responseMapper, ResponseItemMapper responseItemMapper,
+                                      SurveyQuestionMapper surveyQuestionMapper, SchedulerLockMapper schedulerLockMapper) {
+        this.responseMapper = responseMapper;
+        this.responseItemMapper = responseItemMapper;
+        this.surveyQuestionMapper = surveyQuestionMapper;
+        this.schedulerLockMapper = schedulerLockMapper;
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    @Scheduled(initialDelay = 30_000, fixedDelay = 60_000)
+    public synchronized void run() {
+        if (finished) return;
+        if (schedulerLockMapper.tryAcquire(LOCK_NAME, instanceId, LEASE_SECONDS) != 1) return;
+        try {
+            int filled = 0;
+            for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+                List<Response> records = responseMapper.selectWithoutSummary(lastId, BATCH_SIZE);
+                if (records.isEmpty()) {
+                    finished = true;
+                    log.info("Response summary backfill finished, last id {}", lastId);
+                    break;
+                }
+                filled += backfill(records);
+                lastId = records.get(records.size() - 1).getId();
+            }
+            if (filled > 0) log.info("Backfilled summary for {} responses, up to id {}", filled, lastId);
+        } finally {
+            schedulerLockMapper.release(LOCK_NAME, instanceId);
+        }
+    }
+
+    private int backfill(List<Response> records) {
+        List<Response> updates = new ArrayList<>(records.size());
+        Map<String, List<Response>> bySurvey = records.stream().collect(Collectors.groupingBy(Response::getSurveyId));
+        for (Map.Entry<String, List<Response>> e : bySurvey.entrySet()) {
+            List<SurveyQuestion> questions = surveyQuestionMapper.selectList(new LambdaQueryWrapper<SurveyQuestion>()
+                    .eq(SurveyQuestion::getSurveyId, e.getKey()).orderByAsc(SurveyQuestion::getSortOrder)
+                    .last("LIMIT " + AnswerFormatUtils.SUMMARY_QUESTION_COUNT));
+            List<Long> responseIds = e.getValue().stream().map(Response::getId).toList();
+            Map<Long, Map<Long, ResponseItem>> itemsByResponse = questions.isEmpty() ? Map.of()
+                    : responseItemMapper.selectList(new LambdaQueryWrapper<ResponseItem>()
+                            .in(ResponseItem::getResponseId, responseIds)
+                            .in(ResponseItem::getQuestionId, questions.stream().map(SurveyQuestion::getId).toList()))
+                    .stream()
+                    .collect(Collectors.groupingBy(ResponseItem::getResponseId,
+                            Collectors.toMap(ResponseItem::getQuestionId, x -> x, (a, b) -> a)));
+            for (Long id : responseIds) {
+                Response u = new Response();
+                u.setId(id);
+                u.setSummary(AnswerFormatUtils.buildSummary(questions, itemsByResponse.getOrDefault(id, Map.of())));
+                updates.add(u);
+            }
+        }
+        return responseMapper.fillSummaries(updates);
+    }
+}
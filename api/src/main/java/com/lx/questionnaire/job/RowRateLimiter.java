@@ -0,0 +1,29 @@
+package com.lx.questionnaire.job;
+
+/**
+ * 分片删除的限速：每片结束后按删除行数折算应耗时长，实际更快时补足等待，使平均速率不超过上限
+ */
+class RowRateLimiter {
+
+    private final int maxRowsPerSecond;
+
+    /**
+     * @param maxRowsPerSecond 不大于 0 时不限速
+     */
+    RowRateLimiter(int maxRowsPerSecond) {
+        this.maxRowsPerSecond = maxRowsPerSecond;
+    }
+
+    /** 分片开始时取 System.nanoTime()，结束后连同删除行数传入 */
+    void pace(long chunkStartNanos, long rows) {
+        if (maxRowsPerSecond <= 0 || rows <= 0) return;
+        long budgetNanos = rows * 1_000_000_000L / maxRowsPerSecond;
+        long sleepMillis = (budgetNanos - (System.nanoTime() - chunkStartNanos)) / 1_000_000;
+        if (sleepMillis <= 0) return;
+        try {
+            Thread.sleep(sleepMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
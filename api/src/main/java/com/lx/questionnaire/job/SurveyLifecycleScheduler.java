@@ -0,0 +1,138 @@
+package com.lx.questionnaire.job;
+
+import com.lx.questionnaire.config.SchedulingConfig;
+import com.lx.questionnaire.entity.Survey;
+import com.lx.questionnaire.mapper.SchedulerLockMapper;
+import com.lx.questionnaire.mapper.SurveyMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 问卷生命周期自动流转：每分钟把 LOOKAHEAD 内到点（含已逾期）的转换登记到时间轮——
+ * 待开始问卷的开始时间（SCHEDULED → COLLECTING）与待开始/收集中/暂停问卷的截止时间（→ ENDED），
+ * 每秒推进时间轮，到点即改状态，状态因此可直接用于列表筛选与填写判断。
+ * 每次实际改动后发布 SurveyStatusChangedEvent，供按问卷缓存的组件失效。
+ * <p>
+ * 多实例部署时通过 scheduler_lock 租约选出唯一执行者；状态更新语句本身带状态与时间条件，
+ * 租约交接期间重复执行也是幂等的。时间被改晚后，旧登记到点时条件不满足自然跳过；
+ * 发布或修改时间设置后收到事件立即重新登记，无需等下一次加载。
+ */
+@Slf4j
+@Component
+public class SurveyLifecycleScheduler {
+
+    private static final String LOCK_NAME = "survey-lifecycle";
+    /** 预取窗口须大于加载间隔，保证相邻两次加载之间到点的转换都已入轮 */
+    private static final long LOOKAHEAD_SECONDS = 120;
+    private static final int LEASE_SECONDS = 180;
+    private static final int LOAD_LIMIT = 5000;
+    private static final long TICK_MILLIS = 1000;
+    /** 512 个一秒的槽位，一圈约 8.5 分钟，覆盖预取窗口 */
+    private static final int WHEEL_SIZE = 512;
+
+    /** 一次状态转换：start 为 true 表示开始收集，否则为截止 */
+    record Transition(String surveyId, boolean start) {
+    }
+
+    private final SurveyMapper surveyMapper;
+    private final SchedulerLockMapper schedulerLockMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String instanceId;
+    private final HashedTimerWheel<Transition> wheel;
+    /** 已入轮的转换及其时间点，避免每次加载重复登记 */
+    private final Map<Transition, LocalDateTime> scheduled = new ConcurrentHashMap<>();
+    private volatile boolean leader;
+
+    public SurveyLifecycleScheduler(SurveyMapper surveyMapper, SchedulerLockMapper schedulerLockMapper,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.surveyMapper = surveyMapper;
+        this.schedulerLockMapper = schedulerLockMapper;
+        this.eventPublisher = eventPublisher;
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+        this.wheel = new HashedTimerWheel<>(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelay = 60_000, initialDelay = 5_000, scheduler = SchedulingConfig.LIFECYCLE_SCHEDULER)
+    public void load() {
+        leader = schedulerLockMapper.tryAcquire(LOCK_NAME, instanceId, LEASE_SECONDS) == 1;
+        if (!leader) {
+            scheduled.clear();
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().plusSeconds(LOOKAHEAD_SECONDS);
+        for (Survey s : surveyMapper.selectStartingBefore(before, LOAD_LIMIT)) {
+            register(new Transition(s.getId(), true), s.getStartTime());
+        }
+        for (Survey s : surveyMapper.selectEndingBefore(before, LOAD_LIMIT)) {
+            register(new Transition(s.getId(), false), s.getEndTime());
+        }
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS, scheduler = SchedulingConfig.LIFECYCLE_SCHEDULER)
+    public void tick() {
+        fire(System.currentTimeMillis());
+    }
+
+    /** 推进时间轮并执行到点的转换，返回实际改动的问卷数 */
+    int fire(long nowMillis) {
+        List<Transition> expired = wheel.advance(nowMillis);
+        if (expired.isEmpty() || !leader) return 0;
+        LocalDateTime now = LocalDateTime.now();
+        int changed = 0;
+        for (Transition t : expired) {
+            LocalDateTime at = scheduled.get(t);
+            // 时间被改晚后重新登记过，旧登记跳过
+            if (at == null || at.isAfter(now)) continue;
+            scheduled.remove(t, at);
+            try {
+                int updated = t.start() ? surveyMapper.startIfDue(t.surveyId(), now) : surveyMapper.endIfExpired(t.surveyId(), now);
+                if (updated == 1) {
+                    changed++;
+                    log.info("Survey {} {} automatically at {}", t.surveyId(), t.start() ? "started" : "ended", at);
+                    eventPublisher.publishEvent(new SurveyStatusChangedEvent(t.surveyId()));
+                }
+            } catch (Exception e) {
+                log.warn("Auto-{} failed for survey {}, will retry on next load", t.start() ? "start" : "end", t.surveyId(), e);
+            }
+        }
+        return changed;
+    }
+
+    /** 问卷发布或时间设置变更后（提交后）立即按最新时间重新登记，不必等下一次加载 */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSurveyStatusChanged(SurveyStatusChangedEvent event) {
+        if (!leader) return;
+        Survey s = surveyMapper.selectById(event.surveyId());
+        if (s == null) return;
+        LocalDateTime before = LocalDateTime.now().plusSeconds(LOOKAHEAD_SECONDS);
+        if ("SCHEDULED".equals(s.getStatus()) && s.getStartTime() != null && !s.getStartTime().isAfter(before)) {
+            register(new Transition(s.getId(), true), s.getStartTime());
+        }
+        boolean open = "SCHEDULED".equals(s.getStatus()) || "COLLECTING".equals(s.getStatus()) || "PAUSED".equals(s.getStatus());
+        if (open && s.getEndTime() != null && !s.getEndTime().isAfter(before)) {
+            register(new Transition(s.getId(), false), s.getEndTime());
+        }
+    }
+
+    private void register(Transition t, LocalDateTime at) {
+        if (at.equals(scheduled.put(t, at))) return;
+        wheel.schedule(at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), t);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (leader) schedulerLockMapper.release(LOCK_NAME, instanceId);
+    }
+}
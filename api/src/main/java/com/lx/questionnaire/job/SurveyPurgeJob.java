@@ -0,0 +1,143 @@
+package com.lx.questionnaire.job;
+
+import com.lx.questionnaire.config.SurveyPurgeProperties;
+import com.lx.questionnaire.entity.SurveyPurgeTask;
+import com.lx.questionnaire.mapper.ResponseItemMapper;
+import com.lx.questionnaire.mapper.ResponseMapper;
+import com.lx.questionnaire.mapper.SchedulerLockMapper;
+import com.lx.questionnaire.mapper.SurveyMapper;
+import com.lx.questionnaire.mapper.SurveyPurgeTaskMapper;
+import com.lx.questionnaire.mapper.SurveyQuestionMapper;
+import com.lx.questionnaire.mapper.SurveyVersionMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+/**
+ * 清理已软删除的问卷：逐个处理 survey_purge_task 中未完成的任务，
+ * 先按答卷主键游标分片（每片一个短事务：删答卷项 → 删答卷 → 累加进度），再分批删题目与版本快照，
+ * 最后物理删除问卷行并把任务置为 DONE。问卷软删除后不再接受填写，游标扫到空即说明答卷已清完。
+ * <p>
+ * 每片删除都已提交，中途失败或超过 maxRunDuration 时下次运行从剩余部分继续；
+ * 失败的任务按连续失败次数指数退避（retryBaseDelay 起翻倍，不超过 retryMaxDelay）后再重试；
+ * 多实例部署时通过 scheduler_lock 租约保证同一时刻只有一个实例在删。
+ */
+@Slf4j
+@Component
+public class SurveyPurgeJob {
+
+    private static final String LOCK_NAME = "survey-purge";
+    private static final int TASK_BATCH_SIZE = 20;
+    private static final int ERROR_MAX_LENGTH = 500;
+
+    private final SurveyMapper surveyMapper;
+    private final SurveyQuestionMapper surveyQuestionMapper;
+    private final SurveyVersionMapper surveyVersionMapper;
+    private final ResponseMapper responseMapper;
+    private final ResponseItemMapper responseItemMapper;
+    private final SurveyPurgeTaskMapper surveyPurgeTaskMapper;
+    private final SchedulerLockMapper schedulerLockMapper;
+    private final SurveyPurgeProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId;
+
+    public SurveyPurgeJob(SurveyMapper surveyMapper, SurveyQuestionMapper surveyQuestionMapper,
+                          SurveyVersionMapper surveyVersionMapper, ResponseMapper responseMapper,
+                          ResponseItemMapper responseItemMapper, SurveyPurgeTaskMapper surveyPurgeTaskMapper,
+                          SchedulerLockMapper schedulerLockMapper, SurveyPurgeProperties properties,
+                          PlatformTransactionManager transactionManager) {
+        this.surveyMapper = surveyMapper;
+        this.surveyQuestionMapper = surveyQuestionMapper;
+        this.surveyVersionMapper = surveyVersionMapper;
+        this.responseMapper = responseMapper;
+        this.responseItemMapper = responseItemMapper;
+        this.surveyPurgeTaskMapper = surveyPurgeTaskMapper;
+        this.schedulerLockMapper = schedulerLockMapper;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    @Scheduled(fixedDelay = 5_000, initialDelay = 10_000)
+    public synchronized void run() {
+        if (!properties.isEnabled()) return;
+        // 租约比单次运行上限多留一分钟，运行期间不会被其他实例接手
+        int leaseSeconds = (int) properties.getMaxRunDuration().toSeconds() + 60;
+        if (schedulerLockMapper.tryAcquire(LOCK_NAME, instanceId, leaseSeconds) != 1) return;
+        try {
+            long deadline = System.nanoTime() + properties.getMaxRunDuration().toNanos();
+            RowRateLimiter limiter = new RowRateLimiter(properties.getMaxRowsPerSecond());
+            for (SurveyPurgeTask task : surveyPurgeTaskMapper.selectUnfinished(TASK_BATCH_SIZE)) {
+                if (System.nanoTime() > deadline) break;
+                try {
+                    if (purge(task, deadline, limiter)) {
+                        log.info("Survey {} purged", task.getSurveyId());
+                    }
+                } catch (Exception e) {
+                    log.warn("Purge failed for survey {}, will retry after backoff", task.getSurveyId(), e);
+                    String msg = String.valueOf(e.getMessage());
+                    surveyPurgeTaskMapper.markFailed(task.getId(),
+                            msg.length() > ERROR_MAX_LENGTH ? msg.substring(0, ERROR_MAX_LENGTH) : msg,
+                            properties.getRetryBaseDelay().toSeconds(), properties.getRetryMaxDelay().toSeconds());
+                }
+            }
+        } finally {
+            schedulerLockMapper.release(LOCK_NAME, instanceId);
+        }
+    }
+
+    /** 返回 true 表示已清理完毕；到达 deadline 时返回 false，留待下次继续 */
+    boolean purge(SurveyPurgeTask task, long deadline, RowRateLimiter limiter) {
+        String surveyId = task.getSurveyId();
+        int chunkSize = properties.getChunkSize();
+        long afterId = 0;
+        while (true) {
+            if (System.nanoTime() > deadline) return false;
+            long chunkStart = System.nanoTime();
+            List<Long> ids = responseMapper.selectIdsBySurvey(surveyId, afterId, chunkSize);
+            if (ids.isEmpty()) break;
+            int rows = transactionTemplate.execute(tx -> {
+                int items = responseItemMapper.deleteByResponseIds(ids);
+                int responses = responseMapper.deleteByIds(ids);
+                surveyPurgeTaskMapper.addProgress(task.getId(), 0, responses, items, 0);
+                return responses + items;
+            });
+            afterId = ids.get(ids.size() - 1);
+            limiter.pace(chunkStart, rows);
+        }
+        if (!deleteInChunks(task, deadline, limiter, true,
+                () -> surveyQuestionMapper.deleteBySurveyLimit(surveyId, chunkSize))) return false;
+        if (!deleteInChunks(task, deadline, limiter, false,
+                () -> surveyVersionMapper.deleteBySurveyLimit(surveyId, chunkSize))) return false;
+        transactionTemplate.executeWithoutResult(tx -> {
+            surveyMapper.hardDeleteById(surveyId);
+            surveyPurgeTaskMapper.markDone(task.getId());
+        });
+        return true;
+    }
+
+    /** 反复执行带 LIMIT 的删除直到删不出行；questions 为 false 时计入版本快照 */
+    private boolean deleteInChunks(SurveyPurgeTask task, long deadline, RowRateLimiter limiter,
+                                   boolean questions, IntSupplier deleteChunk) {
+        while (true) {
+            if (System.nanoTime() > deadline) return false;
+            long chunkStart = System.nanoTime();
+            int removed = transactionTemplate.execute(tx -> {
+                int n = deleteChunk.getAsInt();
+                if (n > 0) {
+                    surveyPurgeTaskMapper.addProgress(task.getId(), questions ? n : 0, 0, 0, questions ? 0 : n);
+                }
+                return n;
+            });
+            if (removed == 0) return true;
+            limiter.pace(chunkStart, removed);
+        }
+    }
+}
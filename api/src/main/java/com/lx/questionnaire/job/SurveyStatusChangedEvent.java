@@ -0,0 +1,8 @@
+package com.lx.questionnaire.job;
+
+/**
+ * 问卷状态或起止时间发生变化时发布（发布、暂停、恢复、结束、修改时间设置、删除，以及调度器自动开始/截止）。
+ * 监听方在事务提交后失效与该问卷相关的缓存；SurveyLifecycleScheduler 据此重新登记该问卷的开始/截止时间。
+ */
+public record SurveyStatusChangedEvent(String surveyId) {
+}
@@ -2,8 +2,22 @@ package com.lx.questionnaire.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lx.questionnaire.entity.Account;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface AccountMapper extends BaseMapper<Account> {
+
+    /** uk_login_id_auth_source 冲突时不插入，返回 0；并发时等待先插入方提交后再判定 */
+    @Insert("INSERT IGNORE INTO account (user_id, login_id, auth_source) VALUES (#{userId}, #{loginId}, #{authSource})")
+    int insertIgnore(@Param("userId") String userId, @Param("loginId") String loginId, @Param("authSource") String authSource);
+
+    /** 批量插入 CAS 账号，已存在的 login_id 跳过（导入用） */
+    @Insert("<script>INSERT IGNORE INTO account (user_id, login_id, auth_source) VALUES " +
+            "<foreach collection='list' item='a' separator=','>(#{a.userId}, #{a.loginId}, #{a.authSource})</foreach>" +
+            "</script>")
+    int insertIgnoreBatch(@Param("list") List<Account> accounts);
 }
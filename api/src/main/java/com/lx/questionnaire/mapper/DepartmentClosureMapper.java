@@ -0,0 +1,54 @@
+package com.lx.questionnaire.mapper;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * department_closure 维护；parentId 为 null 表示根院系
+ */
+@Mapper
+public interface DepartmentClosureMapper {
+
+    /** 新建院系：自身一行 + 父院系的每个祖先各一行 */
+    @Insert("INSERT INTO department_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT ancestor_id, #{id}, depth + 1 FROM department_closure WHERE descendant_id = #{parentId} " +
+            "UNION ALL SELECT #{id}, #{id}, 0")
+    int insertNode(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    /** 移动前锁住子树的全部关联行，并发移动同一子树时串行执行 */
+    @Select("SELECT descendant_id FROM department_closure WHERE ancestor_id = #{id} FOR UPDATE")
+    List<Long> lockSubtree(@Param("id") Long id);
+
+    /** 院系的全部祖先（含自身），加共享锁读取最新已提交数据，与并发移动这些祖先子树的事务互斥 */
+    @Select("SELECT ancestor_id FROM department_closure WHERE descendant_id = #{id} FOR SHARE")
+    List<Long> selectAncestorIdsForShare(@Param("id") Long id);
+
+    /** 移动子树第一步：断开子树与原祖先（不含子树内部）的关联 */
+    @Delete("DELETE c FROM department_closure c " +
+            "INNER JOIN department_closure sub ON sub.descendant_id = c.descendant_id AND sub.ancestor_id = #{id} " +
+            "INNER JOIN department_closure sup ON sup.ancestor_id = c.ancestor_id AND sup.descendant_id = #{id} " +
+            "WHERE sup.ancestor_id <> #{id}")
+    int detachSubtree(@Param("id") Long id);
+
+    /** 移动子树第二步：新父院系的每个祖先 × 子树的每个节点 */
+    @Insert("INSERT INTO department_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT sup.ancestor_id, sub.descendant_id, sup.depth + sub.depth + 1 " +
+            "FROM department_closure sup INNER JOIN department_closure sub " +
+            "ON sup.descendant_id = #{parentId} AND sub.ancestor_id = #{id}")
+    int attachSubtree(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    /** 按子树根的新 level 批量修正子树内所有院系的 level */
+    @Update("UPDATE department d INNER JOIN department_closure c ON c.descendant_id = d.id " +
+            "SET d.level = #{rootLevel} + c.depth WHERE c.ancestor_id = #{id}")
+    int updateSubtreeLevels(@Param("id") Long id, @Param("rootLevel") int rootLevel);
+
+    /** 删除叶子院系的全部关联（有子院系时不允许删除） */
+    @Delete("DELETE FROM department_closure WHERE descendant_id = #{id}")
+    int deleteNode(@Param("id") Long id);
+}
@@ -3,8 +3,14 @@ package com.lx.questionnaire.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lx.questionnaire.entity.PresetOptionItem;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Update;
 
 @Mapper
 public interface PresetOptionItemMapper extends BaseMapper<PresetOptionItem> {
-}
 
+    /** 整行覆盖可编辑字段（含置空说明、图片），updateById 会跳过 null 字段 */
+    @Update("UPDATE preset_option_item SET sort_order = #{sortOrder}, label = #{label}, allow_fill = #{allowFill}, " +
+            "description = #{description}, description_open_in_popup = #{descriptionOpenInPopup}, image_url = #{imageUrl} " +
+            "WHERE id = #{id} AND group_id = #{groupId}")
+    int updateContent(PresetOptionItem item);
+}
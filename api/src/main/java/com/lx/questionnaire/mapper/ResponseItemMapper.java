@@ -2,8 +2,68 @@ package com.lx.questionnaire.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lx.questionnaire.entity.ResponseItem;
+import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
 
 @Mapper
 public interface ResponseItemMapper extends BaseMapper<ResponseItem> {
+
+    /** 全文检索语句的执行时长上限（毫秒），超时由 MySQL 中止并报错 3024 */
+    int SEARCH_TIMEOUT_MILLIS = 2000;
+
+    /**
+     * 填空内容全文检索（ft_ri_text，ngram 分词），按答卷项 id 倒序游标翻页；query 为 BOOLEAN MODE 表达式。
+     * 全文索引不区分问卷，MATCH 会先取出全表命中再按问卷过滤，常见关键字的代价随全库数据增长，
+     * 因此只用于答卷量大的问卷，并用 MAX_EXECUTION_TIME 限定最长执行时间
+     */
+    @Select("<script>SELECT /*+ MAX_EXECUTION_TIME(" + SEARCH_TIMEOUT_MILLIS + ") */ ri.id, ri.response_id, ri.question_id, ri.text_value FROM response_item ri " +
+            "JOIN response r ON r.id = ri.response_id " +
+            "WHERE MATCH(ri.text_value) AGAINST(#{query} IN BOOLEAN MODE) " +
+            "AND r.survey_id = #{surveyId} AND r.status = 'SUBMITTED' " +
+            "<if test='questionId != null'>AND ri.question_id = #{questionId} </if>" +
+            "<if test='beforeId != null'>AND ri.id &lt; #{beforeId} </if>" +
+            "ORDER BY ri.id DESC LIMIT #{size}</script>")
+    List<ResponseItem> searchText(@Param("surveyId") String surveyId, @Param("questionId") Long questionId,
+                                  @Param("query") String query, @Param("beforeId") Long beforeId, @Param("size") int size);
+
+    /**
+     * 只扫描本问卷答卷项的 LIKE 检索：关键字短于 ngram_token_size（默认 2）时全文索引无法命中，
+     * 答卷量小的问卷也走这里，代价只与本问卷的数据量有关
+     */
+    @Select("<script>SELECT ri.id, ri.response_id, ri.question_id, ri.text_value FROM response_item ri " +
+            "JOIN response r ON r.id = ri.response_id " +
+            "WHERE r.survey_id = #{surveyId} AND r.status = 'SUBMITTED' AND ri.text_value LIKE #{pattern} " +
+            "<if test='questionId != null'>AND ri.question_id = #{questionId} </if>" +
+            "<if test='beforeId != null'>AND ri.id &lt; #{beforeId} </if>" +
+            "ORDER BY ri.id DESC LIMIT #{size}</script>")
+    List<ResponseItem> searchTextLike(@Param("surveyId") String surveyId, @Param("questionId") Long questionId,
+                                      @Param("pattern") String pattern, @Param("beforeId") Long beforeId, @Param("size") int size);
+
+    @Delete("<script>DELETE FROM response_item WHERE response_id IN " +
+            "<foreach collection='responseIds' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int deleteByResponseIds(@Param("responseIds") List<Long> responseIds);
+
+    /** 问卷清理预演：该问卷全部答卷项数 */
+    @Select("SELECT COUNT(*) FROM response_item ri JOIN response r ON r.id = ri.response_id WHERE r.survey_id = #{surveyId}")
+    long countBySurvey(@Param("surveyId") String surveyId);
+
+    @Select("SELECT COALESCE(MAX(id), 0) FROM response_item")
+    long selectMaxId();
+
+    /**
+     * 回填主键在 [fromId, toId] 内、尚无位图的多选答案：展开 JSON 数组求按位或，第 63 位按补码存为负数；
+     * 下标超出 0..63 的保持 NULL。每次只锁一个主键区间
+     */
+    @Update("UPDATE response_item ri " +
+            "JOIN (SELECT r.id, BIT_OR(1 << j.idx) AS mask, MIN(j.idx) AS min_idx, MAX(j.idx) AS max_idx " +
+            "FROM response_item r, JSON_TABLE(r.option_indices, '$[*]' COLUMNS (idx INT PATH '$')) j " +
+            "WHERE r.id BETWEEN #{fromId} AND #{toId} AND r.option_mask IS NULL " +
+            "AND r.option_indices IS NOT NULL AND JSON_VALID(r.option_indices) GROUP BY r.id) m ON m.id = ri.id " +
+            "SET ri.option_mask = CAST(m.mask AS SIGNED) WHERE m.min_idx >= 0 AND m.max_idx < 64")
+    int backfillOptionMask(@Param("fromId") long fromId, @Param("toId") long toId);
 }
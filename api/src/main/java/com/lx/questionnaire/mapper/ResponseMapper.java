@@ -2,15 +2,77 @@ package com.lx.questionnaire.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lx.questionnaire.entity.Response;
+import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
 public interface ResponseMapper extends BaseMapper<Response> {
 
-    @Select("SELECT id, survey_id, user_id, status, submitted_at, duration_seconds, submitted_ip, device_id, created_at, updated_at FROM response WHERE survey_id = #{surveyId} AND status = 'SUBMITTED' ORDER BY submitted_at DESC LIMIT #{size} OFFSET #{offset}")
-    List<Response> selectPageBySurveyId(@Param("surveyId") String surveyId, @Param("offset") long offset, @Param("size") long size);
+    /**
+     * 导出用：按 (submitted_at, id) 升序游标分批读取已提交答卷，afterAt 为 null 时从头开始；走 idx_response_survey_status_submitted。
+     * 带上 response_payload，有编码的答卷不必再查答卷项
+     */
+    @Select("<script>SELECT id, survey_id, user_id, status, submitted_at, duration_seconds, submitted_ip, device_id, survey_version_id, " +
+            "response_payload, created_at, updated_at FROM response WHERE survey_id = #{surveyId} AND status = 'SUBMITTED' AND submitted_at IS NOT NULL " +
+            "<if test='afterAt != null'>AND (submitted_at > #{afterAt} OR (submitted_at = #{afterAt} AND id > #{afterId})) </if>" +
+            "ORDER BY submitted_at, id LIMIT #{size}</script>")
+    List<Response> selectSubmittedAfter(@Param("surveyId") String surveyId, @Param("afterAt") LocalDateTime afterAt,
+                                        @Param("afterId") long afterId, @Param("size") int size);
+
+    /** 导出用：submitted_at 为 NULL 的存量已提交答卷，按主键游标 */
+    @Select("SELECT id, survey_id, user_id, status, submitted_at, duration_seconds, submitted_ip, device_id, survey_version_id, " +
+            "response_payload, created_at, updated_at FROM response WHERE survey_id = #{surveyId} AND status = 'SUBMITTED' AND submitted_at IS NULL " +
+            "AND id > #{afterId} ORDER BY id LIMIT #{size}")
+    List<Response> selectSubmittedWithoutTimeAfterId(@Param("surveyId") String surveyId, @Param("afterId") long afterId,
+                                                     @Param("size") int size);
+
+    /** 统计用：按主键游标分批读取已提交答卷的编码答案（存量答卷为 NULL）与作答时的版本 */
+    @Select("SELECT id, survey_version_id, response_payload FROM response WHERE survey_id = #{surveyId} AND status = 'SUBMITTED' " +
+            "AND id > #{afterId} ORDER BY id LIMIT #{size}")
+    List<Response> selectPayloadsAfterId(@Param("surveyId") String surveyId, @Param("afterId") long afterId, @Param("size") int size);
+
+    @Select("SELECT id, response_payload FROM response WHERE id = #{id}")
+    Response selectPayloadById(@Param("id") Long id);
+
+    /** 摘要回填：按主键游标取尚未生成摘要的已提交答卷 */
+    @Select("SELECT id, survey_id FROM response WHERE status = 'SUBMITTED' AND summary IS NULL AND id > #{afterId} ORDER BY id LIMIT #{size}")
+    List<Response> selectWithoutSummary(@Param("afterId") long afterId, @Param("size") int size);
+
+    /** 批量回填摘要，一条语句；仅在仍为 NULL 时写入，避免覆盖回填期间重新提交生成的摘要，返回实际写入数 */
+    @Update("<script>UPDATE response SET summary = CASE id " +
+            "<foreach collection='list' item='r'>WHEN #{r.id} THEN #{r.summary} </foreach>END " +
+            "WHERE summary IS NULL AND id IN " +
+            "<foreach collection='list' item='r' open='(' separator=',' close=')'>#{r.id}</foreach></script>")
+    int fillSummaries(@Param("list") List<Response> list);
+
+    /** 草稿清理：按主键游标取某问卷在 cutoff 之前最后更新的草稿，走 (survey_id, status, submitted_at, id) 索引 */
+    @Select("SELECT id FROM response WHERE survey_id = #{surveyId} AND status = 'DRAFT' AND submitted_at IS NULL " +
+            "AND id > #{afterId} AND updated_at < #{cutoff} ORDER BY id LIMIT #{size}")
+    List<Long> selectExpiredDraftIds(@Param("surveyId") String surveyId, @Param("cutoff") LocalDateTime cutoff,
+                                     @Param("afterId") long afterId, @Param("size") int size);
+
+    /** 锁定仍为过期草稿的答卷，与同时发生的提交串行；返回锁住的 id */
+    @Select("<script>SELECT id FROM response WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND status = 'DRAFT' AND updated_at &lt; #{cutoff} FOR UPDATE</script>")
+    List<Long> lockExpiredDrafts(@Param("ids") List<Long> ids, @Param("cutoff") LocalDateTime cutoff);
+
+    @Delete("<script>DELETE FROM response WHERE status = 'DRAFT' AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int deleteDrafts(@Param("ids") List<Long> ids);
+
+    /** 清理运行结束时仍未清除的最早过期草稿的更新时间，用于计算滞后 */
+    @Select("SELECT MIN(updated_at) FROM response WHERE survey_id = #{surveyId} AND status = 'DRAFT' " +
+            "AND submitted_at IS NULL AND updated_at < #{cutoff}")
+    LocalDateTime selectOldestExpiredDraft(@Param("surveyId") String surveyId, @Param("cutoff") LocalDateTime cutoff);
+
+    /** 问卷清理：按主键游标取该问卷的答卷（不分状态），走 idx_response_survey */
+    @Select("SELECT id FROM response WHERE survey_id = #{surveyId} AND id > #{afterId} ORDER BY id LIMIT #{size}")
+    List<Long> selectIdsBySurvey(@Param("surveyId") String surveyId, @Param("afterId") long afterId, @Param("size") int size);
 }
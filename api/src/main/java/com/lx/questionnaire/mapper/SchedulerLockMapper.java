@@ -0,0 +1,21 @@
+package com.lx.questionnaire.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+@Mapper
+public interface SchedulerLockMapper {
+
+    /**
+     * 租约已过期或本来就由 owner 持有时，续期 leaseSeconds 秒并返回 1；否则返回 0。
+     * 到期判断统一用数据库时钟，不受各实例时钟偏差影响
+     */
+    @Update("UPDATE scheduler_lock SET owner = #{owner}, lease_until = NOW(3) + INTERVAL #{leaseSeconds} SECOND " +
+            "WHERE name = #{name} AND (lease_until < NOW(3) OR owner = #{owner})")
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner, @Param("leaseSeconds") int leaseSeconds);
+
+    /** 停机时主动释放，其他实例无需等租约过期 */
+    @Update("UPDATE scheduler_lock SET lease_until = '1970-01-01 00:00:00' WHERE name = #{name} AND owner = #{owner}")
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
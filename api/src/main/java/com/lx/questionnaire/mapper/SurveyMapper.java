@@ -2,8 +2,78 @@ package com.lx.questionnaire.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lx.questionnaire.entity.Survey;
+import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Mapper
 public interface SurveyMapper extends BaseMapper<Survey> {
+
+    /**
+     * 原子增减答卷计数（须与答卷写入处于同一事务）；显式保留 updated_at，答卷变化不影响问卷的「最近更新」排序
+     */
+    @Update("UPDATE survey SET submitted_count = submitted_count + #{submittedDelta}, " +
+            "draft_count = GREATEST(draft_count + #{draftDelta}, 0), updated_at = updated_at WHERE id = #{surveyId}")
+    int incrementResponseCounts(@Param("surveyId") String surveyId, @Param("submittedDelta") int submittedDelta,
+                                @Param("draftDelta") int draftDelta);
+
+    /** 按 response 表重算单个问卷的计数 */
+    @Update("UPDATE survey s SET " +
+            "s.submitted_count = (SELECT COUNT(*) FROM response r WHERE r.survey_id = s.id AND r.status = 'SUBMITTED'), " +
+            "s.draft_count = (SELECT COUNT(*) FROM response r WHERE r.survey_id = s.id AND r.status = 'DRAFT'), " +
+            "s.updated_at = s.updated_at WHERE s.id = #{surveyId}")
+    int reconcileResponseCounts(@Param("surveyId") String surveyId);
+
+    /** 校正任务按主键游标遍历问卷 */
+    @Select("SELECT id FROM survey WHERE deleted_at IS NULL AND id > #{afterId} ORDER BY id LIMIT #{size}")
+    List<String> selectIdsAfter(@Param("afterId") String afterId, @Param("size") int size);
+
+    /** 题目结构变更后递增版本（与题目写入同一事务） */
+    @Update("UPDATE survey SET schema_version = schema_version + 1 WHERE id = #{surveyId}")
+    int incrementSchemaVersion(@Param("surveyId") String surveyId);
+
+    /** 整卷保存时锁定问卷行并读取题目结构版本，与其他题目写入串行化 */
+    @Select("SELECT schema_version FROM survey WHERE id = #{surveyId} FOR UPDATE")
+    Integer selectSchemaVersionForUpdate(@Param("surveyId") String surveyId);
+
+    /** 冻结版本快照时读取结构版本；与题目在同一事务快照内读取，二者一致 */
+    @Select("SELECT schema_version FROM survey WHERE id = #{surveyId}")
+    Integer selectSchemaVersion(@Param("surveyId") String surveyId);
+
+    /** 待开始、收集中或暂停、截止时间不晚于 before 的问卷（只取 id 与 end_time），走 idx_survey_status_end */
+    @Select("SELECT id, end_time FROM survey WHERE status IN ('SCHEDULED', 'COLLECTING', 'PAUSED') " +
+            "AND end_time IS NOT NULL AND end_time <= #{before} AND deleted_at IS NULL ORDER BY end_time LIMIT #{limit}")
+    List<Survey> selectEndingBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /** 到期截止；状态或截止时间已被改动时不生效，返回 0，多实例重复执行也只有一次生效 */
+    @Update("UPDATE survey SET status = 'ENDED' WHERE id = #{surveyId} AND status IN ('SCHEDULED', 'COLLECTING', 'PAUSED') " +
+            "AND end_time IS NOT NULL AND end_time <= #{now} AND deleted_at IS NULL")
+    int endIfExpired(@Param("surveyId") String surveyId, @Param("now") LocalDateTime now);
+
+    /** 待开始、开始时间不晚于 before 的问卷（只取 id 与 start_time），走 idx_survey_status_start */
+    @Select("SELECT id, start_time FROM survey WHERE status = 'SCHEDULED' " +
+            "AND start_time IS NOT NULL AND start_time <= #{before} AND deleted_at IS NULL ORDER BY start_time LIMIT #{limit}")
+    List<Survey> selectStartingBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /** 到点开始收集；已截止的不开始（交给截止转换直接置为 ENDED），条件同样保证多实例只生效一次 */
+    @Update("UPDATE survey SET status = 'COLLECTING' WHERE id = #{surveyId} AND status = 'SCHEDULED' " +
+            "AND start_time <= #{now} AND (end_time IS NULL OR end_time > #{now}) AND deleted_at IS NULL")
+    int startIfDue(@Param("surveyId") String surveyId, @Param("now") LocalDateTime now);
+
+    /** 草稿清理：按主键游标取有草稿的问卷（只取 id、status、draft_ttl_hours） */
+    @Select("SELECT id, status, draft_ttl_hours FROM survey WHERE draft_count > 0 AND deleted_at IS NULL AND id > #{afterId} ORDER BY id LIMIT #{size}")
+    List<Survey> selectWithDraftsAfter(@Param("afterId") String afterId, @Param("size") int size);
+
+    /** 含已软删除的问卷（删除后查询清理进度时做权限判断） */
+    @Select("SELECT * FROM survey WHERE id = #{surveyId}")
+    Survey selectByIdIncludingDeleted(@Param("surveyId") String surveyId);
+
+    /** 清理完成后物理删除问卷行；只删已软删除的，防止误删 */
+    @Delete("DELETE FROM survey WHERE id = #{surveyId} AND deleted_at IS NOT NULL")
+    int hardDeleteById(@Param("surveyId") String surveyId);
 }
@@ -0,0 +1,42 @@
+package com.lx.questionnaire.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.lx.questionnaire.entity.SurveyPurgeTask;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+@Mapper
+public interface SurveyPurgeTaskMapper extends BaseMapper<SurveyPurgeTask> {
+
+    @Select("SELECT * FROM survey_purge_task WHERE survey_id = #{surveyId}")
+    SurveyPurgeTask selectBySurveyId(@Param("surveyId") String surveyId);
+
+    /** 未完成的任务（含已到重试时间的失败任务），按登记顺序 */
+    @Select("SELECT * FROM survey_purge_task WHERE status <> 'DONE' " +
+            "AND (next_attempt_at IS NULL OR next_attempt_at <= NOW()) ORDER BY id LIMIT #{limit}")
+    List<SurveyPurgeTask> selectUnfinished(@Param("limit") int limit);
+
+    /** 累加进度（与对应分片的删除处于同一事务），同时把状态置为 RUNNING 并清除上次的失败原因与退避 */
+    @Update("UPDATE survey_purge_task SET status = 'RUNNING', error = NULL, attempts = 0, next_attempt_at = NULL, " +
+            "questions_removed = questions_removed + #{questions}, responses_removed = responses_removed + #{responses}, " +
+            "items_removed = items_removed + #{items}, versions_removed = versions_removed + #{versions} WHERE id = #{id}")
+    int addProgress(@Param("id") Long id, @Param("questions") long questions, @Param("responses") long responses,
+                    @Param("items") long items, @Param("versions") long versions);
+
+    @Update("UPDATE survey_purge_task SET status = 'DONE', error = NULL, attempts = 0, next_attempt_at = NULL, finished_at = NOW() WHERE id = #{id}")
+    int markDone(@Param("id") Long id);
+
+    /**
+     * 记录失败并按连续失败次数指数退避：第 n 次失败后等待 baseSeconds * 2^(n-1) 秒，不超过 maxSeconds。
+     * MySQL 按书写顺序求值 SET，next_attempt_at 须写在 attempts 自增之前
+     */
+    @Update("UPDATE survey_purge_task SET status = 'FAILED', error = #{error}, " +
+            "next_attempt_at = NOW() + INTERVAL LEAST(#{baseSeconds} * POW(2, LEAST(attempts, 20)), #{maxSeconds}) SECOND, " +
+            "attempts = attempts + 1 WHERE id = #{id}")
+    int markFailed(@Param("id") Long id, @Param("error") String error,
+                   @Param("baseSeconds") long baseSeconds, @Param("maxSeconds") long maxSeconds);
+}
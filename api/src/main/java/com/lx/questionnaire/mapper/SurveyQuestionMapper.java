@@ -2,8 +2,59 @@ package com.lx.questionnaire.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lx.questionnaire.entity.SurveyQuestion;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface SurveyQuestionMapper extends BaseMapper<SurveyQuestion> {
+
+    /** 多行插入，自增 id 按顺序回填到 list 元素 */
+    @Insert("<script>INSERT INTO survey_question (survey_id, sort_order, type, title, description, required, config) VALUES " +
+            "<foreach collection='list' item='q' separator=','>" +
+            "(#{q.surveyId}, #{q.sortOrder}, #{q.type}, #{q.title}, #{q.description}, #{q.required}, #{q.config})" +
+            "</foreach></script>")
+    @Options(useGeneratedKeys = true, keyProperty = "list.id", keyColumn = "id")
+    int insertBatch(@Param("list") List<SurveyQuestion> list);
+
+    /**
+     * 按主键批量整行更新：行均已存在，ON DUPLICATE KEY 只走更新分支，一条语句完成。
+     * 调用方须保证 id 属于 surveyId 对应的问卷
+     */
+    @Update("<script>INSERT INTO survey_question (id, survey_id, sort_order, type, title, description, required, config) VALUES " +
+            "<foreach collection='list' item='q' separator=','>" +
+            "(#{q.id}, #{q.surveyId}, #{q.sortOrder}, #{q.type}, #{q.title}, #{q.description}, #{q.required}, #{q.config})" +
+            "</foreach> ON DUPLICATE KEY UPDATE sort_order = VALUES(sort_order), type = VALUES(type), title = VALUES(title), " +
+            "description = VALUES(description), required = VALUES(required), config = VALUES(config)</script>")
+    int updateBatch(@Param("list") List<SurveyQuestion> list);
+
+    @Delete("<script>DELETE FROM survey_question WHERE survey_id = #{surveyId} AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int deleteBatch(@Param("surveyId") String surveyId, @Param("ids") Collection<Long> ids);
+
+    /** 末尾题目的排序键，走 idx_sq_survey_sort 只读一个索引项；无题目时为 null */
+    @Select("SELECT MAX(sort_order) FROM survey_question WHERE survey_id = #{surveyId}")
+    Integer selectMaxSortOrder(@Param("surveyId") String surveyId);
+
+    /** 排序键大于 after 的下一道题的键；没有时为 null */
+    @Select("SELECT MIN(sort_order) FROM survey_question WHERE survey_id = #{surveyId} AND sort_order > #{after}")
+    Integer selectNextSortOrder(@Param("surveyId") String surveyId, @Param("after") int after);
+
+    /** 批量改排序键，一条语句 */
+    @Update("<script>UPDATE survey_question SET sort_order = CASE id " +
+            "<foreach collection='list' item='q'>WHEN #{q.id} THEN #{q.sortOrder} </foreach>END " +
+            "WHERE survey_id = #{surveyId} AND id IN " +
+            "<foreach collection='list' item='q' open='(' separator=',' close=')'>#{q.id}</foreach></script>")
+    int updateSortOrders(@Param("surveyId") String surveyId, @Param("list") List<SurveyQuestion> list);
+
+    /** 问卷清理：每次最多删 limit 道题，返回删除数 */
+    @Delete("DELETE FROM survey_question WHERE survey_id = #{surveyId} LIMIT #{limit}")
+    int deleteBySurveyLimit(@Param("surveyId") String surveyId, @Param("limit") int limit);
 }
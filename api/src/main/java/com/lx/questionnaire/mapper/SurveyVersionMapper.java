@@ -0,0 +1,37 @@
+package com.lx.questionnaire.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.lx.questionnaire.entity.SurveyVersion;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+@Mapper
+public interface SurveyVersionMapper extends BaseMapper<SurveyVersion> {
+
+    @Select("SELECT * FROM survey_version WHERE survey_id = #{surveyId} AND schema_version = #{schemaVersion}")
+    SurveyVersion selectBySchemaVersion(@Param("surveyId") String surveyId, @Param("schemaVersion") int schemaVersion);
+
+    /** 加锁读：读到最新提交的行，不受事务快照影响 */
+    @Select("SELECT * FROM survey_version WHERE survey_id = #{surveyId} AND schema_version = #{schemaVersion} FOR SHARE")
+    SurveyVersion selectBySchemaVersionForShare(@Param("surveyId") String surveyId, @Param("schemaVersion") int schemaVersion);
+
+    /** 并发冻结同一版本时只有一方插入成功，另一方返回 0 后按唯一键加锁回读 */
+    @Insert("INSERT IGNORE INTO survey_version (survey_id, schema_version, questions) " +
+            "VALUES (#{surveyId}, #{schemaVersion}, #{questions})")
+    @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
+    int insertIgnore(SurveyVersion version);
+
+    /** 统计与导出：问卷的全部版本，按选项文案换算各版本的答卷 */
+    @Select("SELECT id FROM survey_version WHERE survey_id = #{surveyId} ORDER BY id")
+    List<Long> selectIdsBySurvey(@Param("surveyId") String surveyId);
+
+    /** 问卷清理：每次最多删 limit 个版本快照，返回删除数 */
+    @Delete("DELETE FROM survey_version WHERE survey_id = #{surveyId} LIMIT #{limit}")
+    int deleteBySurveyLimit(@Param("surveyId") String surveyId, @Param("limit") int limit);
+}
@@ -2,8 +2,32 @@ package com.lx.questionnaire.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lx.questionnaire.entity.User;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
 
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
+
+    /** 用户不存在时返回 null */
+    @Select("SELECT token_version FROM user WHERE id = #{id}")
+    Integer selectTokenVersion(@Param("id") String id);
+
+    @Update("UPDATE user SET token_version = token_version + 1 WHERE id = #{id}")
+    int incrementTokenVersion(@Param("id") String id);
+
+    /** 批量插入或更新用户（导入用）：已存在时只覆盖导入文件中非空的字段 */
+    @Insert("<script>INSERT INTO user (id, nickname, email, phone, identity_type, department_id, creator, updator) VALUES " +
+            "<foreach collection='list' item='u' separator=','>" +
+            "(#{u.id}, #{u.nickname}, #{u.email}, #{u.phone}, #{u.identityType}, #{u.departmentId}, #{u.creator}, #{u.updator})" +
+            "</foreach> ON DUPLICATE KEY UPDATE " +
+            "nickname = COALESCE(VALUES(nickname), nickname), email = COALESCE(VALUES(email), email), " +
+            "phone = COALESCE(VALUES(phone), phone), identity_type = COALESCE(VALUES(identity_type), identity_type), " +
+            "department_id = COALESCE(VALUES(department_id), department_id), updator = VALUES(updator)" +
+            "</script>")
+    int upsertBatch(@Param("list") List<User> users);
 }
@@ -2,8 +2,22 @@ package com.lx.questionnaire.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.lx.questionnaire.entity.UserRole;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface UserRoleMapper extends BaseMapper<UserRole> {
+
+    /** uk_user_role 已存在时不插入 */
+    @Insert("INSERT IGNORE INTO user_role (user_id, role_id) VALUES (#{userId}, #{roleId})")
+    int insertIgnore(@Param("userId") String userId, @Param("roleId") Long roleId);
+
+    /** 批量插入用户角色，已存在的关联跳过 */
+    @Insert("<script>INSERT IGNORE INTO user_role (user_id, role_id) VALUES " +
+            "<foreach collection='list' item='ur' separator=','>(#{ur.userId}, #{ur.roleId})</foreach>" +
+            "</script>")
+    int insertIgnoreBatch(@Param("list") List<UserRole> userRoles);
 }
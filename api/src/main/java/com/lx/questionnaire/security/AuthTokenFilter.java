@@ -0,0 +1,52 @@
+package com.lx.questionnaire.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 无状态模式下从 Cookie 还原登录主体：校验令牌后以缓存中的权限快照构造 CurrentUserDetails，不读写会话。
+ * 由 SecurityConfig 注册到过滤器链，不作为独立 Servlet Filter 注册。
+ */
+@RequiredArgsConstructor
+public class AuthTokenFilter extends OncePerRequestFilter {
+
+    private final String cookieName;
+    private final AuthTokenService tokenService;
+    private final EffectivePermissionCache permissionCache;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = readCookie(request);
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthTokenService.TokenClaims claims = tokenService.verify(token);
+            if (claims != null) {
+                CurrentUserDetails details = new CurrentUserDetails(claims.userId(), "", permissionCache.get(claims.userId()));
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities()));
+                if (tokenService.shouldRenew(claims)) {
+                    tokenService.writeCookie(response, claims.userId());
+                }
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private String readCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return null;
+        for (Cookie c : cookies) {
+            if (cookieName.equals(c.getName())) return c.getValue();
+        }
+        return null;
+    }
+}
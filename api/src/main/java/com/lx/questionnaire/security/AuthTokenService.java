@@ -0,0 +1,151 @@
+package com.lx.questionnaire.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lx.questionnaire.config.AuthTokenProperties;
+import com.lx.questionnaire.mapper.UserMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 无状态登录令牌的签发与校验。
+ * <p>
+ * 格式：{@code kid.base64url(userId).tokenVersion.expiresAt.base64url(HMAC-SHA256)}，签名覆盖前四段。
+ * kid 指定签名密钥以支持轮换；tokenVersion 与 user.token_version 比对实现吊销，
+ * 该值在本地缓存 revocationCacheTtl，校验通常不查库。
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthTokenService {
+
+    private static final String HMAC = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64D = Base64.getUrlDecoder();
+
+    private final AuthTokenProperties properties;
+    private final UserMapper userMapper;
+
+    private Map<String, SecretKeySpec> keys = Map.of();
+    private Cache<String, Optional<Integer>> tokenVersions;
+
+    public record TokenClaims(String userId, int tokenVersion, Instant expiresAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        tokenVersions = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(properties.getRevocationCacheTtl())
+                .build();
+        if (!properties.isEnabled()) return;
+        Map<String, SecretKeySpec> loaded = new HashMap<>();
+        properties.getKeys().forEach((kid, secret) -> {
+            if (kid.contains(".")) throw new IllegalStateException("auth.token.keys 的 id 不能包含 '.'：" + kid);
+            byte[] raw = secret == null ? new byte[0] : Base64.getDecoder().decode(secret.trim());
+            if (raw.length < MIN_KEY_BYTES) {
+                throw new IllegalStateException("auth.token.keys." + kid + " 长度不足 " + MIN_KEY_BYTES + " 字节");
+            }
+            loaded.put(kid, new SecretKeySpec(raw, HMAC));
+        });
+        if (!loaded.containsKey(properties.getActiveKeyId())) {
+            throw new IllegalStateException("auth.token.active-key-id 未在 auth.token.keys 中配置");
+        }
+        keys = Map.copyOf(loaded);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /** 为用户签发令牌；用户不存在时返回 null */
+    public String issue(String userId) {
+        Integer version = userMapper.selectTokenVersion(userId);
+        if (version == null) return null;
+        String kid = properties.getActiveKeyId();
+        long expiresAt = Instant.now().plus(properties.getTtl()).getEpochSecond();
+        String body = kid + "." + B64.encodeToString(userId.getBytes(StandardCharsets.UTF_8)) + "." + version + "." + expiresAt;
+        return body + "." + B64.encodeToString(sign(keys.get(kid), body));
+    }
+
+    /** 校验签名、有效期与吊销版本，任一不通过返回 null */
+    public TokenClaims verify(String token) {
+        if (token == null || token.isEmpty()) return null;
+        int sigSep = token.lastIndexOf('.');
+        if (sigSep < 0) return null;
+        String body = token.substring(0, sigSep);
+        String[] parts = body.split("\\.");
+        if (parts.length != 4) return null;
+        SecretKeySpec key = keys.get(parts[0]);
+        if (key == null) return null;
+        try {
+            if (!MessageDigest.isEqual(sign(key, body), B64D.decode(token.substring(sigSep + 1)))) return null;
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(parts[3]));
+            if (Instant.now().isAfter(expiresAt)) return null;
+            String userId = new String(B64D.decode(parts[1]), StandardCharsets.UTF_8);
+            int version = Integer.parseInt(parts[2]);
+            Optional<Integer> current = tokenVersions.get(userId, id -> Optional.ofNullable(userMapper.selectTokenVersion(id)));
+            if (current.isEmpty() || current.get() != version) return null;
+            return new TokenClaims(userId, version, expiresAt);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** 剩余有效期不足一半时应续签 */
+    public boolean shouldRenew(TokenClaims claims) {
+        return Duration.between(Instant.now(), claims.expiresAt()).compareTo(properties.getTtl().dividedBy(2)) < 0;
+    }
+
+    public void writeCookie(HttpServletResponse response, String userId) {
+        String token = issue(userId);
+        if (token == null) return;
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(token, properties.getTtl()).toString());
+    }
+
+    public void clearCookie(HttpServletResponse response) {
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie("", Duration.ZERO).toString());
+    }
+
+    /** 吊销用户已签发的全部令牌；其它节点在 revocationCacheTtl 内生效 */
+    public void revokeAll(String userId) {
+        userMapper.incrementTokenVersion(userId);
+        tokenVersions.invalidate(userId);
+    }
+
+    private ResponseCookie cookie(String value, Duration maxAge) {
+        return ResponseCookie.from(properties.getCookieName(), value)
+                .httpOnly(true)
+                .secure(properties.isCookieSecure())
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(maxAge)
+                .build();
+    }
+
+    private static byte[] sign(SecretKeySpec key, String body) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac.doFinal(body.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
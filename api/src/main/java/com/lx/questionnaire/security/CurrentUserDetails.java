@@ -2,24 +2,46 @@ package com.lx.questionnaire.security;
 
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.io.Serial;
 import java.util.Collection;
 import java.util.Collections;
 
 @Getter
 public class CurrentUserDetails implements UserDetails {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private final String userId;
     private final String passwordHash;
+    /**
+     * 登录时编译的权限快照（位图 + 院系 + 版本），仅在本进程内有效；版本过期时由 SurveyPermissionServiceImpl 原地替换。
+     * 权限版本是进程内计数，不随会话序列化：反序列化（会话持久化或复制到其他实例）后为 null，
+     * 首次校验时从 EffectivePermissionCache 重新加载
+     */
+    private transient volatile EffectivePermissions permissions;
 
     public CurrentUserDetails(String userId, String passwordHash) {
+        this(userId, passwordHash, null);
+    }
+
+    public CurrentUserDetails(String userId, String passwordHash, EffectivePermissions permissions) {
         this.userId = userId;
         this.passwordHash = passwordHash != null ? passwordHash : "";
+        this.permissions = permissions;
+    }
+
+    public void refreshPermissions(EffectivePermissions permissions) {
+        this.permissions = permissions;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Collections.emptyList();
+        EffectivePermissions p = permissions;
+        if (p == null) return Collections.emptyList();
+        return p.authorityNames().stream().map(SimpleGrantedAuthority::new).toList();
     }
 
     @Override
@@ -0,0 +1,102 @@
+package com.lx.questionnaire.security;
+
+import com.lx.questionnaire.entity.Department;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 不可变的院系树快照：按先序遍历给每个院系编号，子树即先序序列上的连续区间 [enter, exit)。
+ * 「是否在子树内」为两次数组比较，子树全部 id 为先序列表的一个切片，均不查库。
+ * <p>
+ * 父院系缺失或成环的数据按根处理，保证每个院系恰好出现一次。
+ */
+public final class DepartmentTree {
+
+    private final Map<Long, Integer> indexById;
+    private final int[] exit;
+    private final List<Long> preorder;
+
+    private DepartmentTree(Map<Long, Integer> indexById, int[] exit, List<Long> preorder) {
+        this.indexById = indexById;
+        this.exit = exit;
+        this.preorder = preorder;
+    }
+
+    public static DepartmentTree build(List<Department> departments) {
+        Map<Long, Department> byId = new HashMap<>();
+        for (Department d : departments) byId.put(d.getId(), d);
+        Map<Long, List<Long>> children = new HashMap<>();
+        List<Long> roots = new ArrayList<>();
+        for (Department d : departments) {
+            Long parent = d.getParentId();
+            if (parent == null || !byId.containsKey(parent) || parent.equals(d.getId())) {
+                roots.add(d.getId());
+            } else {
+                children.computeIfAbsent(parent, k -> new ArrayList<>()).add(d.getId());
+            }
+        }
+        int n = departments.size();
+        Map<Long, Integer> indexById = new HashMap<>(n * 2);
+        List<Long> preorder = new ArrayList<>(n);
+        int[] exit = new int[n];
+        // 迭代先序遍历；从根出发访问不到的节点（父子成环）补作根
+        Deque<Frame> stack = new ArrayDeque<>();
+        List<Long> pendingRoots = new ArrayList<>(roots);
+        for (Department d : departments) pendingRoots.add(d.getId());
+        for (Long root : pendingRoots) {
+            if (indexById.containsKey(root)) continue;
+            stack.push(new Frame(root, false));
+            while (!stack.isEmpty()) {
+                Frame f = stack.pop();
+                Long id = f.id();
+                if (f.closing()) {
+                    exit[indexById.get(id)] = preorder.size();
+                    continue;
+                }
+                if (indexById.containsKey(id)) continue;
+                indexById.put(id, preorder.size());
+                preorder.add(id);
+                stack.push(new Frame(id, true));
+                List<Long> cs = children.getOrDefault(id, List.of());
+                for (int i = cs.size() - 1; i >= 0; i--) {
+                    if (!indexById.containsKey(cs.get(i))) stack.push(new Frame(cs.get(i), false));
+                }
+            }
+        }
+        return new DepartmentTree(indexById, exit, Collections.unmodifiableList(preorder));
+    }
+
+    public boolean contains(Long departmentId) {
+        return departmentId != null && indexById.containsKey(departmentId);
+    }
+
+    /** descendantId 是否为 ancestorId 自身或其下级院系 */
+    public boolean isInSubtree(Long ancestorId, Long descendantId) {
+        if (ancestorId == null || descendantId == null) return false;
+        Integer a = indexById.get(ancestorId);
+        Integer d = indexById.get(descendantId);
+        if (a == null || d == null) return ancestorId.equals(descendantId);
+        return a <= d && d < exit[a];
+    }
+
+    /** 院系自身及全部下级院系 id（先序）；院系不在树中时只含自身 */
+    public List<Long> subtreeIds(Long departmentId) {
+        Integer a = indexById.get(departmentId);
+        if (a == null) return List.of(departmentId);
+        return preorder.subList(a, exit[a]);
+    }
+
+    public int size() {
+        return preorder.size();
+    }
+
+    /** 先序遍历栈帧，closing 表示子树已遍历完、需要记录 exit */
+    private record Frame(Long id, boolean closing) {
+    }
+}
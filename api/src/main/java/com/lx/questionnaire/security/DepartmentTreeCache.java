@@ -0,0 +1,57 @@
+package com.lx.questionnaire.security;
+
+import com.lx.questionnaire.cache.ReferenceDataChangedEvent;
+import com.lx.questionnaire.cache.ReferenceTable;
+import com.lx.questionnaire.mapper.DepartmentMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * 院系树快照：首次使用时加载，本实例修改院系后（事务提交后）整体重建；
+ * REFRESH_INTERVAL 兜底其它实例或直接改库的情况。院系总数在千级，重建一次为一条全表查询。
+ */
+@Component
+@RequiredArgsConstructor
+public class DepartmentTreeCache {
+
+    private static final Duration REFRESH_INTERVAL = Duration.ofMinutes(5);
+
+    private final DepartmentMapper departmentMapper;
+
+    private volatile Snapshot snapshot;
+
+    public DepartmentTree get() {
+        Snapshot s = snapshot;
+        if (s == null || System.nanoTime() - s.loadedAt() > REFRESH_INTERVAL.toNanos()) {
+            s = reload(s);
+        }
+        return s.tree();
+    }
+
+    private synchronized Snapshot reload(Snapshot seen) {
+        if (snapshot != seen) {
+            return snapshot;
+        }
+        Snapshot s = new Snapshot(DepartmentTree.build(departmentMapper.selectList(null)), System.nanoTime());
+        snapshot = s;
+        return s;
+    }
+
+    /** 提交后重建；无事务时立即重建 */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        if (event.table() != ReferenceTable.DEPARTMENT) {
+            return;
+        }
+        synchronized (this) {
+            snapshot = null;
+        }
+        get();
+    }
+
+    private record Snapshot(DepartmentTree tree, long loadedAt) {
+    }
+}
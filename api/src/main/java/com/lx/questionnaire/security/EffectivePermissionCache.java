@@ -0,0 +1,77 @@
+package com.lx.questionnaire.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lx.questionnaire.entity.User;
+import com.lx.questionnaire.mapper.PermissionMapper;
+import com.lx.questionnaire.mapper.UserMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户有效权限的进程内缓存：命中时权限校验不查库。
+ * 容量与 TTL 有上限；授权变更通过 PermissionChangedEvent 在事务提交后主动失效并递增权限版本，
+ * 登录主体上携带的权限快照据此判断是否过期。TTL 只兜底其它实例或直接改库的情况。
+ * <p>
+ * 用户的权限版本 = 全局版本（影响所有人的变更）+ 该用户自身版本，两者只增不减，任一变化都会使和变大。
+ * 版本只在本进程内递增、不与其他实例共享，也不能跨进程比较；因此 CurrentUserDetails 上的快照不参与序列化，
+ * 其他实例上发生的授权变更在本实例只能靠 TTL 过期生效。
+ */
+@Component
+@RequiredArgsConstructor
+public class EffectivePermissionCache {
+
+    private static final long MAX_USERS = 10_000;
+    public static final Duration TTL = Duration.ofMinutes(10);
+
+    private final PermissionMapper permissionMapper;
+    private final UserMapper userMapper;
+
+    private final AtomicLong globalVersion = new AtomicLong();
+    /** 仅记录启动以来授权变更过的用户，规模与管理操作次数相当 */
+    private final Map<String, Long> userVersions = new ConcurrentHashMap<>();
+    private final Cache<String, EffectivePermissions> cache = Caffeine.newBuilder()
+            .maximumSize(MAX_USERS)
+            .expireAfterWrite(TTL)
+            .build();
+
+    public EffectivePermissions get(String userId) {
+        EffectivePermissions p = cache.get(userId, this::load);
+        if (p.getVersion() != currentVersion(userId)) {
+            // 失效前已开始的加载可能写回旧版本，丢弃后重载一次
+            cache.invalidate(userId);
+            p = cache.get(userId, this::load);
+        }
+        return p;
+    }
+
+    /** 用户当前权限版本，其授权变更时递增 */
+    public long currentVersion(String userId) {
+        return globalVersion.get() + userVersions.getOrDefault(userId, 0L);
+    }
+
+    private EffectivePermissions load(String userId) {
+        long v = currentVersion(userId);
+        User user = userMapper.selectById(userId);
+        return EffectivePermissions.compile(permissionMapper.selectByUserId(userId),
+                user != null ? user.getDepartmentId() : null, v);
+    }
+
+    /** 提交后失效；无事务时立即失效 */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPermissionChanged(PermissionChangedEvent event) {
+        if (event.userId() == null) {
+            globalVersion.incrementAndGet();
+            cache.invalidateAll();
+        } else {
+            userVersions.merge(event.userId(), 1L, Long::sum);
+            cache.invalidate(event.userId());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.lx.questionnaire.security;
+
+import com.lx.questionnaire.entity.Permission;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 用户编译后的有效权限：PermissionAction 目录内的 (resource_type, action, data_scope) 压成一个 long 位图，
+ * 外加做 DEPARTMENT 范围判断用的所属院系。不可变；version 为编译时的权限版本，用于判断是否已过期。
+ */
+public final class EffectivePermissions {
+
+    private final long mask;
+    /** 目录外的 resource_type:action → data_scope，通常为空 */
+    private final Map<String, Set<String>> extra;
+    private final Long departmentId;
+    private final long version;
+    private final long compiledAtMillis;
+
+    private EffectivePermissions(long mask, Map<String, Set<String>> extra, Long departmentId, long version) {
+        this.mask = mask;
+        this.extra = extra;
+        this.departmentId = departmentId;
+        this.version = version;
+        this.compiledAtMillis = System.currentTimeMillis();
+    }
+
+    public static EffectivePermissions compile(List<Permission> permissions, Long departmentId, long version) {
+        long mask = 0L;
+        Map<String, Set<String>> extra = new HashMap<>();
+        for (Permission p : permissions) {
+            PermissionAction a = PermissionAction.of(p.getResourceType(), p.getAction());
+            long bit = a != null ? a.bit(p.getDataScope()) : 0L;
+            if (bit != 0L) {
+                mask |= bit;
+            } else {
+                extra.computeIfAbsent(p.getResourceType() + ":" + p.getAction(), k -> new HashSet<>()).add(p.getDataScope());
+            }
+        }
+        extra.replaceAll((k, v) -> Set.copyOf(v));
+        return new EffectivePermissions(mask, Map.copyOf(extra), departmentId, version);
+    }
+
+    /** 是否拥有该操作（任一范围） */
+    public boolean has(String resourceType, String action) {
+        PermissionAction a = PermissionAction.of(resourceType, action);
+        return (a != null && (mask & a.anyScopeMask()) != 0L) || extra.containsKey(resourceType + ":" + action);
+    }
+
+    /** 是否拥有该操作的指定范围 */
+    public boolean allows(String resourceType, String action, String scope) {
+        PermissionAction a = PermissionAction.of(resourceType, action);
+        long bit = a != null ? a.bit(scope) : 0L;
+        if (bit != 0L && (mask & bit) != 0L) return true;
+        Set<String> scopes = extra.get(resourceType + ":" + action);
+        return scopes != null && scopes.contains(scope);
+    }
+
+    /** 权限版本未变且未超过 maxAge 时仍可直接使用 */
+    public boolean isCurrent(long currentVersion, Duration maxAge) {
+        return version == currentVersion && System.currentTimeMillis() - compiledAtMillis < maxAge.toMillis();
+    }
+
+    /** 展开为 resource_type:action:data_scope 形式，供 GrantedAuthority 使用 */
+    public List<String> authorityNames() {
+        List<String> names = new ArrayList<>();
+        for (PermissionAction a : PermissionAction.values()) {
+            for (String scope : PermissionAction.scopes()) {
+                if ((mask & a.bit(scope)) != 0L) names.add(a.getResourceType() + ":" + a.getAction() + ":" + scope);
+            }
+        }
+        extra.forEach((k, scopes) -> scopes.forEach(scope -> names.add(k + ":" + scope)));
+        return names;
+    }
+
+    public Long getDepartmentId() {
+        return departmentId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -17,6 +17,7 @@ public class LocalAccountUserDetailsService implements UserDetailsService {
 
     private final AccountService accountService;
     private final UserService userService;
+    private final EffectivePermissionCache permissionCache;
 
     @Override
     public CurrentUserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -28,6 +29,6 @@ public class LocalAccountUserDetailsService implements UserDetailsService {
         if (user == null) {
             throw new UsernameNotFoundException("User not found for account: " + username);
         }
-        return new CurrentUserDetails(user.getId(), account.getPasswordHash());
+        return new CurrentUserDetails(user.getId(), account.getPasswordHash(), permissionCache.get(user.getId()));
     }
 }
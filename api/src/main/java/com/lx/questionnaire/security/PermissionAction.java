@@ -0,0 +1,72 @@
+package com.lx.questionnaire.security;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 权限位目录：每个 resource_type:action 占 3 位，依次对应 SCHOOL / DEPARTMENT / SELF。
+ * 只追加不调整顺序；目录外的权限由 EffectivePermissions 退化为集合判断。
+ */
+public enum PermissionAction {
+    SURVEY_VIEW("survey", "view"),
+    SURVEY_CREATE("survey", "create"),
+    SURVEY_EDIT("survey", "edit"),
+    SURVEY_PUBLISH("survey", "publish"),
+    SURVEY_DELETE("survey", "delete"),
+    RESPONSE_VIEW("response", "view"),
+    RESPONSE_EXPORT("response", "export"),
+    DEPT_VIEW("dept", "view"),
+    DEPT_MANAGE("dept", "manage"),
+    ROLE_VIEW("role", "view"),
+    ROLE_MANAGE("role", "manage"),
+    USER_VIEW("user", "view"),
+    USER_MANAGE("user", "manage");
+
+    public static final String SCOPE_SCHOOL = "SCHOOL";
+    public static final String SCOPE_DEPARTMENT = "DEPARTMENT";
+    public static final String SCOPE_SELF = "SELF";
+    private static final String[] SCOPES = {SCOPE_SCHOOL, SCOPE_DEPARTMENT, SCOPE_SELF};
+    private static final Map<String, PermissionAction> BY_KEY = new HashMap<>();
+
+    static {
+        for (PermissionAction a : values()) BY_KEY.put(a.resourceType + ":" + a.action, a);
+    }
+
+    private final String resourceType;
+    private final String action;
+
+    PermissionAction(String resourceType, String action) {
+        this.resourceType = resourceType;
+        this.action = action;
+    }
+
+    /** 不在目录中时返回 null */
+    public static PermissionAction of(String resourceType, String action) {
+        return BY_KEY.get(resourceType + ":" + action);
+    }
+
+    /** 该操作任一范围的位 */
+    public long anyScopeMask() {
+        return 0b111L << (ordinal() * 3);
+    }
+
+    /** 指定范围的位；未知范围返回 0 */
+    public long bit(String scope) {
+        for (int i = 0; i < SCOPES.length; i++) {
+            if (SCOPES[i].equals(scope)) return 1L << (ordinal() * 3 + i);
+        }
+        return 0L;
+    }
+
+    public String getResourceType() {
+        return resourceType;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    static String[] scopes() {
+        return SCOPES;
+    }
+}
@@ -0,0 +1,16 @@
+package com.lx.questionnaire.security;
+
+/**
+ * 用户-角色、角色-权限或用户所属院系发生变化时发布；userId 为 null 表示影响所有用户（如角色授权变更）。
+ * 由 EffectivePermissionCache 在事务提交后失效对应缓存。
+ */
+public record PermissionChangedEvent(String userId) {
+
+    public static PermissionChangedEvent ofUser(String userId) {
+        return new PermissionChangedEvent(userId);
+    }
+
+    public static PermissionChangedEvent ofAll() {
+        return new PermissionChangedEvent(null);
+    }
+}
@@ -5,6 +5,8 @@ import com.lx.questionnaire.dto.PresetOptionCategoryVO;
 import com.lx.questionnaire.dto.PresetOptionGroupDetailVO;
 import com.lx.questionnaire.dto.PresetOptionGroupUpsertDTO;
 import com.lx.questionnaire.dto.PresetOptionGroupVO;
+import com.lx.questionnaire.dto.PresetOptionSuggestionVO;
+import com.lx.questionnaire.dto.PresetOptionTreeSnapshot;
 
 import java.util.List;
 
@@ -21,5 +23,11 @@ public interface PresetOptionService {
 
     /** 给问卷编辑端使用：按分类返回启用的预定义选项组（含明细） */
     List<PresetOptionCategoryVO> getEnabledTree();
+
+    /** 同 getEnabledTree，附带预序列化的响应体与 ETag，供 /tree 接口直接写出 */
+    PresetOptionTreeSnapshot getEnabledTreeSnapshot();
+
+    /** 输入联想：按组名、分类、选项文案（含拼音全拼/首字母）前缀匹配启用的选项组，内存索引，不查库 */
+    List<PresetOptionSuggestionVO> suggest(String q, int limit);
 }
 
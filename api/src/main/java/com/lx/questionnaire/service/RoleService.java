@@ -9,6 +9,9 @@ public interface RoleService {
 
     Page<Role> queryRoles(String keyword, int page, int pageSize);
 
+    /** 全部角色（按 sort、id 排序），走参考数据缓存 */
+    List<Role> listAll();
+
     Role getById(Long id);
 
     Role create(Role role);
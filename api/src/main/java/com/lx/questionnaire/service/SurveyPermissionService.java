@@ -5,6 +5,7 @@ import com.lx.questionnaire.entity.Survey;
 
 /**
  * 问卷/答卷的按角色权限校验（resource_type + action + data_scope）。
+ * DEPARTMENT 范围按院系子树判断（见 DepartmentTree），不查库。
  */
 public interface SurveyPermissionService {
 
@@ -19,7 +20,7 @@ public interface SurveyPermissionService {
 
     /**
      * 列表「非仅我创建的」时，按权限范围返回过滤条件（基于 survey.creator_id / survey.department_id）。
-     * department_id 为 null 的问卷约定为无部门/仅本人可见。
+     * department_id 为 null 的问卷约定为无部门/仅本人可见；DEPARTMENT 范围包含本院系及其全部下级院系。
      */
     SurveyListFilter getSurveyViewListFilter(String userId);
 }
@@ -3,6 +3,8 @@ package com.lx.questionnaire.service;
 import com.lx.questionnaire.dto.*;
 import com.lx.questionnaire.entity.Survey;
 import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.service.export.ExportFormat;
+import com.lx.questionnaire.service.export.ResponseExportTask;
 
 import java.util.List;
 
@@ -18,7 +20,7 @@ public interface SurveyService {
 
     void updateSettings(String id, String currentUserId, Boolean limitOncePerUser, Boolean allowAnonymous,
                         java.time.LocalDateTime startTime, java.time.LocalDateTime endTime, String thankYouText,
-                        Integer limitByIp, Integer limitByDevice);
+                        Integer limitByIp, Integer limitByDevice, Integer draftTtlHours);
 
     void publish(String id, String currentUserId);
 
@@ -30,7 +32,13 @@ public interface SurveyService {
 
     Survey copy(String id, String currentUserId);
 
-    void delete(String id, String currentUserId);
+    /**
+     * 软删除问卷并登记异步清理任务；dryRun 为 true 时只统计将被删除的行数，不做任何修改
+     */
+    SurveyPurgeVO delete(String id, String currentUserId, boolean dryRun);
+
+    /** 已删除问卷的清理进度 */
+    SurveyPurgeVO getPurgeProgress(String id, String currentUserId);
 
     String getFillUrl(String id);
 
@@ -46,11 +54,32 @@ public interface SurveyService {
 
     void deleteQuestion(String surveyId, Long questionId, String currentUserId);
 
-    ResponseListResponse listResponses(String surveyId, String currentUserId, int page, int pageSize);
+    /**
+     * 整卷保存题目：与库中题目比对后只执行必要的插入、更新、删除（各一条批量语句），
+     * 同一事务内完成，权限只校验一次，有变更时 schemaVersion 递增一次
+     */
+    BulkSaveQuestionsResult bulkSaveQuestions(String surveyId, String currentUserId, BulkSaveQuestionsDTO dto);
+
+    /**
+     * 答卷列表。cursor 非空时按游标取下一页（忽略 page）；withTotal=false 时不执行 COUNT，total 为 null；
+     * filter 为按提交时间、用时及答案的筛选条件，可为 null
+     */
+    ResponseListResponse listResponses(String surveyId, String currentUserId, int page, int pageSize,
+                                       String cursor, boolean withTotal, ResponseFilter filter);
+
+    /**
+     * 在已提交答卷的填空内容中全文检索，返回命中答卷项的摘录与高亮区间；questionId 为空时检索全部题目，
+     * cursor 为上一页返回的 nextCursor
+     */
+    ResponseSearchResponse searchResponses(String surveyId, String currentUserId, String keyword, Long questionId,
+                                           String cursor, int pageSize);
 
     ResponseDetailVO getResponseDetail(String surveyId, Long responseId, String currentUserId);
 
     AnalyticsResponse getAnalytics(String surveyId, String currentUserId);
 
-    byte[] exportResponses(String surveyId, String currentUserId);
+    /**
+     * 校验导出权限并返回导出任务；任务执行时按批次流式读取答卷，XLSX 与 Parquet 共用同一读取管线
+     */
+    ResponseExportTask exportResponses(String surveyId, String currentUserId, ExportFormat format);
 }
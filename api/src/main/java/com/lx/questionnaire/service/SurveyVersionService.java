@@ -0,0 +1,15 @@
+package com.lx.questionnaire.service;
+
+import com.lx.questionnaire.dto.SurveyVersionSnapshot;
+import com.lx.questionnaire.entity.Survey;
+
+public interface SurveyVersionService {
+
+    /**
+     * 问卷当前结构版本对应的快照，尚未冻结时按库中题目冻结一份；填写、提交与发布使用
+     */
+    SurveyVersionSnapshot resolve(Survey survey);
+
+    /** 按版本 id 取快照，不存在时返回 null */
+    SurveyVersionSnapshot get(Long versionId);
+}
@@ -0,0 +1,17 @@
+package com.lx.questionnaire.service;
+
+import com.lx.questionnaire.dto.UserImportResult;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 批量导入用户（学校开户）：CSV / XLSX，按 CAS login_id 幂等，重复导入只更新非空字段并追加角色
+ */
+public interface UserImportService {
+
+    /**
+     * 表头（首行）支持中英文列名：学工号/loginId（必填）、姓名/nickname、邮箱/email、手机/phone、
+     * 身份/identityType、院系编码/departmentCode、角色/roles（多个角色编码以 , | ; 分隔）。
+     * 校验不通过的行记入错误报告，其余按块分批写入，单块写库失败不影响其他块。
+     */
+    UserImportResult importUsers(MultipartFile file, String operatorId);
+}
@@ -25,4 +25,7 @@ public interface UserService {
     void updateUser(String id, User user);
 
     void deleteUser(String id);
+
+    /** 吊销用户已签发的全部登录令牌（无状态模式），用户不存在时抛 USER_NOT_FOUND */
+    void revokeTokens(String id);
 }
@@ -0,0 +1,50 @@
+package com.lx.questionnaire.service.export;
+
+import com.lx.questionnaire.common.BusinessException;
+import com.lx.questionnaire.common.ErrorCode;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 答卷导出格式：XLSX 面向人工查看，Parquet 面向分析工具（每题一列、按题型定列类型）
+ */
+@Getter
+public enum ExportFormat {
+
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet") {
+        @Override
+        public ResponseExportWriter open(String surveyId, List<SurveyQuestion> questions, OutputStream out) {
+            return new XlsxResponseExportWriter(questions, out);
+        }
+    },
+    PARQUET("parquet", "application/vnd.apache.parquet") {
+        @Override
+        public ResponseExportWriter open(String surveyId, List<SurveyQuestion> questions, OutputStream out) throws IOException {
+            return new ParquetResponseExportWriter(surveyId, questions, out);
+        }
+    };
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    /** 按题目列表创建写出器，写出器只负责格式，答卷由调用方按批次流式读取后逐行写入 */
+    public abstract ResponseExportWriter open(String surveyId, List<SurveyQuestion> questions, OutputStream out) throws IOException;
+
+    /** 解析请求参数，为空时默认 XLSX */
+    public static ExportFormat of(String value) {
+        if (value == null || value.isBlank()) return XLSX;
+        for (ExportFormat f : values()) {
+            if (f.extension.equalsIgnoreCase(value.trim()) || f.name().equalsIgnoreCase(value.trim())) return f;
+        }
+        throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "不支持的导出格式：" + value));
+    }
+}
@@ -0,0 +1,250 @@
+package com.lx.questionnaire.service.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lx.questionnaire.entity.Response;
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.util.AnswerFormatUtils;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parquet 导出：固定列 response_id / user_id / submitted_at / duration_seconds，之后每题一列 q1..qN：
+ * 单选 int32（选项下标）、量表 int32（分值）、多选 list&lt;int32&gt;、填空 string；
+ * 允许填空的选择题另加 qN_text 列。列与题目标题的对应关系写入文件 key-value 元数据 questionnaire.columns，
+ * 选择题同时写出选项文案 options（下标即列中的值，含已从当前题目删除的历史选项）。
+ * 行组按 ROW_GROUP_SIZE 落盘，内存占用与答卷总数无关。
+ * <p>
+ * 数据页用 Snappy 压缩（经 SnappyCodecFactory 直接调用 snappy-java，不构造 Hadoop Configuration），字典编码仍默认开启。
+ */
+class ParquetResponseExportWriter implements ResponseExportWriter {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final long ROW_GROUP_SIZE = 8L * 1024 * 1024;
+
+    private final List<Column> columns = new ArrayList<>();
+    private final SimpleGroupFactory groupFactory;
+    private final ParquetWriter<Group> writer;
+    private boolean closed;
+
+    ParquetResponseExportWriter(String surveyId, List<SurveyQuestion> questions, OutputStream out) throws IOException {
+        Types.MessageTypeBuilder schema = Types.buildMessage();
+        schema.required(PrimitiveTypeName.INT64).named("response_id");
+        schema.optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("user_id");
+        schema.optional(PrimitiveTypeName.INT64)
+                .as(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MILLIS)).named("submitted_at");
+        schema.optional(PrimitiveTypeName.INT32).named("duration_seconds");
+
+        List<Map<String, Object>> columnMeta = new ArrayList<>();
+        for (int i = 0; i < questions.size(); i++) {
+            SurveyQuestion q = questions.get(i);
+            String name = "q" + (i + 1);
+            ColumnKind kind = ColumnKind.of(q.getType());
+            switch (kind) {
+                case INT -> schema.optional(PrimitiveTypeName.INT32).named(name);
+                case INT_LIST -> schema.optionalList().requiredElement(PrimitiveTypeName.INT32).named(name);
+                case STRING -> schema.optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named(name);
+            }
+            String textColumn = null;
+            if (kind != ColumnKind.STRING && allowsFillText(q)) {
+                textColumn = name + "_text";
+                schema.optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named(textColumn);
+            }
+            columns.add(new Column(q, name, kind, textColumn));
+
+            Map<String, Object> meta = new LinkedHashMap<>();
+            meta.put("column", name);
+            meta.put("questionId", q.getId());
+            meta.put("type", q.getType());
+            meta.put("title", q.getTitle());
+            if (textColumn != null) meta.put("textColumn", textColumn);
+            if (isChoice(q.getType())) meta.put("options", optionLabels(q));
+            columnMeta.add(meta);
+        }
+        MessageType messageType = schema.named("response");
+        this.groupFactory = new SimpleGroupFactory(messageType);
+
+        Map<String, String> extraMeta = new LinkedHashMap<>();
+        extraMeta.put("questionnaire.survey_id", surveyId);
+        extraMeta.put("questionnaire.columns", JSON.writeValueAsString(columnMeta));
+        this.writer = ExampleParquetWriter.builder(new StreamOutputFile(out))
+                .withConf(new PlainParquetConfiguration())
+                .withType(messageType)
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .withCodecFactory(SnappyCodecFactory.INSTANCE)
+                .withCompressionCodec(CompressionCodecName.SNAPPY)
+                .withRowGroupSize(ROW_GROUP_SIZE)
+                .withExtraMetaData(extraMeta)
+                .build();
+    }
+
+    @Override
+    public void writeRow(Response r, Map<Long, ResponseItem> itemsByQuestion) throws IOException {
+        Group g = groupFactory.newGroup();
+        g.add("response_id", r.getId());
+        if (r.getUserId() != null) g.add("user_id", r.getUserId());
+        if (r.getSubmittedAt() != null) g.add("submitted_at", r.getSubmittedAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+        if (r.getDurationSeconds() != null) g.add("duration_seconds", r.getDurationSeconds());
+        for (Column c : columns) {
+            ResponseItem item = itemsByQuestion.get(c.question.getId());
+            if (item == null) continue;
+            switch (c.kind) {
+                case INT -> {
+                    Integer v = item.getOptionIndex() != null ? item.getOptionIndex() : item.getScaleValue();
+                    if (v != null) g.add(c.name, v);
+                }
+                case INT_LIST -> {
+                    Group list = g.addGroup(c.name);
+                    for (int idx : AnswerFormatUtils.optionIndicesOf(item)) {
+                        list.addGroup("list").add("element", idx);
+                    }
+                }
+                case STRING -> {
+                    if (item.getTextValue() != null) g.add(c.name, item.getTextValue());
+                }
+            }
+            if (c.textColumn != null && item.getTextValue() != null && !item.getTextValue().isBlank()) {
+                g.add(c.textColumn, item.getTextValue());
+            }
+        }
+        writer.write(g);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        writer.close();
+    }
+
+    private static boolean isChoice(String type) {
+        return "SINGLE_CHOICE".equals(type) || "MULTIPLE_CHOICE".equals(type);
+    }
+
+    /** 按下标排列的选项文案，开启「其他」时末尾为「其他」 */
+    private static List<String> optionLabels(SurveyQuestion q) {
+        int count = 0;
+        if (q.getConfig() != null) {
+            try {
+                JsonNode node = JSON.readTree(q.getConfig());
+                JsonNode opts = node.get("options");
+                count = opts != null && opts.isArray() ? opts.size() : 0;
+                if (node.has("hasOtherOption") && node.get("hasOtherOption").asBoolean()) count++;
+            } catch (Exception ignored) { }
+        }
+        List<String> labels = new ArrayList<>(count);
+        for (int idx = 0; idx < count; idx++) labels.add(AnswerFormatUtils.getOptionLabel(q, idx));
+        return labels;
+    }
+
+    private static boolean allowsFillText(SurveyQuestion q) {
+        if (q.getConfig() == null) return false;
+        try {
+            JsonNode node = JSON.readTree(q.getConfig());
+            if (node.has("hasOtherOption") && node.get("hasOtherOption").asBoolean()) return true;
+            JsonNode opts = node.get("options");
+            if (opts != null && opts.isArray()) {
+                for (JsonNode o : opts) {
+                    if (o.has("allowFill") && o.get("allowFill").asBoolean()) return true;
+                }
+            }
+        } catch (Exception ignored) { }
+        return false;
+    }
+
+    private enum ColumnKind {
+        INT, INT_LIST, STRING;
+
+        static ColumnKind of(String questionType) {
+            if ("SINGLE_CHOICE".equals(questionType) || "SCALE".equals(questionType)) return INT;
+            if ("MULTIPLE_CHOICE".equals(questionType)) return INT_LIST;
+            return STRING;
+        }
+    }
+
+    private record Column(SurveyQuestion question, String name, ColumnKind kind, String textColumn) {
+    }
+
+    /** 将响应流包装为 Parquet OutputFile；关闭时只 flush，不关闭底层流 */
+    private static final class StreamOutputFile implements OutputFile {
+        private final OutputStream out;
+
+        StreamOutputFile(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) {
+            return new PositionOutputStream() {
+                private long pos;
+
+                @Override
+                public long getPos() {
+                    return pos;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    pos++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    pos += len;
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.flush();
+                }
+            };
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+            return create(blockSizeHint);
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+    }
+}
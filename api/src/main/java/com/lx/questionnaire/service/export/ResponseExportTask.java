@@ -0,0 +1,13 @@
+package com.lx.questionnaire.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 已通过权限校验的导出任务，由 Controller 在响应流上执行
+ */
+@FunctionalInterface
+public interface ResponseExportTask {
+
+    void writeTo(OutputStream out) throws IOException;
+}
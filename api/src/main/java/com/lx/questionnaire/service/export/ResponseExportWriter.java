@@ -0,0 +1,24 @@
+package com.lx.questionnaire.service.export;
+
+import com.lx.questionnaire.entity.Response;
+import com.lx.questionnaire.entity.ResponseItem;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 答卷导出写出器：逐行写入，finish 时写出文件尾；不关闭调用方传入的输出流
+ */
+public interface ResponseExportWriter extends AutoCloseable {
+
+    /**
+     * @param itemsByQuestion 该答卷的答卷项，key 为 questionId
+     */
+    void writeRow(Response response, Map<Long, ResponseItem> itemsByQuestion) throws IOException;
+
+    void finish() throws IOException;
+
+    /** 释放临时资源（如 SXSSF 临时文件），finish 失败时也需调用 */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,82 @@
+package com.lx.questionnaire.service.export;
+
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 直接调用 snappy-java 的 Parquet 编解码器。parquet-hadoop 自带的 CodecFactory 取编解码器时会先构造 Hadoop Configuration，
+ * 需要 hadoop-client-runtime 里的 XML 解析等依赖；这里绕开它，只支持导出用到的 SNAPPY。无状态，可共用单例
+ */
+final class SnappyCodecFactory implements CompressionCodecFactory {
+
+    static final SnappyCodecFactory INSTANCE = new SnappyCodecFactory();
+
+    private static final BytesInputCompressor COMPRESSOR = new BytesInputCompressor() {
+        @Override
+        public BytesInput compress(BytesInput bytes) throws IOException {
+            return BytesInput.from(Snappy.compress(bytes.toByteArray()));
+        }
+
+        @Override
+        public CompressionCodecName getCodecName() {
+            return CompressionCodecName.SNAPPY;
+        }
+
+        @Override
+        public void release() {
+        }
+    };
+
+    private static final BytesInputDecompressor DECOMPRESSOR = new BytesInputDecompressor() {
+        @Override
+        public BytesInput decompress(BytesInput bytes, int uncompressedSize) throws IOException {
+            byte[] out = new byte[uncompressedSize];
+            byte[] in = bytes.toByteArray();
+            Snappy.uncompress(in, 0, in.length, out, 0);
+            return BytesInput.from(out);
+        }
+
+        @Override
+        public void decompress(ByteBuffer input, int compressedSize, ByteBuffer output, int uncompressedSize) throws IOException {
+            byte[] in = new byte[compressedSize];
+            input.get(in);
+            byte[] out = new byte[uncompressedSize];
+            Snappy.uncompress(in, 0, compressedSize, out, 0);
+            output.put(out);
+        }
+
+        @Override
+        public void release() {
+        }
+    };
+
+    private SnappyCodecFactory() {
+    }
+
+    @Override
+    public BytesInputCompressor getCompressor(CompressionCodecName codecName) {
+        requireSnappy(codecName);
+        return COMPRESSOR;
+    }
+
+    @Override
+    public BytesInputDecompressor getDecompressor(CompressionCodecName codecName) {
+        requireSnappy(codecName);
+        return DECOMPRESSOR;
+    }
+
+    @Override
+    public void release() {
+    }
+
+    private static void requireSnappy(CompressionCodecName codecName) {
+        if (codecName != CompressionCodecName.SNAPPY) {
+            throw new IllegalArgumentException("Unsupported parquet codec: " + codecName);
+        }
+    }
+}
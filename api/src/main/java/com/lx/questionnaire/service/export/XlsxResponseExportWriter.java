@@ -0,0 +1,78 @@
+package com.lx.questionnaire.service.export;
+
+import com.lx.questionnaire.entity.Response;
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.util.AnswerFormatUtils;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * XLSX 导出：SXSSF 只在内存保留最近若干行，其余落临时文件，内存不随答卷数增长
+ */
+class XlsxResponseExportWriter implements ResponseExportWriter {
+
+    private static final int ROW_ACCESS_WINDOW = 200;
+    private static final DateTimeFormatter DTF = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final List<SurveyQuestion> questions;
+    private final OutputStream out;
+    private final SXSSFWorkbook wb;
+    private final Sheet sheet;
+    private final CellStyle textCellStyle;
+    private int rowNum = 1;
+
+    XlsxResponseExportWriter(List<SurveyQuestion> questions, OutputStream out) {
+        this.questions = questions;
+        this.out = out;
+        this.wb = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        this.textCellStyle = wb.createCellStyle();
+        textCellStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("@"));
+        this.sheet = wb.createSheet("答卷");
+        Row headerRow = sheet.createRow(0);
+        headerRow.createCell(0).setCellValue("提交时间");
+        headerRow.createCell(1).setCellValue("用时(秒)");
+        for (int i = 0; i < questions.size(); i++) {
+            headerRow.createCell(2 + i).setCellValue(questions.get(i).getTitle() != null ? questions.get(i).getTitle() : "");
+        }
+    }
+
+    @Override
+    public void writeRow(Response r, Map<Long, ResponseItem> itemsByQuestion) {
+        Row row = sheet.createRow(rowNum++);
+        row.createCell(0).setCellValue(r.getSubmittedAt() != null ? r.getSubmittedAt().format(DTF) : "");
+        row.createCell(1).setCellValue(r.getDurationSeconds() != null ? r.getDurationSeconds() : 0);
+        for (int i = 0; i < questions.size(); i++) {
+            SurveyQuestion q = questions.get(i);
+            ResponseItem item = itemsByQuestion.get(q.getId());
+            String cellValue = item == null ? "" : AnswerFormatUtils.formatAnswerShort(item, q);
+            Cell cell = row.createCell(2 + i);
+            boolean isTextColumn = "SHORT_TEXT".equals(q.getType()) || "LONG_TEXT".equals(q.getType());
+            if (isTextColumn) {
+                cell.setCellStyle(textCellStyle);
+            }
+            cell.setCellValue(cellValue);
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        wb.write(out);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        wb.dispose();
+        wb.close();
+    }
+}
@@ -0,0 +1,221 @@
+package com.lx.questionnaire.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lx.questionnaire.dto.AnalyticsOptionSummary;
+import com.lx.questionnaire.dto.AnalyticsQuestionVO;
+import com.lx.questionnaire.dto.AnalyticsScaleSummary;
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.util.AnswerFormatUtils;
+import com.lx.questionnaire.util.OptionMask;
+import com.lx.questionnaire.util.ResponsePayload;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 问卷统计的逐份累加器：每道题只保留计数器（选项计数、量表分值分布与总和、填空文本），
+ * 答卷逐份喂入后即可丢弃，内存与答卷数无关（填空题的文本列表本身就是输出）。
+ * 有编码的答卷直接用 ResponsePayload.Reader 读数值，不解码成 ResponseItem；存量答卷按答卷项累加。
+ * 选项下标可带上答卷所属版本的映射（见 OptionLayout），换算后计入对应选项。
+ */
+final class AnalyticsAccumulator {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final List<SurveyQuestion> questions;
+    private final Map<Long, Stats> statsByQuestion = new HashMap<>();
+
+    AnalyticsAccumulator(List<SurveyQuestion> questions) {
+        this.questions = questions;
+        for (SurveyQuestion q : questions) {
+            statsByQuestion.put(q.getId(), new Stats(q.getType(), optionCount(q)));
+        }
+    }
+
+    /** 累加一份编码答卷；不属于当前题目列表的答案忽略 */
+    void add(ResponsePayload.Reader reader) {
+        add(reader, null);
+    }
+
+    /**
+     * @param mapping 答卷所属版本的选项下标映射，key 为 questionId；为 null 或缺少某题时按原下标计数
+     */
+    void add(ResponsePayload.Reader reader, Map<Long, int[]> mapping) {
+        while (reader.next()) {
+            Stats st = statsByQuestion.get(reader.questionId());
+            if (st == null) continue;
+            st.answered = true;
+            switch (st.kind) {
+                case CHOICE -> {
+                    int kind = reader.kind();
+                    if (kind != ResponsePayload.KIND_SINGLE && kind != ResponsePayload.KIND_MASK
+                            && kind != ResponsePayload.KIND_LIST) break;
+                    st.total++;
+                    int[] map = mapping != null ? mapping.get(reader.questionId()) : null;
+                    if (map == null) {
+                        for (int idx = 0; idx < st.counts.length; idx++) {
+                            if (reader.isSelected(idx)) st.counts[idx]++;
+                        }
+                    } else {
+                        for (int idx = 0; idx < map.length; idx++) {
+                            if (reader.isSelected(idx)) st.count(map[idx]);
+                        }
+                    }
+                }
+                case SCALE -> {
+                    if (reader.kind() == ResponsePayload.KIND_SCALE) st.addScale(reader.scaleValue());
+                }
+                default -> {
+                    if (reader.hasText()) st.texts.add(reader.text());
+                }
+            }
+        }
+    }
+
+    /** 累加一条存量答卷项（无编码的答卷） */
+    void add(ResponseItem ri) {
+        add(ri, null);
+    }
+
+    /**
+     * @param mapping 答卷所属版本的选项下标映射，同 {@link #add(ResponsePayload.Reader, Map)}
+     */
+    void add(ResponseItem ri, Map<Long, int[]> mapping) {
+        Stats st = statsByQuestion.get(ri.getQuestionId());
+        if (st == null) return;
+        st.answered = true;
+        switch (st.kind) {
+            case CHOICE -> {
+                // 位图逐位累加，只有未回填的 JSON 答案才需要解析
+                int[] map = mapping != null ? mapping.get(ri.getQuestionId()) : null;
+                if (ri.getOptionIndex() != null) {
+                    st.total++;
+                    st.count(map != null ? mapIndex(map, ri.getOptionIndex()) : ri.getOptionIndex());
+                } else if (ri.getOptionMask() != null) {
+                    st.total++;
+                    if (map == null) {
+                        OptionMask.addTo(ri.getOptionMask(), st.counts);
+                    } else {
+                        for (int idx : OptionMask.toArray(ri.getOptionMask())) st.count(mapIndex(map, idx));
+                    }
+                } else if (ri.getOptionIndices() != null && !ri.getOptionIndices().isEmpty()) {
+                    st.total++;
+                    for (int idx : new LinkedHashSet<>(AnswerFormatUtils.parseOptionIndices(ri.getOptionIndices()))) {
+                        st.count(map != null ? mapIndex(map, idx) : idx);
+                    }
+                }
+            }
+            case SCALE -> {
+                if (ri.getScaleValue() != null) st.addScale(ri.getScaleValue());
+            }
+            default -> {
+                if (ri.getTextValue() != null) st.texts.add(ri.getTextValue());
+            }
+        }
+    }
+
+    /** 按题目顺序生成统计结果 */
+    List<AnalyticsQuestionVO> result() {
+        List<AnalyticsQuestionVO> result = new ArrayList<>(questions.size());
+        for (SurveyQuestion q : questions) {
+            Stats st = statsByQuestion.get(q.getId());
+            AnalyticsQuestionVO aq = new AnalyticsQuestionVO();
+            aq.setQuestionId(q.getId());
+            aq.setType(q.getType());
+            aq.setTitle(q.getTitle());
+            switch (st.kind) {
+                case CHOICE -> aq.setSummary(optionSummary(q, st));
+                case SCALE -> aq.setSummary(st.answered ? scaleSummary(st) : new AnalyticsScaleSummary());
+                default -> aq.setSummary(st.texts);
+            }
+            result.add(aq);
+        }
+        return result;
+    }
+
+    private static List<AnalyticsOptionSummary> optionSummary(SurveyQuestion q, Stats st) {
+        List<AnalyticsOptionSummary> list = new ArrayList<>();
+        if (!st.answered) return list;
+        for (int idx = 0; idx < st.counts.length; idx++) {
+            long count = st.counts[idx];
+            AnalyticsOptionSummary o = new AnalyticsOptionSummary();
+            o.setOptionIndex(idx);
+            o.setLabel(AnswerFormatUtils.getOptionLabel(q, idx));
+            o.setCount(count);
+            o.setRatio(st.total > 0 ? (double) count / st.total : 0);
+            list.add(o);
+        }
+        return list;
+    }
+
+    private static AnalyticsScaleSummary scaleSummary(Stats st) {
+        AnalyticsScaleSummary s = new AnalyticsScaleSummary();
+        s.setAvg(st.scaleCount > 0 ? (double) st.scaleSum / st.scaleCount : 0);
+        List<AnalyticsScaleSummary.ScaleDistributionItem> distList = new ArrayList<>();
+        for (Map.Entry<Integer, Long> e : st.distribution.entrySet()) {
+            AnalyticsScaleSummary.ScaleDistributionItem d = new AnalyticsScaleSummary.ScaleDistributionItem();
+            d.setValue(e.getKey());
+            d.setCount(e.getValue());
+            distList.add(d);
+        }
+        s.setDistribution(distList);
+        return s;
+    }
+
+    /** 选项数（含“其他”）；非选择题为 0 */
+    private static int optionCount(SurveyQuestion q) {
+        if (!isChoice(q.getType()) || q.getConfig() == null) return 0;
+        try {
+            JsonNode node = JSON.readTree(q.getConfig());
+            JsonNode opts = node.get("options");
+            int count = opts != null && opts.isArray() ? opts.size() : 0;
+            if (node.has("hasOtherOption") && node.get("hasOtherOption").asBoolean()) count++;
+            return count;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /** 映射范围外的下标不对应任何选项 */
+    private static int mapIndex(int[] map, int index) {
+        return index >= 0 && index < map.length ? map[index] : -1;
+    }
+
+    private static boolean isChoice(String type) {
+        return "SINGLE_CHOICE".equals(type) || "MULTIPLE_CHOICE".equals(type);
+    }
+
+    private enum Kind { CHOICE, SCALE, TEXT }
+
+    private static final class Stats {
+        final Kind kind;
+        final long[] counts;
+        final TreeMap<Integer, Long> distribution = new TreeMap<>();
+        final List<String> texts = new ArrayList<>();
+        boolean answered;
+        int total;
+        long scaleSum;
+        long scaleCount;
+
+        Stats(String type, int optionCount) {
+            this.kind = isChoice(type) ? Kind.CHOICE : "SCALE".equals(type) ? Kind.SCALE : Kind.TEXT;
+            this.counts = new long[optionCount];
+        }
+
+        void count(int index) {
+            if (index >= 0 && index < counts.length) counts[index]++;
+        }
+
+        void addScale(int value) {
+            scaleSum += value;
+            scaleCount++;
+            distribution.merge(value, 1L, Long::sum);
+        }
+    }
+}
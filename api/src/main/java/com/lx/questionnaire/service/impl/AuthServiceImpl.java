@@ -4,20 +4,29 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.lx.questionnaire.entity.Account;
 import com.lx.questionnaire.entity.Role;
 import com.lx.questionnaire.entity.User;
-import com.lx.questionnaire.entity.UserRole;
 import com.lx.questionnaire.mapper.AccountMapper;
-import com.lx.questionnaire.mapper.RoleMapper;
 import com.lx.questionnaire.mapper.UserMapper;
 import com.lx.questionnaire.mapper.UserRoleMapper;
 import com.lx.questionnaire.service.AuthService;
-import lombok.RequiredArgsConstructor;
+import com.lx.questionnaire.service.RoleService;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * CAS 首次登录开户。
+ * <p>
+ * 同一 loginId 的并发回调（双击、多标签页）在本 JVM 内合并为一次开户；跨节点由 account 唯一键兜底：
+ * 开户事务先插 user，再 INSERT IGNORE account，未插入说明已被别处开户，回滚本事务后读取已有账号。
+ * 开户事务不做一致性读，INSERT IGNORE 遇到未提交的同键行会等待其提交，因此回滚后一定能读到对方的数据。
+ */
 @Service
-@RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
 
     private static final String AUTH_SOURCE_CAS = "cas";
@@ -26,38 +35,89 @@ public class AuthServiceImpl implements AuthService {
     private final UserMapper userMapper;
     private final AccountMapper accountMapper;
     private final UserRoleMapper userRoleMapper;
-    private final RoleMapper roleMapper;
+    private final RoleService roleService;
+    private final TransactionTemplate transactionTemplate;
+
+    /** 进行中的开户，key 为 loginId */
+    private final ConcurrentMap<String, CompletableFuture<User>> inFlight = new ConcurrentHashMap<>();
+
+    public AuthServiceImpl(UserMapper userMapper, AccountMapper accountMapper, UserRoleMapper userRoleMapper,
+                           RoleService roleService, PlatformTransactionManager transactionManager) {
+        this.userMapper = userMapper;
+        this.accountMapper = accountMapper;
+        this.userRoleMapper = userRoleMapper;
+        this.roleService = roleService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public User findOrCreateUserByCasLoginId(String loginId) {
+        User existing = findUserByCasLoginId(loginId);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<User> mine = new CompletableFuture<>();
+        CompletableFuture<User> running = inFlight.putIfAbsent(loginId, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+        try {
+            User user = provision(loginId);
+            mine.complete(user);
+            return user;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(loginId, mine);
+        }
+    }
+
+    private User provision(String loginId) {
+        String userId = "u-" + UUID.randomUUID().toString().replace("-", "").substring(0, 24);
+        User created = transactionTemplate.execute(status -> {
+            User user = new User();
+            user.setId(userId);
+            user.setNickname(loginId);
+            userMapper.insert(user);
+            if (accountMapper.insertIgnore(userId, loginId, AUTH_SOURCE_CAS) == 0) {
+                status.setRollbackOnly();
+                return null;
+            }
+            Long roleId = getDefaultRoleId();
+            if (roleId != null) {
+                userRoleMapper.insertIgnore(userId, roleId);
+            }
+            return user;
+        });
+        if (created != null) {
+            return created;
+        }
+        User existing = findUserByCasLoginId(loginId);
+        if (existing == null) {
+            throw new IllegalStateException("CAS account vanished during provisioning: " + loginId);
+        }
+        return existing;
+    }
+
+    private User findUserByCasLoginId(String loginId) {
         Account account = accountMapper.selectOne(
                 new LambdaQueryWrapper<Account>()
                         .eq(Account::getLoginId, loginId)
                         .eq(Account::getAuthSource, AUTH_SOURCE_CAS));
-        if (account != null) {
-            return userMapper.selectById(account.getUserId());
-        }
-        String userId = "u-" + UUID.randomUUID().toString().replace("-", "").substring(0, 24);
-        User user = new User();
-        user.setId(userId);
-        user.setNickname(loginId);
-        userMapper.insert(user);
-
-        Account newAccount = new Account();
-        newAccount.setUserId(userId);
-        newAccount.setLoginId(loginId);
-        newAccount.setAuthSource(AUTH_SOURCE_CAS);
-        accountMapper.insert(newAccount);
-
-        Role defaultRole = roleMapper.selectOne(
-                new LambdaQueryWrapper<Role>().eq(Role::getCode, DEFAULT_ROLE_CODE));
-        if (defaultRole != null) {
-            UserRole ur = new UserRole();
-            ur.setUserId(userId);
-            ur.setRoleId(defaultRole.getId());
-            userRoleMapper.insert(ur);
-        }
-        return user;
+        return account == null ? null : userMapper.selectById(account.getUserId());
+    }
+
+    /** 角色表走参考数据缓存，首次登录不再按编码查库 */
+    private Long getDefaultRoleId() {
+        return roleService.listAll().stream()
+                .filter(r -> DEFAULT_ROLE_CODE.equals(r.getCode()))
+                .map(Role::getId)
+                .findFirst()
+                .orElse(null);
     }
 }
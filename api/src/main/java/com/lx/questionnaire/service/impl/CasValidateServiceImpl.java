@@ -1,30 +1,87 @@
 package com.lx.questionnaire.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.lx.questionnaire.config.CasProperties;
 import com.lx.questionnaire.service.CasValidateService;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * CAS 2.0 协议：GET /cas/serviceValidate?service=xxx&ticket=xxx 返回 XML，内含 &lt;cas:user&gt;login_id&lt;/cas:user&gt;
+ * <p>
+ * 开学高峰大量回调同时到达时，避免慢 CAS 拖住 Tomcat 线程：连接池 + 连接/读取超时、信号量限制并发、
+ * 连续失败熔断（熔断期间直接失败），已校验的 ticket 短期缓存以吸收重复回调（CAS ticket 只能校验一次）。
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CasValidateServiceImpl implements CasValidateService {
 
     private static final Pattern CAS_USER_PATTERN = Pattern.compile("<cas:user>([^<]+)</cas:user>");
 
     private final CasProperties casProperties;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+    private final Semaphore permits;
+    private final CircuitBreaker circuitBreaker;
+    private final Cache<String, String> validatedTickets;
+    /** 正在校验中的 ticket：同一 ticket 的并发回调等待同一次请求，远程调用不放在缓存的 compute 里执行 */
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    public CasValidateServiceImpl(CasProperties casProperties) {
+        this.casProperties = casProperties;
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(casProperties.getMaxConcurrent())
+                .setMaxConnPerRoute(casProperties.getMaxConcurrent())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(casProperties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(casProperties.getReadTimeout()))
+                        .build())
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(casProperties.getConnectTimeout()))
+                        .setResponseTimeout(Timeout.of(casProperties.getReadTimeout()))
+                        .build())
+                .disableAutomaticRetries()
+                .build();
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        this.permits = new Semaphore(casProperties.getMaxConcurrent());
+        this.circuitBreaker = new CircuitBreaker(casProperties.getCircuitFailureThreshold(),
+                casProperties.getCircuitOpenDuration().toMillis());
+        this.validatedTickets = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(casProperties.getTicketCacheTtl())
+                .build();
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        httpClient.close();
+    }
 
     @Override
     public String validateTicketAndGetLoginId(String ticket) {
@@ -40,12 +97,46 @@ public class CasValidateServiceImpl implements CasValidateService {
             log.warn("cas.service-callback-url not set, CAS validate skipped");
             return null;
         }
-        String validateUrl = casProperties.getServerUrl().replaceAll("/$", "")
-                + "/serviceValidate"
-                + "?service=" + java.net.URLEncoder.encode(serviceUrl, StandardCharsets.UTF_8)
-                + "&ticket=" + java.net.URLEncoder.encode(ticket, StandardCharsets.UTF_8);
+        String cached = validatedTickets.getIfPresent(ticket);
+        if (cached != null) return cached;
+        // 同一 ticket 并发回调只发一次校验请求；校验失败（返回 null）不缓存
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> pending = inFlight.putIfAbsent(ticket, mine);
+        if (pending != null) return pending.join();
         try {
+            String loginId = validateRemote(serviceUrl, ticket);
+            if (loginId != null) validatedTickets.put(ticket, loginId);
+            mine.complete(loginId);
+            return loginId;
+        } catch (RuntimeException e) {
+            mine.complete(null);
+            throw e;
+        } finally {
+            inFlight.remove(ticket, mine);
+        }
+    }
+
+    private String validateRemote(String serviceUrl, String ticket) {
+        if (!circuitBreaker.allowRequest()) {
+            log.warn("CAS circuit open, validate skipped");
+            return null;
+        }
+        boolean acquired = false;
+        try {
+            acquired = permits.tryAcquire(casProperties.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            if (!acquired) {
+                // 本地并发已满不代表 CAS 不可用，不计入熔断；若占用了试探名额则交还
+                log.warn("CAS validate rejected: too many concurrent requests");
+                circuitBreaker.onAbandoned();
+                return null;
+            }
+            String validateUrl = casProperties.getServerUrl().replaceAll("/$", "")
+                    + "/serviceValidate"
+                    + "?service=" + java.net.URLEncoder.encode(serviceUrl, StandardCharsets.UTF_8)
+                    + "&ticket=" + java.net.URLEncoder.encode(ticket, StandardCharsets.UTF_8);
             ResponseEntity<String> resp = restTemplate.getForEntity(URI.create(validateUrl), String.class);
+            // CAS 正常应答（包括 ticket 无效）即视为服务可用
+            circuitBreaker.onSuccess();
             String body = resp.getBody();
             if (body == null) {
                 return null;
@@ -59,9 +150,59 @@ public class CasValidateServiceImpl implements CasValidateService {
                 return m.group(1).trim();
             }
             return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.onAbandoned();
+            return null;
         } catch (Exception e) {
+            circuitBreaker.onFailure();
             log.warn("CAS validate request failed: {}", e.getMessage());
             return null;
+        } finally {
+            if (acquired) permits.release();
+        }
+    }
+
+    /**
+     * 连续失败计数熔断：达到阈值后打开，openMillis 内直接拒绝；到期后放行一个试探请求，成功则关闭，失败则重新打开，
+     * 试探请求未真正发出（本地限流、线程中断）时交还名额，下一个请求继续试探
+     */
+    static final class CircuitBreaker {
+        private final int failureThreshold;
+        private final long openMillis;
+        private int consecutiveFailures;
+        private long openedAt = -1;
+        private boolean probing;
+
+        CircuitBreaker(int failureThreshold, long openMillis) {
+            this.failureThreshold = failureThreshold;
+            this.openMillis = openMillis;
+        }
+
+        synchronized boolean allowRequest() {
+            if (openedAt < 0) return true;
+            if (probing || System.currentTimeMillis() - openedAt < openMillis) return false;
+            probing = true;
+            return true;
+        }
+
+        synchronized void onSuccess() {
+            consecutiveFailures = 0;
+            openedAt = -1;
+            probing = false;
+        }
+
+        synchronized void onFailure() {
+            consecutiveFailures++;
+            if (probing || consecutiveFailures >= failureThreshold) {
+                openedAt = System.currentTimeMillis();
+                probing = false;
+            }
+        }
+
+        /** 请求未发出即放弃：不计成功也不计失败 */
+        synchronized void onAbandoned() {
+            probing = false;
         }
     }
 }
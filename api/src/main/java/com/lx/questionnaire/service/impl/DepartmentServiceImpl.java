@@ -2,15 +2,21 @@ package com.lx.questionnaire.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.lx.questionnaire.cache.ReferenceDataCache;
+import com.lx.questionnaire.cache.ReferenceDataChangedEvent;
+import com.lx.questionnaire.cache.ReferenceTable;
 import com.lx.questionnaire.common.BusinessException;
 import com.lx.questionnaire.common.ErrorCode;
 import com.lx.questionnaire.entity.Department;
 import com.lx.questionnaire.entity.User;
+import com.lx.questionnaire.mapper.DepartmentClosureMapper;
 import com.lx.questionnaire.mapper.DepartmentMapper;
 import com.lx.questionnaire.mapper.UserMapper;
 import com.lx.questionnaire.service.DepartmentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
@@ -21,6 +27,9 @@ public class DepartmentServiceImpl implements DepartmentService {
 
     private final DepartmentMapper departmentMapper;
     private final UserMapper userMapper;
+    private final DepartmentClosureMapper departmentClosureMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReferenceDataCache referenceDataCache;
 
     @Override
     public Page<Department> queryDepartments(String keyword, Integer page, Integer pageSize) {
@@ -35,16 +44,16 @@ public class DepartmentServiceImpl implements DepartmentService {
 
     @Override
     public List<Department> listAll() {
-        return departmentMapper.selectList(
+        return referenceDataCache.get(ReferenceTable.DEPARTMENT, "all", () -> departmentMapper.selectList(
                 new LambdaQueryWrapper<Department>()
                         .orderByAsc(Department::getLevel)
                         .orderByAsc(Department::getSort)
-                        .orderByAsc(Department::getId));
+                        .orderByAsc(Department::getId)));
     }
 
     @Override
     public Department getById(Long id) {
-        Department d = departmentMapper.selectById(id);
+        Department d = referenceDataCache.get(ReferenceTable.DEPARTMENT, "id:" + id, () -> departmentMapper.selectById(id));
         if (d == null) {
             throw new BusinessException(new ErrorCode(2010, "院系不存在") {});
         }
@@ -52,6 +61,7 @@ public class DepartmentServiceImpl implements DepartmentService {
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public Department create(Department department) {
         if (StringUtils.hasText(department.getCode())) {
             long cnt = departmentMapper.selectCount(
@@ -67,12 +77,18 @@ public class DepartmentServiceImpl implements DepartmentService {
             department.setLevel(parent != null ? parent.getLevel() + 1 : 1);
         }
         departmentMapper.insert(department);
+        departmentClosureMapper.insertNode(department.getId(), department.getParentId());
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceTable.DEPARTMENT));
         return department;
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void update(Long id, Department department) {
-        Department existing = getById(id);
+        getById(id);
+        // 缓存中的对象共享只读，修改前从库中取一份并锁住该行
+        Department existing = departmentMapper.selectOne(new LambdaQueryWrapper<Department>()
+                .eq(Department::getId, id).last("FOR UPDATE"));
         if (StringUtils.hasText(department.getCode()) && !department.getCode().trim().equals(existing.getCode())) {
             long cnt = departmentMapper.selectCount(
                     new LambdaQueryWrapper<Department>().eq(Department::getCode, department.getCode().trim()));
@@ -84,7 +100,14 @@ public class DepartmentServiceImpl implements DepartmentService {
         if (StringUtils.hasText(department.getName())) {
             existing.setName(department.getName().trim());
         }
-        if (department.getParentId() != null) {
+        boolean moved = department.getParentId() != null && !department.getParentId().equals(existing.getParentId());
+        if (moved) {
+            // 环检测不能用缓存的院系树（可能落后于并发提交的移动）：在事务内锁住被移动的子树，
+            // 再以共享锁读新父院系的祖先链，两次并发移动若可能互相成环必然在某一行上冲突而串行
+            departmentClosureMapper.lockSubtree(id);
+            if (departmentClosureMapper.selectAncestorIdsForShare(department.getParentId()).contains(id)) {
+                throw new BusinessException(new ErrorCode(2014, "不能将院系移动到其自身或下级院系下") {});
+            }
             existing.setParentId(department.getParentId());
             Department parent = departmentMapper.selectById(department.getParentId());
             existing.setLevel(parent != null ? parent.getLevel() + 1 : 1);
@@ -93,9 +116,16 @@ public class DepartmentServiceImpl implements DepartmentService {
             existing.setSort(department.getSort());
         }
         departmentMapper.updateById(existing);
+        if (moved) {
+            departmentClosureMapper.detachSubtree(id);
+            departmentClosureMapper.attachSubtree(id, existing.getParentId());
+            departmentClosureMapper.updateSubtreeLevels(id, existing.getLevel());
+        }
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceTable.DEPARTMENT));
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void delete(Long id) {
         Department d = getById(id);
         long children = departmentMapper.selectCount(
@@ -109,5 +139,7 @@ public class DepartmentServiceImpl implements DepartmentService {
             throw new BusinessException(new ErrorCode(2013, "该院系下尚有用户，无法删除") {});
         }
         departmentMapper.deleteById(id);
+        departmentClosureMapper.deleteNode(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceTable.DEPARTMENT));
     }
 }
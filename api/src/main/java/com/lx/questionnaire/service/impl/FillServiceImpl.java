@@ -1,13 +1,16 @@
 package com.lx.questionnaire.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lx.questionnaire.common.BusinessException;
 import com.lx.questionnaire.common.ErrorCode;
+import com.lx.questionnaire.config.ResponsePayloadProperties;
 import com.lx.questionnaire.dto.FillSurveyVO;
 import com.lx.questionnaire.dto.SubmitItemDTO;
 import com.lx.questionnaire.dto.SubmitRequestDTO;
+import com.lx.questionnaire.dto.SurveyVersionSnapshot;
 import com.lx.questionnaire.entity.Response;
 import com.lx.questionnaire.entity.ResponseItem;
 import com.lx.questionnaire.entity.Survey;
@@ -17,6 +20,10 @@ import com.lx.questionnaire.mapper.ResponseMapper;
 import com.lx.questionnaire.mapper.SurveyMapper;
 import com.lx.questionnaire.mapper.SurveyQuestionMapper;
 import com.lx.questionnaire.service.FillService;
+import com.lx.questionnaire.service.SurveyVersionService;
+import com.lx.questionnaire.util.AnswerFormatUtils;
+import com.lx.questionnaire.util.OptionMask;
+import com.lx.questionnaire.util.ResponsePayload;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,6 +39,7 @@ public class FillServiceImpl implements FillService {
 
     private static final String STATUS_DRAFT = "DRAFT";
     private static final String STATUS_SUBMITTED = "SUBMITTED";
+    private static final String STATUS_SCHEDULED = "SCHEDULED";
     private static final String STATUS_COLLECTING = "COLLECTING";
     private static final String STATUS_PAUSED = "PAUSED";
     private static final String STATUS_ENDED = "ENDED";
@@ -50,14 +58,25 @@ public class FillServiceImpl implements FillService {
     private final ResponseMapper responseMapper;
     private final ResponseItemMapper responseItemMapper;
     private final ObjectMapper objectMapper;
+    private final SurveyVersionService surveyVersionService;
+    private final ResponsePayloadProperties responsePayloadProperties;
 
     @Override
     public FillSurveyVO getFillMetadata(String surveyId, String userId) {
+        Survey s = requireFillable(surveyId, userId);
+        SurveyVersionSnapshot version = surveyVersionService.resolve(s);
+        FillSurveyVO vo = FillSurveyVO.from(s, version.questions());
+        vo.setVersionId(version.id());
+        return vo;
+    }
+
+    /** 校验问卷处于可填写状态（含时间窗与每人限填），返回问卷 */
+    private Survey requireFillable(String surveyId, String userId) {
         Survey s = surveyMapper.selectById(surveyId);
         if (s == null) {
             throw new BusinessException(ErrorCode.SURVEY_NOT_FOUND);
         }
-        if (STATUS_DRAFT.equals(s.getStatus())) {
+        if (STATUS_DRAFT.equals(s.getStatus()) || STATUS_SCHEDULED.equals(s.getStatus())) {
             throw new BusinessException(ErrorCode.SURVEY_NOT_STARTED);
         }
         if (STATUS_ENDED.equals(s.getStatus()) || STATUS_PAUSED.equals(s.getStatus())) {
@@ -77,9 +96,7 @@ public class FillServiceImpl implements FillService {
                 throw new BusinessException(ErrorCode.SURVEY_ALREADY_SUBMITTED);
             }
         }
-        List<SurveyQuestion> questions = surveyQuestionMapper.selectList(
-                new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, surveyId).orderByAsc(SurveyQuestion::getSortOrder));
-        return FillSurveyVO.from(s, questions);
+        return s;
     }
 
     @Override
@@ -102,39 +119,45 @@ public class FillServiceImpl implements FillService {
     @Override
     @Transactional
     public void submit(String surveyId, String userId, SubmitRequestDTO request, String clientIp) {
-        getFillMetadata(surveyId, userId);
-
-        Survey s = surveyMapper.selectById(surveyId);
-        if (s != null) {
-            Integer limitByIp = s.getLimitByIp();
-            if (limitByIp != null && limitByIp > 0 && clientIp != null && !clientIp.isBlank()) {
-                long ipCount = responseMapper.selectCount(new LambdaQueryWrapper<Response>()
-                        .eq(Response::getSurveyId, surveyId).eq(Response::getSubmittedIp, clientIp).eq(Response::getStatus, STATUS_SUBMITTED));
-                if (ipCount >= limitByIp) {
-                    throw new BusinessException(ErrorCode.SURVEY_IP_LIMIT);
-                }
+        Survey s = requireFillable(surveyId, userId);
+        Integer limitByIp = s.getLimitByIp();
+        if (limitByIp != null && limitByIp > 0 && clientIp != null && !clientIp.isBlank()) {
+            long ipCount = responseMapper.selectCount(new LambdaQueryWrapper<Response>()
+                    .eq(Response::getSurveyId, surveyId).eq(Response::getSubmittedIp, clientIp).eq(Response::getStatus, STATUS_SUBMITTED));
+            if (ipCount >= limitByIp) {
+                throw new BusinessException(ErrorCode.SURVEY_IP_LIMIT);
             }
-            Integer limitByDevice = s.getLimitByDevice();
-            String deviceId = request != null ? request.getDeviceId() : null;
-            if (limitByDevice != null && limitByDevice > 0 && deviceId != null && !deviceId.isBlank()) {
-                long deviceCount = responseMapper.selectCount(new LambdaQueryWrapper<Response>()
-                        .eq(Response::getSurveyId, surveyId).eq(Response::getDeviceId, deviceId).eq(Response::getStatus, STATUS_SUBMITTED));
-                if (deviceCount >= limitByDevice) {
-                    throw new BusinessException(ErrorCode.SURVEY_DEVICE_LIMIT);
-                }
+        }
+        Integer limitByDevice = s.getLimitByDevice();
+        String deviceId = request != null ? request.getDeviceId() : null;
+        if (limitByDevice != null && limitByDevice > 0 && deviceId != null && !deviceId.isBlank()) {
+            long deviceCount = responseMapper.selectCount(new LambdaQueryWrapper<Response>()
+                    .eq(Response::getSurveyId, surveyId).eq(Response::getDeviceId, deviceId).eq(Response::getStatus, STATUS_SUBMITTED));
+            if (deviceCount >= limitByDevice) {
+                throw new BusinessException(ErrorCode.SURVEY_DEVICE_LIMIT);
             }
         }
 
-        List<SurveyQuestion> questions = surveyQuestionMapper.selectList(
-                new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, surveyId).orderByAsc(SurveyQuestion::getSortOrder));
-        Map<Long, SurveyQuestion> questionMap = questions.stream().collect(Collectors.toMap(SurveyQuestion::getId, q -> q));
+        // 按作答时的版本校验，校验所需的题目索引与解析后的配置随快照缓存
+        SurveyVersionSnapshot version = surveyVersionService.resolve(s);
+        List<SurveyQuestion> questions = version.questions();
 
-        validateSubmitItems(surveyId, request.getItems(), questionMap);
+        validateSubmitItems(request.getItems(), version);
+
+        List<ResponseItem> responseItems = new ArrayList<>();
+        if (request.getItems() != null) {
+            for (SubmitItemDTO item : request.getItems()) {
+                if (item.getQuestionId() == null) continue;
+                ResponseItem ri = buildResponseItem(item, null);
+                if (ri != null) responseItems.add(ri);
+            }
+        }
+        String summary = AnswerFormatUtils.buildSummary(questions,
+                responseItems.stream().collect(Collectors.toMap(ResponseItem::getQuestionId, x -> x)));
+        byte[] payload = responsePayloadProperties.isReadAcceleration() ? ResponsePayload.encode(responseItems) : null;
 
-        Survey sForDraft = surveyMapper.selectById(surveyId);
-        String deviceId = request != null ? request.getDeviceId() : null;
         Response r = null;
-        if (sForDraft != null && Boolean.TRUE.equals(sForDraft.getAllowAnonymous())) {
+        if (Boolean.TRUE.equals(s.getAllowAnonymous())) {
             if (deviceId != null && !deviceId.isBlank()) {
                 r = responseMapper.selectOne(new LambdaQueryWrapper<Response>()
                         .eq(Response::getSurveyId, surveyId).eq(Response::getStatus, STATUS_DRAFT).eq(Response::getDeviceId, deviceId));
@@ -147,15 +170,31 @@ public class FillServiceImpl implements FillService {
             r = responseMapper.selectOne(new LambdaQueryWrapper<Response>()
                     .eq(Response::getSurveyId, surveyId).eq(Response::getStatus, STATUS_DRAFT).eq(Response::getUserId, userId));
         }
+        boolean fromDraft = false;
         if (r != null) {
-            r.setStatus(STATUS_SUBMITTED);
-            r.setUserId(userId);
-            r.setSubmittedAt(LocalDateTime.now());
-            r.setDurationSeconds(request.getDurationSeconds());
-            r.setSubmittedIp(clientIp);
-            responseMapper.updateById(r);
-            responseItemMapper.delete(new LambdaQueryWrapper<ResponseItem>().eq(ResponseItem::getResponseId, r.getId()));
-        } else {
+            // 仅当草稿仍为 DRAFT 时转为答卷（更新 1 行）；更新 0 行时：草稿已被过期清理删除（DraftPurgeJob）
+            // 则按新答卷插入，草稿已被并发的另一次提交转为答卷则拒绝，两种情况都不计入草稿数
+            fromDraft = responseMapper.update(null, new LambdaUpdateWrapper<Response>()
+                    .eq(Response::getId, r.getId())
+                    .eq(Response::getStatus, STATUS_DRAFT)
+                    .set(Response::getStatus, STATUS_SUBMITTED)
+                    .set(Response::getUserId, userId)
+                    .set(Response::getSubmittedAt, LocalDateTime.now())
+                    .set(Response::getDurationSeconds, request.getDurationSeconds())
+                    .set(Response::getSubmittedIp, clientIp)
+                    .set(Response::getSummary, summary)
+                    .set(Response::getSurveyVersionId, version.id())
+                    .set(Response::getResponsePayload, payload)) == 1;
+            if (fromDraft) {
+                responseItemMapper.delete(new LambdaQueryWrapper<ResponseItem>().eq(ResponseItem::getResponseId, r.getId()));
+            } else if (responseMapper.selectCount(new LambdaQueryWrapper<Response>()
+                    .eq(Response::getId, r.getId()).last("FOR SHARE")) > 0) {
+                // 行仍在说明已被另一次提交（重复点击、多个标签页）转为答卷；
+                // 须用加锁读取最新提交的数据，普通查询在可重复读下仍会看到事务开始时的快照
+                throw new BusinessException(ErrorCode.SURVEY_ALREADY_SUBMITTED);
+            }
+        }
+        if (!fromDraft) {
             r = new Response();
             r.setSurveyId(surveyId);
             r.setUserId(userId);
@@ -164,18 +203,17 @@ public class FillServiceImpl implements FillService {
             r.setDurationSeconds(request.getDurationSeconds());
             r.setSubmittedIp(clientIp);
             r.setDeviceId(deviceId);
+            r.setSummary(summary);
+            r.setSurveyVersionId(version.id());
+            r.setResponsePayload(payload);
             responseMapper.insert(r);
         }
 
-        if (request.getItems() != null) {
-            for (SubmitItemDTO item : request.getItems()) {
-                if (item.getQuestionId() == null) continue;
-                ResponseItem ri = buildResponseItem(item, r.getId());
-                if (ri != null) {
-                    responseItemMapper.insert(ri);
-                }
-            }
+        for (ResponseItem ri : responseItems) {
+            ri.setResponseId(r.getId());
+            responseItemMapper.insert(ri);
         }
+        surveyMapper.incrementResponseCounts(surveyId, 1, fromDraft ? -1 : 0);
     }
 
     @Override
@@ -183,7 +221,7 @@ public class FillServiceImpl implements FillService {
     public void saveDraft(String surveyId, String userId, String deviceId, List<SubmitItemDTO> items) {
         Survey s = surveyMapper.selectById(surveyId);
         if (s == null) throw new BusinessException(ErrorCode.SURVEY_NOT_FOUND);
-        if (STATUS_DRAFT.equals(s.getStatus())) return;
+        if (STATUS_DRAFT.equals(s.getStatus()) || STATUS_SCHEDULED.equals(s.getStatus())) return;
         if (STATUS_ENDED.equals(s.getStatus()) || STATUS_PAUSED.equals(s.getStatus())) return;
 
         boolean byUser = !Boolean.TRUE.equals(s.getAllowAnonymous());
@@ -194,18 +232,29 @@ public class FillServiceImpl implements FillService {
                 .eq(Response::getSurveyId, surveyId).eq(Response::getStatus, STATUS_DRAFT);
         if (byUser) q.eq(Response::getUserId, userId); else q.eq(Response::getDeviceId, deviceId);
         Response r = responseMapper.selectOne(q);
-        if (r == null) {
+        Long versionId = surveyVersionService.resolve(s).id();
+        boolean reused = false;
+        if (r != null) {
+            // 显式刷新 updated_at，草稿的过期时间从本次保存重新计算（内容不变时 ON UPDATE 不会触发）；
+            // 草稿可能恰好被过期清理删除（DraftPurgeJob），此时按新草稿插入，与提交的处理一致
+            reused = responseMapper.update(null, new LambdaUpdateWrapper<Response>()
+                    .eq(Response::getId, r.getId())
+                    .eq(Response::getStatus, STATUS_DRAFT)
+                    .set(Response::getUserId, userId)
+                    .set(Response::getDeviceId, deviceId)
+                    .set(Response::getSurveyVersionId, versionId)
+                    .setSql("updated_at = NOW()")) == 1;
+        }
+        if (!reused) {
             r = new Response();
             r.setSurveyId(surveyId);
             r.setUserId(userId);
             r.setStatus(STATUS_DRAFT);
             r.setSubmittedAt(null);
             r.setDeviceId(deviceId);
+            r.setSurveyVersionId(versionId);
             responseMapper.insert(r);
-        } else {
-            r.setUserId(userId);
-            r.setDeviceId(deviceId);
-            responseMapper.updateById(r);
+            surveyMapper.incrementResponseCounts(surveyId, 0, 1);
         }
         responseItemMapper.delete(new LambdaQueryWrapper<ResponseItem>().eq(ResponseItem::getResponseId, r.getId()));
         if (items != null) {
@@ -239,7 +288,9 @@ public class FillServiceImpl implements FillService {
         SubmitItemDTO dto = new SubmitItemDTO();
         dto.setQuestionId(ri.getQuestionId());
         dto.setOptionIndex(ri.getOptionIndex());
-        if (ri.getOptionIndices() != null && !ri.getOptionIndices().isBlank()) {
+        if (ri.getOptionMask() != null) {
+            dto.setOptionIndices(OptionMask.toArray(ri.getOptionMask()));
+        } else if (ri.getOptionIndices() != null && !ri.getOptionIndices().isBlank()) {
             try {
                 List<?> arr = objectMapper.readValue(ri.getOptionIndices(), List.class);
                 dto.setOptionIndices(arr.stream().filter(x -> x instanceof Number).map(x -> ((Number) x).intValue()).mapToInt(i -> i).toArray());
@@ -252,8 +303,9 @@ public class FillServiceImpl implements FillService {
         return dto;
     }
 
-    private void validateSubmitItems(String surveyId, List<SubmitItemDTO> items, Map<Long, SurveyQuestion> questionMap) {
+    private void validateSubmitItems(List<SubmitItemDTO> items, SurveyVersionSnapshot version) {
         if (items == null) items = List.of();
+        Map<Long, SurveyQuestion> questionMap = version.questionMap();
 
         Set<Long> answeredIds = new HashSet<>();
         for (SubmitItemDTO item : items) {
@@ -266,7 +318,7 @@ public class FillServiceImpl implements FillService {
                 throw new BusinessException(ErrorCode.fail(SUBMIT_VALIDATION_CODE, "同一题目不能重复作答"));
             }
             answeredIds.add(item.getQuestionId());
-            validateItemValue(item, q);
+            validateItemValue(item, q, version.config(q.getId()));
         }
 
         for (SurveyQuestion q : questionMap.values()) {
@@ -277,9 +329,8 @@ public class FillServiceImpl implements FillService {
     }
 
     @SuppressWarnings("unchecked")
-    private void validateItemValue(SubmitItemDTO item, SurveyQuestion q) {
+    private void validateItemValue(SubmitItemDTO item, SurveyQuestion q, Map<String, Object> config) {
         String type = q.getType();
-        Map<String, Object> config = parseConfig(q.getConfig());
 
         switch (type == null ? "" : type) {
             case TYPE_SINGLE -> {
@@ -348,6 +399,8 @@ public class FillServiceImpl implements FillService {
             }
         } else if (item.getOptionIndices() != null && item.getOptionIndices().length > 0) {
             ri.setValueType(VALUE_TYPE_OPTION);
+            // 位图之外继续写 option_indices：回滚到只读 JSON 的版本时新答卷仍可读，保留一个版本后再只写位图
+            ri.setOptionMask(OptionMask.encode(item.getOptionIndices()));
             ri.setOptionIndices(toJsonArray(item.getOptionIndices()));
             if (item.getTextValue() != null && !item.getTextValue().isBlank()) {
                 ri.setTextValue(item.getTextValue());
@@ -364,16 +417,6 @@ public class FillServiceImpl implements FillService {
         return ri;
     }
 
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> parseConfig(String configJson) {
-        if (configJson == null || configJson.isBlank()) return Map.of();
-        try {
-            return objectMapper.readValue(configJson, Map.class);
-        } catch (Exception e) {
-            return Map.of();
-        }
-    }
-
     @SuppressWarnings("unchecked")
     private int getOptionsCount(Map<String, Object> config) {
         Object opts = config.get("options");
@@ -0,0 +1,194 @@
+package com.lx.questionnaire.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.lx.questionnaire.dto.SurveyVersionSnapshot;
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.util.AnswerFormatUtils;
+import com.lx.questionnaire.util.OptionMask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 统计与导出的选项布局：以当前题目为准，各版本快照中已不存在的选项按文案追加在当前选项之后（“其他”之前）。
+ * 答卷中的选项下标按作答时的版本解释，经每个版本的“版本内下标 → 布局下标”映射换算，
+ * 选项调整顺序、插入或删除后旧答卷仍计入原选项。无版本的存量答卷按当前题目解释，不做换算。
+ */
+final class OptionLayout {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    /** 映射中间值：版本的“其他”对应布局的“其他”，下标在全部追加完成后才确定 */
+    private static final int OTHER = -1;
+
+    private final List<SurveyQuestion> questions;
+    private final Map<Long, Map<Long, int[]>> mappingsByVersion = new HashMap<>();
+
+    OptionLayout(List<SurveyQuestion> current, Collection<SurveyVersionSnapshot> versions) {
+        Map<Long, Choices> layout = new HashMap<>();
+        for (SurveyQuestion q : current) {
+            if (isChoice(q.getType())) layout.put(q.getId(), Choices.parse(q.getConfig()));
+        }
+        for (SurveyVersionSnapshot v : versions) {
+            Map<Long, int[]> mapping = new HashMap<>();
+            for (SurveyQuestion vq : v.questions()) {
+                Choices target = layout.get(vq.getId());
+                if (target == null || !isChoice(vq.getType())) continue;
+                mapping.put(vq.getId(), target.claim(Choices.parse(vq.getConfig())));
+            }
+            mappingsByVersion.put(v.id(), mapping);
+        }
+        for (Map<Long, int[]> mapping : mappingsByVersion.values()) {
+            mapping.forEach((questionId, map) -> {
+                int other = layout.get(questionId).labels.size();
+                for (int i = 0; i < map.length; i++) {
+                    if (map[i] == OTHER) map[i] = other;
+                }
+            });
+        }
+        List<SurveyQuestion> result = new ArrayList<>(current.size());
+        for (SurveyQuestion q : current) {
+            Choices c = layout.get(q.getId());
+            result.add(c == null || c.labels.size() == c.currentCount ? q : c.extend(q));
+        }
+        this.questions = result;
+    }
+
+    /** 布局后的题目：顺序与当前题目一致，选择题的 options 含追加的历史选项 */
+    List<SurveyQuestion> questions() {
+        return questions;
+    }
+
+    /** 该版本各选择题的下标映射，key 为 questionId；无版本或版本未知时返回 null，表示按原下标 */
+    Map<Long, int[]> mapping(Long versionId) {
+        return versionId == null ? null : mappingsByVersion.get(versionId);
+    }
+
+    /** 将答卷项的选项下标原地换算为布局下标（导出用）；超出映射范围的下标保持不变 */
+    void remap(Long versionId, Collection<ResponseItem> items) {
+        Map<Long, int[]> mapping = mapping(versionId);
+        if (mapping == null) return;
+        for (ResponseItem ri : items) {
+            int[] map = mapping.get(ri.getQuestionId());
+            if (map == null) continue;
+            if (ri.getOptionIndex() != null) {
+                ri.setOptionIndex(map(map, ri.getOptionIndex()));
+            } else if (AnswerFormatUtils.hasOptionIndices(ri)) {
+                List<Integer> indices = AnswerFormatUtils.optionIndicesOf(ri);
+                int[] mapped = new int[indices.size()];
+                for (int i = 0; i < mapped.length; i++) mapped[i] = map(map, indices.get(i));
+                Arrays.sort(mapped);
+                Long mask = OptionMask.encode(mapped);
+                ri.setOptionMask(mask);
+                ri.setOptionIndices(mask != null ? null : toJson(mapped));
+            }
+        }
+    }
+
+    private static int map(int[] map, int index) {
+        return index >= 0 && index < map.length ? map[index] : index;
+    }
+
+    private static String toJson(int[] indices) {
+        try {
+            return JSON.writeValueAsString(indices);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static boolean isChoice(String type) {
+        return "SINGLE_CHOICE".equals(type) || "MULTIPLE_CHOICE".equals(type);
+    }
+
+    /** 一道选择题的选项文案；labels 前 currentCount 个为当前选项，其后为追加的历史选项 */
+    private static final class Choices {
+        final List<String> labels;
+        final int currentCount;
+        final boolean hasOther;
+
+        private Choices(List<String> labels, boolean hasOther) {
+            this.labels = labels;
+            this.currentCount = labels.size();
+            this.hasOther = hasOther;
+        }
+
+        static Choices parse(String config) {
+            List<String> labels = new ArrayList<>();
+            boolean hasOther = false;
+            if (config != null && !config.isBlank()) {
+                try {
+                    JsonNode node = JSON.readTree(config);
+                    JsonNode opts = node.get("options");
+                    if (opts != null && opts.isArray()) {
+                        for (JsonNode o : opts) {
+                            JsonNode label = o.get("label");
+                            labels.add(label != null ? label.asText() : "");
+                        }
+                    }
+                    hasOther = node.has("hasOtherOption") && node.get("hasOtherOption").asBoolean();
+                } catch (Exception ignored) { }
+            }
+            return new Choices(labels, hasOther);
+        }
+
+        /**
+         * 按文案为版本的每个选项找到布局下标，同一版本内不重复占用；找不到的追加为新选项。
+         * 版本的“其他”在本题仍有“其他”时对应 OTHER，否则按文案“其他”处理
+         */
+        int[] claim(Choices version) {
+            int[] map = new int[version.labels.size() + (version.hasOther ? 1 : 0)];
+            boolean[] used = new boolean[labels.size() + map.length];
+            for (int i = 0; i < map.length; i++) {
+                if (i == version.labels.size() && hasOther) {
+                    map[i] = OTHER;
+                    continue;
+                }
+                String label = i < version.labels.size() ? version.labels.get(i) : "其他";
+                int found = -1;
+                for (int j = 0; j < labels.size(); j++) {
+                    if (!used[j] && labels.get(j).equals(label)) {
+                        found = j;
+                        break;
+                    }
+                }
+                if (found < 0) {
+                    labels.add(label);
+                    found = labels.size() - 1;
+                }
+                used[found] = true;
+                map[i] = found;
+            }
+            return map;
+        }
+
+        /** 复制题目并把追加的历史选项写入 options，“其他”仍位于末尾 */
+        SurveyQuestion extend(SurveyQuestion q) {
+            SurveyQuestion copy = new SurveyQuestion();
+            copy.setId(q.getId());
+            copy.setSurveyId(q.getSurveyId());
+            copy.setSortOrder(q.getSortOrder());
+            copy.setType(q.getType());
+            copy.setTitle(q.getTitle());
+            copy.setDescription(q.getDescription());
+            copy.setRequired(q.getRequired());
+            try {
+                JsonNode parsed = q.getConfig() != null && !q.getConfig().isBlank() ? JSON.readTree(q.getConfig()) : null;
+                ObjectNode node = parsed instanceof ObjectNode o ? o : JSON.createObjectNode();
+                ArrayNode opts = node.get("options") instanceof ArrayNode a ? a : node.putArray("options");
+                for (int i = currentCount; i < labels.size(); i++) opts.addObject().put("label", labels.get(i));
+                copy.setConfig(JSON.writeValueAsString(node));
+            } catch (Exception e) {
+                copy.setConfig(q.getConfig());
+            }
+            return copy;
+        }
+    }
+}
@@ -2,12 +2,16 @@ package com.lx.questionnaire.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.lx.questionnaire.cache.ReferenceDataCache;
+import com.lx.questionnaire.cache.ReferenceDataChangedEvent;
+import com.lx.questionnaire.cache.ReferenceTable;
 import com.lx.questionnaire.common.BusinessException;
 import com.lx.questionnaire.common.ErrorCode;
 import com.lx.questionnaire.entity.Permission;
 import com.lx.questionnaire.mapper.PermissionMapper;
 import com.lx.questionnaire.service.PermissionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -18,6 +22,8 @@ import java.util.List;
 public class PermissionServiceImpl implements PermissionService {
 
     private final PermissionMapper permissionMapper;
+    private final ReferenceDataCache referenceDataCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public Page<Permission> queryPermissions(String keyword, String resourceType, int page, int pageSize) {
@@ -37,7 +43,7 @@ public class PermissionServiceImpl implements PermissionService {
 
     @Override
     public Permission getById(Long id) {
-        Permission p = permissionMapper.selectById(id);
+        Permission p = referenceDataCache.get(ReferenceTable.PERMISSION, "id:" + id, () -> permissionMapper.selectById(id));
         if (p == null) {
             throw new BusinessException(new ErrorCode(2009, "权限不存在") {});
         }
@@ -46,16 +52,18 @@ public class PermissionServiceImpl implements PermissionService {
 
     @Override
     public List<Permission> listAll() {
-        return permissionMapper.selectList(
+        return referenceDataCache.get(ReferenceTable.PERMISSION, "all", () -> permissionMapper.selectList(
                 new LambdaQueryWrapper<Permission>()
                         .orderByAsc(Permission::getResourceType)
                         .orderByAsc(Permission::getAction)
-                        .orderByAsc(Permission::getDataScope));
+                        .orderByAsc(Permission::getDataScope)));
     }
 
     @Override
     public void update(Long id, Permission permission) {
-        Permission existing = getById(id);
+        getById(id);
+        // 缓存中的对象共享只读，修改前从库中取一份
+        Permission existing = permissionMapper.selectById(id);
         if (StringUtils.hasText(permission.getName())) {
             existing.setName(permission.getName().trim());
         }
@@ -64,5 +72,6 @@ public class PermissionServiceImpl implements PermissionService {
             existing.setDescription(desc.isEmpty() ? null : desc);
         }
         permissionMapper.updateById(existing);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceTable.PERMISSION));
     }
 }
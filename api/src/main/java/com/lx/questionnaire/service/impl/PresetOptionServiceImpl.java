@@ -2,9 +2,16 @@ package com.lx.questionnaire.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lx.questionnaire.cache.ReferenceDataCache;
+import com.lx.questionnaire.cache.ReferenceDataChangedEvent;
+import com.lx.questionnaire.cache.ReferenceTable;
+import com.lx.questionnaire.common.BatchWriter;
 import com.lx.questionnaire.common.BusinessException;
 import com.lx.questionnaire.common.ErrorCode;
 import com.lx.questionnaire.common.PaginatedResponse;
+import com.lx.questionnaire.common.Result;
 import com.lx.questionnaire.dto.*;
 import com.lx.questionnaire.entity.PresetOptionGroup;
 import com.lx.questionnaire.entity.PresetOptionItem;
@@ -12,8 +19,10 @@ import com.lx.questionnaire.mapper.PresetOptionGroupMapper;
 import com.lx.questionnaire.mapper.PresetOptionItemMapper;
 import com.lx.questionnaire.service.PresetOptionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -24,6 +33,13 @@ public class PresetOptionServiceImpl implements PresetOptionService {
 
     private final PresetOptionGroupMapper groupMapper;
     private final PresetOptionItemMapper itemMapper;
+    private final ReferenceDataCache referenceDataCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final BatchWriter batchWriter;
+
+    /** 联想索引及其来源快照；快照被替换（选项库变更）后下次查询时重建 */
+    private volatile SuggestIndexHolder suggestIndex;
 
     @Override
     public PaginatedResponse<PresetOptionGroupVO> query(String keyword, String category, int page, int pageSize) {
@@ -45,8 +61,14 @@ public class PresetOptionServiceImpl implements PresetOptionService {
 
     @Override
     public PresetOptionGroupDetailVO getDetail(Long id) {
+        PresetOptionGroupDetailVO vo = referenceDataCache.get(ReferenceTable.PRESET_OPTION, "detail:" + id, () -> loadDetail(id));
+        if (vo == null) throw new BusinessException(ErrorCode.NOT_FOUND);
+        return vo;
+    }
+
+    private PresetOptionGroupDetailVO loadDetail(Long id) {
         PresetOptionGroup g = groupMapper.selectById(id);
-        if (g == null) throw new BusinessException(ErrorCode.NOT_FOUND);
+        if (g == null) return null;
         List<PresetOptionItem> items = itemMapper.selectList(
                 new LambdaQueryWrapper<PresetOptionItem>().eq(PresetOptionItem::getGroupId, id).orderByAsc(PresetOptionItem::getSortOrder).orderByAsc(PresetOptionItem::getId)
         );
@@ -67,6 +89,7 @@ public class PresetOptionServiceImpl implements PresetOptionService {
         groupMapper.insert(g);
 
         upsertItems(g.getId(), dto.getItems());
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceTable.PRESET_OPTION));
         return g.getId();
     }
 
@@ -83,6 +106,7 @@ public class PresetOptionServiceImpl implements PresetOptionService {
         groupMapper.updateById(g);
 
         upsertItems(id, dto.getItems());
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceTable.PRESET_OPTION));
     }
 
     @Override
@@ -91,10 +115,44 @@ public class PresetOptionServiceImpl implements PresetOptionService {
         // item 表有外键级联，但这里仍显式删除以兼容部分环境
         itemMapper.delete(new LambdaQueryWrapper<PresetOptionItem>().eq(PresetOptionItem::getGroupId, id));
         groupMapper.deleteById(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceTable.PRESET_OPTION));
     }
 
     @Override
     public List<PresetOptionCategoryVO> getEnabledTree() {
+        return getEnabledTreeSnapshot().tree();
+    }
+
+    @Override
+    public PresetOptionTreeSnapshot getEnabledTreeSnapshot() {
+        return referenceDataCache.get(ReferenceTable.PRESET_OPTION, "enabledTree", this::buildEnabledTreeSnapshot);
+    }
+
+    @Override
+    public List<PresetOptionSuggestionVO> suggest(String q, int limit) {
+        PresetOptionTreeSnapshot snapshot = getEnabledTreeSnapshot();
+        SuggestIndexHolder holder = suggestIndex;
+        if (holder == null || holder.source() != snapshot) {
+            holder = new SuggestIndexHolder(snapshot, PresetOptionSuggestIndex.build(snapshot.tree()));
+            suggestIndex = holder;
+        }
+        return holder.index().suggest(q, limit);
+    }
+
+    private record SuggestIndexHolder(PresetOptionTreeSnapshot source, PresetOptionSuggestIndex index) {
+    }
+
+    private PresetOptionTreeSnapshot buildEnabledTreeSnapshot() {
+        List<PresetOptionCategoryVO> tree = List.copyOf(loadEnabledTree());
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(Result.ok(tree));
+            return new PresetOptionTreeSnapshot(tree, json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("serialize preset option tree failed", e);
+        }
+    }
+
+    private List<PresetOptionCategoryVO> loadEnabledTree() {
         List<PresetOptionGroup> groups = groupMapper.selectList(new LambdaQueryWrapper<PresetOptionGroup>()
                 .eq(PresetOptionGroup::getEnabled, true)
                 .orderByAsc(PresetOptionGroup::getCategory)
@@ -128,11 +186,19 @@ public class PresetOptionServiceImpl implements PresetOptionService {
         return res;
     }
 
+    /**
+     * 按 id 与库中选项比对：未出现的删除，内容或顺序变化的更新，无 id（或 id 不属于该组）的新建；
+     * 更新与插入走 BatchWriter，删除为一条 IN 语句
+     */
     private void upsertItems(Long groupId, List<PresetOptionItemVO> itemVos) {
-        itemMapper.delete(new LambdaQueryWrapper<PresetOptionItem>().eq(PresetOptionItem::getGroupId, groupId));
-        if (itemVos == null) return;
+        Map<Long, PresetOptionItem> existing = itemMapper.selectList(
+                new LambdaQueryWrapper<PresetOptionItem>().eq(PresetOptionItem::getGroupId, groupId))
+                .stream().collect(Collectors.toMap(PresetOptionItem::getId, it -> it));
+        List<PresetOptionItem> toInsert = new ArrayList<>();
+        List<PresetOptionItem> toUpdate = new ArrayList<>();
+        Set<Long> kept = new HashSet<>();
         int idx = 0;
-        for (PresetOptionItemVO vo : itemVos) {
+        for (PresetOptionItemVO vo : itemVos != null ? itemVos : List.<PresetOptionItemVO>of()) {
             if (vo == null) continue;
             String label = trimOrNull(vo.getLabel());
             if (label == null || label.isBlank()) continue;
@@ -144,9 +210,28 @@ public class PresetOptionServiceImpl implements PresetOptionService {
             it.setDescription(trimOrNull(vo.getDescription()));
             it.setDescriptionOpenInPopup(Boolean.TRUE.equals(vo.getDescriptionOpenInPopup()));
             it.setImageUrl(trimOrNull(vo.getImageUrl()));
-            itemMapper.insert(it);
+            PresetOptionItem old = vo.getId() != null ? existing.get(vo.getId()) : null;
+            if (old != null && kept.add(old.getId())) {
+                it.setId(old.getId());
+                if (itemChanged(old, it)) toUpdate.add(it);
+            } else {
+                toInsert.add(it);
+            }
             idx++;
         }
+        List<Long> toDelete = existing.keySet().stream().filter(id -> !kept.contains(id)).toList();
+        if (!toDelete.isEmpty()) itemMapper.deleteByIds(toDelete);
+        batchWriter.execute(PresetOptionItemMapper.class, toUpdate, PresetOptionItemMapper::updateContent);
+        batchWriter.execute(PresetOptionItemMapper.class, toInsert, PresetOptionItemMapper::insert);
+    }
+
+    private static boolean itemChanged(PresetOptionItem old, PresetOptionItem it) {
+        return !Objects.equals(old.getSortOrder(), it.getSortOrder())
+                || !Objects.equals(old.getLabel(), it.getLabel())
+                || !Objects.equals(old.getAllowFill(), it.getAllowFill())
+                || !Objects.equals(old.getDescription(), it.getDescription())
+                || !Objects.equals(old.getDescriptionOpenInPopup(), it.getDescriptionOpenInPopup())
+                || !Objects.equals(old.getImageUrl(), it.getImageUrl());
     }
 
     private void validateGroup(PresetOptionGroup g) {
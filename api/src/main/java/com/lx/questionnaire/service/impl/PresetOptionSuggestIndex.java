@@ -0,0 +1,135 @@
+package com.lx.questionnaire.service.impl;
+
+import com.lx.questionnaire.dto.PresetOptionCategoryVO;
+import com.lx.questionnaire.dto.PresetOptionGroupDetailVO;
+import com.lx.questionnaire.dto.PresetOptionItemVO;
+import com.lx.questionnaire.dto.PresetOptionSuggestionVO;
+import com.lx.questionnaire.util.PinyinUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 预定义选项的前缀联想索引（不可变）：对组名、分类名、选项文案的原文、拼音全拼和首字母建前缀树，
+ * 每个节点预存按静态排名排好的前 MAX_LIMIT 条结果，查询只需沿输入走 |q| 步，与数据量无关。
+ * <p>
+ * 静态排名：组 &lt; 分类 &lt; 选项，同类按文本长度、原有顺序。
+ */
+final class PresetOptionSuggestIndex {
+
+    static final int MAX_LIMIT = 20;
+    private static final int MAX_QUERY_LENGTH = 32;
+
+    private final Node root;
+    private final List<PresetOptionSuggestionVO> entries;
+
+    private PresetOptionSuggestIndex(Node root, List<PresetOptionSuggestionVO> entries) {
+        this.root = root;
+        this.entries = entries;
+    }
+
+    static PresetOptionSuggestIndex build(List<PresetOptionCategoryVO> tree) {
+        List<PresetOptionSuggestionVO> list = new ArrayList<>();
+        for (PresetOptionCategoryVO c : tree) {
+            for (PresetOptionGroupDetailVO g : c.getGroups()) {
+                list.add(new PresetOptionSuggestionVO("GROUP", g.getName(), c.getCategory(), g.getId(), g.getName()));
+            }
+        }
+        for (PresetOptionCategoryVO c : tree) {
+            list.add(new PresetOptionSuggestionVO("CATEGORY", c.getCategory(), c.getCategory(), null, null));
+        }
+        for (PresetOptionCategoryVO c : tree) {
+            for (PresetOptionGroupDetailVO g : c.getGroups()) {
+                for (PresetOptionItemVO it : g.getItems()) {
+                    list.add(new PresetOptionSuggestionVO("ITEM", it.getLabel(), c.getCategory(), g.getId(), g.getName()));
+                }
+            }
+        }
+        list.removeIf(e -> e.getText() == null || e.getText().isBlank());
+        // 稳定排序：同类内按文本长度，长度相同保持原有顺序
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < list.size(); i++) order.add(i);
+        order.sort(Comparator.<Integer>comparingInt(i -> kindRank(list.get(i).getType()))
+                .thenComparingInt(i -> list.get(i).getText().length()));
+        List<PresetOptionSuggestionVO> entries = new ArrayList<>(list.size());
+        for (int i : order) entries.add(list.get(i));
+
+        Node root = new Node();
+        for (int id = 0; id < entries.size(); id++) {
+            String text = entries.get(id).getText();
+            Set<String> keys = new LinkedHashSet<>();
+            keys.add(normalize(text));
+            keys.add(PinyinUtils.toPinyin(text));
+            keys.add(PinyinUtils.toInitials(text));
+            for (String key : keys) {
+                if (!key.isEmpty()) root.insert(key, id);
+            }
+        }
+        return new PresetOptionSuggestIndex(root, List.copyOf(entries));
+    }
+
+    /** 前缀联想，最多返回 limit（不超过 MAX_LIMIT）条；q 为空或 limit 不为正时返回空列表 */
+    List<PresetOptionSuggestionVO> suggest(String q, int limit) {
+        String key = normalize(q);
+        if (key.isEmpty() || key.length() > MAX_QUERY_LENGTH) return List.of();
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        if (node == null) return List.of();
+        int n = Math.max(0, Math.min(Math.min(limit, MAX_LIMIT), node.topSize));
+        List<PresetOptionSuggestionVO> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) result.add(entries.get(node.top[i]));
+        return result;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static int kindRank(String type) {
+        return switch (type) {
+            case "GROUP" -> 0;
+            case "CATEGORY" -> 1;
+            default -> 2;
+        };
+    }
+
+    private static String normalize(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!Character.isWhitespace(c)) sb.append(c);
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final int[] top = new int[MAX_LIMIT];
+        private int topSize;
+
+        /** 条目按排名顺序插入，先到先占，节点满 MAX_LIMIT 后不再记录 */
+        void insert(String key, int id) {
+            Node node = this;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), k -> new Node());
+                node.offer(id);
+            }
+        }
+
+        private void offer(int id) {
+            if (topSize == MAX_LIMIT) return;
+            // 同一条目的多个键（原文/全拼/首字母）可能经过同一节点，且总是连续插入
+            if (topSize > 0 && top[topSize - 1] == id) return;
+            top[topSize++] = id;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.lx.questionnaire.service.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 题目排序键：survey_question.sort_order 为稀疏整数，相邻题目初始间隔 GAP。
+ * 插入、复制、移动一道题只需在前后两个键之间取中值，只写这一行；间隔耗尽时由调用方整卷重排（rebalance）。
+ * 读取仍按 (survey_id, sort_order) 索引有序扫描，键的绝对值没有业务含义，题号以列表下标为准。
+ */
+final class QuestionSortKeys {
+
+    /** 重排后相邻键的间隔，可在同一位置连续插入约 10 次后才需要重排 */
+    static final int GAP = 1024;
+
+    private QuestionSortKeys() {
+    }
+
+    /**
+     * 取 prev 与 next 之间的键；任一端为 null 表示该侧没有题目。无可用键（间隔耗尽或越界）时返回 null
+     */
+    static Integer between(Integer prev, Integer next) {
+        long key;
+        if (prev == null && next == null) {
+            key = 0;
+        } else if (prev == null) {
+            key = (long) next - GAP;
+        } else if (next == null) {
+            key = (long) prev + GAP;
+        } else {
+            if ((long) next - prev < 2) return null;
+            key = prev + ((long) next - prev) / 2;
+        }
+        return inRange(key) ? (int) key : null;
+    }
+
+    /**
+     * 为目标顺序分配键：keys 为各题在目标顺序下的现有键（新题为 null）。
+     * 现有键中最长严格递增子序列保持不动，其余题目在相邻保留键之间均匀取值，因此拖动一道题只改一行。
+     *
+     * @return 与 keys 等长的新键；某段间隔不足以容纳时返回 null，调用方应改用 {@link #spread(int)} 整体重排
+     */
+    static int[] plan(List<Integer> keys) {
+        int n = keys.size();
+        boolean[] kept = longestIncreasing(keys);
+        int[] result = new int[n];
+        int i = 0;
+        Integer lo = null;
+        while (i < n) {
+            if (kept[i]) {
+                result[i] = keys.get(i);
+                lo = keys.get(i);
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < n && !kept[i]) i++;
+            Integer hi = i < n ? keys.get(i) : null;
+            if (!fill(result, start, i, lo, hi)) return null;
+        }
+        return result;
+    }
+
+    /** 整卷重排：第 i 题取 i * GAP */
+    static int[] spread(int n) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) result[i] = i * GAP;
+        return result;
+    }
+
+    /** 在 (lo, hi) 之间为 [from, to) 的题目均匀取键 */
+    private static boolean fill(int[] result, int from, int to, Integer lo, Integer hi) {
+        int k = to - from;
+        long first;
+        long step;
+        if (lo == null && hi == null) {
+            first = 0;
+            step = GAP;
+        } else if (lo == null) {
+            first = (long) hi - (long) GAP * k;
+            step = GAP;
+        } else if (hi == null) {
+            first = (long) lo + GAP;
+            step = GAP;
+        } else {
+            step = ((long) hi - lo) / (k + 1);
+            if (step < 1) return false;
+            first = lo + step;
+        }
+        long last = first + step * (k - 1);
+        if (!inRange(first) || !inRange(last)) return false;
+        for (int j = 0; j < k; j++) result[from + j] = (int) (first + step * j);
+        return true;
+    }
+
+    /** 标记非 null 键的最长严格递增子序列（O(n log n)） */
+    private static boolean[] longestIncreasing(List<Integer> keys) {
+        int n = keys.size();
+        int[] tailIdx = new int[n];
+        int[] prev = new int[n];
+        Arrays.fill(prev, -1);
+        int len = 0;
+        for (int i = 0; i < n; i++) {
+            Integer k = keys.get(i);
+            if (k == null) continue;
+            int lo = 0, hi = len;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys.get(tailIdx[mid]) < k) lo = mid + 1;
+                else hi = mid;
+            }
+            if (lo > 0) prev[i] = tailIdx[lo - 1];
+            tailIdx[lo] = i;
+            if (lo == len) len++;
+        }
+        boolean[] kept = new boolean[n];
+        for (int i = len > 0 ? tailIdx[len - 1] : -1; i >= 0; i = prev[i]) kept[i] = true;
+        return kept;
+    }
+
+    private static boolean inRange(long key) {
+        return key >= Integer.MIN_VALUE && key <= Integer.MAX_VALUE;
+    }
+}
@@ -2,6 +2,9 @@ package com.lx.questionnaire.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.lx.questionnaire.cache.ReferenceDataCache;
+import com.lx.questionnaire.cache.ReferenceDataChangedEvent;
+import com.lx.questionnaire.cache.ReferenceTable;
 import com.lx.questionnaire.common.BusinessException;
 import com.lx.questionnaire.common.ErrorCode;
 import com.lx.questionnaire.entity.Role;
@@ -10,8 +13,10 @@ import com.lx.questionnaire.entity.UserRole;
 import com.lx.questionnaire.mapper.RoleMapper;
 import com.lx.questionnaire.mapper.RolePermissionMapper;
 import com.lx.questionnaire.mapper.UserRoleMapper;
+import com.lx.questionnaire.security.PermissionChangedEvent;
 import com.lx.questionnaire.service.RoleService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -25,6 +30,8 @@ public class RoleServiceImpl implements RoleService {
     private final RoleMapper roleMapper;
     private final RolePermissionMapper rolePermissionMapper;
     private final UserRoleMapper userRoleMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReferenceDataCache referenceDataCache;
 
     @Override
     public Page<Role> queryRoles(String keyword, int page, int pageSize) {
@@ -37,9 +44,15 @@ public class RoleServiceImpl implements RoleService {
         return roleMapper.selectPage(p, q);
     }
 
+    @Override
+    public List<Role> listAll() {
+        return referenceDataCache.get(ReferenceTable.ROLE, "all", () -> roleMapper.selectList(
+                new LambdaQueryWrapper<Role>().orderByAsc(Role::getSort).orderByAsc(Role::getId)));
+    }
+
     @Override
     public Role getById(Long id) {
-        Role role = roleMapper.selectById(id);
+        Role role = referenceDataCache.get(ReferenceTable.ROLE, "id:" + id, () -> roleMapper.selectById(id));
         if (role == null) {
             throw new BusinessException(new ErrorCode(2006, "角色不存在") {});
         }
@@ -54,6 +67,7 @@ public class RoleServiceImpl implements RoleService {
             throw new BusinessException(new ErrorCode(2007, "角色编码已存在") {});
         }
         roleMapper.insert(role);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceTable.ROLE));
         return role;
     }
 
@@ -62,6 +76,7 @@ public class RoleServiceImpl implements RoleService {
         getById(id);
         role.setId(id);
         roleMapper.updateById(role);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceTable.ROLE));
     }
 
     @Override
@@ -73,6 +88,8 @@ public class RoleServiceImpl implements RoleService {
         }
         rolePermissionMapper.delete(new LambdaQueryWrapper<RolePermission>().eq(RolePermission::getRoleId, id));
         roleMapper.deleteById(id);
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceTable.ROLE));
+        eventPublisher.publishEvent(PermissionChangedEvent.ofAll());
     }
 
     @Override
@@ -95,5 +112,6 @@ public class RoleServiceImpl implements RoleService {
                 rolePermissionMapper.insert(rp);
             }
         }
+        eventPublisher.publishEvent(PermissionChangedEvent.ofAll());
     }
 }
@@ -3,19 +3,17 @@ package com.lx.questionnaire.service.impl;
 import com.lx.questionnaire.common.BusinessException;
 import com.lx.questionnaire.common.ErrorCode;
 import com.lx.questionnaire.dto.SurveyListFilter;
-import com.lx.questionnaire.entity.Permission;
 import com.lx.questionnaire.entity.Survey;
-import com.lx.questionnaire.entity.User;
-import com.lx.questionnaire.mapper.PermissionMapper;
-import com.lx.questionnaire.mapper.UserMapper;
+import com.lx.questionnaire.security.CurrentUserDetails;
+import com.lx.questionnaire.security.DepartmentTreeCache;
+import com.lx.questionnaire.security.EffectivePermissionCache;
+import com.lx.questionnaire.security.EffectivePermissions;
 import com.lx.questionnaire.service.SurveyPermissionService;
+import com.lx.questionnaire.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,44 +25,36 @@ public class SurveyPermissionServiceImpl implements SurveyPermissionService {
     private static final String SCOPE_DEPARTMENT = "DEPARTMENT";
     private static final String SCOPE_SELF = "SELF";
 
-    private final PermissionMapper permissionMapper;
-    private final UserMapper userMapper;
+    private final EffectivePermissionCache permissionCache;
+    private final DepartmentTreeCache departmentTreeCache;
 
     @Override
     public void requirePermission(String userId, String resourceType, Survey survey, String action) {
         if (userId == null) {
             throw new BusinessException(ErrorCode.FORBIDDEN);
         }
+        EffectivePermissions perms = resolvePermissions(userId);
         if (survey == null) {
             if (RESOURCE_SURVEY.equals(resourceType) && "create".equals(action)) {
-                boolean hasCreate = permissionMapper.selectByUserId(userId).stream()
-                        .anyMatch(p -> RESOURCE_SURVEY.equals(p.getResourceType()) && "create".equals(p.getAction()));
-                if (!hasCreate) throw new BusinessException(ErrorCode.FORBIDDEN);
+                if (!perms.has(RESOURCE_SURVEY, "create")) throw new BusinessException(ErrorCode.FORBIDDEN);
                 return;
             }
             throw new BusinessException(ErrorCode.FORBIDDEN);
         }
-        List<Permission> perms = permissionMapper.selectByUserId(userId);
-        Set<String> scopes = perms.stream()
-                .filter(p -> resourceType.equals(p.getResourceType()) && action.equals(p.getAction()))
-                .map(Permission::getDataScope)
-                .collect(Collectors.toSet());
-        if (scopes.isEmpty()) {
+        if (!perms.has(resourceType, action)) {
             throw new BusinessException(ErrorCode.FORBIDDEN);
         }
-        if (scopes.contains(SCOPE_SCHOOL)) {
+        if (perms.allows(resourceType, action, SCOPE_SCHOOL)) {
             return;
         }
-        if (scopes.contains(SCOPE_DEPARTMENT)) {
+        if (perms.allows(resourceType, action, SCOPE_DEPARTMENT)) {
+            // 本院系范围覆盖其全部下级院系
             Long surveyDeptId = survey.getDepartmentId();
-            if (surveyDeptId != null) {
-                User me = userMapper.selectById(userId);
-                if (me != null && Objects.equals(me.getDepartmentId(), surveyDeptId)) {
-                    return;
-                }
+            if (surveyDeptId != null && departmentTreeCache.get().isInSubtree(perms.getDepartmentId(), surveyDeptId)) {
+                return;
             }
         }
-        if (scopes.contains(SCOPE_SELF) && userId.equals(survey.getCreatorId())) {
+        if (perms.allows(resourceType, action, SCOPE_SELF) && userId.equals(survey.getCreatorId())) {
             return;
         }
         throw new BusinessException(ErrorCode.FORBIDDEN);
@@ -75,28 +65,37 @@ public class SurveyPermissionServiceImpl implements SurveyPermissionService {
         if (userId == null) {
             return SurveyListFilter.noAccess();
         }
-        List<Permission> perms = permissionMapper.selectByUserId(userId);
-        Set<String> scopes = perms.stream()
-                .filter(p -> RESOURCE_SURVEY.equals(p.getResourceType()) && "view".equals(p.getAction()))
-                .map(Permission::getDataScope)
-                .collect(Collectors.toSet());
-        if (scopes.isEmpty()) {
+        EffectivePermissions perms = resolvePermissions(userId);
+        if (!perms.has(RESOURCE_SURVEY, "view")) {
             return SurveyListFilter.noAccess();
         }
-        if (scopes.contains(SCOPE_SCHOOL)) {
+        if (perms.allows(RESOURCE_SURVEY, "view", SCOPE_SCHOOL)) {
             return SurveyListFilter.allowAll();
         }
-        String creatorId = scopes.contains(SCOPE_SELF) ? userId : null;
-        Long departmentId = null;
-        if (scopes.contains(SCOPE_DEPARTMENT)) {
-            User me = userMapper.selectById(userId);
-            if (me != null && me.getDepartmentId() != null) {
-                departmentId = me.getDepartmentId();
-            }
-        }
-        if (creatorId == null && departmentId == null) {
+        String creatorId = perms.allows(RESOURCE_SURVEY, "view", SCOPE_SELF) ? userId : null;
+        List<Long> departmentIds = perms.allows(RESOURCE_SURVEY, "view", SCOPE_DEPARTMENT) && perms.getDepartmentId() != null
+                ? departmentTreeCache.get().subtreeIds(perms.getDepartmentId()) : null;
+        if (creatorId == null && departmentIds == null) {
             return SurveyListFilter.noAccess();
         }
-        return new SurveyListFilter(false, creatorId, departmentId);
+        return new SurveyListFilter(false, creatorId, departmentIds);
+    }
+
+    /**
+     * 校验的是当前登录用户时优先用登录主体上的权限快照（版本未变、未超过缓存 TTL）；
+     * 过期则从缓存取新快照并原地替换到主体上，会话内后续请求重新走纯内存判断
+     */
+    private EffectivePermissions resolvePermissions(String userId) {
+        CurrentUserDetails principal = SecurityUtils.getCurrentUserDetails();
+        if (principal == null || !userId.equals(principal.getUserId())) {
+            return permissionCache.get(userId);
+        }
+        EffectivePermissions p = principal.getPermissions();
+        if (p != null && p.isCurrent(permissionCache.currentVersion(userId), EffectivePermissionCache.TTL)) {
+            return p;
+        }
+        p = permissionCache.get(userId);
+        principal.refreshPermissions(p);
+        return p;
     }
 }
@@ -2,47 +2,89 @@ package com.lx.questionnaire.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lx.questionnaire.common.BatchWriter;
 import com.lx.questionnaire.common.BusinessException;
 import com.lx.questionnaire.common.ErrorCode;
-import com.lx.questionnaire.dto.*;
-import com.lx.questionnaire.entity.Survey;
-import com.lx.questionnaire.entity.SurveyQuestion;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.lx.questionnaire.common.KeysetCursor;
+import com.lx.questionnaire.dto.AnalyticsResponse;
+import com.lx.questionnaire.dto.BulkSaveQuestionsDTO;
+import com.lx.questionnaire.dto.BulkSaveQuestionsResult;
+import com.lx.questionnaire.dto.ResponseDetailItemVO;
+import com.lx.questionnaire.dto.ResponseDetailVO;
+import com.lx.questionnaire.dto.ResponseFilter;
+import com.lx.questionnaire.dto.ResponseListItemVO;
+import com.lx.questionnaire.dto.ResponseListResponse;
+import com.lx.questionnaire.dto.ResponseSearchHitVO;
+import com.lx.questionnaire.dto.ResponseSearchResponse;
+import com.lx.questionnaire.dto.SurveyDetailVO;
+import com.lx.questionnaire.dto.SurveyListFilter;
+import com.lx.questionnaire.dto.SurveyListItemVO;
+import com.lx.questionnaire.dto.SurveyListResponse;
+import com.lx.questionnaire.dto.SurveyPurgeVO;
+import com.lx.questionnaire.dto.SurveyVersionSnapshot;
 import com.lx.questionnaire.entity.Response;
 import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.Survey;
+import com.lx.questionnaire.entity.SurveyPurgeTask;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.entity.SurveyVersion;
+import com.lx.questionnaire.job.SurveyStatusChangedEvent;
 import com.lx.questionnaire.mapper.ResponseItemMapper;
 import com.lx.questionnaire.mapper.ResponseMapper;
 import com.lx.questionnaire.mapper.SurveyMapper;
+import com.lx.questionnaire.mapper.SurveyPurgeTaskMapper;
 import com.lx.questionnaire.mapper.SurveyQuestionMapper;
+import com.lx.questionnaire.mapper.SurveyVersionMapper;
 import com.lx.questionnaire.mapper.UserMapper;
 import com.lx.questionnaire.service.SurveyPermissionService;
 import com.lx.questionnaire.service.SurveyService;
+import com.lx.questionnaire.service.SurveyVersionService;
+import com.lx.questionnaire.service.export.ExportFormat;
+import com.lx.questionnaire.service.export.ResponseExportTask;
+import com.lx.questionnaire.service.export.ResponseExportWriter;
+import com.lx.questionnaire.util.AnswerFormatUtils;
+import com.lx.questionnaire.util.HighlightUtils;
+import com.lx.questionnaire.util.OptionMask;
+import com.lx.questionnaire.util.ResponsePayload;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SurveyServiceImpl implements SurveyService {
 
     private static final String STATUS_DRAFT = "DRAFT";
+    private static final String STATUS_SCHEDULED = "SCHEDULED";
     private static final String STATUS_COLLECTING = "COLLECTING";
     private static final String STATUS_PAUSED = "PAUSED";
     private static final String STATUS_ENDED = "ENDED";
+    /** 导出时按主键分批读取答卷，每批一次性拉取答卷项 */
+    private static final int EXPORT_BATCH_SIZE = 500;
+    /** 与 MySQL ngram_token_size 默认值一致，更短的关键字走 LIKE */
+    private static final int FULLTEXT_MIN_TOKEN = 2;
+    /** 已提交答卷不超过该数量的问卷直接扫描本问卷的答卷项，不经过不分问卷的全文索引 */
+    private static final int SCOPED_SEARCH_MAX_RESPONSES = 20_000;
+    /** MySQL ER_QUERY_TIMEOUT：语句超过 MAX_EXECUTION_TIME 被中止 */
+    private static final int MYSQL_QUERY_TIMEOUT = 3024;
+    private static final ObjectMapper JSON = new ObjectMapper();
 
     private final SurveyMapper surveyMapper;
     private final SurveyQuestionMapper surveyQuestionMapper;
@@ -50,7 +92,11 @@ public class SurveyServiceImpl implements SurveyService {
     private final ResponseItemMapper responseItemMapper;
     private final UserMapper userMapper;
     private final SurveyPermissionService surveyPermissionService;
-    private static final com.fasterxml.jackson.databind.ObjectMapper JSON = new com.fasterxml.jackson.databind.ObjectMapper();
+    private final BatchWriter batchWriter;
+    private final SurveyVersionService surveyVersionService;
+    private final SurveyVersionMapper surveyVersionMapper;
+    private final SurveyPurgeTaskMapper surveyPurgeTaskMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     private Survey requireSurvey(String id) {
         Survey s = surveyMapper.selectById(id);
@@ -69,14 +115,14 @@ public class SurveyServiceImpl implements SurveyService {
             SurveyListFilter filter = surveyPermissionService.getSurveyViewListFilter(currentUserId);
             if (filter.isAllowAll()) {
                 // 全校，不限制
-            } else if (!filter.isAllowAll() && filter.getCreatorId() == null && filter.getDepartmentId() == null) {
+            } else if (!filter.isAllowAll() && filter.getCreatorId() == null && filter.getDepartmentIds() == null) {
                 return new SurveyListResponse(List.of(), 0L);
-            } else if (filter.getCreatorId() != null && filter.getDepartmentId() != null) {
-                q.and(w -> w.eq(Survey::getCreatorId, filter.getCreatorId()).or().eq(Survey::getDepartmentId, filter.getDepartmentId()));
+            } else if (filter.getCreatorId() != null && filter.getDepartmentIds() != null) {
+                q.and(w -> w.eq(Survey::getCreatorId, filter.getCreatorId()).or().in(Survey::getDepartmentId, filter.getDepartmentIds()));
             } else if (filter.getCreatorId() != null) {
                 q.eq(Survey::getCreatorId, filter.getCreatorId());
             } else {
-                q.eq(Survey::getDepartmentId, filter.getDepartmentId());
+                q.in(Survey::getDepartmentId, filter.getDepartmentIds());
             }
         }
         if (status != null && !status.isEmpty() && !"all".equalsIgnoreCase(status)) {
@@ -97,10 +143,7 @@ public class SurveyServiceImpl implements SurveyService {
             vo.setStatus(s.getStatus());
             vo.setUpdatedAt(s.getUpdatedAt());
             vo.setCreatedAt(s.getCreatedAt());
-            Long count = responseMapper.selectCount(new LambdaQueryWrapper<com.lx.questionnaire.entity.Response>()
-                    .eq(com.lx.questionnaire.entity.Response::getSurveyId, s.getId())
-                    .eq(com.lx.questionnaire.entity.Response::getStatus, "SUBMITTED"));
-            vo.setResponseCount(count);
+            vo.setResponseCount(s.getSubmittedCount() != null ? s.getSubmittedCount().longValue() : 0L);
             list.add(vo);
         }
         return new SurveyListResponse(list, result.getTotal());
@@ -145,7 +188,7 @@ public class SurveyServiceImpl implements SurveyService {
     @Override
     public void updateSettings(String id, String currentUserId, Boolean limitOncePerUser, Boolean allowAnonymous,
                                LocalDateTime startTime, LocalDateTime endTime, String thankYouText,
-                               Integer limitByIp, Integer limitByDevice) {
+                               Integer limitByIp, Integer limitByDevice, Integer draftTtlHours) {
         Survey s = requireSurvey(id);
         surveyPermissionService.requirePermission(currentUserId, "survey", s, "edit");
         if (limitOncePerUser != null) s.setLimitOncePerUser(limitOncePerUser);
@@ -155,7 +198,18 @@ public class SurveyServiceImpl implements SurveyService {
         if (thankYouText != null) s.setThankYouText(thankYouText);
         if (limitByIp != null) s.setLimitByIp(limitByIp);
         if (limitByDevice != null) s.setLimitByDevice(limitByDevice);
+        if (draftTtlHours != null) s.setDraftTtlHours(Math.max(draftTtlHours, 0));
+        // 已发布未暂停的问卷随开始时间在「待开始」与「收集中」之间切换
+        if (STATUS_SCHEDULED.equals(s.getStatus()) || STATUS_COLLECTING.equals(s.getStatus())) {
+            s.setStatus(openStatus(s));
+        }
         surveyMapper.updateById(s);
+        eventPublisher.publishEvent(new SurveyStatusChangedEvent(id));
+    }
+
+    /** 发布后的状态：开始时间未到为待开始，否则直接收集 */
+    private static String openStatus(Survey s) {
+        return s.getStartTime() != null && s.getStartTime().isAfter(LocalDateTime.now()) ? STATUS_SCHEDULED : STATUS_COLLECTING;
     }
 
     @Override
@@ -171,17 +225,18 @@ public class SurveyServiceImpl implements SurveyService {
         if (questions.isEmpty()) {
             throw new BusinessException(ErrorCode.fail(1002, "请至少添加一道题目"));
         }
-        for (SurveyQuestion q : questions) {
+        for (int i = 0; i < questions.size(); i++) {
+            SurveyQuestion q = questions.get(i);
             if (q.getTitle() == null || q.getTitle().isBlank()) {
-                throw new BusinessException(ErrorCode.fail(1002, "请填写题目标题（题目" + (q.getSortOrder() + 1) + "）"));
+                throw new BusinessException(ErrorCode.fail(1002, "请填写题目标题（题目" + (i + 1) + "）"));
             }
             if ("SINGLE_CHOICE".equals(q.getType()) || "MULTIPLE_CHOICE".equals(q.getType())) {
                 if (q.getConfig() == null || !q.getConfig().contains("\"options\"") || !q.getConfig().contains("[")) {
                     throw new BusinessException(ErrorCode.fail(1002, "单选题/多选题至少需要一个选项（题目：" + q.getTitle() + "）"));
                 }
                 try {
-                    com.fasterxml.jackson.databind.JsonNode node = new com.fasterxml.jackson.databind.ObjectMapper().readTree(q.getConfig());
-                    com.fasterxml.jackson.databind.JsonNode opts = node.get("options");
+                    JsonNode node = JSON.readTree(q.getConfig());
+                    JsonNode opts = node.get("options");
                     if (opts == null || !opts.isArray() || opts.size() == 0) {
                         throw new BusinessException(ErrorCode.fail(1002, "单选题/多选题至少需要一个选项（题目：" + q.getTitle() + "）"));
                     }
@@ -191,8 +246,11 @@ public class SurveyServiceImpl implements SurveyService {
                 }
             }
         }
-        s.setStatus(STATUS_COLLECTING);
+        // 冻结发布时的题目，此后的填写与答卷均绑定到版本快照
+        surveyVersionService.resolve(s);
+        s.setStatus(openStatus(s));
         surveyMapper.updateById(s);
+        eventPublisher.publishEvent(new SurveyStatusChangedEvent(id));
     }
 
     @Override
@@ -202,6 +260,7 @@ public class SurveyServiceImpl implements SurveyService {
         if (!STATUS_COLLECTING.equals(s.getStatus())) throw new BusinessException(ErrorCode.PARAM_ERROR);
         s.setStatus(STATUS_PAUSED);
         surveyMapper.updateById(s);
+        eventPublisher.publishEvent(new SurveyStatusChangedEvent(id));
     }
 
     @Override
@@ -211,6 +270,7 @@ public class SurveyServiceImpl implements SurveyService {
         if (!STATUS_PAUSED.equals(s.getStatus())) throw new BusinessException(ErrorCode.PARAM_ERROR);
         s.setStatus(STATUS_COLLECTING);
         surveyMapper.updateById(s);
+        eventPublisher.publishEvent(new SurveyStatusChangedEvent(id));
     }
 
     @Override
@@ -220,6 +280,7 @@ public class SurveyServiceImpl implements SurveyService {
         if (STATUS_ENDED.equals(s.getStatus())) return;
         s.setStatus(STATUS_ENDED);
         surveyMapper.updateById(s);
+        eventPublisher.publishEvent(new SurveyStatusChangedEvent(id));
     }
 
     @Override
@@ -241,6 +302,7 @@ public class SurveyServiceImpl implements SurveyService {
         surveyMapper.insert(copy);
         List<SurveyQuestion> questions = surveyQuestionMapper.selectList(
                 new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, id).orderByAsc(SurveyQuestion::getSortOrder));
+        List<SurveyQuestion> copies = new ArrayList<>(questions.size());
         for (SurveyQuestion q : questions) {
             SurveyQuestion nq = new SurveyQuestion();
             nq.setSurveyId(copy.getId());
@@ -250,16 +312,57 @@ public class SurveyServiceImpl implements SurveyService {
             nq.setDescription(q.getDescription());
             nq.setRequired(q.getRequired());
             nq.setConfig(q.getConfig());
-            surveyQuestionMapper.insert(nq);
+            copies.add(nq);
         }
+        batchWriter.execute(SurveyQuestionMapper.class, copies, SurveyQuestionMapper::insert);
         return copy;
     }
 
     @Override
-    public void delete(String id, String currentUserId) {
+    @Transactional
+    public SurveyPurgeVO delete(String id, String currentUserId, boolean dryRun) {
         Survey s = requireSurvey(id);
         surveyPermissionService.requirePermission(currentUserId, "survey", s, "delete");
+        if (dryRun) {
+            SurveyPurgeVO vo = new SurveyPurgeVO();
+            vo.setSurveyId(id);
+            vo.setDryRun(true);
+            vo.setQuestionsRemoved(surveyQuestionMapper.selectCount(
+                    new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, id)));
+            vo.setResponsesRemoved(responseMapper.selectCount(
+                    new LambdaQueryWrapper<Response>().eq(Response::getSurveyId, id)));
+            vo.setItemsRemoved(responseItemMapper.countBySurvey(id));
+            vo.setVersionsRemoved(surveyVersionMapper.selectCount(
+                    new LambdaQueryWrapper<SurveyVersion>().eq(SurveyVersion::getSurveyId, id)));
+            vo.setResponsesTotal(vo.getResponsesRemoved());
+            return vo;
+        }
+        // 只打删除标记，子表由 SurveyPurgeJob 分片清理，避免一个事务锁住全部答卷
         surveyMapper.deleteById(id);
+        SurveyPurgeTask task = new SurveyPurgeTask();
+        task.setSurveyId(id);
+        task.setRequestedBy(currentUserId);
+        task.setStatus("PENDING");
+        task.setResponsesTotal((long) (s.getSubmittedCount() != null ? s.getSubmittedCount() : 0)
+                + (s.getDraftCount() != null ? s.getDraftCount() : 0));
+        surveyPurgeTaskMapper.insert(task);
+        eventPublisher.publishEvent(new SurveyStatusChangedEvent(id));
+        return SurveyPurgeVO.from(surveyPurgeTaskMapper.selectById(task.getId()));
+    }
+
+    @Override
+    public SurveyPurgeVO getPurgeProgress(String id, String currentUserId) {
+        // 先鉴权再区分“无清理任务”，无权限的调用方无法借 404/403 探测任务是否存在
+        Survey s = surveyMapper.selectByIdIncludingDeleted(id);
+        SurveyPurgeTask task = surveyPurgeTaskMapper.selectBySurveyId(id);
+        if (s != null) {
+            surveyPermissionService.requirePermission(currentUserId, "survey", s, "delete");
+        } else if (task == null || currentUserId == null || !currentUserId.equals(task.getRequestedBy())) {
+            // 清理完成后问卷行已物理删除，此时只有发起人可查看；对其他人与不存在的问卷一样
+            throw new BusinessException(ErrorCode.SURVEY_NOT_FOUND);
+        }
+        if (task == null) throw new BusinessException(ErrorCode.SURVEY_NOT_FOUND);
+        return SurveyPurgeVO.from(task);
     }
 
     @Override
@@ -277,21 +380,26 @@ public class SurveyServiceImpl implements SurveyService {
     }
 
     @Override
+    @Transactional
     public SurveyQuestion addQuestion(String surveyId, String currentUserId, SurveyQuestion question) {
         Survey s = requireSurvey(surveyId);
         surveyPermissionService.requirePermission(currentUserId, "survey", s, "edit");
         question.setSurveyId(surveyId);
         if (question.getSortOrder() == null) {
-            Integer maxOrder = surveyQuestionMapper.selectList(
-                    new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, surveyId))
-                    .stream().map(SurveyQuestion::getSortOrder).max(Integer::compareTo).orElse(-1);
-            question.setSortOrder(maxOrder + 1);
+            Integer key = QuestionSortKeys.between(surveyQuestionMapper.selectMaxSortOrder(surveyId), null);
+            if (key == null) {
+                List<SurveyQuestion> ordered = rebalanceQuestions(surveyId);
+                key = QuestionSortKeys.between(ordered.get(ordered.size() - 1).getSortOrder(), null);
+            }
+            question.setSortOrder(key);
         }
         surveyQuestionMapper.insert(question);
+        surveyMapper.incrementSchemaVersion(surveyId);
         return question;
     }
 
     @Override
+    @Transactional
     public void updateQuestion(String surveyId, Long questionId, String currentUserId, SurveyQuestion question) {
         Survey s = requireSurvey(surveyId);
         surveyPermissionService.requirePermission(currentUserId, "survey", s, "edit");
@@ -304,18 +412,30 @@ public class SurveyServiceImpl implements SurveyService {
         if (question.getRequired() != null) existing.setRequired(question.getRequired());
         if (question.getConfig() != null) existing.setConfig(question.getConfig());
         surveyQuestionMapper.updateById(existing);
+        surveyMapper.incrementSchemaVersion(surveyId);
     }
 
     @Override
+    @Transactional
     public void updateQuestionOrder(String surveyId, String currentUserId, List<Long> questionIds) {
         Survey s = requireSurvey(surveyId);
         surveyPermissionService.requirePermission(currentUserId, "survey", s, "edit");
-        for (int i = 0; i < questionIds.size(); i++) {
-            SurveyQuestion q = surveyQuestionMapper.selectById(questionIds.get(i));
-            if (q != null && q.getSurveyId().equals(surveyId)) {
-                q.setSortOrder(i);
-                surveyQuestionMapper.updateById(q);
-            }
+        List<SurveyQuestion> current = listQuestionsOrdered(surveyId);
+        Map<Long, SurveyQuestion> byId = current.stream().collect(Collectors.toMap(SurveyQuestion::getId, q -> q));
+        // 目标顺序：请求中的题目依次排列，未列出的题目保持原相对顺序接在后面
+        List<SurveyQuestion> target = new ArrayList<>(current.size());
+        Set<Long> seen = new HashSet<>();
+        for (Long id : questionIds) {
+            SurveyQuestion q = byId.get(id);
+            if (q != null && seen.add(id)) target.add(q);
+        }
+        for (SurveyQuestion q : current) {
+            if (!seen.contains(q.getId())) target.add(q);
+        }
+        List<SurveyQuestion> changed = assignSortKeys(target, target.stream().map(SurveyQuestion::getSortOrder).toList());
+        if (!changed.isEmpty()) {
+            surveyQuestionMapper.updateSortOrders(surveyId, changed);
+            surveyMapper.incrementSchemaVersion(surveyId);
         }
     }
 
@@ -327,44 +447,200 @@ public class SurveyServiceImpl implements SurveyService {
         SurveyQuestion src = surveyQuestionMapper.selectOne(
                 new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, surveyId).eq(SurveyQuestion::getId, questionId));
         if (src == null) throw new BusinessException(ErrorCode.NOT_FOUND);
-        List<SurveyQuestion> after = surveyQuestionMapper.selectList(
-                new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, surveyId)
-                        .gt(SurveyQuestion::getSortOrder, src.getSortOrder()).orderByAsc(SurveyQuestion::getSortOrder));
+        Integer key = QuestionSortKeys.between(src.getSortOrder(), surveyQuestionMapper.selectNextSortOrder(surveyId, src.getSortOrder()));
+        if (key == null) {
+            List<SurveyQuestion> ordered = rebalanceQuestions(surveyId);
+            int i = 0;
+            while (!ordered.get(i).getId().equals(questionId)) i++;
+            key = QuestionSortKeys.between(ordered.get(i).getSortOrder(),
+                    i + 1 < ordered.size() ? ordered.get(i + 1).getSortOrder() : null);
+        }
         SurveyQuestion nq = new SurveyQuestion();
         nq.setSurveyId(surveyId);
-        nq.setSortOrder(src.getSortOrder() + 1);
+        nq.setSortOrder(key);
         nq.setType(src.getType());
         nq.setTitle(src.getTitle());
         nq.setDescription(src.getDescription());
         nq.setRequired(src.getRequired());
         nq.setConfig(src.getConfig());
         surveyQuestionMapper.insert(nq);
-        for (SurveyQuestion q : after) {
-            q.setSortOrder(q.getSortOrder() + 1);
-            surveyQuestionMapper.updateById(q);
-        }
+        surveyMapper.incrementSchemaVersion(surveyId);
         return nq;
     }
 
     @Override
+    @Transactional
     public void deleteQuestion(String surveyId, Long questionId, String currentUserId) {
         Survey s = requireSurvey(surveyId);
         surveyPermissionService.requirePermission(currentUserId, "survey", s, "edit");
-        surveyQuestionMapper.delete(new LambdaQueryWrapper<SurveyQuestion>()
+        int deleted = surveyQuestionMapper.delete(new LambdaQueryWrapper<SurveyQuestion>()
                 .eq(SurveyQuestion::getSurveyId, surveyId).eq(SurveyQuestion::getId, questionId));
+        if (deleted > 0) surveyMapper.incrementSchemaVersion(surveyId);
+    }
+
+    @Override
+    @Transactional
+    public BulkSaveQuestionsResult bulkSaveQuestions(String surveyId, String currentUserId, BulkSaveQuestionsDTO dto) {
+        Survey s = requireSurvey(surveyId);
+        surveyPermissionService.requirePermission(currentUserId, "survey", s, "edit");
+        List<SurveyQuestion> incoming = dto.getQuestions() != null ? dto.getQuestions() : List.of();
+        // 锁住问卷行后再读题目，并发的整卷保存与单题编辑在此串行
+        Integer version = surveyMapper.selectSchemaVersionForUpdate(surveyId);
+        if (version == null) throw new BusinessException(ErrorCode.SURVEY_NOT_FOUND);
+        if (dto.getBaseSchemaVersion() != null && !dto.getBaseSchemaVersion().equals(version)) {
+            throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "题目已被他人修改，请刷新后重试"));
+        }
+        Map<Long, SurveyQuestion> existingById = surveyQuestionMapper.selectList(
+                new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, surveyId))
+                .stream().collect(Collectors.toMap(SurveyQuestion::getId, q -> q));
+
+        Set<Long> kept = new HashSet<>();
+        List<Integer> currentKeys = new ArrayList<>(incoming.size());
+        for (int i = 0; i < incoming.size(); i++) {
+            SurveyQuestion q = incoming.get(i);
+            if (q == null || q.getType() == null || q.getType().isBlank()) {
+                throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "第 " + (i + 1) + " 题缺少题型"));
+            }
+            if (q.getId() != null && (!existingById.containsKey(q.getId()) || !kept.add(q.getId()))) {
+                throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "第 " + (i + 1) + " 题 id 无效或重复"));
+            }
+            q.setSurveyId(surveyId);
+            if (q.getTitle() == null) q.setTitle("");
+            if (q.getRequired() == null) q.setRequired(Boolean.TRUE);
+            currentKeys.add(q.getId() != null ? existingById.get(q.getId()).getSortOrder() : null);
+        }
+        assignSortKeys(incoming, currentKeys);
+
+        List<SurveyQuestion> toInsert = new ArrayList<>();
+        List<SurveyQuestion> toUpdate = new ArrayList<>();
+        for (SurveyQuestion q : incoming) {
+            if (q.getId() == null) {
+                toInsert.add(q);
+                continue;
+            }
+            SurveyQuestion old = existingById.get(q.getId());
+            if (questionChanged(old, q)) {
+                toUpdate.add(q);
+            } else {
+                q.setCreatedAt(old.getCreatedAt());
+                q.setUpdatedAt(old.getUpdatedAt());
+            }
+        }
+        List<Long> toDelete = existingById.keySet().stream().filter(id -> !kept.contains(id)).toList();
+
+        if (!toDelete.isEmpty()) surveyQuestionMapper.deleteBatch(surveyId, toDelete);
+        if (!toUpdate.isEmpty()) surveyQuestionMapper.updateBatch(toUpdate);
+        if (!toInsert.isEmpty()) surveyQuestionMapper.insertBatch(toInsert);
+        boolean changed = !toDelete.isEmpty() || !toUpdate.isEmpty() || !toInsert.isEmpty();
+        if (changed) {
+            surveyMapper.incrementSchemaVersion(surveyId);
+            version++;
+        }
+
+        BulkSaveQuestionsResult result = new BulkSaveQuestionsResult();
+        result.setSchemaVersion(version);
+        result.setInserted(toInsert.size());
+        result.setUpdated(toUpdate.size());
+        result.setDeleted(toDelete.size());
+        result.setQuestions(incoming);
+        return result;
+    }
+
+    private List<SurveyQuestion> listQuestionsOrdered(String surveyId) {
+        return surveyQuestionMapper.selectList(new LambdaQueryWrapper<SurveyQuestion>()
+                .eq(SurveyQuestion::getSurveyId, surveyId)
+                .orderByAsc(SurveyQuestion::getSortOrder).orderByAsc(SurveyQuestion::getId));
+    }
+
+    /**
+     * 按目标顺序为题目分配排序键并写回 sortOrder：尽量保留现有键，间隔不足时整卷按 GAP 重排。
+     *
+     * @param currentKeys 各题现有的键，新题为 null
+     * @return 键发生变化的已有题目
+     */
+    private static List<SurveyQuestion> assignSortKeys(List<SurveyQuestion> target, List<Integer> currentKeys) {
+        int[] keys = QuestionSortKeys.plan(currentKeys);
+        if (keys == null) keys = QuestionSortKeys.spread(target.size());
+        List<SurveyQuestion> changed = new ArrayList<>();
+        for (int i = 0; i < target.size(); i++) {
+            SurveyQuestion q = target.get(i);
+            q.setSortOrder(keys[i]);
+            if (currentKeys.get(i) != null && currentKeys.get(i) != keys[i]) changed.add(q);
+        }
+        return changed;
+    }
+
+    /** 排序键间隔耗尽时整卷重排，返回重排后按顺序排列的题目 */
+    private List<SurveyQuestion> rebalanceQuestions(String surveyId) {
+        List<SurveyQuestion> ordered = listQuestionsOrdered(surveyId);
+        int[] keys = QuestionSortKeys.spread(ordered.size());
+        List<SurveyQuestion> changed = new ArrayList<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            if (ordered.get(i).getSortOrder() != keys[i]) {
+                ordered.get(i).setSortOrder(keys[i]);
+                changed.add(ordered.get(i));
+            }
+        }
+        if (!changed.isEmpty()) surveyQuestionMapper.updateSortOrders(surveyId, changed);
+        return ordered;
+    }
+
+    /** 比较题目内容与顺序；config 按 JSON 语义比较，库中 JSON 列回读后的空白与键序不同不算变更 */
+    private static boolean questionChanged(SurveyQuestion old, SurveyQuestion q) {
+        return !Objects.equals(old.getSortOrder(), q.getSortOrder())
+                || !Objects.equals(old.getType(), q.getType())
+                || !Objects.equals(old.getTitle(), q.getTitle())
+                || !Objects.equals(old.getDescription(), q.getDescription())
+                || !Objects.equals(old.getRequired(), q.getRequired())
+                || !sameJson(old.getConfig(), q.getConfig());
+    }
+
+    private static boolean sameJson(String a, String b) {
+        if (a == null || b == null) return a == b;
+        if (a.equals(b)) return true;
+        try {
+            return JSON.readTree(a).equals(JSON.readTree(b));
+        } catch (Exception e) {
+            return false;
+        }
     }
 
     @Override
-    public ResponseListResponse listResponses(String surveyId, String currentUserId, int page, int pageSize) {
+    public ResponseListResponse listResponses(String surveyId, String currentUserId, int page, int pageSize,
+                                              String cursor, boolean withTotal, ResponseFilter filter) {
         Survey s = requireSurvey(surveyId);
         surveyPermissionService.requirePermission(currentUserId, "response", s, "view");
-        long total = responseMapper.selectCount(
-                new LambdaQueryWrapper<Response>().eq(Response::getSurveyId, surveyId).eq(Response::getStatus, "SUBMITTED"));
-        long offset = (long) (page - 1) * pageSize;
-        List<Response> records = responseMapper.selectPageBySurveyId(surveyId, offset, pageSize);
-        List<SurveyQuestion> questions = surveyQuestionMapper.selectList(
-                new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, surveyId).orderByAsc(SurveyQuestion::getSortOrder));
-        Map<Long, SurveyQuestion> qMap = questions.stream().collect(Collectors.toMap(SurveyQuestion::getId, x -> x));
+        pageSize = KeysetCursor.clampPageSize(pageSize);
+        List<ResponseFilter.AnswerPredicate> predicates = filter != null ? filter.parseAnswers() : List.of();
+        Map<Long, SurveyQuestion> filterQuestions = predicates.isEmpty() ? Map.of()
+                : surveyQuestionMapper.selectList(new LambdaQueryWrapper<SurveyQuestion>()
+                        .eq(SurveyQuestion::getSurveyId, surveyId)
+                        .in(SurveyQuestion::getId, predicates.stream().map(ResponseFilter.AnswerPredicate::questionId).toList()))
+                .stream().collect(Collectors.toMap(SurveyQuestion::getId, x -> x));
+
+        Long total = withTotal
+                ? responseMapper.selectCount(buildResponseQuery(surveyId, filter, predicates, filterQuestions)) : null;
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        LambdaQueryWrapper<Response> q = buildResponseQuery(surveyId, filter, predicates, filterQuestions);
+        // 倒序时 submitted_at 为 NULL 的存量答卷排在最后：游标在非 NULL 区段时须连同 NULL 区段一起往后翻，在 NULL 区段时只按 id
+        if (after != null && after.getTime() != null) {
+            q.and(w -> w.lt(Response::getSubmittedAt, after.getTime())
+                    .or(w2 -> w2.eq(Response::getSubmittedAt, after.getTime()).lt(Response::getId, after.getId()))
+                    .or(w3 -> w3.isNull(Response::getSubmittedAt)));
+        } else if (after != null) {
+            q.and(w -> w.isNull(Response::getSubmittedAt).lt(Response::getId, after.getId()));
+        }
+        // 多取一条用于判断是否还有下一页；传了游标时忽略 page
+        q.orderByDesc(Response::getSubmittedAt).orderByDesc(Response::getId)
+                .last("LIMIT " + (pageSize + 1) + (after != null ? "" : " OFFSET " + (long) (Math.max(page, 1) - 1) * pageSize));
+        List<Response> records = responseMapper.selectList(q);
+        String nextCursor = null;
+        if (records.size() > pageSize) {
+            records = records.subList(0, pageSize);
+            Response last = records.get(records.size() - 1);
+            nextCursor = new KeysetCursor(last.getSubmittedAt(), last.getId()).encode();
+        }
+        Map<Long, String> pendingSummaries = buildPendingSummaries(surveyId, records);
         List<ResponseListItemVO> list = new ArrayList<>();
         for (Response r : records) {
             ResponseListItemVO vo = new ResponseListItemVO();
@@ -372,18 +648,146 @@ public class SurveyServiceImpl implements SurveyService {
             vo.setUserId(r.getUserId());
             vo.setSubmittedAt(r.getSubmittedAt());
             vo.setDurationSeconds(r.getDurationSeconds());
-            List<ResponseItem> items = responseItemMapper.selectList(
-                    new LambdaQueryWrapper<ResponseItem>().eq(ResponseItem::getResponseId, r.getId()));
-            List<String> parts = new ArrayList<>();
-            for (int i = 0; i < Math.min(2, questions.size()); i++) {
-                SurveyQuestion q = questions.get(i);
-                ResponseItem item = items.stream().filter(x -> x.getQuestionId().equals(q.getId())).findFirst().orElse(null);
-                if (item != null) parts.add(formatAnswerShort(item, q));
+            String summary = r.getSummary() != null ? r.getSummary() : pendingSummaries.get(r.getId());
+            vo.setSummary(summary == null || summary.isEmpty() ? null : summary);
+            list.add(vo);
+        }
+        return new ResponseListResponse(list, total, nextCursor);
+    }
+
+    @Override
+    public ResponseSearchResponse searchResponses(String surveyId, String currentUserId, String keyword, Long questionId,
+                                                  String cursor, int pageSize) {
+        Survey s = requireSurvey(surveyId);
+        surveyPermissionService.requirePermission(currentUserId, "response", s, "view");
+        // BOOLEAN MODE 下整体作为短语匹配，去掉双引号避免破坏表达式
+        String kw = keyword == null ? "" : keyword.replace("\"", "").trim();
+        if (kw.isEmpty()) throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "请输入搜索关键字"));
+        pageSize = KeysetCursor.clampPageSize(pageSize);
+        Long beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                beforeId = Long.valueOf(cursor.trim());
+            } catch (NumberFormatException e) {
+                throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "无效的分页游标"));
+            }
+        }
+        // 全文索引覆盖全部问卷，命中集合随全库增长；小问卷直接扫本问卷更可控，大问卷才走全文索引且限时
+        boolean scoped = kw.length() < FULLTEXT_MIN_TOKEN
+                || (s.getSubmittedCount() != null && s.getSubmittedCount() <= SCOPED_SEARCH_MAX_RESPONSES);
+        List<ResponseItem> items;
+        if (scoped) {
+            items = responseItemMapper.searchTextLike(surveyId, questionId, "%" + escapeLike(kw) + "%", beforeId, pageSize + 1);
+        } else {
+            try {
+                items = responseItemMapper.searchText(surveyId, questionId, "\"" + kw + "\"", beforeId, pageSize + 1);
+            } catch (DataAccessException e) {
+                if (!(e.getMostSpecificCause() instanceof SQLException sql) || sql.getErrorCode() != MYSQL_QUERY_TIMEOUT) throw e;
+                throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "关键字过于常见，请输入更具体的关键字或指定题目"));
             }
-            vo.setSummary(parts.isEmpty() ? null : String.join("；", parts));
+        }
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            nextCursor = String.valueOf(items.get(items.size() - 1).getId());
+        }
+        if (items.isEmpty()) return new ResponseSearchResponse(List.of(), null);
+
+        Map<Long, String> titles = surveyQuestionMapper.selectList(new LambdaQueryWrapper<SurveyQuestion>()
+                        .select(SurveyQuestion::getId, SurveyQuestion::getTitle).eq(SurveyQuestion::getSurveyId, surveyId))
+                .stream().collect(HashMap::new, (m, q) -> m.put(q.getId(), q.getTitle()), HashMap::putAll);
+        Map<Long, LocalDateTime> submittedAt = responseMapper.selectList(new LambdaQueryWrapper<Response>()
+                        .select(Response::getId, Response::getSubmittedAt)
+                        .in(Response::getId, items.stream().map(ResponseItem::getResponseId).distinct().toList()))
+                .stream().collect(HashMap::new, (m, r) -> m.put(r.getId(), r.getSubmittedAt()), HashMap::putAll);
+        List<ResponseSearchHitVO> list = new ArrayList<>();
+        for (ResponseItem item : items) {
+            HighlightUtils.Snippet snippet = HighlightUtils.snippet(item.getTextValue(), kw);
+            ResponseSearchHitVO vo = new ResponseSearchHitVO();
+            vo.setResponseId(item.getResponseId());
+            vo.setQuestionId(item.getQuestionId());
+            vo.setQuestionTitle(titles.get(item.getQuestionId()));
+            vo.setSubmittedAt(submittedAt.get(item.getResponseId()));
+            vo.setSnippet(snippet.snippet());
+            vo.setHighlights(snippet.highlights());
             list.add(vo);
         }
-        return new ResponseListResponse(list, total);
+        return new ResponseSearchResponse(list, nextCursor);
+    }
+
+    /**
+     * 已提交答卷查询：提交时间、用时条件直接落在 response 上；每个答案条件编译为一个 EXISTS 子查询，
+     * 分别命中 response_item 的 idx_ri_question_option / idx_ri_question_scale（多选按 JSON 包含判断）
+     */
+    private LambdaQueryWrapper<Response> buildResponseQuery(String surveyId, ResponseFilter filter,
+                                                            List<ResponseFilter.AnswerPredicate> predicates,
+                                                            Map<Long, SurveyQuestion> questions) {
+        LambdaQueryWrapper<Response> q = new LambdaQueryWrapper<Response>()
+                .eq(Response::getSurveyId, surveyId).eq(Response::getStatus, "SUBMITTED");
+        if (filter == null) return q;
+        q.ge(filter.getSubmittedFrom() != null, Response::getSubmittedAt, filter.getSubmittedFrom())
+                .le(filter.getSubmittedTo() != null, Response::getSubmittedAt, filter.getSubmittedTo())
+                .ge(filter.getMinDuration() != null, Response::getDurationSeconds, filter.getMinDuration())
+                .le(filter.getMaxDuration() != null, Response::getDurationSeconds, filter.getMaxDuration());
+        String itemOf = "SELECT 1 FROM response_item ri WHERE ri.response_id = response.id AND ri.question_id = {0}";
+        for (ResponseFilter.AnswerPredicate p : predicates) {
+            SurveyQuestion question = questions.get(p.questionId());
+            if (question == null) {
+                throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "筛选的题目不属于本问卷：" + p.questionId()));
+            }
+            p.checkApplicableTo(question.getType());
+            switch (p.op()) {
+                case OPTION -> {
+                    if ("MULTIPLE_CHOICE".equals(question.getType()) && p.min() >= 0 && p.min() < OptionMask.CAPACITY) {
+                        // 位图为空的旧式答案不可能含 0..63 以外的下标，这里只需兼顾未回填的 JSON
+                        q.exists(itemOf + " AND ((ri.option_mask & {1}) <> 0 OR (ri.option_mask IS NULL AND JSON_CONTAINS(ri.option_indices, {2})))",
+                                p.questionId(), OptionMask.bit(p.min()), String.valueOf(p.min()));
+                    } else if ("MULTIPLE_CHOICE".equals(question.getType())) {
+                        q.exists(itemOf + " AND JSON_CONTAINS(ri.option_indices, {1})", p.questionId(), String.valueOf(p.min()));
+                    } else {
+                        q.exists(itemOf + " AND ri.option_index = {1}", p.questionId(), p.min());
+                    }
+                }
+                case SCALE -> {
+                    if (p.min() != null && p.max() != null) {
+                        q.exists(itemOf + " AND ri.scale_value BETWEEN {1} AND {2}", p.questionId(), p.min(), p.max());
+                    } else if (p.min() != null) {
+                        q.exists(itemOf + " AND ri.scale_value >= {1}", p.questionId(), p.min());
+                    } else {
+                        q.exists(itemOf + " AND ri.scale_value <= {1}", p.questionId(), p.max());
+                    }
+                }
+                case TEXT -> q.exists(itemOf + " AND ri.text_value LIKE {1}", p.questionId(), "%" + escapeLike(p.text()) + "%");
+            }
+        }
+        return q;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * 存量答卷在回填完成前 summary 为 NULL：对本页中这部分答卷一次性加载前两题的答卷项现算，不写回（由回填任务负责）
+     */
+    private Map<Long, String> buildPendingSummaries(String surveyId, List<Response> records) {
+        List<Long> pendingIds = records.stream().filter(r -> r.getSummary() == null).map(Response::getId).toList();
+        if (pendingIds.isEmpty()) return Map.of();
+        List<SurveyQuestion> questions = surveyQuestionMapper.selectList(new LambdaQueryWrapper<SurveyQuestion>()
+                .eq(SurveyQuestion::getSurveyId, surveyId).orderByAsc(SurveyQuestion::getSortOrder)
+                .last("LIMIT " + AnswerFormatUtils.SUMMARY_QUESTION_COUNT));
+        if (questions.isEmpty()) return Map.of();
+        Map<Long, Map<Long, ResponseItem>> itemsByResponse = responseItemMapper.selectList(new LambdaQueryWrapper<ResponseItem>()
+                        .in(ResponseItem::getResponseId, pendingIds)
+                        .in(ResponseItem::getQuestionId, questions.stream().map(SurveyQuestion::getId).toList()))
+                .stream()
+                .collect(Collectors.groupingBy(ResponseItem::getResponseId,
+                        Collectors.toMap(ResponseItem::getQuestionId, x -> x, (a, b) -> a)));
+        Map<Long, String> result = new HashMap<>();
+        for (Long id : pendingIds) {
+            result.put(id, AnswerFormatUtils.buildSummary(questions, itemsByResponse.getOrDefault(id, Map.of())));
+        }
+        return result;
     }
 
     @Override
@@ -393,11 +797,15 @@ public class SurveyServiceImpl implements SurveyService {
         Response r = responseMapper.selectOne(new LambdaQueryWrapper<Response>()
                 .eq(Response::getSurveyId, surveyId).eq(Response::getId, responseId).eq(Response::getStatus, "SUBMITTED"));
         if (r == null) throw new BusinessException(ErrorCode.NOT_FOUND);
-        List<SurveyQuestion> questions = surveyQuestionMapper.selectList(
+        // 按作答时的版本展示题目与选项文案，之后的题目编辑不影响已提交答卷；存量答卷无版本时用当前题目
+        SurveyVersionSnapshot version = surveyVersionService.get(r.getSurveyVersionId());
+        List<SurveyQuestion> questions = version != null ? version.questions() : surveyQuestionMapper.selectList(
                 new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, surveyId).orderByAsc(SurveyQuestion::getSortOrder));
-        Map<Long, SurveyQuestion> qMap = questions.stream().collect(Collectors.toMap(SurveyQuestion::getId, x -> x));
-        List<ResponseItem> items = responseItemMapper.selectList(
-                new LambdaQueryWrapper<ResponseItem>().eq(ResponseItem::getResponseId, responseId));
+        List<ResponseItem> items = decodePayload(responseMapper.selectPayloadById(responseId));
+        if (items == null) {
+            items = responseItemMapper.selectList(
+                    new LambdaQueryWrapper<ResponseItem>().eq(ResponseItem::getResponseId, responseId));
+        }
         ResponseDetailVO vo = new ResponseDetailVO();
         vo.setId(r.getId());
         vo.setUserId(r.getUserId());
@@ -410,18 +818,13 @@ public class SurveyServiceImpl implements SurveyService {
             di.setQuestionTitle(q.getTitle());
             di.setType(q.getType());
             ResponseItem item = items.stream().filter(x -> x.getQuestionId().equals(q.getId())).findFirst().orElse(null);
-            di.setAnswerText(item == null ? "—" : formatAnswerShort(item, q));
+            di.setAnswerText(item == null ? "—" : AnswerFormatUtils.formatAnswerShort(item, q));
             if (item != null) {
                 di.setOptionIndex(item.getOptionIndex());
                 di.setTextValue(item.getTextValue());
                 di.setScaleValue(item.getScaleValue());
-                if (item.getOptionIndices() != null && !item.getOptionIndices().isEmpty()) {
-                    try {
-                        JsonNode arr = JSON.readTree(item.getOptionIndices());
-                        List<Integer> indices = new ArrayList<>();
-                        for (JsonNode n : arr) indices.add(n.asInt());
-                        di.setOptionIndices(indices);
-                    } catch (Exception ignored) { }
+                if (AnswerFormatUtils.hasOptionIndices(item)) {
+                    di.setOptionIndices(AnswerFormatUtils.optionIndicesOf(item));
                 }
             }
             detailItems.add(di);
@@ -434,184 +837,116 @@ public class SurveyServiceImpl implements SurveyService {
     public AnalyticsResponse getAnalytics(String surveyId, String currentUserId) {
         Survey s = requireSurvey(surveyId);
         surveyPermissionService.requirePermission(currentUserId, "response", s, "view");
-        List<Long> submittedResponseIds = responseMapper.selectList(
-                        new LambdaQueryWrapper<Response>().eq(Response::getSurveyId, surveyId).eq(Response::getStatus, "SUBMITTED"))
-                .stream().map(Response::getId).collect(Collectors.toList());
-        List<SurveyQuestion> questions = surveyQuestionMapper.selectList(
-                new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, surveyId).orderByAsc(SurveyQuestion::getSortOrder));
-        List<AnalyticsQuestionVO> result = new ArrayList<>();
-        for (SurveyQuestion q : questions) {
-            AnalyticsQuestionVO aq = new AnalyticsQuestionVO();
-            aq.setQuestionId(q.getId());
-            aq.setType(q.getType());
-            aq.setTitle(q.getTitle());
-            List<ResponseItem> items = submittedResponseIds.isEmpty() ? List.of() : responseItemMapper.selectList(
-                    new LambdaQueryWrapper<ResponseItem>().eq(ResponseItem::getQuestionId, q.getId()).in(ResponseItem::getResponseId, submittedResponseIds));
-            if (items.isEmpty()) {
-                if ("SINGLE_CHOICE".equals(q.getType()) || "MULTIPLE_CHOICE".equals(q.getType())) aq.setSummary(new ArrayList<AnalyticsOptionSummary>());
-                else if ("SCALE".equals(q.getType())) aq.setSummary(new com.lx.questionnaire.dto.AnalyticsScaleSummary());
-                else aq.setSummary(new ArrayList<String>());
-            } else if ("SINGLE_CHOICE".equals(q.getType()) || "MULTIPLE_CHOICE".equals(q.getType())) {
-                aq.setSummary(buildOptionSummary(q, items));
-            } else if ("SCALE".equals(q.getType())) {
-                aq.setSummary(buildScaleSummary(items));
-            } else {
-                aq.setSummary(items.stream().map(ResponseItem::getTextValue).filter(Objects::nonNull).collect(Collectors.toList()));
+        OptionLayout layout = optionLayout(surveyId);
+        // 按主键分批读取，逐份累加到各题计数器：有编码的答卷直接顺序读取，只为本批存量答卷查一次答卷项；
+        // 选项下标按答卷所属版本换算到统一布局
+        AnalyticsAccumulator acc = new AnalyticsAccumulator(layout.questions());
+        long afterId = 0;
+        while (true) {
+            List<Response> batch = responseMapper.selectPayloadsAfterId(surveyId, afterId, EXPORT_BATCH_SIZE);
+            Map<Long, Long> legacyVersions = new HashMap<>();
+            for (Response r : batch) {
+                ResponsePayload.Reader reader = payloadReader(r);
+                if (reader != null) acc.add(reader, layout.mapping(r.getSurveyVersionId()));
+                else legacyVersions.put(r.getId(), r.getSurveyVersionId());
+            }
+            if (!legacyVersions.isEmpty()) {
+                responseItemMapper.selectList(new LambdaQueryWrapper<ResponseItem>().in(ResponseItem::getResponseId, legacyVersions.keySet()))
+                        .forEach(ri -> acc.add(ri, layout.mapping(legacyVersions.get(ri.getResponseId()))));
             }
-            result.add(aq);
+            if (batch.size() < EXPORT_BATCH_SIZE) break;
+            afterId = batch.get(batch.size() - 1).getId();
         }
-        return new AnalyticsResponse(result);
+        return new AnalyticsResponse(acc.result());
     }
 
     @Override
-    public byte[] exportResponses(String surveyId, String currentUserId) {
+    public ResponseExportTask exportResponses(String surveyId, String currentUserId, ExportFormat format) {
         Survey s = requireSurvey(surveyId);
         surveyPermissionService.requirePermission(currentUserId, "response", s, "export");
-        List<SurveyQuestion> questions = surveyQuestionMapper.selectList(
-                new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, surveyId).orderByAsc(SurveyQuestion::getSortOrder));
-        List<Response> responses = responseMapper.selectList(
-                new LambdaQueryWrapper<Response>().eq(Response::getSurveyId, surveyId).eq(Response::getStatus, "SUBMITTED").orderByAsc(Response::getSubmittedAt));
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        try (Workbook wb = new XSSFWorkbook()) {
-            CellStyle textCellStyle = wb.createCellStyle();
-            textCellStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("@"));
-
-            Sheet sheet = wb.createSheet("答卷");
-            Row headerRow = sheet.createRow(0);
-            headerRow.createCell(0).setCellValue("提交时间");
-            headerRow.createCell(1).setCellValue("用时(秒)");
-            for (int i = 0; i < questions.size(); i++) {
-                headerRow.createCell(2 + i).setCellValue(questions.get(i).getTitle() != null ? questions.get(i).getTitle() : "");
-            }
-            int rowNum = 1;
-            for (Response r : responses) {
-                List<ResponseItem> items = responseItemMapper.selectList(
-                        new LambdaQueryWrapper<ResponseItem>().eq(ResponseItem::getResponseId, r.getId()));
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(r.getSubmittedAt() != null ? r.getSubmittedAt().format(dtf) : "");
-                row.createCell(1).setCellValue(r.getDurationSeconds() != null ? r.getDurationSeconds() : 0);
-                for (int i = 0; i < questions.size(); i++) {
-                    SurveyQuestion q = questions.get(i);
-                    ResponseItem item = items.stream().filter(x -> x.getQuestionId().equals(q.getId())).findFirst().orElse(null);
-                    String cellValue = item == null ? "" : formatAnswerShort(item, q);
-                    Cell cell = row.createCell(2 + i);
-                    boolean isTextColumn = "SHORT_TEXT".equals(q.getType()) || "LONG_TEXT".equals(q.getType());
-                    if (isTextColumn) {
-                        cell.setCellStyle(textCellStyle);
-                    }
-                    cell.setCellValue(cellValue);
+        OptionLayout layout = optionLayout(surveyId);
+        return out -> {
+            try (ResponseExportWriter writer = format.open(surveyId, layout.questions(), out)) {
+                // 按提交时间升序：submitted_at 为 NULL 的存量答卷排在最前（同 ORDER BY submitted_at），其余按 (submitted_at, id) 游标
+                long afterId = 0;
+                while (true) {
+                    List<Response> batch = responseMapper.selectSubmittedWithoutTimeAfterId(surveyId, afterId, EXPORT_BATCH_SIZE);
+                    if (batch.isEmpty()) break;
+                    writeExportBatch(writer, batch, layout);
+                    afterId = batch.get(batch.size() - 1).getId();
+                    if (batch.size() < EXPORT_BATCH_SIZE) break;
                 }
-            }
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            wb.write(baos);
-            return baos.toByteArray();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    private String formatAnswerShort(ResponseItem item, SurveyQuestion q) {
-        if (item.getValueType() == null) return "";
-        switch (item.getValueType()) {
-            case "OPTION":
-                String optLabel = "";
-                if (item.getOptionIndex() != null) {
-                    optLabel = getOptionLabel(q, item.getOptionIndex());
-                } else if (item.getOptionIndices() != null && !item.getOptionIndices().isEmpty()) {
-                    try {
-                        JsonNode arr = JSON.readTree(item.getOptionIndices());
-                        StringBuilder sb = new StringBuilder();
-                        for (JsonNode n : arr) {
-                            int idx = n.asInt();
-                            if (sb.length() > 0) sb.append("、");
-                            sb.append(getOptionLabel(q, idx));
-                        }
-                        optLabel = sb.toString();
-                    } catch (Exception ignored) { }
+                LocalDateTime afterAt = null;
+                afterId = 0;
+                while (true) {
+                    List<Response> batch = responseMapper.selectSubmittedAfter(surveyId, afterAt, afterId, EXPORT_BATCH_SIZE);
+                    if (batch.isEmpty()) break;
+                    writeExportBatch(writer, batch, layout);
+                    Response last = batch.get(batch.size() - 1);
+                    afterAt = last.getSubmittedAt();
+                    afterId = last.getId();
+                    if (batch.size() < EXPORT_BATCH_SIZE) break;
                 }
-                if (item.getTextValue() != null && !item.getTextValue().isBlank()) {
-                    return optLabel + "：" + item.getTextValue();
-                }
-                return optLabel;
-            case "TEXT": return item.getTextValue() != null ? item.getTextValue() : "";
-            case "SCALE": return item.getScaleValue() != null ? String.valueOf(item.getScaleValue()) : "";
-            default: return "";
+                writer.finish();
+            }
+        };
+    }
+
+    /**
+     * 统计与导出的选项布局：列与题目以当前题目为准，各版本答卷的选项下标按该版本快照的选项文案换算，
+     * 与 getResponseDetail 一样按作答时的版本解释答案
+     */
+    private OptionLayout optionLayout(String surveyId) {
+        List<SurveyQuestion> questions = surveyQuestionMapper.selectList(
+                new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, surveyId).orderByAsc(SurveyQuestion::getSortOrder));
+        List<SurveyVersionSnapshot> versions = new ArrayList<>();
+        for (Long versionId : surveyVersionMapper.selectIdsBySurvey(surveyId)) {
+            SurveyVersionSnapshot v = surveyVersionService.get(versionId);
+            if (v != null) versions.add(v);
         }
+        return new OptionLayout(questions, versions);
     }
 
-    private String getOptionLabel(SurveyQuestion q, int index) {
-        if (q.getConfig() == null) return "选项" + index;
-        try {
-            JsonNode node = JSON.readTree(q.getConfig());
-            JsonNode opts = node.get("options");
-            int size = (opts != null && opts.isArray()) ? opts.size() : 0;
-            if (index >= 0 && index < size) {
-                JsonNode label = opts.get(index).get("label");
-                return label != null ? label.asText() : "选项" + index;
-            }
-            if (index == size && node.has("hasOtherOption") && node.get("hasOtherOption").asBoolean()) {
-                return "其他";
-            }
-        } catch (Exception ignored) { }
-        return "选项" + index;
+    /** 写出一批答卷：有编码的答卷直接解码，只为其余答卷一次性查答卷项；选项下标按答卷所属版本换算 */
+    private void writeExportBatch(ResponseExportWriter writer, List<Response> batch, OptionLayout layout) throws IOException {
+        Map<Long, Map<Long, ResponseItem>> itemsByResponse = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        for (Response r : batch) {
+            List<ResponseItem> decoded = decodePayload(r);
+            if (decoded == null) ids.add(r.getId());
+            else itemsByResponse.put(r.getId(), decoded.stream()
+                    .collect(Collectors.toMap(ResponseItem::getQuestionId, x -> x, (a, b) -> a)));
+        }
+        if (!ids.isEmpty()) {
+            itemsByResponse.putAll(responseItemMapper.selectList(
+                            new LambdaQueryWrapper<ResponseItem>().in(ResponseItem::getResponseId, ids))
+                    .stream().collect(Collectors.groupingBy(ResponseItem::getResponseId,
+                            Collectors.toMap(ResponseItem::getQuestionId, x -> x, (a, b) -> a))));
+        }
+        for (Response r : batch) {
+            Map<Long, ResponseItem> items = itemsByResponse.getOrDefault(r.getId(), Map.of());
+            layout.remap(r.getSurveyVersionId(), items.values());
+            writer.writeRow(r, items);
+        }
     }
 
-    private List<AnalyticsOptionSummary> buildOptionSummary(SurveyQuestion q, List<ResponseItem> items) {
-        List<int[]> indices = new ArrayList<>();
-        for (ResponseItem ri : items) {
-            if (ri.getOptionIndex() != null) indices.add(new int[]{ri.getOptionIndex()});
-            else if (ri.getOptionIndices() != null && !ri.getOptionIndices().isEmpty()) {
-                try {
-                    JsonNode arr = JSON.readTree(ri.getOptionIndices());
-                    int[] a = new int[arr.size()];
-                    for (int i = 0; i < arr.size(); i++) a[i] = arr.get(i).asInt();
-                    indices.add(a);
-                } catch (Exception ignored) { }
-            }
+    /** 答卷 response_payload 的顺序读取器；无编码或版本不识别时返回 null，由调用方回退到 response_item */
+    private static ResponsePayload.Reader payloadReader(Response r) {
+        if (r == null || r.getResponsePayload() == null) return null;
+        try {
+            return new ResponsePayload.Reader(r.getResponsePayload());
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
         }
-        int optionCount = 0;
-        boolean hasOtherOption = false;
+    }
+
+    /** 解码答卷的 response_payload；无编码或版本不识别时返回 null，由调用方回退到 response_item */
+    private static List<ResponseItem> decodePayload(Response r) {
+        if (r == null || r.getResponsePayload() == null) return null;
         try {
-            if (q.getConfig() != null) {
-                JsonNode node = JSON.readTree(q.getConfig());
-                JsonNode opts = node.get("options");
-                if (opts != null && opts.isArray()) optionCount = opts.size();
-                if (node.has("hasOtherOption") && node.get("hasOtherOption").asBoolean()) {
-                    hasOtherOption = true;
-                    optionCount++;
-                }
-            }
-        } catch (Exception ignored) { }
-        int totalResponses = indices.size();
-        List<AnalyticsOptionSummary> list = new ArrayList<>();
-        for (int i = 0; i < optionCount; i++) {
-            final int idx = i;
-            long count = indices.stream().filter(x -> Arrays.stream(x).anyMatch(v -> v == idx)).count();
-            AnalyticsOptionSummary o = new AnalyticsOptionSummary();
-            o.setOptionIndex(idx);
-            o.setLabel(getOptionLabel(q, idx));
-            o.setCount(count);
-            o.setRatio(totalResponses > 0 ? (double) count / totalResponses : 0);
-            list.add(o);
-        }
-        return list;
-    }
-
-    private AnalyticsScaleSummary buildScaleSummary(List<ResponseItem> items) {
-        List<Integer> values = items.stream().map(ResponseItem::getScaleValue).filter(Objects::nonNull).collect(Collectors.toList());
-        double avg = values.isEmpty() ? 0 : values.stream().mapToInt(Integer::intValue).average().orElse(0);
-        Map<Integer, Long> dist = values.stream().collect(Collectors.groupingBy(x -> x, Collectors.counting()));
-        AnalyticsScaleSummary s = new AnalyticsScaleSummary();
-        s.setAvg(avg);
-        List<AnalyticsScaleSummary.ScaleDistributionItem> distList = new ArrayList<>();
-        for (Map.Entry<Integer, Long> e : dist.entrySet()) {
-            AnalyticsScaleSummary.ScaleDistributionItem d = new AnalyticsScaleSummary.ScaleDistributionItem();
-            d.setValue(e.getKey());
-            d.setCount(e.getValue());
-            distList.add(d);
-        }
-        distList.sort(Comparator.comparingInt(AnalyticsScaleSummary.ScaleDistributionItem::getValue));
-        s.setDistribution(distList);
-        return s;
+            return ResponsePayload.decode(r.getId(), r.getResponsePayload());
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
+        }
     }
 }
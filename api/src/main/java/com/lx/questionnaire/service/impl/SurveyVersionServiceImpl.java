@@ -0,0 +1,159 @@
+package com.lx.questionnaire.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lx.questionnaire.common.BusinessException;
+import com.lx.questionnaire.common.ErrorCode;
+import com.lx.questionnaire.dto.SurveyVersionSnapshot;
+import com.lx.questionnaire.entity.Survey;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.entity.SurveyVersion;
+import com.lx.questionnaire.mapper.SurveyMapper;
+import com.lx.questionnaire.mapper.SurveyQuestionMapper;
+import com.lx.questionnaire.mapper.SurveyVersionMapper;
+import com.lx.questionnaire.service.SurveyVersionService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 版本快照只增不改：(问卷, 结构版本) → 版本 id 的映射与版本 id → 快照均可永久缓存，只按容量淘汰，无需失效。
+ * 题目编辑递增 schema_version 后，下一次填写自然落到新的键上并冻结新版本。
+ * <p>
+ * 冻结加入调用方的事务、使用同一连接，不额外占用连接池；版本号与题目在同一事务快照内读取，二者一致，
+ * 不锁问卷行。并发冻结同一版本由唯一键去重（INSERT IGNORE 后加锁回读）。
+ * 新冻结的版本随调用方事务提交或回滚，提交后才写入缓存，缓存里只会出现已提交的版本 id。
+ */
+@Service
+public class SurveyVersionServiceImpl implements SurveyVersionService {
+
+    private static final int MAX_CACHED_VERSIONS = 2000;
+    private static final TypeReference<List<SurveyQuestion>> QUESTION_LIST = new TypeReference<>() {};
+
+    private final SurveyVersionMapper surveyVersionMapper;
+    private final SurveyMapper surveyMapper;
+    private final SurveyQuestionMapper surveyQuestionMapper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    /** key 为 surveyId:schemaVersion */
+    private final Cache<String, Long> versionIds = Caffeine.newBuilder().maximumSize(MAX_CACHED_VERSIONS).build();
+    private final Cache<Long, SurveyVersionSnapshot> snapshots = Caffeine.newBuilder().maximumSize(MAX_CACHED_VERSIONS).build();
+
+    public SurveyVersionServiceImpl(SurveyVersionMapper surveyVersionMapper, SurveyMapper surveyMapper,
+                                    SurveyQuestionMapper surveyQuestionMapper, ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager) {
+        this.surveyVersionMapper = surveyVersionMapper;
+        this.surveyMapper = surveyMapper;
+        this.surveyQuestionMapper = surveyQuestionMapper;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public SurveyVersionSnapshot resolve(Survey survey) {
+        int schemaVersion = survey.getSchemaVersion() != null ? survey.getSchemaVersion() : 0;
+        Long id = versionIds.getIfPresent(key(survey.getId(), schemaVersion));
+        if (id != null) return get(id);
+        SurveyVersion v = surveyVersionMapper.selectBySchemaVersion(survey.getId(), schemaVersion);
+        if (v == null) {
+            // 传入的 survey 可能已过时，冻结的是事务内读到的版本，只按其实际版本号登记；无外层事务时自行开启
+            v = transactionTemplate.execute(status -> freeze(survey.getId()));
+        }
+        SurveyVersionSnapshot snapshot = toSnapshot(v);
+        // 读到的可能是本事务刚插入、尚未提交的版本
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(snapshot);
+                }
+            });
+        } else {
+            remember(snapshot);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public SurveyVersionSnapshot get(Long versionId) {
+        if (versionId == null) return null;
+        return snapshots.get(versionId, id -> {
+            SurveyVersion v = surveyVersionMapper.selectById(id);
+            return v != null ? toSnapshot(v) : null;
+        });
+    }
+
+    private void remember(SurveyVersionSnapshot snapshot) {
+        versionIds.put(key(snapshot.surveyId(), snapshot.schemaVersion()), snapshot.id());
+        snapshots.asMap().putIfAbsent(snapshot.id(), snapshot);
+    }
+
+    /**
+     * 在同一事务快照内读取结构版本与题目：题目编辑在同一事务内递增 schema_version，快照读到的二者一致。
+     * 唯一键冲突说明另一事务已冻结该版本（INSERT IGNORE 会等它提交），快照读看不到，须加锁回读最新提交的行
+     */
+    private SurveyVersion freeze(String surveyId) {
+        Integer schemaVersion = surveyMapper.selectSchemaVersion(surveyId);
+        if (schemaVersion == null) throw new BusinessException(ErrorCode.SURVEY_NOT_FOUND);
+        SurveyVersion existing = surveyVersionMapper.selectBySchemaVersion(surveyId, schemaVersion);
+        if (existing != null) return existing;
+        List<SurveyQuestion> questions = surveyQuestionMapper.selectList(new LambdaQueryWrapper<SurveyQuestion>()
+                .eq(SurveyQuestion::getSurveyId, surveyId)
+                .orderByAsc(SurveyQuestion::getSortOrder).orderByAsc(SurveyQuestion::getId));
+        SurveyVersion v = new SurveyVersion();
+        v.setSurveyId(surveyId);
+        v.setSchemaVersion(schemaVersion);
+        try {
+            v.setQuestions(objectMapper.writeValueAsString(questions));
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR);
+        }
+        if (surveyVersionMapper.insertIgnore(v) == 0) {
+            return surveyVersionMapper.selectBySchemaVersionForShare(surveyId, schemaVersion);
+        }
+        return v;
+    }
+
+    private SurveyVersionSnapshot toSnapshot(SurveyVersion v) {
+        List<SurveyQuestion> questions;
+        try {
+            questions = objectMapper.readValue(v.getQuestions(), QUESTION_LIST);
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR);
+        }
+        Map<Long, SurveyQuestion> questionMap = new LinkedHashMap<>();
+        Map<Long, Map<String, Object>> configs = new LinkedHashMap<>();
+        for (SurveyQuestion q : questions) {
+            questionMap.put(q.getId(), q);
+            configs.put(q.getId(), parseConfig(q.getConfig()));
+        }
+        return new SurveyVersionSnapshot(v.getId(), v.getSurveyId(), v.getSchemaVersion(),
+                Collections.unmodifiableList(questions), Collections.unmodifiableMap(questionMap),
+                Collections.unmodifiableMap(configs));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> parseConfig(String configJson) {
+        if (configJson == null || configJson.isBlank()) return Map.of();
+        try {
+            return Collections.unmodifiableMap(objectMapper.readValue(configJson, Map.class));
+        } catch (Exception e) {
+            return Map.of();
+        }
+    }
+
+    private static String key(String surveyId, int schemaVersion) {
+        return surveyId + ":" + schemaVersion;
+    }
+}
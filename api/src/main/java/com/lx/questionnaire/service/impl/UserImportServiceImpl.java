@@ -0,0 +1,312 @@
+package com.lx.questionnaire.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.lx.questionnaire.common.BusinessException;
+import com.lx.questionnaire.common.ErrorCode;
+import com.lx.questionnaire.dto.UserImportResult;
+import com.lx.questionnaire.dto.UserImportRowError;
+import com.lx.questionnaire.entity.Account;
+import com.lx.questionnaire.entity.Department;
+import com.lx.questionnaire.entity.Role;
+import com.lx.questionnaire.entity.User;
+import com.lx.questionnaire.entity.UserRole;
+import com.lx.questionnaire.mapper.AccountMapper;
+import com.lx.questionnaire.mapper.UserMapper;
+import com.lx.questionnaire.mapper.UserRoleMapper;
+import com.lx.questionnaire.security.PermissionChangedEvent;
+import com.lx.questionnaire.service.DepartmentService;
+import com.lx.questionnaire.service.RoleService;
+import com.lx.questionnaire.service.UserImportService;
+import com.lx.questionnaire.service.userimport.ImportFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 每 CHUNK_SIZE 行一个事务：先 INSERT IGNORE account 确定 login_id 对应的 user_id（已有账号沿用原 user_id，
+ * 与 CAS 首次登录并发时也不会产生重复用户），再批量 upsert user、INSERT IGNORE user_role。
+ * 导入只追加角色，不删除用户已有角色。
+ */
+@Slf4j
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String AUTH_SOURCE_CAS = "cas";
+    private static final Set<String> IDENTITY_TYPES = Set.of("FACULTY", "STUDENT", "OTHER");
+    private static final Map<String, String> IDENTITY_ALIASES = Map.of("教职工", "FACULTY", "学生", "STUDENT", "其他", "OTHER");
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+$");
+    private static final Pattern ROLE_SEPARATOR = Pattern.compile("[,，|;；、]");
+
+    private final UserMapper userMapper;
+    private final AccountMapper accountMapper;
+    private final UserRoleMapper userRoleMapper;
+    private final RoleService roleService;
+    private final DepartmentService departmentService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserImportServiceImpl(UserMapper userMapper, AccountMapper accountMapper, UserRoleMapper userRoleMapper,
+                                 RoleService roleService, DepartmentService departmentService,
+                                 ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
+        this.userMapper = userMapper;
+        this.accountMapper = accountMapper;
+        this.userRoleMapper = userRoleMapper;
+        this.roleService = roleService;
+        this.departmentService = departmentService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public UserImportResult importUsers(MultipartFile file, String operatorId) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "请上传导入文件"));
+        }
+        ImportFormat format = ImportFormat.ofFilename(file.getOriginalFilename());
+        long start = System.currentTimeMillis();
+        Session session = new Session(operatorId,
+                departmentService.listAll().stream()
+                        .collect(Collectors.toMap(Department::getCode, Department::getId, (a, b) -> a)),
+                roleService.listAll().stream()
+                        .collect(Collectors.toMap(Role::getCode, Role::getId, (a, b) -> a)));
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile("user-import-", "." + format.name().toLowerCase(Locale.ROOT));
+            file.transferTo(tmp);
+            format.read(tmp, session::onRow);
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "读取导入文件失败"));
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) { }
+            }
+        }
+        if (session.columns == null) {
+            throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "导入文件为空"));
+        }
+        session.flush();
+
+        UserImportResult result = session.result;
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        if (result.getCreated() + result.getUpdated() > 0) {
+            // 角色批量追加，直接整体失效权限缓存
+            eventPublisher.publishEvent(PermissionChangedEvent.ofAll());
+        }
+        log.info("user import: total={}, created={}, updated={}, failed={}, {} ms",
+                result.getTotal(), result.getCreated(), result.getUpdated(), result.getFailed(), result.getElapsedMillis());
+        return result;
+    }
+
+    private enum Column {
+        LOGIN_ID("学工号", "loginId", "login_id", "工号", "学号"),
+        NICKNAME("姓名", "nickname", "name"),
+        EMAIL("邮箱", "email"),
+        PHONE("手机", "phone", "手机号"),
+        IDENTITY_TYPE("身份", "identityType", "identity_type"),
+        DEPARTMENT_CODE("院系编码", "departmentCode", "department_code"),
+        ROLES("角色", "roles", "角色编码");
+
+        private final Set<String> aliases;
+
+        Column(String... aliases) {
+            this.aliases = Arrays.stream(aliases).map(a -> a.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        }
+
+        static Column of(String header) {
+            String h = header == null ? "" : header.trim().toLowerCase(Locale.ROOT);
+            for (Column c : values()) {
+                if (c.aliases.contains(h)) return c;
+            }
+            return null;
+        }
+    }
+
+    private record Row(int rowNumber, String loginId, User user, Set<Long> roleIds) {
+    }
+
+    /** 单次导入的状态：表头映射、已出现的 login_id、待写入块与结果 */
+    private final class Session {
+        private final String operatorId;
+        private final Map<String, Long> departmentIds;
+        private final Map<String, Long> roleIds;
+        private final Set<String> seenLoginIds = new HashSet<>();
+        private final List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final UserImportResult result = new UserImportResult();
+        private Map<Column, Integer> columns;
+
+        Session(String operatorId, Map<String, Long> departmentIds, Map<String, Long> roleIds) {
+            this.operatorId = operatorId;
+            this.departmentIds = departmentIds;
+            this.roleIds = roleIds;
+        }
+
+        void onRow(int rowNumber, List<String> cells) {
+            if (columns == null) {
+                columns = new HashMap<>();
+                for (int i = 0; i < cells.size(); i++) {
+                    Column c = Column.of(cells.get(i));
+                    if (c != null) columns.putIfAbsent(c, i);
+                }
+                if (!columns.containsKey(Column.LOGIN_ID)) {
+                    throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "表头缺少「学工号」列"));
+                }
+                return;
+            }
+            result.setTotal(result.getTotal() + 1);
+            Function<Column, String> get = c -> {
+                Integer i = columns.get(c);
+                if (i == null || i >= cells.size() || cells.get(i) == null) return null;
+                String v = cells.get(i).trim();
+                return v.isEmpty() ? null : v;
+            };
+            String loginId = get.apply(Column.LOGIN_ID);
+            String error = null;
+            User user = new User();
+            Set<Long> rowRoleIds = new LinkedHashSet<>();
+            if (loginId == null) {
+                error = "学工号不能为空";
+            } else if (loginId.length() > 100) {
+                error = "学工号超过 100 个字符";
+            } else if (!seenLoginIds.add(loginId)) {
+                error = "学工号在文件中重复";
+            } else {
+                error = fillUser(user, rowRoleIds, get);
+            }
+            if (error != null) {
+                fail(rowNumber, loginId, error);
+                return;
+            }
+            user.setCreator(operatorId);
+            user.setUpdator(operatorId);
+            chunk.add(new Row(rowNumber, loginId, user, rowRoleIds));
+            if (chunk.size() >= CHUNK_SIZE) flush();
+        }
+
+        /** 校验并填充可选字段，返回错误信息，通过时返回 null */
+        private String fillUser(User user, Set<Long> rowRoleIds, Function<Column, String> get) {
+            String nickname = get.apply(Column.NICKNAME);
+            if (nickname != null && nickname.length() > 64) return "姓名超过 64 个字符";
+            user.setNickname(nickname);
+            String email = get.apply(Column.EMAIL);
+            if (email != null && (email.length() > 128 || !EMAIL.matcher(email).matches())) return "邮箱格式不正确";
+            user.setEmail(email);
+            String phone = get.apply(Column.PHONE);
+            if (phone != null && phone.length() > 32) return "手机号超过 32 个字符";
+            user.setPhone(phone);
+            String identity = get.apply(Column.IDENTITY_TYPE);
+            if (identity != null) {
+                String normalized = IDENTITY_ALIASES.getOrDefault(identity, identity.toUpperCase(Locale.ROOT));
+                if (!IDENTITY_TYPES.contains(normalized)) return "身份只能是 FACULTY/STUDENT/OTHER（教职工/学生/其他）";
+                user.setIdentityType(normalized);
+            }
+            String deptCode = get.apply(Column.DEPARTMENT_CODE);
+            if (deptCode != null) {
+                Long deptId = departmentIds.get(deptCode);
+                if (deptId == null) return "院系编码不存在：" + deptCode;
+                user.setDepartmentId(deptId);
+            }
+            String roles = get.apply(Column.ROLES);
+            if (roles != null) {
+                for (String code : ROLE_SEPARATOR.split(roles)) {
+                    if (code.isBlank()) continue;
+                    Long roleId = roleIds.get(code.trim());
+                    if (roleId == null) return "角色编码不存在：" + code.trim();
+                    rowRoleIds.add(roleId);
+                }
+            }
+            return null;
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) return;
+            List<Row> rows = new ArrayList<>(chunk);
+            chunk.clear();
+            try {
+                int created = transactionTemplate.execute(status -> writeChunk(rows));
+                result.setCreated(result.getCreated() + created);
+                result.setUpdated(result.getUpdated() + rows.size() - created);
+            } catch (RuntimeException e) {
+                log.warn("user import chunk failed, rows {}-{}: {}",
+                        rows.get(0).rowNumber(), rows.get(rows.size() - 1).rowNumber(), e.getMessage());
+                for (Row r : rows) fail(r.rowNumber(), r.loginId(), "写入失败，请稍后重试");
+            }
+        }
+
+        /** 返回新建的用户数 */
+        private int writeChunk(List<Row> rows) {
+            List<Account> accounts = new ArrayList<>(rows.size());
+            for (Row r : rows) {
+                Account a = new Account();
+                a.setUserId("u-" + UUID.randomUUID().toString().replace("-", "").substring(0, 24));
+                a.setLoginId(r.loginId());
+                a.setAuthSource(AUTH_SOURCE_CAS);
+                accounts.add(a);
+            }
+            int created = accountMapper.insertIgnoreBatch(accounts);
+            Set<String> generatedIds = accounts.stream().map(Account::getUserId).collect(Collectors.toSet());
+            Map<String, String> userIdByLoginId = accountMapper.selectList(new LambdaQueryWrapper<Account>()
+                            .select(Account::getLoginId, Account::getUserId)
+                            .eq(Account::getAuthSource, AUTH_SOURCE_CAS)
+                            .in(Account::getLoginId, rows.stream().map(Row::loginId).toList()))
+                    .stream().collect(Collectors.toMap(Account::getLoginId, Account::getUserId));
+
+            List<User> users = new ArrayList<>(rows.size());
+            List<UserRole> userRoles = new ArrayList<>();
+            for (Row r : rows) {
+                String userId = userIdByLoginId.get(r.loginId());
+                User u = r.user();
+                u.setId(userId);
+                if (u.getNickname() == null && generatedIds.contains(userId)) {
+                    // 新账号未填姓名时与 CAS 首登一致，用 login_id 作昵称；已有用户 COALESCE 保留原值
+                    u.setNickname(r.loginId());
+                }
+                users.add(u);
+                for (Long roleId : r.roleIds()) {
+                    UserRole ur = new UserRole();
+                    ur.setUserId(userId);
+                    ur.setRoleId(roleId);
+                    userRoles.add(ur);
+                }
+            }
+            userMapper.upsertBatch(users);
+            if (!userRoles.isEmpty()) {
+                userRoleMapper.insertIgnoreBatch(userRoles);
+            }
+            return created;
+        }
+
+        private void fail(int rowNumber, String loginId, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                result.getErrors().add(new UserImportRowError(rowNumber, loginId, message));
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+    }
+}
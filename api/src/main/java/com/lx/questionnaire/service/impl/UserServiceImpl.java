@@ -7,17 +7,23 @@ import com.lx.questionnaire.common.ErrorCode;
 import com.lx.questionnaire.entity.Role;
 import com.lx.questionnaire.entity.User;
 import com.lx.questionnaire.entity.UserRole;
-import com.lx.questionnaire.mapper.RoleMapper;
 import com.lx.questionnaire.mapper.UserMapper;
 import com.lx.questionnaire.mapper.UserRoleMapper;
+import com.lx.questionnaire.security.AuthTokenService;
+import com.lx.questionnaire.security.PermissionChangedEvent;
+import com.lx.questionnaire.service.RoleService;
 import com.lx.questionnaire.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -25,7 +31,9 @@ public class UserServiceImpl implements UserService {
 
     private final UserMapper userMapper;
     private final UserRoleMapper userRoleMapper;
-    private final RoleMapper roleMapper;
+    private final RoleService roleService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuthTokenService authTokenService;
 
     @Override
     public User getById(String id) {
@@ -36,8 +44,8 @@ public class UserServiceImpl implements UserService {
     public List<String> getRoleCodesByUserId(String userId) {
         List<Long> roleIds = getRoleIdsByUserId(userId);
         if (roleIds.isEmpty()) return List.of();
-        List<Role> roles = roleMapper.selectBatchIds(roleIds);
-        return roles.stream().map(Role::getCode).toList();
+        Set<Long> ids = new HashSet<>(roleIds);
+        return roleService.listAll().stream().filter(r -> ids.contains(r.getId())).map(Role::getCode).toList();
     }
 
     @Override
@@ -53,15 +61,28 @@ public class UserServiceImpl implements UserService {
         if (userMapper.selectById(userId) == null) {
             throw new BusinessException(ErrorCode.USER_NOT_FOUND);
         }
-        userRoleMapper.delete(new LambdaQueryWrapper<UserRole>().eq(UserRole::getUserId, userId));
-        if (roleIds != null && !roleIds.isEmpty()) {
-            for (Long roleId : roleIds) {
-                UserRole ur = new UserRole();
-                ur.setUserId(userId);
-                ur.setRoleId(roleId);
-                userRoleMapper.insert(ur);
-            }
+        // 只删除移除的角色、批量插入新增的角色，未变化的关联保持不动
+        Set<Long> target = roleIds == null ? Set.of() : new LinkedHashSet<>(roleIds);
+        Set<Long> current = new HashSet<>(getRoleIdsByUserId(userId));
+        List<Long> removed = current.stream().filter(id -> !target.contains(id)).toList();
+        List<UserRole> added = target.stream().filter(id -> !current.contains(id)).map(roleId -> {
+            UserRole ur = new UserRole();
+            ur.setUserId(userId);
+            ur.setRoleId(roleId);
+            return ur;
+        }).toList();
+        if (removed.isEmpty() && added.isEmpty()) {
+            return;
         }
+        if (!removed.isEmpty()) {
+            userRoleMapper.delete(new LambdaQueryWrapper<UserRole>()
+                    .eq(UserRole::getUserId, userId)
+                    .in(UserRole::getRoleId, removed));
+        }
+        if (!added.isEmpty()) {
+            userRoleMapper.insertIgnoreBatch(added);
+        }
+        eventPublisher.publishEvent(PermissionChangedEvent.ofUser(userId));
     }
 
     @Override
@@ -92,6 +113,8 @@ public class UserServiceImpl implements UserService {
         }
         user.setId(id);
         userMapper.updateById(user);
+        // 所属院系可能变化，影响 DEPARTMENT 范围判断
+        eventPublisher.publishEvent(PermissionChangedEvent.ofUser(id));
     }
 
     @Override
@@ -103,5 +126,14 @@ public class UserServiceImpl implements UserService {
         }
         userRoleMapper.delete(new LambdaQueryWrapper<UserRole>().eq(UserRole::getUserId, id));
         userMapper.deleteById(id);
+        eventPublisher.publishEvent(PermissionChangedEvent.ofUser(id));
+    }
+
+    @Override
+    public void revokeTokens(String id) {
+        if (userMapper.selectById(id) == null) {
+            throw new BusinessException(ErrorCode.USER_NOT_FOUND);
+        }
+        authTokenService.revokeAll(id);
     }
 }
@@ -0,0 +1,82 @@
+package com.lx.questionnaire.service.userimport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UTF-8 CSV（RFC 4180：双引号包裹、"" 转义、字段内可换行），兼容 Excel 另存时带的 BOM
+ */
+final class CsvImportReader {
+
+    private CsvImportReader() {
+    }
+
+    static void read(Path file, ImportRowHandler handler) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> cells = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            boolean first = true;
+            int line = 1;
+            int rowStart = 1;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (first) {
+                    first = false;
+                    if (c == '\uFEFF') continue;
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            cell.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) reader.reset();
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        cell.append((char) c);
+                    }
+                    continue;
+                }
+                switch (c) {
+                    case '"' -> quoted = true;
+                    case ',' -> {
+                        cells.add(cell.toString());
+                        cell.setLength(0);
+                    }
+                    case '\r' -> { }
+                    case '\n' -> {
+                        cells.add(cell.toString());
+                        cell.setLength(0);
+                        emit(rowStart, cells, handler);
+                        cells = new ArrayList<>();
+                        line++;
+                        rowStart = line;
+                    }
+                    default -> cell.append((char) c);
+                }
+            }
+            if (cell.length() > 0 || !cells.isEmpty()) {
+                cells.add(cell.toString());
+                emit(rowStart, cells, handler);
+            }
+        }
+    }
+
+    private static void emit(int rowNumber, List<String> cells, ImportRowHandler handler) {
+        for (String s : cells) {
+            if (!s.isBlank()) {
+                handler.onRow(rowNumber, cells);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.lx.questionnaire.service.userimport;
+
+import com.lx.questionnaire.common.BusinessException;
+import com.lx.questionnaire.common.ErrorCode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * 用户导入文件格式：均为流式读取，内存占用与行数无关
+ */
+public enum ImportFormat {
+
+    CSV {
+        @Override
+        public void read(Path file, ImportRowHandler handler) throws IOException {
+            CsvImportReader.read(file, handler);
+        }
+    },
+    XLSX {
+        @Override
+        public void read(Path file, ImportRowHandler handler) throws IOException {
+            XlsxImportReader.read(file, handler);
+        }
+    };
+
+    /** 读取第一个工作表（CSV 为整个文件），按行回调，空行跳过 */
+    public abstract void read(Path file, ImportRowHandler handler) throws IOException;
+
+    /** 按上传文件名后缀识别格式 */
+    public static ImportFormat ofFilename(String filename) {
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) return CSV;
+        if (name.endsWith(".xlsx")) return XLSX;
+        throw new BusinessException(ErrorCode.fail(ErrorCode.PARAM_ERROR.getCode(), "仅支持 .csv 或 .xlsx 文件"));
+    }
+}
@@ -0,0 +1,12 @@
+package com.lx.questionnaire.service.userimport;
+
+import java.util.List;
+
+/**
+ * 导入文件逐行回调；rowNumber 为文件中的行号（从 1 开始，含表头），便于用户在表格中定位
+ */
+@FunctionalInterface
+public interface ImportRowHandler {
+
+    void onRow(int rowNumber, List<String> cells);
+}
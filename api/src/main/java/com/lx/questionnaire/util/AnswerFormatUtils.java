@@ -0,0 +1,117 @@
+package com.lx.questionnaire.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.SurveyQuestion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 答卷项展示格式化（答卷列表摘要、答卷详情、导出共用）
+ */
+public final class AnswerFormatUtils {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    /** 摘要取前几题 */
+    public static final int SUMMARY_QUESTION_COUNT = 2;
+    /** 与 response.summary 列宽一致（VARCHAR 按字符计，对应 Java 的码点而非 char） */
+    private static final int SUMMARY_MAX_LENGTH = 500;
+
+    private AnswerFormatUtils() {
+    }
+
+    /**
+     * 将答卷项格式化为简短文本：选项取文案（多选以「、」连接，含填空时追加「：填空内容」），填空取原文，量表取分值
+     */
+    public static String formatAnswerShort(ResponseItem item, SurveyQuestion q) {
+        if (item.getValueType() == null) return "";
+        switch (item.getValueType()) {
+            case "OPTION":
+                String optLabel = "";
+                if (item.getOptionIndex() != null) {
+                    optLabel = getOptionLabel(q, item.getOptionIndex());
+                } else if (hasOptionIndices(item)) {
+                    StringBuilder sb = new StringBuilder();
+                    for (int idx : optionIndicesOf(item)) {
+                        if (sb.length() > 0) sb.append("、");
+                        sb.append(getOptionLabel(q, idx));
+                    }
+                    optLabel = sb.toString();
+                }
+                if (item.getTextValue() != null && !item.getTextValue().isBlank()) {
+                    return optLabel + "：" + item.getTextValue();
+                }
+                return optLabel;
+            case "TEXT": return item.getTextValue() != null ? item.getTextValue() : "";
+            case "SCALE": return item.getScaleValue() != null ? String.valueOf(item.getScaleValue()) : "";
+            default: return "";
+        }
+    }
+
+    /**
+     * 生成答卷列表摘要：按题目顺序取前 SUMMARY_QUESTION_COUNT 题的简短答案，以「；」连接；均未作答时返回空串
+     *
+     * @param questions       按 sort_order 排好序的题目
+     * @param itemsByQuestion 该答卷的答卷项，key 为题目 id
+     */
+    public static String buildSummary(List<SurveyQuestion> questions, Map<Long, ResponseItem> itemsByQuestion) {
+        List<String> parts = new ArrayList<>();
+        for (int i = 0; i < Math.min(SUMMARY_QUESTION_COUNT, questions.size()); i++) {
+            SurveyQuestion q = questions.get(i);
+            ResponseItem item = itemsByQuestion.get(q.getId());
+            if (item != null) parts.add(formatAnswerShort(item, q));
+        }
+        String summary = String.join("；", parts);
+        // 按码点截断，不把 emoji 等补充平面字符的代理对拆成半个
+        return summary.codePointCount(0, summary.length()) > SUMMARY_MAX_LENGTH
+                ? summary.substring(0, summary.offsetByCodePoints(0, SUMMARY_MAX_LENGTH)) : summary;
+    }
+
+    /**
+     * 取选项文案；下标等于选项数且开启「其他」时返回「其他」，无法解析时返回「选项N」
+     */
+    public static String getOptionLabel(SurveyQuestion q, int index) {
+        if (q.getConfig() == null) return "选项" + index;
+        try {
+            JsonNode node = JSON.readTree(q.getConfig());
+            JsonNode opts = node.get("options");
+            int size = (opts != null && opts.isArray()) ? opts.size() : 0;
+            if (index >= 0 && index < size) {
+                JsonNode label = opts.get(index).get("label");
+                return label != null ? label.asText() : "选项" + index;
+            }
+            if (index == size && node.has("hasOtherOption") && node.get("hasOtherOption").asBoolean()) {
+                return "其他";
+            }
+        } catch (Exception ignored) { }
+        return "选项" + index;
+    }
+
+    /** 是否为多选答案（位图或 JSON 任一非空） */
+    public static boolean hasOptionIndices(ResponseItem item) {
+        return item.getOptionMask() != null || (item.getOptionIndices() != null && !item.getOptionIndices().isEmpty());
+    }
+
+    /**
+     * 多选下标（升序）：优先解码 option_mask，无位图时回退解析 option_indices
+     */
+    public static List<Integer> optionIndicesOf(ResponseItem item) {
+        if (item.getOptionMask() != null) return OptionMask.toList(item.getOptionMask());
+        return parseOptionIndices(item.getOptionIndices());
+    }
+
+    /**
+     * 解析多选下标 JSON 数组（如 [0,2]），格式错误时返回空列表
+     */
+    public static List<Integer> parseOptionIndices(String optionIndices) {
+        List<Integer> indices = new ArrayList<>();
+        if (optionIndices == null || optionIndices.isEmpty()) return indices;
+        try {
+            for (JsonNode n : JSON.readTree(optionIndices)) indices.add(n.asInt());
+        } catch (Exception ignored) { }
+        return indices;
+    }
+}
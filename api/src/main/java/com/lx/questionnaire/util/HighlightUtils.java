@@ -0,0 +1,48 @@
+package com.lx.questionnaire.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 搜索结果摘录与高亮区间计算
+ */
+public final class HighlightUtils {
+
+    /** 命中位置前后各保留的字符数 */
+    private static final int CONTEXT_CHARS = 30;
+    private static final String ELLIPSIS = "…";
+
+    private HighlightUtils() {
+    }
+
+    /**
+     * @param snippet    摘录文本（截断处带省略号）
+     * @param highlights 关键字在 snippet 中的区间 [start, end)，按出现顺序
+     */
+    public record Snippet(String snippet, List<int[]> highlights) {
+    }
+
+    /**
+     * 以关键字首次出现位置为中心截取摘录，并标出摘录内所有出现位置（忽略大小写）；未出现时取开头一段、无高亮
+     */
+    public static Snippet snippet(String text, String keyword) {
+        if (text == null) return new Snippet("", List.of());
+        String lowerText = text.toLowerCase(Locale.ROOT);
+        String lowerKeyword = keyword == null ? "" : keyword.toLowerCase(Locale.ROOT);
+        int first = lowerKeyword.isEmpty() ? -1 : lowerText.indexOf(lowerKeyword);
+        int start = first < 0 ? 0 : Math.max(0, first - CONTEXT_CHARS);
+        int end = first < 0 ? Math.min(text.length(), CONTEXT_CHARS * 2)
+                : Math.min(text.length(), first + lowerKeyword.length() + CONTEXT_CHARS);
+        String prefix = start > 0 ? ELLIPSIS : "";
+        List<int[]> highlights = new ArrayList<>();
+        if (first >= 0) {
+            for (int i = first; i >= 0 && i + lowerKeyword.length() <= end; i = lowerText.indexOf(lowerKeyword, i + lowerKeyword.length())) {
+                int s = i - start + prefix.length();
+                highlights.add(new int[]{s, s + lowerKeyword.length()});
+            }
+        }
+        String snippet = prefix + text.substring(start, end) + (end < text.length() ? ELLIPSIS : "");
+        return new Snippet(snippet, highlights);
+    }
+}
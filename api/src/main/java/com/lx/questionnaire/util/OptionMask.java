@@ -0,0 +1,64 @@
+package com.lx.questionnaire.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多选答案的位图编码：第 i 位为 1 表示选中下标 i，存于 response_item.option_mask（BIGINT）。
+ * 只能表示下标 0..63；出现更大的下标时不编码，仍写 option_indices JSON。
+ * SQL 中可直接用 BIT_COUNT(option_mask)、option_mask &amp; (1 &lt;&lt; i) 统计与筛选；第 63 位对应负数，按位运算结果不受影响。
+ */
+public final class OptionMask {
+
+    /** 位图可表示的选项数 */
+    public static final int CAPACITY = 64;
+
+    private OptionMask() {
+    }
+
+    /** 编码多选下标；为空或有下标超出 0..63 时返回 null */
+    public static Long encode(int[] indices) {
+        if (indices == null || indices.length == 0) return null;
+        long mask = 0;
+        for (int idx : indices) {
+            if (idx < 0 || idx >= CAPACITY) return null;
+            mask |= 1L << idx;
+        }
+        return mask;
+    }
+
+    public static boolean contains(long mask, int index) {
+        return index >= 0 && index < CAPACITY && (mask & (1L << index)) != 0;
+    }
+
+    /** 单个下标对应的位，用作 SQL 筛选参数 */
+    public static long bit(int index) {
+        return 1L << index;
+    }
+
+    /** 升序解码为下标列表 */
+    public static List<Integer> toList(long mask) {
+        List<Integer> indices = new ArrayList<>(Long.bitCount(mask));
+        for (long m = mask; m != 0; m &= m - 1) {
+            indices.add(Long.numberOfTrailingZeros(m));
+        }
+        return indices;
+    }
+
+    public static int[] toArray(long mask) {
+        int[] indices = new int[Long.bitCount(mask)];
+        int i = 0;
+        for (long m = mask; m != 0; m &= m - 1) {
+            indices[i++] = Long.numberOfTrailingZeros(m);
+        }
+        return indices;
+    }
+
+    /** 按位累加到各选项计数，下标不小于 counts.length 的位忽略 */
+    public static void addTo(long mask, long[] counts) {
+        for (long m = mask; m != 0; m &= m - 1) {
+            int idx = Long.numberOfTrailingZeros(m);
+            if (idx < counts.length) counts[idx]++;
+        }
+    }
+}
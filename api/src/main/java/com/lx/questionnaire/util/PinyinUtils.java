@@ -0,0 +1,59 @@
+package com.lx.questionnaire.util;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+
+import java.util.Locale;
+
+/**
+ * 中文转拼音（无声调、小写，ü 写作 v）；多音字取第一个读音。字母数字原样（转小写）保留，其余字符丢弃
+ */
+public final class PinyinUtils {
+
+    private static final HanyuPinyinOutputFormat FORMAT = new HanyuPinyinOutputFormat();
+
+    static {
+        FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        FORMAT.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    private PinyinUtils() {
+    }
+
+    /** 全拼，如「年级」→ nianji */
+    public static String toPinyin(String text) {
+        return convert(text, false);
+    }
+
+    /** 首字母，如「年级」→ nj */
+    public static String toInitials(String text) {
+        return convert(text, true);
+    }
+
+    private static String convert(String text, boolean initialsOnly) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length() * (initialsOnly ? 1 : 4));
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) && c < 128) {
+                sb.append(Character.toLowerCase(c));
+                continue;
+            }
+            String[] readings;
+            try {
+                readings = PinyinHelper.toHanyuPinyinStringArray(c, FORMAT);
+            } catch (BadHanyuPinyinOutputFormatCombination e) {
+                readings = null;
+            }
+            if (readings != null && readings.length > 0) {
+                sb.append(initialsOnly ? readings[0].substring(0, 1) : readings[0]);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,281 @@
+package com.lx.questionnaire.util;
+
+import com.lx.questionnaire.entity.ResponseItem;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 单份答卷全部答案的紧凑二进制编码，存于 response.response_payload，导出、统计、详情整份读取时不必再逐行查 response_item。
+ * <pre>
+ * byte    版本号（当前 1）
+ * varint  答案数 n
+ * varint  答案区字节数
+ * 答案区：按题目 id 升序 n 条
+ *   varint  题目 id 与上一条的差值（首条与 0 的差）
+ *   byte    类型（低 4 位）| HAS_TEXT
+ *   SINGLE  varint 选项下标
+ *   MASK    varint 多选位图（按无符号 64 位）
+ *   LIST    varint 个数 + 各 varint 下标（位图放不下时）
+ *   SCALE   zigzag varint 分值
+ *   TEXT    无
+ *   HAS_TEXT 时追加 varint 文本字节数，文本本身依次放在文本区，偏移即前面各条文本长度之和
+ * 文本区：UTF-8 文本依次拼接
+ * </pre>
+ * 数值与文本分区存放，只看选项或分值的读取不会碰到文本字节。
+ */
+public final class ResponsePayload {
+
+    public static final int VERSION = 1;
+
+    public static final int KIND_SINGLE = 1;
+    public static final int KIND_MASK = 2;
+    public static final int KIND_LIST = 3;
+    public static final int KIND_TEXT = 4;
+    public static final int KIND_SCALE = 5;
+    private static final int HAS_TEXT = 0x10;
+    private static final int KIND_BITS = 0x0F;
+
+    private ResponsePayload() {
+    }
+
+    /** 编码答卷项（只用到 questionId 与各答案字段）；没有可编码的答案时返回 null */
+    public static byte[] encode(List<ResponseItem> items) {
+        List<ResponseItem> sorted = new ArrayList<>();
+        for (ResponseItem ri : items) {
+            if (ri.getQuestionId() != null && kindOf(ri) != 0) sorted.add(ri);
+        }
+        if (sorted.isEmpty()) return null;
+        sorted.sort(Comparator.comparing(ResponseItem::getQuestionId));
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(sorted.size() * 4);
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        long prevQuestionId = 0;
+        for (ResponseItem ri : sorted) {
+            int kind = kindOf(ri);
+            byte[] textBytes = ri.getTextValue() != null && (kind == KIND_TEXT || !ri.getTextValue().isBlank())
+                    ? ri.getTextValue().getBytes(StandardCharsets.UTF_8) : null;
+            writeVarLong(body, ri.getQuestionId() - prevQuestionId);
+            prevQuestionId = ri.getQuestionId();
+            body.write(kind | (textBytes != null ? HAS_TEXT : 0));
+            switch (kind) {
+                case KIND_SINGLE -> writeVarLong(body, ri.getOptionIndex());
+                case KIND_MASK -> writeVarLong(body, ri.getOptionMask());
+                case KIND_LIST -> {
+                    List<Integer> indices = AnswerFormatUtils.parseOptionIndices(ri.getOptionIndices());
+                    writeVarLong(body, indices.size());
+                    for (int idx : indices) writeVarLong(body, idx);
+                }
+                case KIND_SCALE -> writeVarLong(body, zigzag(ri.getScaleValue()));
+                default -> { }
+            }
+            if (textBytes != null) {
+                writeVarLong(body, textBytes.length);
+                text.writeBytes(textBytes);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.size() + text.size() + 8);
+        out.write(VERSION);
+        writeVarLong(out, sorted.size());
+        writeVarLong(out, body.size());
+        out.writeBytes(body.toByteArray());
+        out.writeBytes(text.toByteArray());
+        return out.toByteArray();
+    }
+
+    /** 解码为答卷项实体，供沿用 ResponseItem 的格式化与统计代码使用；版本不识别时抛 IllegalArgumentException */
+    public static List<ResponseItem> decode(Long responseId, byte[] payload) {
+        Reader r = new Reader(payload);
+        List<ResponseItem> items = new ArrayList<>(r.size());
+        while (r.next()) {
+            ResponseItem ri = new ResponseItem();
+            ri.setResponseId(responseId);
+            ri.setQuestionId(r.questionId());
+            switch (r.kind()) {
+                case KIND_SINGLE -> {
+                    ri.setValueType("OPTION");
+                    ri.setOptionIndex(r.optionIndex());
+                }
+                case KIND_MASK -> {
+                    ri.setValueType("OPTION");
+                    ri.setOptionMask(r.optionMask());
+                }
+                case KIND_LIST -> {
+                    ri.setValueType("OPTION");
+                    StringBuilder sb = new StringBuilder("[");
+                    for (int idx : r.optionIndices()) {
+                        if (sb.length() > 1) sb.append(',');
+                        sb.append(idx);
+                    }
+                    ri.setOptionIndices(sb.append(']').toString());
+                }
+                case KIND_SCALE -> {
+                    ri.setValueType("SCALE");
+                    ri.setScaleValue(r.scaleValue());
+                }
+                default -> ri.setValueType("TEXT");
+            }
+            if (r.hasText()) ri.setTextValue(r.text());
+            items.add(ri);
+        }
+        return items;
+    }
+
+    /**
+     * 顺序读取器：直接在原字节数组上移动游标，不复制、不为每条答案建对象；文本只在调用 text() 时解码。
+     * 用法：while (reader.next()) { reader.questionId(); reader.kind(); ... }
+     */
+    public static final class Reader {
+        private final byte[] buf;
+        private final int size;
+        private final int end;
+        private int pos;
+        private int textPos;
+        private int read;
+
+        private long questionId;
+        private int kind;
+        private long value;
+        private int listStart;
+        private int listSize;
+        private int textOffset = -1;
+        private int textLength;
+
+        public Reader(byte[] payload) {
+            if (payload == null || payload.length == 0 || payload[0] != VERSION) {
+                throw new IllegalArgumentException("Unsupported response payload version");
+            }
+            this.buf = payload;
+            this.pos = 1;
+            this.size = (int) readVarLong();
+            int bodyLength = (int) readVarLong();
+            this.end = pos + bodyLength;
+            this.textPos = end;
+        }
+
+        /** 答案条数 */
+        public int size() {
+            return size;
+        }
+
+        /** 移到下一条答案，没有更多时返回 false */
+        public boolean next() {
+            if (read >= size || pos >= end) return false;
+            read++;
+            questionId += readVarLong();
+            int tag = buf[pos++] & 0xFF;
+            kind = tag & KIND_BITS;
+            listSize = 0;
+            switch (kind) {
+                case KIND_SINGLE, KIND_MASK, KIND_SCALE -> value = readVarLong();
+                case KIND_LIST -> {
+                    listSize = (int) readVarLong();
+                    listStart = pos;
+                    for (int i = 0; i < listSize; i++) readVarLong();
+                }
+                default -> value = 0;
+            }
+            if ((tag & HAS_TEXT) != 0) {
+                textLength = (int) readVarLong();
+                textOffset = textPos;
+                textPos += textLength;
+            } else {
+                textOffset = -1;
+            }
+            return true;
+        }
+
+        public long questionId() {
+            return questionId;
+        }
+
+        public int kind() {
+            return kind;
+        }
+
+        public int optionIndex() {
+            return (int) value;
+        }
+
+        public long optionMask() {
+            return value;
+        }
+
+        public int scaleValue() {
+            return unzigzag(value);
+        }
+
+        /** 多选下标（位图或列表）；其他类型返回空数组 */
+        public int[] optionIndices() {
+            if (kind == KIND_MASK) return OptionMask.toArray(value);
+            int[] indices = new int[listSize];
+            int saved = pos;
+            pos = listStart;
+            for (int i = 0; i < listSize; i++) indices[i] = (int) readVarLong();
+            pos = saved;
+            return indices;
+        }
+
+        /** 是否选中下标 index（单选、位图、列表均适用） */
+        public boolean isSelected(int index) {
+            return switch (kind) {
+                case KIND_SINGLE -> value == index;
+                case KIND_MASK -> OptionMask.contains(value, index);
+                case KIND_LIST -> {
+                    for (int idx : optionIndices()) {
+                        if (idx == index) yield true;
+                    }
+                    yield false;
+                }
+                default -> false;
+            };
+        }
+
+        public boolean hasText() {
+            return textOffset >= 0;
+        }
+
+        public String text() {
+            return textOffset >= 0 ? new String(buf, textOffset, textLength, StandardCharsets.UTF_8) : null;
+        }
+
+        private long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf[pos++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            throw new IllegalArgumentException("Malformed varint in response payload");
+        }
+    }
+
+    private static int kindOf(ResponseItem ri) {
+        if (ri.getOptionIndex() != null) return KIND_SINGLE;
+        if (ri.getOptionMask() != null) return KIND_MASK;
+        if (ri.getOptionIndices() != null && !ri.getOptionIndices().isEmpty()) return KIND_LIST;
+        if (ri.getScaleValue() != null) return KIND_SCALE;
+        if (ri.getTextValue() != null) return KIND_TEXT;
+        return 0;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long zigzag(int v) {
+        return ((v << 1) ^ (v >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static int unzigzag(long v) {
+        int n = (int) v;
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
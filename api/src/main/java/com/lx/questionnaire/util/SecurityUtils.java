@@ -12,6 +12,17 @@ public final class SecurityUtils {
     private SecurityUtils() {
     }
 
+    /**
+     * 获取当前登录主体，未登录或非 CurrentUserDetails 时返回 null
+     */
+    public static CurrentUserDetails getCurrentUserDetails() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            return null;
+        }
+        return auth.getPrincipal() instanceof CurrentUserDetails details ? details : null;
+    }
+
     /**
      * 获取当前登录用户 ID（principal 为 CurrentUserDetails 时返回 userId，否则 null）
      */
@@ -0,0 +1,3 @@
+-- 答卷列表改为按 (submitted_at, id) 游标翻页：复合索引覆盖过滤与排序，深页不再随 OFFSET 线性变慢
+ALTER TABLE response
+    ADD INDEX idx_response_survey_status_submitted (survey_id, status, submitted_at, id);
@@ -0,0 +1,4 @@
+-- 答卷列表摘要改为提交时生成并落库，列表不再逐条加载答卷项；
+-- 存量答卷保持 NULL，由 ResponseSummaryBackfillJob 分批回填（无可展示内容时写空串，与「未回填」区分）
+ALTER TABLE response
+    ADD COLUMN summary VARCHAR(500) DEFAULT NULL COMMENT '列表摘要（前两题答案，提交时生成）' AFTER device_id;
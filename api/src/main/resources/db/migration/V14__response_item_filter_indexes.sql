@@ -0,0 +1,4 @@
+-- 答卷按答案筛选：EXISTS 子查询按 (question_id, 值) 定位，末列 response_id 使索引可覆盖与外层答卷的关联
+ALTER TABLE response_item
+    ADD INDEX idx_ri_question_option (question_id, option_index, response_id),
+    ADD INDEX idx_ri_question_scale (question_id, scale_value, response_id);
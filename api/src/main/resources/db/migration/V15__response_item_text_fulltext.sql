@@ -0,0 +1,3 @@
+-- 填空答案全文检索：以中文为主，使用 ngram 分词（分词长度取服务端 ngram_token_size，默认 2）
+ALTER TABLE response_item
+    ADD FULLTEXT INDEX ft_ri_text (text_value) WITH PARSER ngram;
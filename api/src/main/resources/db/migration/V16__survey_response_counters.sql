@@ -0,0 +1,18 @@
+-- 问卷冗余答卷计数：提交/保存草稿时在同一事务内原子增减，问卷列表直接读取，不再逐条 COUNT；
+-- 由 SurveyCounterReconcileJob 定期按 response 表校正
+ALTER TABLE survey
+    ADD COLUMN submitted_count INT NOT NULL DEFAULT 0 COMMENT '已提交答卷数' AFTER limit_by_device,
+    ADD COLUMN draft_count INT NOT NULL DEFAULT 0 COMMENT '草稿答卷数' AFTER submitted_count;
+
+-- 存量数据回填；显式保留 updated_at，避免回填改变问卷列表的「最近更新」排序
+UPDATE survey s
+    INNER JOIN (
+        SELECT survey_id,
+               SUM(status = 'SUBMITTED') AS submitted_count,
+               SUM(status = 'DRAFT') AS draft_count
+        FROM response
+        GROUP BY survey_id
+    ) c ON c.survey_id = s.id
+SET s.submitted_count = c.submitted_count,
+    s.draft_count = c.draft_count,
+    s.updated_at = s.updated_at;
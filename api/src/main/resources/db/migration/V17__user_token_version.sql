@@ -0,0 +1,3 @@
+-- 无状态登录令牌的吊销版本：令牌签发时写入当前值，递增后该用户已签发的令牌全部失效
+ALTER TABLE user
+    ADD COLUMN token_version INT NOT NULL DEFAULT 0 COMMENT '登录令牌版本，递增即吊销已签发令牌';
@@ -0,0 +1,18 @@
+-- 院系闭包表：每对（祖先, 后代）一行，含自身（depth=0）；由 DepartmentServiceImpl 在增删改院系时同事务维护，
+-- 子树查询、移动子树后批量修正 level 均为单条 SQL
+CREATE TABLE IF NOT EXISTS department_closure (
+    ancestor_id BIGINT NOT NULL COMMENT '祖先院系 id',
+    descendant_id BIGINT NOT NULL COMMENT '后代院系 id',
+    depth INT NOT NULL COMMENT '层级差，自身为 0',
+    PRIMARY KEY (ancestor_id, descendant_id),
+    KEY idx_dc_descendant (descendant_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='院系闭包表';
+
+-- 存量院系回填
+INSERT INTO department_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE t AS (
+    SELECT id AS ancestor_id, id AS descendant_id, 0 AS depth FROM department
+    UNION ALL
+    SELECT t.ancestor_id, d.id, t.depth + 1 FROM t INNER JOIN department d ON d.parent_id = t.descendant_id
+)
+SELECT ancestor_id, descendant_id, depth FROM t;
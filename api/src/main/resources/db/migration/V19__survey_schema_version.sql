@@ -0,0 +1,3 @@
+-- 题目结构版本：整卷批量保存时携带读取时的版本做乐观并发校验，任一题目变更递增一次
+ALTER TABLE survey
+    ADD COLUMN schema_version INT NOT NULL DEFAULT 0 COMMENT '题目结构版本，题目增删改排序时递增';
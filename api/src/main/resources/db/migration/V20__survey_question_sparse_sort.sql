@@ -0,0 +1,2 @@
+-- 题目排序键改为稀疏整数：原有连续序号按 1024 放大，插入、复制、移动单题时在相邻键之间取值，只写一行
+UPDATE survey_question SET sort_order = sort_order * 1024;
@@ -0,0 +1,13 @@
+-- 问卷版本：发布时及发布后题目变更后的首次填写时，按 survey.schema_version 冻结一份题目快照，写入后不再修改
+CREATE TABLE IF NOT EXISTS survey_version (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键',
+    survey_id VARCHAR(36) NOT NULL COMMENT '问卷 id',
+    schema_version INT NOT NULL COMMENT '冻结时的 survey.schema_version',
+    questions JSON NOT NULL COMMENT '题目快照（按顺序，含题目 id、题型、标题、配置）',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_sv_survey_schema (survey_id, schema_version)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='问卷版本快照';
+
+-- 答卷所依据的版本；存量答卷为 NULL，按当前题目解释
+ALTER TABLE response
+    ADD COLUMN survey_version_id BIGINT DEFAULT NULL COMMENT '作答时的问卷版本 id';
@@ -0,0 +1,12 @@
+-- 问卷到期自动截止：调度器按 (status, end_time) 取即将到期的问卷
+ALTER TABLE survey
+    ADD INDEX idx_survey_status_end (status, end_time);
+
+-- 集群内定时任务的租约：同一时刻只有持有未过期租约的实例执行对应任务
+CREATE TABLE IF NOT EXISTS scheduler_lock (
+    name VARCHAR(64) NOT NULL PRIMARY KEY COMMENT '任务名',
+    owner VARCHAR(128) DEFAULT NULL COMMENT '当前持有实例',
+    lease_until DATETIME(3) NOT NULL DEFAULT '1970-01-01 00:00:00' COMMENT '租约到期时间（数据库时钟）'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='定时任务租约';
+
+INSERT IGNORE INTO scheduler_lock (name) VALUES ('survey-lifecycle');
@@ -0,0 +1,3 @@
+-- 草稿保留时长：超过时长未更新的草稿由 DraftPurgeJob 分批删除；NULL 或 0 表示使用 draft-purge.default-ttl
+ALTER TABLE survey
+    ADD COLUMN draft_ttl_hours INT DEFAULT NULL COMMENT '草稿保留小时数，NULL 或 0 用系统默认';
@@ -0,0 +1,23 @@
+-- 问卷删除改为软删除：删除时只打标记并登记清理任务，题目、答卷、答卷项、版本快照由 SurveyPurgeJob 分片异步删除
+ALTER TABLE survey
+    ADD COLUMN deleted_at DATETIME DEFAULT NULL COMMENT '软删除时间，NULL 表示未删除';
+
+CREATE TABLE IF NOT EXISTS survey_purge_task (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键',
+    survey_id VARCHAR(36) NOT NULL COMMENT '被删除的问卷',
+    requested_by VARCHAR(50) DEFAULT NULL COMMENT '发起删除的用户',
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING' COMMENT 'PENDING / RUNNING / DONE / FAILED',
+    responses_total BIGINT NOT NULL DEFAULT 0 COMMENT '删除时的答卷数（已提交 + 草稿），用于估算进度',
+    questions_removed BIGINT NOT NULL DEFAULT 0,
+    responses_removed BIGINT NOT NULL DEFAULT 0,
+    items_removed BIGINT NOT NULL DEFAULT 0,
+    versions_removed BIGINT NOT NULL DEFAULT 0,
+    error VARCHAR(500) DEFAULT NULL COMMENT '最近一次失败原因，下次运行重试',
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    finished_at DATETIME DEFAULT NULL,
+    UNIQUE KEY uk_spt_survey (survey_id),
+    KEY idx_spt_status (status, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='问卷删除后的异步清理任务';
+
+INSERT IGNORE INTO scheduler_lock (name) VALUES ('survey-purge');
@@ -0,0 +1,6 @@
+-- 多选答案改存位图：第 i 位表示选中下标 i，SQL 可直接 BIT_COUNT / 按位与统计筛选，读取时无需解析 JSON。
+-- 下标超过 63 的答案无法用 BIGINT 表示，option_mask 留空，继续使用 option_indices
+ALTER TABLE response_item
+    ADD COLUMN option_mask BIGINT DEFAULT NULL COMMENT '多选位图，第 i 位为选中下标 i；NULL 时读 option_indices';
+
+-- 存量回填不在迁移中整表执行，由 OptionMaskBackfillJob 按主键区间分批完成
@@ -0,0 +1,4 @@
+-- 答卷答案紧凑编码：开启 response-payload.enabled 后提交时整份写入，导出、统计、详情整份读取时不再逐行查 response_item；
+-- response_item 照常写入，供按答案筛选与全文检索使用。NULL 表示存量答卷或未开启，读取时回退到 response_item
+ALTER TABLE response
+    ADD COLUMN response_payload MEDIUMBLOB DEFAULT NULL COMMENT '全部答案的紧凑二进制编码（ResponsePayload v1）';
@@ -0,0 +1,2 @@
+-- 摘要回填任务的调度锁，多实例部署时只由持有租约的实例执行
+INSERT IGNORE INTO scheduler_lock (name) VALUES ('response-summary-backfill');
@@ -0,0 +1,8 @@
+-- 开始时间未到的问卷发布后为 SCHEDULED（待开始），由 SurveyLifecycleScheduler 按 (status, start_time) 取出到点开始
+ALTER TABLE survey
+    MODIFY COLUMN status VARCHAR(20) NOT NULL DEFAULT 'DRAFT' COMMENT 'DRAFT/SCHEDULED/COLLECTING/PAUSED/ENDED',
+    ADD INDEX idx_survey_status_start (status, start_time);
+
+-- 已发布但尚未到开始时间的存量问卷
+UPDATE survey SET status = 'SCHEDULED'
+WHERE status = 'COLLECTING' AND start_time IS NOT NULL AND start_time > NOW() AND deleted_at IS NULL;
@@ -0,0 +1,4 @@
+-- 清理任务失败后退避重试：连续失败次数决定下次重试时间，避免每次运行都立即重试同一个失败任务
+ALTER TABLE survey_purge_task
+    ADD COLUMN attempts INT NOT NULL DEFAULT 0 COMMENT '连续失败次数，有进展时清零' AFTER error,
+    ADD COLUMN next_attempt_at DATETIME DEFAULT NULL COMMENT '失败后最早的重试时间，NULL 表示随时可执行' AFTER attempts;
@@ -0,0 +1,2 @@
+-- 多选位图回填任务的调度锁，多实例部署时只由持有租约的实例执行
+INSERT IGNORE INTO scheduler_lock (name) VALUES ('option-mask-backfill');
@@ -0,0 +1,49 @@
+package com.lx.questionnaire.cache;
+
+import com.lx.questionnaire.dto.ReferenceCacheStatsVO;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReferenceDataCacheTest {
+
+    private final ReferenceDataCache cache = new ReferenceDataCache();
+
+    @Test
+    void invalidationOnlyAffectsOneTable() {
+        AtomicInteger roleLoads = new AtomicInteger();
+        AtomicInteger deptLoads = new AtomicInteger();
+
+        cache.get(ReferenceTable.ROLE, "all", roleLoads::incrementAndGet);
+        cache.get(ReferenceTable.ROLE, "all", roleLoads::incrementAndGet);
+        cache.get(ReferenceTable.DEPARTMENT, "all", deptLoads::incrementAndGet);
+        assertThat(roleLoads.get()).isEqualTo(1);
+
+        cache.onReferenceDataChanged(new ReferenceDataChangedEvent(ReferenceTable.ROLE));
+        assertThat(cache.get(ReferenceTable.ROLE, "all", roleLoads::incrementAndGet)).isEqualTo(2);
+        cache.get(ReferenceTable.DEPARTMENT, "all", deptLoads::incrementAndGet);
+        assertThat(deptLoads.get()).isEqualTo(1);
+        assertThat(cache.version(ReferenceTable.ROLE)).isEqualTo(1);
+        assertThat(cache.version(ReferenceTable.DEPARTMENT)).isZero();
+    }
+
+    @Test
+    void missingRowsAreCachedAndCounted() {
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.<Object>get(ReferenceTable.PERMISSION, "id:404", () -> {
+                loads.incrementAndGet();
+                return null;
+            })).isNull();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+
+        ReferenceCacheStatsVO stats = cache.stats().stream()
+                .filter(s -> s.getTable().equals("PERMISSION")).findFirst().orElseThrow();
+        assertThat(stats.getHits()).isEqualTo(2);
+        assertThat(stats.getMisses()).isEqualTo(1);
+        assertThat(stats.getEntries()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,46 @@
+package com.lx.questionnaire.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsTimeAndId() {
+        LocalDateTime t = LocalDateTime.of(2026, 5, 4, 13, 2, 7, 120_000_000);
+        KeysetCursor c = KeysetCursor.decode(new KeysetCursor(t, 42L).encode());
+
+        assertThat(c.getTime()).isEqualTo(t);
+        assertThat(c.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void roundTripsNullTime() {
+        KeysetCursor c = KeysetCursor.decode(new KeysetCursor(null, 7L).encode());
+
+        assertThat(c.getTime()).isNull();
+        assertThat(c.getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void blankIsNoCursorAndGarbageIsParamError() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode("  ")).isNull();
+        assertThatThrownBy(() -> KeysetCursor.decode("not-a-cursor"))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(new KeysetCursor(null, null).encode()))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void clampsPageSize() {
+        assertThat(KeysetCursor.clampPageSize(0)).isEqualTo(1);
+        assertThat(KeysetCursor.clampPageSize(-5)).isEqualTo(1);
+        assertThat(KeysetCursor.clampPageSize(20)).isEqualTo(20);
+        assertThat(KeysetCursor.clampPageSize(100_000)).isEqualTo(KeysetCursor.MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,71 @@
+package com.lx.questionnaire.dto;
+
+import com.lx.questionnaire.common.BusinessException;
+import com.lx.questionnaire.common.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResponseFilterTest {
+
+    @Test
+    void parsesAllOperators() {
+        List<ResponseFilter.AnswerPredicate> predicates = parse("1:option:2", "2:scale:3..", "3:scale:4", "4:text:a:b");
+
+        assertThat(predicates).containsExactly(
+                new ResponseFilter.AnswerPredicate(1L, ResponseFilter.Op.OPTION, 2, null, null),
+                new ResponseFilter.AnswerPredicate(2L, ResponseFilter.Op.SCALE, 3, null, null),
+                new ResponseFilter.AnswerPredicate(3L, ResponseFilter.Op.SCALE, 4, 4, null),
+                new ResponseFilter.AnswerPredicate(4L, ResponseFilter.Op.TEXT, null, null, "a:b"));
+    }
+
+    @Test
+    void rejectsMalformedConditions() {
+        for (String raw : List.of("1:option", "x:option:1", "1:scale:..", "1:between:1", "1:option:a")) {
+            assertThatThrownBy(() -> parse(raw)).as(raw).isInstanceOf(BusinessException.class);
+        }
+    }
+
+    @Test
+    void acceptsOperatorsMatchingQuestionType() {
+        parse("1:option:0").get(0).checkApplicableTo("SINGLE_CHOICE");
+        parse("1:option:0").get(0).checkApplicableTo("MULTIPLE_CHOICE");
+        parse("1:scale:1..5").get(0).checkApplicableTo("SCALE");
+        parse("1:text:x").get(0).checkApplicableTo("SHORT_TEXT");
+        parse("1:text:x").get(0).checkApplicableTo("LONG_TEXT");
+        // 选择题「其他」的补充内容也可按文本筛选
+        parse("1:text:x").get(0).checkApplicableTo("SINGLE_CHOICE");
+    }
+
+    @Test
+    void rejectsOperatorQuestionTypeMismatch() {
+        assertRejected("1:option:0", "SHORT_TEXT");
+        assertRejected("1:option:0", "SCALE");
+        assertRejected("1:scale:1..3", "SINGLE_CHOICE");
+        assertRejected("1:scale:1..3", "LONG_TEXT");
+        assertRejected("1:text:x", "SCALE");
+    }
+
+    @Test
+    void rejectsOutOfRangeValues() {
+        assertRejected("1:option:-1", "SINGLE_CHOICE");
+        assertRejected("1:scale:5..1", "SCALE");
+    }
+
+    private static void assertRejected(String raw, String questionType) {
+        ResponseFilter.AnswerPredicate p = parse(raw).get(0);
+        assertThatThrownBy(() -> p.checkApplicableTo(questionType))
+                .as(raw + " on " + questionType)
+                .isInstanceOfSatisfying(BusinessException.class,
+                        e -> assertThat(e.getErrorCode().getCode()).isEqualTo(ErrorCode.PARAM_ERROR.getCode()));
+    }
+
+    private static List<ResponseFilter.AnswerPredicate> parse(String... answers) {
+        ResponseFilter f = new ResponseFilter();
+        f.setAnswer(List.of(answers));
+        return f.parseAnswers();
+    }
+}
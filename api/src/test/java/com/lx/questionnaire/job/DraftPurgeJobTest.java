@@ -0,0 +1,139 @@
+package com.lx.questionnaire.job;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.lx.questionnaire.dto.SubmitItemDTO;
+import com.lx.questionnaire.entity.Response;
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.Survey;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.entity.SurveyVersion;
+import com.lx.questionnaire.mapper.ResponseItemMapper;
+import com.lx.questionnaire.mapper.ResponseMapper;
+import com.lx.questionnaire.mapper.SurveyMapper;
+import com.lx.questionnaire.mapper.SurveyQuestionMapper;
+import com.lx.questionnaire.mapper.SurveyVersionMapper;
+import com.lx.questionnaire.service.FillService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 过期草稿清理：按问卷 draft_ttl_hours 计算截止时间，加锁复核跳过期间重新保存的草稿
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DraftPurgeJobTest {
+
+    @Autowired
+    private DraftPurgeJob draftPurgeJob;
+    @Autowired
+    private FillService fillService;
+    @Autowired
+    private SurveyMapper surveyMapper;
+    @Autowired
+    private SurveyQuestionMapper surveyQuestionMapper;
+    @Autowired
+    private SurveyVersionMapper surveyVersionMapper;
+    @Autowired
+    private ResponseMapper responseMapper;
+    @Autowired
+    private ResponseItemMapper responseItemMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Survey survey;
+    private Long questionId;
+
+    @BeforeEach
+    void setUp() {
+        survey = new Survey();
+        survey.setId(UUID.randomUUID().toString());
+        survey.setTitle("草稿清理测试");
+        survey.setStatus("COLLECTING");
+        survey.setCreatorId("draft-purge-test");
+        survey.setAllowAnonymous(true);
+        survey.setDraftTtlHours(1);
+        surveyMapper.insert(survey);
+        SurveyQuestion q = new SurveyQuestion();
+        q.setSurveyId(survey.getId());
+        q.setSortOrder(1024);
+        q.setType("SHORT_TEXT");
+        q.setTitle("建议");
+        surveyQuestionMapper.insert(q);
+        questionId = q.getId();
+        survey = surveyMapper.selectById(survey.getId());
+
+        saveDraft("dev-old");
+        saveDraft("dev-fresh");
+        // 早于问卷 1 小时的保留时长
+        jdbcTemplate.update("UPDATE response SET updated_at = NOW() - INTERVAL 2 HOUR WHERE survey_id = ? AND device_id = 'dev-old'",
+                survey.getId());
+        jdbcTemplate.update("UPDATE scheduler_lock SET lease_until = '1970-01-01 00:00:00' WHERE name = 'draft-purge'");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        List<Long> ids = responseMapper.selectList(new LambdaQueryWrapper<Response>().eq(Response::getSurveyId, survey.getId()))
+                .stream().map(Response::getId).toList();
+        if (!ids.isEmpty()) {
+            responseItemMapper.delete(new LambdaQueryWrapper<ResponseItem>().in(ResponseItem::getResponseId, ids));
+            responseMapper.deleteByIds(ids);
+        }
+        surveyVersionMapper.delete(new LambdaQueryWrapper<SurveyVersion>().eq(SurveyVersion::getSurveyId, survey.getId()));
+        surveyQuestionMapper.delete(new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, survey.getId()));
+        surveyMapper.deleteById(survey.getId());
+        surveyMapper.hardDeleteById(survey.getId());
+    }
+
+    @Test
+    void run_removesOnlyDraftsOlderThanSurveyTtl() {
+        Long oldId = draftId("dev-old");
+
+        draftPurgeJob.run();
+
+        assertThat(draftId("dev-old")).isNull();
+        assertThat(draftId("dev-fresh")).isNotNull();
+        assertThat(responseItemMapper.selectCount(new LambdaQueryWrapper<ResponseItem>()
+                .eq(ResponseItem::getResponseId, oldId))).isZero();
+        assertThat(surveyMapper.selectById(survey.getId()).getDraftCount()).isEqualTo(1);
+    }
+
+    @Test
+    void purgeChunk_skipsDraftSavedAgainAfterSelection() {
+        LocalDateTime cutoff = draftPurgeJob.cutoffFor(survey, LocalDateTime.now());
+        List<Long> candidates = responseMapper.selectExpiredDraftIds(survey.getId(), cutoff, 0, 10);
+        Long oldId = draftId("dev-old");
+        assertThat(candidates).containsExactly(oldId);
+
+        // 选出候选之后、删除之前用户又保存了一次
+        saveDraft("dev-old");
+        int[] removed = draftPurgeJob.purgeChunk(survey.getId(), candidates, cutoff);
+
+        assertThat(removed).containsExactly(0, 0);
+        assertThat(draftId("dev-old")).isEqualTo(oldId);
+        assertThat(surveyMapper.selectById(survey.getId()).getDraftCount()).isEqualTo(2);
+    }
+
+    private void saveDraft(String deviceId) {
+        SubmitItemDTO item = new SubmitItemDTO();
+        item.setQuestionId(questionId);
+        item.setTextValue("草稿-" + deviceId);
+        fillService.saveDraft(survey.getId(), null, deviceId, List.of(item));
+    }
+
+    private Long draftId(String deviceId) {
+        Response r = responseMapper.selectOne(new LambdaQueryWrapper<Response>()
+                .eq(Response::getSurveyId, survey.getId()).eq(Response::getStatus, "DRAFT").eq(Response::getDeviceId, deviceId));
+        return r == null ? null : r.getId();
+    }
+}
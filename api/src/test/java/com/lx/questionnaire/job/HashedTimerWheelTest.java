@@ -0,0 +1,41 @@
+package com.lx.questionnaire.job;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimerWheelTest {
+
+    @Test
+    void firesOnlyOnceDeadlineIsReached() {
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(1000, 8, 0);
+        wheel.schedule(2500, "a");
+        wheel.schedule(3000, "b");
+
+        assertThat(wheel.advance(2999)).isEmpty();
+        assertThat(wheel.advance(3000)).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void keepsEntriesMoreThanOneRotationAway() {
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(1000, 8, 0);
+        wheel.schedule(3000, "near");
+        wheel.schedule(11_000, "far"); // 同一槽位，多一圈
+
+        assertThat(wheel.advance(3000)).containsExactly("near");
+        assertThat(wheel.advance(10_999)).isEmpty();
+        assertThat(wheel.advance(11_000)).containsExactly("far");
+    }
+
+    @Test
+    void overdueAndLongJumpsAreCaughtUp() {
+        HashedTimerWheel<String> wheel = new HashedTimerWheel<>(1000, 8, 50_000);
+        wheel.schedule(10_000, "overdue");
+        wheel.schedule(70_000, "later");
+
+        assertThat(wheel.advance(50_000)).containsExactly("overdue");
+        // 停顿超过一圈后一次推进
+        assertThat(wheel.advance(200_000)).containsExactly("later");
+    }
+}
@@ -0,0 +1,32 @@
+package com.lx.questionnaire.job;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowRateLimiterTest {
+
+    @Test
+    void pace_waitsUntilRowBudgetIsSpent() {
+        RowRateLimiter limiter = new RowRateLimiter(1000);
+        long start = System.nanoTime();
+        limiter.pace(start, 200);
+        assertThat((System.nanoTime() - start) / 1_000_000).isGreaterThanOrEqualTo(190);
+    }
+
+    @Test
+    void pace_doesNotWaitWhenChunkWasAlreadySlowEnough() {
+        RowRateLimiter limiter = new RowRateLimiter(1000);
+        long chunkStart = System.nanoTime() - 500_000_000L;
+        long before = System.nanoTime();
+        limiter.pace(chunkStart, 200);
+        assertThat((System.nanoTime() - before) / 1_000_000).isLessThan(100);
+    }
+
+    @Test
+    void pace_isNoOpWhenUnlimited() {
+        long before = System.nanoTime();
+        new RowRateLimiter(0).pace(before, 1_000_000);
+        assertThat((System.nanoTime() - before) / 1_000_000).isLessThan(100);
+    }
+}
@@ -0,0 +1,120 @@
+package com.lx.questionnaire.job;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.lx.questionnaire.entity.Account;
+import com.lx.questionnaire.entity.Survey;
+import com.lx.questionnaire.entity.User;
+import com.lx.questionnaire.entity.UserRole;
+import com.lx.questionnaire.mapper.AccountMapper;
+import com.lx.questionnaire.mapper.SchedulerLockMapper;
+import com.lx.questionnaire.mapper.SurveyMapper;
+import com.lx.questionnaire.mapper.UserMapper;
+import com.lx.questionnaire.mapper.UserRoleMapper;
+import com.lx.questionnaire.service.AuthService;
+import com.lx.questionnaire.service.SurveyService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 两个调度实例共用同一条 scheduler_lock 租约时，到点转换只生效一次。
+ * 容器里的调度 bean 换成 mock，避免它的定时加载抢走租约
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SurveyLifecycleSchedulerTest {
+
+    @MockitoBean
+    private SurveyLifecycleScheduler containerScheduler;
+
+    @Autowired
+    private SurveyService surveyService;
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private SurveyMapper surveyMapper;
+    @Autowired
+    private SchedulerLockMapper schedulerLockMapper;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AccountMapper accountMapper;
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private UserRoleMapper userRoleMapper;
+
+    private final String loginId = "lc-" + UUID.randomUUID().toString().substring(0, 8);
+    private final List<String> surveyIds = new ArrayList<>();
+    private String userId;
+    private SurveyLifecycleScheduler a;
+    private SurveyLifecycleScheduler b;
+
+    @BeforeEach
+    void setUp() {
+        userId = authService.findOrCreateUserByCasLoginId(loginId).getId();
+        jdbcTemplate.update("UPDATE scheduler_lock SET lease_until = '1970-01-01 00:00:00' WHERE name = 'survey-lifecycle'");
+        a = new SurveyLifecycleScheduler(surveyMapper, schedulerLockMapper, eventPublisher);
+        b = new SurveyLifecycleScheduler(surveyMapper, schedulerLockMapper, eventPublisher);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        a.shutdown();
+        b.shutdown();
+        for (String id : surveyIds) {
+            surveyMapper.deleteById(id);
+            surveyMapper.hardDeleteById(id);
+        }
+        userRoleMapper.delete(new LambdaQueryWrapper<UserRole>().eq(UserRole::getUserId, userId));
+        userMapper.delete(new LambdaQueryWrapper<User>().eq(User::getId, userId));
+        accountMapper.delete(new LambdaQueryWrapper<Account>().eq(Account::getLoginId, loginId));
+    }
+
+    @Test
+    void twoInstancesSharingOneLease_applyEachTransitionOnce() {
+        LocalDateTime now = LocalDateTime.now();
+        String expired = survey("COLLECTING", null, now.minusMinutes(1));
+        String due = survey("SCHEDULED", now.minusMinutes(1), now.plusHours(1));
+
+        a.load();
+        b.load();
+        long later = System.currentTimeMillis() + 2_000;
+        assertThat(a.fire(later) + b.fire(later)).isEqualTo(2);
+        assertThat(surveyMapper.selectById(expired).getStatus()).isEqualTo("ENDED");
+        assertThat(surveyMapper.selectById(due).getStatus()).isEqualTo("COLLECTING");
+
+        // A 交出租约后 B 接手，重新加载时条件已不满足，不会再改动
+        a.shutdown();
+        b.load();
+        assertThat(b.fire(System.currentTimeMillis() + 4_000)).isZero();
+        assertThat(surveyMapper.selectById(expired).getStatus()).isEqualTo("ENDED");
+    }
+
+    private String survey(String status, LocalDateTime startTime, LocalDateTime endTime) {
+        Survey s = surveyService.create(userId, "生命周期-" + status, null);
+        surveyIds.add(s.getId());
+        surveyMapper.update(null, new LambdaUpdateWrapper<Survey>()
+                .eq(Survey::getId, s.getId())
+                .set(Survey::getStatus, status)
+                .set(Survey::getStartTime, startTime)
+                .set(Survey::getEndTime, endTime));
+        return s.getId();
+    }
+}
@@ -0,0 +1,173 @@
+package com.lx.questionnaire.job;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.lx.questionnaire.config.SurveyPurgeProperties;
+import com.lx.questionnaire.entity.Response;
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.Survey;
+import com.lx.questionnaire.entity.SurveyPurgeTask;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.mapper.ResponseItemMapper;
+import com.lx.questionnaire.mapper.ResponseMapper;
+import com.lx.questionnaire.mapper.SchedulerLockMapper;
+import com.lx.questionnaire.mapper.SurveyMapper;
+import com.lx.questionnaire.mapper.SurveyPurgeTaskMapper;
+import com.lx.questionnaire.mapper.SurveyQuestionMapper;
+import com.lx.questionnaire.mapper.SurveyVersionMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 问卷清理任务：超时后从剩余部分继续、失败退避后重试。
+ * 容器里的清理 bean 换成 mock，避免它的定时运行抢先处理测试任务
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SurveyPurgeJobTest {
+
+    private static final int RESPONSES = 5;
+
+    @MockitoBean
+    private SurveyPurgeJob containerJob;
+
+    @Autowired
+    private SurveyMapper surveyMapper;
+    @Autowired
+    private SurveyQuestionMapper surveyQuestionMapper;
+    @Autowired
+    private SurveyVersionMapper surveyVersionMapper;
+    @Autowired
+    private ResponseMapper responseMapper;
+    @Autowired
+    private ResponseItemMapper responseItemMapper;
+    @Autowired
+    private SurveyPurgeTaskMapper surveyPurgeTaskMapper;
+    @Autowired
+    private SchedulerLockMapper schedulerLockMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SurveyPurgeJob job;
+    private String surveyId;
+    private Long taskId;
+
+    @BeforeEach
+    void setUp() {
+        SurveyPurgeProperties properties = new SurveyPurgeProperties();
+        properties.setChunkSize(2);
+        job = new SurveyPurgeJob(surveyMapper, surveyQuestionMapper, surveyVersionMapper, responseMapper,
+                responseItemMapper, surveyPurgeTaskMapper, schedulerLockMapper, properties, transactionManager);
+
+        Survey s = new Survey();
+        s.setId(UUID.randomUUID().toString());
+        s.setTitle("清理测试");
+        s.setStatus("ENDED");
+        s.setCreatorId("purge-test");
+        surveyMapper.insert(s);
+        surveyId = s.getId();
+        SurveyQuestion q = new SurveyQuestion();
+        q.setSurveyId(surveyId);
+        q.setSortOrder(1024);
+        q.setType("SHORT_TEXT");
+        q.setTitle("建议");
+        surveyQuestionMapper.insert(q);
+        for (int i = 0; i < RESPONSES; i++) {
+            Response r = new Response();
+            r.setSurveyId(surveyId);
+            r.setStatus("SUBMITTED");
+            r.setSubmittedAt(LocalDateTime.now());
+            responseMapper.insert(r);
+            ResponseItem ri = new ResponseItem();
+            ri.setResponseId(r.getId());
+            ri.setQuestionId(q.getId());
+            ri.setValueType("TEXT");
+            ri.setTextValue("答案" + i);
+            responseItemMapper.insert(ri);
+        }
+        surveyMapper.deleteById(surveyId);
+        SurveyPurgeTask task = new SurveyPurgeTask();
+        task.setSurveyId(surveyId);
+        task.setRequestedBy("purge-test");
+        task.setStatus("PENDING");
+        task.setResponsesTotal((long) RESPONSES);
+        surveyPurgeTaskMapper.insert(task);
+        taskId = task.getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        List<Long> ids = responseMapper.selectIdsBySurvey(surveyId, 0, 1000);
+        if (!ids.isEmpty()) {
+            responseItemMapper.deleteByResponseIds(ids);
+            responseMapper.deleteByIds(ids);
+        }
+        surveyQuestionMapper.delete(new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, surveyId));
+        surveyMapper.hardDeleteById(surveyId);
+        surveyPurgeTaskMapper.deleteById(taskId);
+    }
+
+    @Test
+    void purge_stopsAtDeadlineAndResumesFromRemainingRows() {
+        // 10 行/秒：第一片 2 份答卷 + 2 条答卷项要等 400 ms，已越过 100 ms 的截止时间
+        long deadline = System.nanoTime() + 100_000_000L;
+        assertThat(job.purge(surveyPurgeTaskMapper.selectById(taskId), deadline, new RowRateLimiter(10))).isFalse();
+
+        SurveyPurgeTask partial = surveyPurgeTaskMapper.selectById(taskId);
+        assertThat(partial.getStatus()).isEqualTo("RUNNING");
+        assertThat(partial.getResponsesRemoved()).isEqualTo(2);
+        assertThat(responseMapper.selectIdsBySurvey(surveyId, 0, 1000)).hasSize(RESPONSES - 2);
+        assertThat(surveyMapper.selectByIdIncludingDeleted(surveyId)).isNotNull();
+
+        long later = System.nanoTime() + 60_000_000_000L;
+        assertThat(job.purge(partial, later, new RowRateLimiter(0))).isTrue();
+
+        SurveyPurgeTask done = surveyPurgeTaskMapper.selectById(taskId);
+        assertThat(done.getStatus()).isEqualTo("DONE");
+        assertThat(done.getResponsesRemoved()).isEqualTo(RESPONSES);
+        assertThat(done.getItemsRemoved()).isEqualTo(RESPONSES);
+        assertThat(done.getQuestionsRemoved()).isEqualTo(1);
+        assertThat(surveyMapper.selectByIdIncludingDeleted(surveyId)).isNull();
+    }
+
+    @Test
+    void failedTask_waitsForBackoffThenRetriesAndClearsError() {
+        surveyPurgeTaskMapper.markFailed(taskId, "boom", 60, 3600);
+
+        SurveyPurgeTask failed = surveyPurgeTaskMapper.selectById(taskId);
+        assertThat(failed.getStatus()).isEqualTo("FAILED");
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(30));
+        assertThat(surveyPurgeTaskMapper.selectUnfinished(1000)).extracting(SurveyPurgeTask::getId).doesNotContain(taskId);
+
+        surveyPurgeTaskMapper.markFailed(taskId, "boom again", 60, 3600);
+        assertThat(surveyPurgeTaskMapper.selectById(taskId).getNextAttemptAt())
+                .isAfter(LocalDateTime.now().plusSeconds(90));
+
+        // 到达重试时间
+        jdbcTemplate.update("UPDATE survey_purge_task SET next_attempt_at = NOW() - INTERVAL 1 SECOND WHERE id = ?", taskId);
+        jdbcTemplate.update("UPDATE scheduler_lock SET lease_until = '1970-01-01 00:00:00' WHERE name = 'survey-purge'");
+        job.run();
+
+        SurveyPurgeTask done = surveyPurgeTaskMapper.selectById(taskId);
+        assertThat(done.getStatus()).isEqualTo("DONE");
+        assertThat(done.getError()).isNull();
+        assertThat(done.getAttempts()).isZero();
+        assertThat(done.getNextAttemptAt()).isNull();
+        assertThat(surveyMapper.selectByIdIncludingDeleted(surveyId)).isNull();
+    }
+}
@@ -0,0 +1,113 @@
+package com.lx.questionnaire.security;
+
+import com.lx.questionnaire.config.AuthTokenProperties;
+import com.lx.questionnaire.mapper.UserMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthTokenServiceTest {
+
+    private static final String KEY_1 = secret('1');
+    private static final String KEY_2 = secret('2');
+
+    private final UserMapper userMapper = mock(UserMapper.class);
+
+    @Test
+    void issuedTokenVerifies() {
+        when(userMapper.selectTokenVersion("u1")).thenReturn(3);
+        when(userMapper.selectTokenVersion("missing")).thenReturn(null);
+        AuthTokenService service = service("k1", Map.of("k1", KEY_1), Duration.ofHours(2));
+
+        AuthTokenService.TokenClaims claims = service.verify(service.issue("u1"));
+
+        assertThat(claims).isNotNull();
+        assertThat(claims.userId()).isEqualTo("u1");
+        assertThat(claims.tokenVersion()).isEqualTo(3);
+        assertThat(service.shouldRenew(claims)).isFalse();
+        assertThat(service.issue("missing")).isNull();
+    }
+
+    @Test
+    void tamperedOrMalformedTokenIsRejected() {
+        when(userMapper.selectTokenVersion("u1")).thenReturn(0);
+        when(userMapper.selectTokenVersion("admin")).thenReturn(0);
+        AuthTokenService service = service("k1", Map.of("k1", KEY_1), Duration.ofHours(2));
+        String token = service.issue("u1");
+        String[] parts = token.split("\\.");
+
+        String otherUser = Base64.getUrlEncoder().withoutPadding().encodeToString("admin".getBytes(StandardCharsets.UTF_8));
+        assertThat(service.verify(String.join(".", parts[0], otherUser, parts[2], parts[3], parts[4]))).isNull();
+        long later = Long.parseLong(parts[3]) + 86_400;
+        assertThat(service.verify(String.join(".", parts[0], parts[1], parts[2], String.valueOf(later), parts[4]))).isNull();
+        char last = token.charAt(token.length() - 1);
+        assertThat(service.verify(token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A'))).isNull();
+        assertThat(service.verify("k1.abc")).isNull();
+        assertThat(service.verify("")).isNull();
+        assertThat(service.verify(null)).isNull();
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        when(userMapper.selectTokenVersion("u1")).thenReturn(0);
+        AuthTokenService service = service("k1", Map.of("k1", KEY_1), Duration.ofSeconds(-1));
+
+        assertThat(service.verify(service.issue("u1"))).isNull();
+    }
+
+    @Test
+    void revokeAllInvalidatesIssuedTokens() {
+        when(userMapper.selectTokenVersion("u1")).thenReturn(0);
+        AuthTokenService service = service("k1", Map.of("k1", KEY_1), Duration.ofHours(2));
+        String token = service.issue("u1");
+        assertThat(service.verify(token)).isNotNull();
+
+        when(userMapper.selectTokenVersion("u1")).thenReturn(1);
+        service.revokeAll("u1");
+
+        assertThat(service.verify(token)).isNull();
+        assertThat(service.verify(service.issue("u1"))).isNotNull();
+    }
+
+    @Test
+    void keyRotationKeepsOldTokensUntilKeyIsRemoved() {
+        when(userMapper.selectTokenVersion("u1")).thenReturn(0);
+        String oldToken = service("k1", Map.of("k1", KEY_1), Duration.ofHours(2)).issue("u1");
+
+        Map<String, String> both = new LinkedHashMap<>();
+        both.put("k1", KEY_1);
+        both.put("k2", KEY_2);
+        AuthTokenService rotated = service("k2", both, Duration.ofHours(2));
+        String newToken = rotated.issue("u1");
+        assertThat(newToken).startsWith("k2.");
+        assertThat(rotated.verify(oldToken)).isNotNull();
+        assertThat(rotated.verify(newToken)).isNotNull();
+
+        AuthTokenService retired = service("k2", Map.of("k2", KEY_2), Duration.ofHours(2));
+        assertThat(retired.verify(oldToken)).isNull();
+        assertThat(retired.verify(newToken)).isNotNull();
+    }
+
+    private AuthTokenService service(String activeKeyId, Map<String, String> keys, Duration ttl) {
+        AuthTokenProperties properties = new AuthTokenProperties();
+        properties.setEnabled(true);
+        properties.setActiveKeyId(activeKeyId);
+        properties.setKeys(new LinkedHashMap<>(keys));
+        properties.setTtl(ttl);
+        AuthTokenService service = new AuthTokenService(properties, userMapper);
+        service.init();
+        return service;
+    }
+
+    private static String secret(char fill) {
+        return Base64.getEncoder().encodeToString(String.valueOf(fill).repeat(32).getBytes(StandardCharsets.US_ASCII));
+    }
+}
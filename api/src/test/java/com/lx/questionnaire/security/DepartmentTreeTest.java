@@ -0,0 +1,47 @@
+package com.lx.questionnaire.security;
+
+import com.lx.questionnaire.entity.Department;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DepartmentTreeTest {
+
+    private static Department dept(long id, Long parentId) {
+        Department d = new Department();
+        d.setId(id);
+        d.setParentId(parentId);
+        return d;
+    }
+
+    @Test
+    void subtreeCoversAllDescendants() {
+        // 1 ─┬─ 2 ─── 4
+        //    └─ 3
+        // 5
+        DepartmentTree tree = DepartmentTree.build(List.of(
+                dept(4, 2L), dept(1, null), dept(3, 1L), dept(2, 1L), dept(5, null)));
+
+        assertThat(tree.subtreeIds(1L)).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        assertThat(tree.subtreeIds(2L)).containsExactlyInAnyOrder(2L, 4L);
+        assertThat(tree.subtreeIds(5L)).containsExactly(5L);
+        assertThat(tree.isInSubtree(1L, 4L)).isTrue();
+        assertThat(tree.isInSubtree(2L, 2L)).isTrue();
+        assertThat(tree.isInSubtree(2L, 3L)).isFalse();
+        assertThat(tree.isInSubtree(4L, 1L)).isFalse();
+        assertThat(tree.isInSubtree(5L, 1L)).isFalse();
+    }
+
+    @Test
+    void unknownAndCyclicDepartmentsAreHandled() {
+        DepartmentTree tree = DepartmentTree.build(List.of(dept(1, 2L), dept(2, 1L), dept(3, 99L)));
+
+        assertThat(tree.size()).isEqualTo(3);
+        assertThat(tree.subtreeIds(3L)).containsExactly(3L);
+        assertThat(tree.subtreeIds(42L)).containsExactly(42L);
+        assertThat(tree.isInSubtree(42L, 42L)).isTrue();
+        assertThat(tree.isInSubtree(null, 1L)).isFalse();
+    }
+}
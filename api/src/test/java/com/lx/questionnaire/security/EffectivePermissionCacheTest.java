@@ -0,0 +1,91 @@
+package com.lx.questionnaire.security;
+
+import com.lx.questionnaire.entity.Permission;
+import com.lx.questionnaire.mapper.PermissionMapper;
+import com.lx.questionnaire.mapper.UserMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EffectivePermissionCacheTest {
+
+    private final PermissionMapper permissionMapper = mock(PermissionMapper.class);
+    private final UserMapper userMapper = mock(UserMapper.class);
+    private final EffectivePermissionCache cache = new EffectivePermissionCache(permissionMapper, userMapper);
+
+    @Test
+    void userChangeInvalidatesOnlyThatUser() {
+        when(permissionMapper.selectByUserId(anyString())).thenReturn(List.of(permission("survey", "view", "SELF")));
+
+        EffectivePermissions a = cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        verify(permissionMapper, times(1)).selectByUserId("a");
+
+        when(permissionMapper.selectByUserId("a")).thenReturn(List.of(permission("survey", "edit", "SCHOOL")));
+        cache.onPermissionChanged(PermissionChangedEvent.ofUser("a"));
+
+        assertThat(a.isCurrent(cache.currentVersion("a"), Duration.ofMinutes(1))).isFalse();
+        EffectivePermissions reloaded = cache.get("a");
+        assertThat(reloaded.getVersion()).isEqualTo(1);
+        assertThat(reloaded.allows("survey", "edit", "SCHOOL")).isTrue();
+        assertThat(reloaded.has("survey", "view")).isFalse();
+
+        cache.get("b");
+        verify(permissionMapper, times(1)).selectByUserId("b");
+        assertThat(cache.currentVersion("b")).isZero();
+    }
+
+    @Test
+    void globalChangeInvalidatesEveryone() {
+        when(permissionMapper.selectByUserId(anyString())).thenReturn(List.of());
+        cache.get("a");
+        cache.get("b");
+
+        cache.onPermissionChanged(PermissionChangedEvent.ofAll());
+
+        assertThat(cache.get("a").getVersion()).isEqualTo(1);
+        assertThat(cache.get("b").getVersion()).isEqualTo(1);
+        verify(permissionMapper, times(2)).selectByUserId("a");
+        verify(permissionMapper, times(2)).selectByUserId("b");
+    }
+
+    @Test
+    void principalDropsPermissionSnapshotWhenSerialized() throws Exception {
+        when(permissionMapper.selectByUserId("a")).thenReturn(List.of(permission("survey", "view", "SELF")));
+        CurrentUserDetails details = new CurrentUserDetails("a", "hash", cache.get("a"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(details);
+        }
+        CurrentUserDetails restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (CurrentUserDetails) in.readObject();
+        }
+
+        assertThat(restored.getUserId()).isEqualTo("a");
+        assertThat(restored.getPermissions()).isNull();
+        assertThat(restored.getAuthorities()).isEmpty();
+    }
+
+    private static Permission permission(String resourceType, String action, String scope) {
+        Permission p = new Permission();
+        p.setResourceType(resourceType);
+        p.setAction(action);
+        p.setDataScope(scope);
+        return p;
+    }
+}
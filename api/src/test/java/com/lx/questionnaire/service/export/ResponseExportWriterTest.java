@@ -0,0 +1,199 @@
+package com.lx.questionnaire.service.export;
+
+import com.lx.questionnaire.entity.Response;
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.util.OptionMask;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.DelegatingSeekableInputStream;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.SeekableInputStream;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 两种导出写出器端到端：写入内存流后再读回校验（Parquet 读写均不经过 Hadoop 文件系统）
+ */
+class ResponseExportWriterTest {
+
+    private final List<SurveyQuestion> questions = List.of(
+            question(1L, "SINGLE_CHOICE", "出行方式", "{\"options\":[{\"label\":\"步行\"},{\"label\":\"公交\"}],\"hasOtherOption\":true}"),
+            question(2L, "MULTIPLE_CHOICE", "兴趣", "{\"options\":[{\"label\":\"读书\"},{\"label\":\"跑步\"},{\"label\":\"绘画\"}]}"),
+            question(3L, "SHORT_TEXT", "建议", null),
+            question(4L, "SCALE", "满意度", "{\"min\":1,\"max\":5}"));
+
+    @Test
+    void xlsxWritesHeaderAndFormattedAnswers() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ResponseExportWriter w = ExportFormat.XLSX.open("s1", questions, out)) {
+            w.writeRow(response(10L, "u1"), answers(10L));
+            w.writeRow(response(11L, null), Map.of());
+            w.finish();
+        }
+
+        try (XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = wb.getSheet("答卷");
+            assertThat(sheet.getRow(0).getCell(2).getStringCellValue()).isEqualTo("出行方式");
+            assertThat(sheet.getRow(1).getCell(0).getStringCellValue()).isEqualTo("2026-03-01 09:30:00");
+            assertThat(sheet.getRow(1).getCell(2).getStringCellValue()).isEqualTo("其他：骑车");
+            assertThat(sheet.getRow(1).getCell(3).getStringCellValue()).isEqualTo("读书、绘画");
+            assertThat(sheet.getRow(1).getCell(4).getStringCellValue()).isEqualTo("0123");
+            assertThat(sheet.getRow(1).getCell(5).getStringCellValue()).isEqualTo("4");
+            assertThat(sheet.getRow(2).getCell(2).getStringCellValue()).isEmpty();
+            assertThat(sheet.getLastRowNum()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void parquetWritesTypedColumnsAndMetadata() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ResponseExportWriter w = ExportFormat.PARQUET.open("s1", questions, out)) {
+            w.writeRow(response(10L, "u1"), answers(10L));
+            w.writeRow(response(11L, null), Map.of());
+            w.finish();
+        }
+
+        List<Group> rows = new ArrayList<>();
+        InputFile file = new BytesInputFile(out.toByteArray());
+        try (ParquetFileReader reader = ParquetFileReader.open(file,
+                ParquetReadOptions.builder(new PlainParquetConfiguration()).withCodecFactory(SnappyCodecFactory.INSTANCE).build())) {
+            assertThat(reader.getFileMetaData().getKeyValueMetaData())
+                    .containsEntry("questionnaire.survey_id", "s1")
+                    .containsKey("questionnaire.columns");
+            assertThat(reader.getFooter().getBlocks().get(0).getColumns())
+                    .allSatisfy(c -> assertThat(c.getCodec()).isEqualTo(CompressionCodecName.SNAPPY));
+            MessageType schema = reader.getFileMetaData().getSchema();
+            assertThat(schema.getFields().stream().map(Type::getName))
+                    .containsExactly("response_id", "user_id", "submitted_at", "duration_seconds", "q1", "q1_text", "q2", "q3", "q4");
+            PageReadStore pages;
+            while ((pages = reader.readNextRowGroup()) != null) {
+                RecordReader<Group> records = new ColumnIOFactory().getColumnIO(schema)
+                        .getRecordReader(pages, new GroupRecordConverter(schema));
+                for (long i = 0; i < pages.getRowCount(); i++) rows.add(records.read());
+            }
+        }
+
+        assertThat(rows).hasSize(2);
+        Group first = rows.get(0);
+        assertThat(first.getLong("response_id", 0)).isEqualTo(10L);
+        assertThat(first.getString("user_id", 0)).isEqualTo("u1");
+        assertThat(first.getInteger("q1", 0)).isEqualTo(2);
+        assertThat(first.getString("q1_text", 0)).isEqualTo("骑车");
+        Group list = first.getGroup("q2", 0);
+        assertThat(list.getFieldRepetitionCount("list")).isEqualTo(2);
+        assertThat(list.getGroup("list", 1).getInteger("element", 0)).isEqualTo(2);
+        assertThat(first.getString("q3", 0)).isEqualTo("0123");
+        assertThat(first.getInteger("q4", 0)).isEqualTo(4);
+        assertThat(rows.get(1).getFieldRepetitionCount("q1")).isZero();
+        assertThat(rows.get(1).getFieldRepetitionCount("user_id")).isZero();
+    }
+
+    private static Map<Long, ResponseItem> answers(Long responseId) {
+        ResponseItem single = item(responseId, 1L, "OPTION");
+        single.setOptionIndex(2);
+        single.setTextValue("骑车");
+        ResponseItem multi = item(responseId, 2L, "OPTION");
+        multi.setOptionMask(OptionMask.encode(new int[]{0, 2}));
+        ResponseItem text = item(responseId, 3L, "TEXT");
+        text.setTextValue("0123");
+        ResponseItem scale = item(responseId, 4L, "SCALE");
+        scale.setScaleValue(4);
+        return Map.of(1L, single, 2L, multi, 3L, text, 4L, scale);
+    }
+
+    private static Response response(Long id, String userId) {
+        Response r = new Response();
+        r.setId(id);
+        r.setUserId(userId);
+        r.setStatus("SUBMITTED");
+        r.setSubmittedAt(LocalDateTime.of(2026, 3, 1, 9, 30));
+        r.setDurationSeconds(95);
+        return r;
+    }
+
+    private static ResponseItem item(Long responseId, Long questionId, String valueType) {
+        ResponseItem ri = new ResponseItem();
+        ri.setResponseId(responseId);
+        ri.setQuestionId(questionId);
+        ri.setValueType(valueType);
+        return ri;
+    }
+
+    private static SurveyQuestion question(Long id, String type, String title, String config) {
+        SurveyQuestion q = new SurveyQuestion();
+        q.setId(id);
+        q.setType(type);
+        q.setTitle(title);
+        q.setConfig(config);
+        return q;
+    }
+
+    /** 内存中的 Parquet 文件，读回时不经过 Hadoop 文件系统 */
+    private static final class BytesInputFile implements InputFile {
+        private final byte[] data;
+
+        BytesInputFile(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public long getLength() {
+            return data.length;
+        }
+
+        @Override
+        public SeekableInputStream newStream() {
+            SeekableByteArrayInputStream in = new SeekableByteArrayInputStream(data);
+            return new DelegatingSeekableInputStream(in) {
+                @Override
+                public long getPos() {
+                    return in.position();
+                }
+
+                @Override
+                public void seek(long newPos) {
+                    in.seek((int) newPos);
+                }
+            };
+        }
+    }
+
+    private static final class SeekableByteArrayInputStream extends ByteArrayInputStream {
+        SeekableByteArrayInputStream(byte[] buf) {
+            super(buf);
+        }
+
+        long position() {
+            return pos;
+        }
+
+        void seek(int newPos) {
+            pos = newPos;
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.lx.questionnaire.service.impl;
+
+import com.lx.questionnaire.dto.AnalyticsOptionSummary;
+import com.lx.questionnaire.dto.AnalyticsQuestionVO;
+import com.lx.questionnaire.dto.AnalyticsScaleSummary;
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.util.OptionMask;
+import com.lx.questionnaire.util.ResponsePayload;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalyticsAccumulatorTest {
+
+    private final List<SurveyQuestion> questions = List.of(
+            question(1L, "SINGLE_CHOICE", "{\"options\":[{\"label\":\"步行\"},{\"label\":\"公交\"}],\"hasOtherOption\":true}"),
+            question(2L, "MULTIPLE_CHOICE", "{\"options\":[{\"label\":\"读书\"},{\"label\":\"跑步\"},{\"label\":\"绘画\"}]}"),
+            question(3L, "SHORT_TEXT", null),
+            question(4L, "SCALE", "{\"min\":1,\"max\":5}"),
+            question(5L, "SCALE", "{\"min\":1,\"max\":5}"));
+
+    @Test
+    void mixesPayloadAndLegacyItemsIntoSameCounters() {
+        AnalyticsAccumulator acc = new AnalyticsAccumulator(questions);
+        // 编码答卷：单选“其他”、多选位图、填空、量表
+        acc.add(new ResponsePayload.Reader(ResponsePayload.encode(List.of(
+                single(1L, 2), mask(2L, 0, 2), text(3L, "编码"), scale(4L, 5)))));
+        // 存量答卷：多选仍为 JSON、量表
+        ResponseItem json = item(2L, "OPTION");
+        json.setOptionIndices("[2,2,1]");
+        acc.add(single(1L, 0));
+        acc.add(json);
+        acc.add(text(3L, "存量"));
+        acc.add(scale(4L, 2));
+        // 不属于本问卷的题目忽略
+        acc.add(single(99L, 0));
+
+        List<AnalyticsQuestionVO> result = acc.result();
+
+        assertThat(result).extracting(AnalyticsQuestionVO::getQuestionId).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(options(result.get(0))).extracting(AnalyticsOptionSummary::getCount).containsExactly(1L, 0L, 1L);
+        assertThat(options(result.get(0)).get(0).getRatio()).isEqualTo(0.5);
+        assertThat(options(result.get(1))).extracting(AnalyticsOptionSummary::getCount).containsExactly(1L, 1L, 2L);
+        assertThat(options(result.get(1)).get(2).getRatio()).isEqualTo(1.0);
+        assertThat(result.get(2).getSummary()).isEqualTo(List.of("编码", "存量"));
+        AnalyticsScaleSummary scale = (AnalyticsScaleSummary) result.get(3).getSummary();
+        assertThat(scale.getAvg()).isEqualTo(3.5);
+        assertThat(scale.getDistribution()).extracting(AnalyticsScaleSummary.ScaleDistributionItem::getValue)
+                .containsExactly(2, 5);
+        // 无人作答的量表题保持空统计
+        assertThat(((AnalyticsScaleSummary) result.get(4).getSummary()).getAvg()).isNull();
+    }
+
+    @Test
+    void unansweredChoiceQuestionHasEmptySummary() {
+        List<AnalyticsQuestionVO> result = new AnalyticsAccumulator(questions).result();
+
+        assertThat(options(result.get(0))).isEmpty();
+        assertThat(result.get(2).getSummary()).isEqualTo(List.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<AnalyticsOptionSummary> options(AnalyticsQuestionVO vo) {
+        return (List<AnalyticsOptionSummary>) vo.getSummary();
+    }
+
+    private static ResponseItem single(Long questionId, int index) {
+        ResponseItem ri = item(questionId, "OPTION");
+        ri.setOptionIndex(index);
+        return ri;
+    }
+
+    private static ResponseItem mask(Long questionId, int... indices) {
+        ResponseItem ri = item(questionId, "OPTION");
+        ri.setOptionMask(OptionMask.encode(indices));
+        return ri;
+    }
+
+    private static ResponseItem text(Long questionId, String value) {
+        ResponseItem ri = item(questionId, "TEXT");
+        ri.setTextValue(value);
+        return ri;
+    }
+
+    private static ResponseItem scale(Long questionId, int value) {
+        ResponseItem ri = item(questionId, "SCALE");
+        ri.setScaleValue(value);
+        return ri;
+    }
+
+    private static ResponseItem item(Long questionId, String valueType) {
+        ResponseItem ri = new ResponseItem();
+        ri.setQuestionId(questionId);
+        ri.setValueType(valueType);
+        return ri;
+    }
+
+    private static SurveyQuestion question(Long id, String type, String config) {
+        SurveyQuestion q = new SurveyQuestion();
+        q.setId(id);
+        q.setType(type);
+        q.setTitle("题目" + id);
+        q.setConfig(config);
+        return q;
+    }
+}
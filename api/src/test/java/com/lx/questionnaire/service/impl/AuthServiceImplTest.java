@@ -0,0 +1,97 @@
+package com.lx.questionnaire.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.lx.questionnaire.entity.Account;
+import com.lx.questionnaire.entity.User;
+import com.lx.questionnaire.entity.UserRole;
+import com.lx.questionnaire.mapper.AccountMapper;
+import com.lx.questionnaire.mapper.UserMapper;
+import com.lx.questionnaire.mapper.UserRoleMapper;
+import com.lx.questionnaire.service.AuthService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CAS 首次登录并发开户：每个 loginId 同时回调两次，最终每人恰好一个 user、一个 account、一条默认角色
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceImplTest {
+
+    private static final int USERS = 1000;
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private AccountMapper accountMapper;
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private UserRoleMapper userRoleMapper;
+
+    private final String prefix = "race-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+
+    @AfterEach
+    void cleanUp() {
+        List<Account> accounts = accountMapper.selectList(
+                new LambdaQueryWrapper<Account>().likeRight(Account::getLoginId, prefix));
+        for (Account a : accounts) {
+            userRoleMapper.delete(new LambdaQueryWrapper<UserRole>().eq(UserRole::getUserId, a.getUserId()));
+            userMapper.deleteById(a.getUserId());
+            accountMapper.deleteById(a.getId());
+        }
+    }
+
+    @Test
+    void concurrentFirstLogins_provisionEachUserExactlyOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<User>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < USERS; i++) {
+                String loginId = prefix + i;
+                for (int copy = 0; copy < 2; copy++) {
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        return authService.findOrCreateUserByCasLoginId(loginId);
+                    }));
+                }
+            }
+            start.countDown();
+            Set<String> userIds = new HashSet<>();
+            for (int i = 0; i < futures.size(); i += 2) {
+                User first = futures.get(i).get();
+                User second = futures.get(i + 1).get();
+                assertThat(first.getId()).isEqualTo(second.getId());
+                userIds.add(first.getId());
+            }
+            assertThat(userIds).hasSize(USERS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(accountMapper.selectCount(
+                new LambdaQueryWrapper<Account>().likeRight(Account::getLoginId, prefix))).isEqualTo(USERS);
+        List<String> ids = accountMapper.selectList(
+                        new LambdaQueryWrapper<Account>().likeRight(Account::getLoginId, prefix))
+                .stream().map(Account::getUserId).toList();
+        assertThat(userMapper.selectByIds(ids)).hasSize(USERS);
+        assertThat(userRoleMapper.selectCount(
+                new LambdaQueryWrapper<UserRole>().in(UserRole::getUserId, ids))).isEqualTo(USERS);
+    }
+}
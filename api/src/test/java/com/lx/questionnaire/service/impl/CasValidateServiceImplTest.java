@@ -0,0 +1,175 @@
+package com.lx.questionnaire.service.impl;
+
+import com.lx.questionnaire.config.CasProperties;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 使用本地桩 CAS 服务验证超时、熔断与 ticket 缓存，不依赖数据库与 Spring 容器
+ */
+class CasValidateServiceImplTest {
+
+    private static final String SUCCESS = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+            + "<cas:authenticationSuccess><cas:user>20240001</cas:user></cas:authenticationSuccess></cas:serviceResponse>";
+    private static final String FAILURE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+            + "<cas:authenticationFailure code='INVALID_TICKET'>ticket not recognized</cas:authenticationFailure></cas:serviceResponse>";
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicLong delayMillis = new AtomicLong();
+    private final AtomicReference<String> body = new AtomicReference<>(SUCCESS);
+    private CasValidateServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/cas/serviceValidate", exchange -> {
+            hits.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis.get());
+            } catch (InterruptedException ignored) { }
+            byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+            try {
+                exchange.sendResponseHeaders(status.get(), bytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(bytes);
+                }
+            } catch (IOException ignored) {
+                // 客户端已超时断开
+            }
+        });
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.start();
+
+        CasProperties props = new CasProperties();
+        props.setServerUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/cas");
+        props.setServiceCallbackUrl("http://localhost:8080/api/auth/cas/callback");
+        props.setConnectTimeout(Duration.ofMillis(500));
+        props.setReadTimeout(Duration.ofMillis(300));
+        props.setCircuitFailureThreshold(3);
+        props.setCircuitOpenDuration(Duration.ofSeconds(30));
+        service = new CasValidateServiceImpl(props);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        service.close();
+        server.stop(0);
+    }
+
+    @Test
+    void validTicketReturnsLoginIdAndRepeatedCallbackIsServedFromCache() {
+        assertThat(service.validateTicketAndGetLoginId("ST-1")).isEqualTo("20240001");
+        assertThat(service.validateTicketAndGetLoginId("ST-1")).isEqualTo("20240001");
+        assertThat(hits.get()).isEqualTo(1);
+    }
+
+    @Test
+    void authenticationFailureReturnsNullAndIsNotCached() {
+        body.set(FAILURE);
+        assertThat(service.validateTicketAndGetLoginId("ST-2")).isNull();
+        assertThat(service.validateTicketAndGetLoginId("ST-2")).isNull();
+        assertThat(hits.get()).isEqualTo(2);
+    }
+
+    @Test
+    void slowCasTimesOutInsteadOfBlocking() {
+        delayMillis.set(2000);
+        long start = System.nanoTime();
+        assertThat(service.validateTicketAndGetLoginId("ST-3")).isNull();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1500));
+    }
+
+    @Test
+    void consecutiveFailuresOpenCircuitAndFailFast() {
+        status.set(503);
+        for (int i = 0; i < 3; i++) {
+            assertThat(service.validateTicketAndGetLoginId("ST-fail-" + i)).isNull();
+        }
+        assertThat(hits.get()).isEqualTo(3);
+
+        status.set(200);
+        assertThat(service.validateTicketAndGetLoginId("ST-after-open")).isNull();
+        assertThat(hits.get()).isEqualTo(3);
+    }
+
+    @Test
+    void concurrentCallbacksForSameTicketShareOneRequest() {
+        delayMillis.set(150);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<String>> results = java.util.stream.IntStream.range(0, 4)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> service.validateTicketAndGetLoginId("ST-4"), pool))
+                    .toList();
+            results.forEach(f -> assertThat(f.join()).isEqualTo("20240001"));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(hits.get()).isEqualTo(1);
+    }
+
+    @Test
+    void localConcurrencyRejectionDoesNotOpenCircuit() throws Exception {
+        CasProperties props = new CasProperties();
+        props.setServerUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/cas");
+        props.setServiceCallbackUrl("http://localhost:8080/api/auth/cas/callback");
+        props.setMaxConcurrent(1);
+        props.setConnectTimeout(Duration.ofMillis(50));
+        props.setReadTimeout(Duration.ofSeconds(2));
+        props.setCircuitFailureThreshold(1);
+        props.setCircuitOpenDuration(Duration.ofSeconds(30));
+        CasValidateServiceImpl narrow = new CasValidateServiceImpl(props);
+        try {
+            delayMillis.set(400);
+            CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> narrow.validateTicketAndGetLoginId("ST-slow"));
+            while (hits.get() == 0) Thread.sleep(5);
+            assertThat(narrow.validateTicketAndGetLoginId("ST-rejected")).isNull();
+            assertThat(slow.join()).isEqualTo("20240001");
+
+            delayMillis.set(0);
+            assertThat(narrow.validateTicketAndGetLoginId("ST-next")).isEqualTo("20240001");
+            assertThat(hits.get()).isEqualTo(2);
+        } finally {
+            narrow.close();
+        }
+    }
+
+    @Test
+    void abandonedProbeLetsNextRequestProbe() throws Exception {
+        CasValidateServiceImpl.CircuitBreaker breaker = new CasValidateServiceImpl.CircuitBreaker(1, 10);
+        breaker.onFailure();
+        assertThat(breaker.allowRequest()).isFalse();
+        Thread.sleep(20);
+
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.allowRequest()).isFalse();
+        breaker.onAbandoned();
+        assertThat(breaker.allowRequest()).isTrue();
+        breaker.onSuccess();
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void devTicketBypassesCas() {
+        assertThat(service.validateTicketAndGetLoginId("dev-admin")).isEqualTo("admin");
+        assertThat(hits.get()).isZero();
+    }
+}
@@ -0,0 +1,154 @@
+package com.lx.questionnaire.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.lx.questionnaire.common.BusinessException;
+import com.lx.questionnaire.common.ErrorCode;
+import com.lx.questionnaire.dto.SubmitItemDTO;
+import com.lx.questionnaire.dto.SubmitRequestDTO;
+import com.lx.questionnaire.entity.Response;
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.Survey;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.entity.SurveyVersion;
+import com.lx.questionnaire.mapper.ResponseItemMapper;
+import com.lx.questionnaire.mapper.ResponseMapper;
+import com.lx.questionnaire.mapper.SurveyMapper;
+import com.lx.questionnaire.mapper.SurveyQuestionMapper;
+import com.lx.questionnaire.mapper.SurveyVersionMapper;
+import com.lx.questionnaire.service.FillService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 提交答卷：同一份草稿被并发重复提交时只记录一份答卷
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FillServiceImplTest {
+
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private FillService fillService;
+    @Autowired
+    private SurveyMapper surveyMapper;
+    @Autowired
+    private SurveyQuestionMapper surveyQuestionMapper;
+    @Autowired
+    private SurveyVersionMapper surveyVersionMapper;
+    @Autowired
+    private ResponseMapper responseMapper;
+    @Autowired
+    private ResponseItemMapper responseItemMapper;
+
+    private String surveyId;
+    private Long questionId;
+
+    @BeforeEach
+    void setUp() {
+        Survey s = new Survey();
+        s.setId(UUID.randomUUID().toString());
+        s.setTitle("重复提交测试");
+        s.setStatus("COLLECTING");
+        s.setCreatorId("fill-test");
+        s.setAllowAnonymous(true);
+        surveyMapper.insert(s);
+        surveyId = s.getId();
+        SurveyQuestion q = new SurveyQuestion();
+        q.setSurveyId(surveyId);
+        q.setSortOrder(1024);
+        q.setType("SHORT_TEXT");
+        q.setTitle("建议");
+        surveyQuestionMapper.insert(q);
+        questionId = q.getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        List<Long> ids = responseMapper.selectList(new LambdaQueryWrapper<Response>().eq(Response::getSurveyId, surveyId))
+                .stream().map(Response::getId).toList();
+        if (!ids.isEmpty()) {
+            responseItemMapper.delete(new LambdaQueryWrapper<ResponseItem>().in(ResponseItem::getResponseId, ids));
+            responseMapper.deleteByIds(ids);
+        }
+        surveyVersionMapper.delete(new LambdaQueryWrapper<SurveyVersion>().eq(SurveyVersion::getSurveyId, surveyId));
+        surveyQuestionMapper.delete(new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, surveyId));
+        surveyMapper.deleteById(surveyId);
+        surveyMapper.hardDeleteById(surveyId);
+    }
+
+    @Test
+    void submit_sameDraftTwiceConcurrently_recordsOneResponse() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                String deviceId = "dev-" + round;
+                fillService.saveDraft(surveyId, null, deviceId, List.of(item("草稿")));
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> submits = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    submits.add(pool.submit(() -> {
+                        start.await();
+                        fillService.submit(surveyId, null, request(deviceId), "127.0.0.1");
+                        return null;
+                    }));
+                }
+                start.countDown();
+                int succeeded = 0;
+                for (Future<?> f : submits) {
+                    try {
+                        f.get();
+                        succeeded++;
+                    } catch (ExecutionException e) {
+                        // 后到的一次若在草稿转换前已读到草稿，只能被拒绝，不能再按草稿计数
+                        assertThat(e.getCause()).isInstanceOf(BusinessException.class);
+                        assertThat(((BusinessException) e.getCause()).getErrorCode()).isEqualTo(ErrorCode.SURVEY_ALREADY_SUBMITTED);
+                    }
+                }
+                assertThat(succeeded).isGreaterThanOrEqualTo(1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<Response> responses = responseMapper.selectList(new LambdaQueryWrapper<Response>().eq(Response::getSurveyId, surveyId));
+        assertThat(responses).extracting(Response::getStatus).containsOnly("SUBMITTED");
+        Survey s = surveyMapper.selectById(surveyId);
+        assertThat(s.getDraftCount()).isZero();
+        assertThat(s.getSubmittedCount()).isEqualTo(responses.size());
+        for (Response r : responses) {
+            assertThat(responseItemMapper.selectCount(new LambdaQueryWrapper<ResponseItem>()
+                    .eq(ResponseItem::getResponseId, r.getId()))).isEqualTo(1);
+        }
+    }
+
+    private SubmitItemDTO item(String text) {
+        SubmitItemDTO item = new SubmitItemDTO();
+        item.setQuestionId(questionId);
+        item.setTextValue(text);
+        return item;
+    }
+
+    private SubmitRequestDTO request(String deviceId) {
+        SubmitRequestDTO request = new SubmitRequestDTO();
+        request.setDeviceId(deviceId);
+        request.setItems(List.of(item("提交")));
+        return request;
+    }
+}
@@ -0,0 +1,114 @@
+package com.lx.questionnaire.service.impl;
+
+import com.lx.questionnaire.dto.AnalyticsOptionSummary;
+import com.lx.questionnaire.dto.AnalyticsQuestionVO;
+import com.lx.questionnaire.dto.SurveyVersionSnapshot;
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.util.AnswerFormatUtils;
+import com.lx.questionnaire.util.OptionMask;
+import com.lx.questionnaire.util.ResponsePayload;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OptionLayoutTest {
+
+    /** 发布时：步行、公交、骑车 + 其他；多选：读书、跑步 */
+    private final SurveyVersionSnapshot v1 = version(10L,
+            question(1L, "SINGLE_CHOICE", "{\"options\":[{\"label\":\"步行\"},{\"label\":\"公交\"},{\"label\":\"骑车\"}],\"hasOtherOption\":true}"),
+            question(2L, "MULTIPLE_CHOICE", "{\"options\":[{\"label\":\"读书\"},{\"label\":\"跑步\"}]}"));
+    /** 之后：删掉“骑车”、在最前插入“地铁”；多选调换顺序并新增“绘画” */
+    private final List<SurveyQuestion> current = List.of(
+            question(1L, "SINGLE_CHOICE", "{\"options\":[{\"label\":\"地铁\"},{\"label\":\"步行\"},{\"label\":\"公交\"}],\"hasOtherOption\":true}"),
+            question(2L, "MULTIPLE_CHOICE", "{\"options\":[{\"label\":\"跑步\"},{\"label\":\"读书\"},{\"label\":\"绘画\"}]}"));
+
+    @Test
+    void analyticsCountsOldResponsesUnderTheirOriginalOptions() {
+        OptionLayout layout = new OptionLayout(current, List.of(v1));
+        AnalyticsAccumulator acc = new AnalyticsAccumulator(layout.questions());
+        // v1 答卷：单选“骑车”，多选“读书”
+        acc.add(new ResponsePayload.Reader(ResponsePayload.encode(List.of(single(1L, 2), mask(2L, 0)))), layout.mapping(10L));
+        // v1 存量答卷项：单选“其他”
+        acc.add(single(1L, 3), layout.mapping(10L));
+        // 当前版本之前未冻结版本的答卷：按当前题目解释
+        acc.add(single(1L, 0), layout.mapping(null));
+
+        List<AnalyticsQuestionVO> result = acc.result();
+
+        assertThat(options(result.get(0))).extracting(AnalyticsOptionSummary::getLabel)
+                .containsExactly("地铁", "步行", "公交", "骑车", "其他");
+        assertThat(options(result.get(0))).extracting(AnalyticsOptionSummary::getCount)
+                .containsExactly(1L, 0L, 0L, 1L, 1L);
+        assertThat(options(result.get(1))).extracting(AnalyticsOptionSummary::getLabel)
+                .containsExactly("跑步", "读书", "绘画");
+        assertThat(options(result.get(1))).extracting(AnalyticsOptionSummary::getCount)
+                .containsExactly(0L, 1L, 0L);
+    }
+
+    @Test
+    void remapTranslatesExportItemsToLayoutIndices() {
+        OptionLayout layout = new OptionLayout(current, List.of(v1));
+        ResponseItem walk = single(1L, 0);
+        ResponseItem both = mask(2L, 0, 1);
+        ResponseItem json = item(2L);
+        json.setOptionIndices("[0]");
+
+        layout.remap(10L, List.of(walk, both, json));
+
+        SurveyQuestion q1 = layout.questions().get(0);
+        assertThat(walk.getOptionIndex()).isEqualTo(1);
+        assertThat(AnswerFormatUtils.formatAnswerShort(walk, q1)).isEqualTo("步行");
+        assertThat(AnswerFormatUtils.optionIndicesOf(both)).containsExactly(0, 1);
+        assertThat(AnswerFormatUtils.optionIndicesOf(json)).containsExactly(1);
+        assertThat(AnswerFormatUtils.formatAnswerShort(single(1L, 4), q1)).isEqualTo("其他");
+    }
+
+    @Test
+    void layoutWithoutHistoricalOptionsKeepsCurrentQuestions() {
+        OptionLayout layout = new OptionLayout(current, List.of());
+
+        assertThat(layout.questions()).containsExactlyElementsOf(current);
+        assertThat(layout.mapping(10L)).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<AnalyticsOptionSummary> options(AnalyticsQuestionVO vo) {
+        return (List<AnalyticsOptionSummary>) vo.getSummary();
+    }
+
+    private static ResponseItem single(Long questionId, int index) {
+        ResponseItem ri = item(questionId);
+        ri.setOptionIndex(index);
+        return ri;
+    }
+
+    private static ResponseItem mask(Long questionId, int... indices) {
+        ResponseItem ri = item(questionId);
+        ri.setOptionMask(OptionMask.encode(indices));
+        return ri;
+    }
+
+    private static ResponseItem item(Long questionId) {
+        ResponseItem ri = new ResponseItem();
+        ri.setQuestionId(questionId);
+        ri.setValueType("OPTION");
+        return ri;
+    }
+
+    private static SurveyVersionSnapshot version(Long id, SurveyQuestion... questions) {
+        return new SurveyVersionSnapshot(id, "s1", 1, List.of(questions), Map.of(), Map.of());
+    }
+
+    private static SurveyQuestion question(Long id, String type, String config) {
+        SurveyQuestion q = new SurveyQuestion();
+        q.setId(id);
+        q.setType(type);
+        q.setTitle("题目" + id);
+        q.setConfig(config);
+        return q;
+    }
+}
@@ -0,0 +1,68 @@
+package com.lx.questionnaire.service.impl;
+
+import com.lx.questionnaire.dto.PresetOptionCategoryVO;
+import com.lx.questionnaire.dto.PresetOptionGroupDetailVO;
+import com.lx.questionnaire.dto.PresetOptionItemVO;
+import com.lx.questionnaire.dto.PresetOptionSuggestionVO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PresetOptionSuggestIndexTest {
+
+    private static PresetOptionGroupDetailVO group(long id, String name, String... labels) {
+        PresetOptionGroupDetailVO g = new PresetOptionGroupDetailVO();
+        g.setId(id);
+        g.setName(name);
+        List<PresetOptionItemVO> items = new ArrayList<>();
+        for (String label : labels) {
+            PresetOptionItemVO it = new PresetOptionItemVO();
+            it.setLabel(label);
+            items.add(it);
+        }
+        g.setItems(items);
+        return g;
+    }
+
+    private static PresetOptionSuggestIndex index() {
+        PresetOptionCategoryVO basic = new PresetOptionCategoryVO();
+        basic.setCategory("基本信息");
+        basic.setGroups(List.of(group(1, "年级", "大一", "大二", "研究生"), group(2, "性别", "男", "女")));
+        PresetOptionCategoryVO school = new PresetOptionCategoryVO();
+        school.setCategory("校园生活");
+        school.setGroups(List.of(group(3, "食堂满意度", "非常满意", "满意", "一般")));
+        return PresetOptionSuggestIndex.build(List.of(basic, school));
+    }
+
+    private static List<String> texts(List<PresetOptionSuggestionVO> list) {
+        return list.stream().map(PresetOptionSuggestionVO::getText).toList();
+    }
+
+    @Test
+    void matchesOriginalTextAndPinyinPrefixes() {
+        PresetOptionSuggestIndex index = index();
+
+        assertThat(texts(index.suggest("年", 10))).containsExactly("年级");
+        assertThat(texts(index.suggest("nianj", 10))).containsExactly("年级");
+        assertThat(texts(index.suggest("XB", 10))).containsExactly("性别");
+        assertThat(texts(index.suggest("满意", 10))).containsExactly("满意");
+        assertThat(index.suggest("zzz", 10)).isEmpty();
+        assertThat(index.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void groupsRankBeforeCategoriesAndItems() {
+        PresetOptionSuggestIndex index = index();
+        List<PresetOptionSuggestionVO> hits = index.suggest("x", 10);
+
+        assertThat(hits).extracting(PresetOptionSuggestionVO::getType).containsExactly("GROUP", "CATEGORY");
+        assertThat(texts(hits)).containsExactly("性别", "校园生活");
+        assertThat(texts(index.suggest("n", 10))).containsExactly("年级", "男", "女");
+        assertThat(texts(index.suggest("d", 1))).containsExactly("大一");
+        assertThat(index.suggest("n", 0)).isEmpty();
+        assertThat(index.suggest("n", -5)).isEmpty();
+    }
+}
@@ -0,0 +1,53 @@
+package com.lx.questionnaire.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuestionSortKeysTest {
+
+    private static final int G = QuestionSortKeys.GAP;
+
+    @Test
+    void betweenTakesMidpointOrAppendsByGap() {
+        assertThat(QuestionSortKeys.between(null, null)).isZero();
+        assertThat(QuestionSortKeys.between(0, 1024)).isEqualTo(512);
+        assertThat(QuestionSortKeys.between(3 * G, null)).isEqualTo(4 * G);
+        assertThat(QuestionSortKeys.between(null, 0)).isEqualTo(-G);
+        assertThat(QuestionSortKeys.between(5, 6)).isNull();
+        assertThat(QuestionSortKeys.between(Integer.MAX_VALUE - 1, null)).isNull();
+    }
+
+    @Test
+    void movingOneQuestionChangesOnlyThatKey() {
+        // 原顺序 a b c d e，把 e 拖到 b 前
+        List<Integer> keys = Arrays.asList(0, 4 * G, G, 2 * G, 3 * G);
+        int[] planned = QuestionSortKeys.plan(keys);
+
+        assertThat(planned).isNotNull();
+        assertThat(planned).isSorted();
+        int changed = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (planned[i] != keys.get(i)) changed++;
+        }
+        assertThat(changed).isEqualTo(1);
+        assertThat(planned[1]).isEqualTo(G / 2);
+    }
+
+    @Test
+    void newQuestionsFillTheGapBetweenKeptKeys() {
+        List<Integer> keys = Arrays.asList(null, 0, null, null, G, null);
+        int[] planned = QuestionSortKeys.plan(keys);
+
+        assertThat(planned).containsExactly(-G, 0, G / 3, 2 * (G / 3), G, 2 * G);
+    }
+
+    @Test
+    void exhaustedGapRequiresRebalance() {
+        assertThat(QuestionSortKeys.plan(Arrays.asList(0, null, null, 2))).isNull();
+        assertThat(QuestionSortKeys.spread(3)).containsExactly(0, G, 2 * G);
+    }
+}
@@ -0,0 +1,327 @@
+package com.lx.questionnaire.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.lx.questionnaire.common.BatchWriter;
+import com.lx.questionnaire.common.BusinessException;
+import com.lx.questionnaire.common.ErrorCode;
+import com.lx.questionnaire.dto.AnalyticsOptionSummary;
+import com.lx.questionnaire.dto.AnalyticsResponse;
+import com.lx.questionnaire.dto.ResponseSearchHitVO;
+import com.lx.questionnaire.dto.ResponseSearchResponse;
+import com.lx.questionnaire.dto.SurveyPurgeVO;
+import com.lx.questionnaire.entity.Account;
+import com.lx.questionnaire.entity.Response;
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.Survey;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.entity.User;
+import com.lx.questionnaire.entity.UserRole;
+import com.lx.questionnaire.mapper.AccountMapper;
+import com.lx.questionnaire.mapper.ResponseItemMapper;
+import com.lx.questionnaire.mapper.ResponseMapper;
+import com.lx.questionnaire.mapper.SurveyMapper;
+import com.lx.questionnaire.mapper.SurveyPurgeTaskMapper;
+import com.lx.questionnaire.mapper.SurveyQuestionMapper;
+import com.lx.questionnaire.mapper.UserMapper;
+import com.lx.questionnaire.mapper.UserRoleMapper;
+import com.lx.questionnaire.service.AuthService;
+import com.lx.questionnaire.service.SurveyService;
+import com.lx.questionnaire.service.export.ExportFormat;
+import com.lx.questionnaire.util.ResponsePayload;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * 问卷服务的数据库测试：复制（题目经 BatchWriter 批量写入）、删除预览、编码答卷与存量答卷混合统计导出、
+ * 其他问卷大量同关键字答案时的检索范围与耗时等
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SurveyServiceImplTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SurveyServiceImplTest.class);
+    private static final int QUESTIONS = 200;
+    /** 其他问卷中含同一关键字的答卷项数，可用 -Dsearch.rows 调大做基准 */
+    private static final int SEARCH_NOISE_ROWS = Integer.getInteger("search.rows", 5_000);
+
+    @Autowired
+    private SurveyService surveyService;
+    @Autowired
+    private BatchWriter batchWriter;
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private SurveyMapper surveyMapper;
+    @Autowired
+    private SurveyQuestionMapper surveyQuestionMapper;
+    @Autowired
+    private SurveyPurgeTaskMapper surveyPurgeTaskMapper;
+    @Autowired
+    private ResponseMapper responseMapper;
+    @Autowired
+    private ResponseItemMapper responseItemMapper;
+    @Autowired
+    private AccountMapper accountMapper;
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private UserRoleMapper userRoleMapper;
+
+    private final String loginId = "svc-" + UUID.randomUUID().toString().substring(0, 8);
+    private final List<String> surveyIds = new ArrayList<>();
+    private String userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = authService.findOrCreateUserByCasLoginId(loginId).getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (String id : surveyIds) {
+            List<Long> responseIds;
+            while (!(responseIds = responseMapper.selectIdsBySurvey(id, 0, 1000)).isEmpty()) {
+                responseItemMapper.deleteByResponseIds(responseIds);
+                responseMapper.deleteByIds(responseIds);
+            }
+            surveyQuestionMapper.delete(new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, id));
+            surveyMapper.deleteById(id);
+            surveyMapper.hardDeleteById(id);
+        }
+        userRoleMapper.delete(new LambdaQueryWrapper<UserRole>().eq(UserRole::getUserId, userId));
+        userMapper.delete(new LambdaQueryWrapper<User>().eq(User::getId, userId));
+        accountMapper.delete(new LambdaQueryWrapper<Account>().eq(Account::getLoginId, loginId));
+    }
+
+    @Test
+    void copy_batchInsertsAllQuestionsWithIdsAndOrder() {
+        Survey source = surveyService.create(userId, "复制源", null);
+        surveyIds.add(source.getId());
+        List<SurveyQuestion> originals = new ArrayList<>();
+        for (int i = 0; i < QUESTIONS; i++) {
+            SurveyQuestion q = new SurveyQuestion();
+            q.setSurveyId(source.getId());
+            // 稀疏排序键且插入顺序与排序相反，确保副本按 sort_order 而非主键顺序复制
+            q.setSortOrder((QUESTIONS - i) * 1024);
+            q.setType(i % 2 == 0 ? "SINGLE_CHOICE" : "SHORT_TEXT");
+            q.setTitle("题目" + (QUESTIONS - i));
+            q.setRequired(i % 3 == 0);
+            q.setConfig(i % 2 == 0 ? "{\"options\":[{\"label\":\"是\"},{\"label\":\"否\"}]}" : null);
+            surveyQuestionMapper.insert(q);
+            originals.add(q);
+        }
+
+        Survey copy = surveyService.copy(source.getId(), userId);
+        surveyIds.add(copy.getId());
+
+        List<SurveyQuestion> expected = surveyQuestionMapper.selectList(new LambdaQueryWrapper<SurveyQuestion>()
+                .eq(SurveyQuestion::getSurveyId, source.getId()).orderByAsc(SurveyQuestion::getSortOrder));
+        List<SurveyQuestion> copied = surveyQuestionMapper.selectList(new LambdaQueryWrapper<SurveyQuestion>()
+                .eq(SurveyQuestion::getSurveyId, copy.getId()).orderByAsc(SurveyQuestion::getSortOrder));
+
+        assertThat(copied).hasSize(QUESTIONS);
+        assertThat(copied).extracting(SurveyQuestion::getId).doesNotContainNull().doesNotHaveDuplicates()
+                .doesNotContainAnyElementsOf(originals.stream().map(SurveyQuestion::getId).toList());
+        // 批量插入按 sort_order 顺序下发，自增主键随之递增
+        assertThat(copied).extracting(SurveyQuestion::getId).isSorted();
+        assertThat(copied).extracting(SurveyQuestion::getSortOrder)
+                .containsExactlyElementsOf(expected.stream().map(SurveyQuestion::getSortOrder).toList());
+        assertThat(copied).extracting(SurveyQuestion::getTitle)
+                .containsExactlyElementsOf(expected.stream().map(SurveyQuestion::getTitle).toList());
+        assertThat(copied).extracting(SurveyQuestion::getType, SurveyQuestion::getRequired, SurveyQuestion::getConfig)
+                .containsExactlyElementsOf(expected.stream()
+                        .map(q -> tuple(q.getType(), q.getRequired(), q.getConfig())).toList());
+    }
+
+    @Test
+    void deleteDryRun_countsRowsWithoutTouchingSurveyOrTask() {
+        Survey s = surveyService.create(userId, "删除预览", null);
+        surveyIds.add(s.getId());
+        for (int i = 0; i < 3; i++) {
+            SurveyQuestion q = new SurveyQuestion();
+            q.setSurveyId(s.getId());
+            q.setSortOrder((i + 1) * 1024);
+            q.setType("SHORT_TEXT");
+            q.setTitle("题目" + i);
+            surveyQuestionMapper.insert(q);
+        }
+
+        SurveyPurgeVO vo = surveyService.delete(s.getId(), userId, true);
+
+        assertThat(vo.isDryRun()).isTrue();
+        assertThat(vo.getStatus()).isNull();
+        assertThat(vo.getQuestionsRemoved()).isEqualTo(3);
+        Survey after = surveyMapper.selectById(s.getId());
+        assertThat(after).isNotNull();
+        assertThat(after.getStatus()).isEqualTo(s.getStatus());
+        assertThat(surveyPurgeTaskMapper.selectBySurveyId(s.getId())).isNull();
+        assertThat(surveyQuestionMapper.selectCount(new LambdaQueryWrapper<SurveyQuestion>()
+                .eq(SurveyQuestion::getSurveyId, s.getId()))).isEqualTo(3);
+    }
+
+    @Test
+    void getPurgeProgress_checksPermissionBeforeReportingMissingTask() {
+        Survey s = surveyService.create(userId, "清理进度", null);
+        surveyIds.add(s.getId());
+        String outsider = "outsider-" + UUID.randomUUID();
+
+        // 无清理任务时，无权限者得到 403 而不是 404，无法借此判断任务是否存在
+        assertThatThrownBy(() -> surveyService.getPurgeProgress(s.getId(), outsider))
+                .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.FORBIDDEN));
+        assertThatThrownBy(() -> surveyService.getPurgeProgress(s.getId(), userId))
+                .isInstanceOfSatisfying(BusinessException.class, e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.SURVEY_NOT_FOUND));
+    }
+
+    @Test
+    void analyticsAndExport_combinePayloadAndLegacyResponses() throws Exception {
+        Survey s = surveyService.create(userId, "混合统计", null);
+        surveyIds.add(s.getId());
+        SurveyQuestion choice = new SurveyQuestion();
+        choice.setSurveyId(s.getId());
+        choice.setSortOrder(1024);
+        choice.setType("SINGLE_CHOICE");
+        choice.setTitle("出行方式");
+        choice.setConfig("{\"options\":[{\"label\":\"步行\"},{\"label\":\"公交\"}]}");
+        surveyQuestionMapper.insert(choice);
+        SurveyQuestion text = new SurveyQuestion();
+        text.setSurveyId(s.getId());
+        text.setSortOrder(2048);
+        text.setType("SHORT_TEXT");
+        text.setTitle("建议");
+        surveyQuestionMapper.insert(text);
+
+        // 编码答卷只写 response_payload，读取不应再依赖答卷项
+        ResponseItem bus = new ResponseItem();
+        bus.setQuestionId(choice.getId());
+        bus.setOptionIndex(1);
+        ResponseItem encoded = new ResponseItem();
+        encoded.setQuestionId(text.getId());
+        encoded.setTextValue("编码");
+        Response withPayload = submitted(s.getId(), LocalDateTime.of(2026, 3, 1, 9, 0));
+        withPayload.setResponsePayload(ResponsePayload.encode(List.of(bus, encoded)));
+        responseMapper.insert(withPayload);
+        // 存量答卷只有答卷项
+        Response legacy = submitted(s.getId(), LocalDateTime.of(2026, 3, 1, 10, 0));
+        responseMapper.insert(legacy);
+        ResponseItem walk = new ResponseItem();
+        walk.setResponseId(legacy.getId());
+        walk.setQuestionId(choice.getId());
+        walk.setValueType("OPTION");
+        walk.setOptionIndex(0);
+        responseItemMapper.insert(walk);
+        ResponseItem plain = new ResponseItem();
+        plain.setResponseId(legacy.getId());
+        plain.setQuestionId(text.getId());
+        plain.setValueType("TEXT");
+        plain.setTextValue("存量");
+        responseItemMapper.insert(plain);
+
+        AnalyticsResponse analytics = surveyService.getAnalytics(s.getId(), userId);
+        @SuppressWarnings("unchecked")
+        List<AnalyticsOptionSummary> options = (List<AnalyticsOptionSummary>) analytics.getQuestions().get(0).getSummary();
+        assertThat(options).extracting(AnalyticsOptionSummary::getCount).containsExactly(1L, 1L);
+        assertThat(options).extracting(AnalyticsOptionSummary::getRatio).containsExactly(0.5, 0.5);
+        assertThat(analytics.getQuestions().get(1).getSummary()).isEqualTo(List.of("编码", "存量"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        surveyService.exportResponses(s.getId(), userId, ExportFormat.XLSX).writeTo(out);
+        try (XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = wb.getSheet("答卷");
+            assertThat(sheet.getLastRowNum()).isEqualTo(2);
+            assertThat(sheet.getRow(1).getCell(2).getStringCellValue()).isEqualTo("公交");
+            assertThat(sheet.getRow(1).getCell(3).getStringCellValue()).isEqualTo("编码");
+            assertThat(sheet.getRow(2).getCell(2).getStringCellValue()).isEqualTo("步行");
+            assertThat(sheet.getRow(2).getCell(3).getStringCellValue()).isEqualTo("存量");
+        }
+    }
+
+    @Test
+    void searchResponses_onlyReturnsOwnSurveyWhenOtherSurveysShareTheKeyword() {
+        Survey noise = surveyService.create(userId, "检索干扰", null);
+        surveyIds.add(noise.getId());
+        SurveyQuestion noiseQuestion = textQuestion(noise.getId());
+        List<ResponseItem> noiseItems = new ArrayList<>();
+        for (int i = 0; i < SEARCH_NOISE_ROWS; i += 100) {
+            Response r = submitted(noise.getId(), LocalDateTime.now());
+            responseMapper.insert(r);
+            for (int j = i; j < Math.min(i + 100, SEARCH_NOISE_ROWS); j++) {
+                noiseItems.add(textItem(r.getId(), noiseQuestion.getId(), "早高峰交通拥堵" + j));
+            }
+        }
+        batchWriter.execute(ResponseItemMapper.class, noiseItems, ResponseItemMapper::insert);
+
+        Survey target = surveyService.create(userId, "检索目标", null);
+        surveyIds.add(target.getId());
+        SurveyQuestion q = textQuestion(target.getId());
+        for (String text : List.of("希望改善交通", "交通还行", "食堂太贵")) {
+            Response r = submitted(target.getId(), LocalDateTime.now());
+            responseMapper.insert(r);
+            responseItemMapper.insert(textItem(r.getId(), q.getId(), text));
+        }
+
+        // 小问卷：只扫描本问卷
+        long start = System.nanoTime();
+        ResponseSearchResponse scoped = surveyService.searchResponses(target.getId(), userId, "交通", null, null, 20);
+        long scopedMillis = (System.nanoTime() - start) / 1_000_000;
+        // 答卷量超过阈值后改走全文索引
+        surveyMapper.update(null, new LambdaUpdateWrapper<Survey>()
+                .eq(Survey::getId, target.getId()).set(Survey::getSubmittedCount, 1_000_000));
+        start = System.nanoTime();
+        ResponseSearchResponse fulltext = surveyService.searchResponses(target.getId(), userId, "交通", null, null, 20);
+        long fulltextMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("search with {} noise rows: scoped {} ms, fulltext {} ms", SEARCH_NOISE_ROWS, scopedMillis, fulltextMillis);
+
+        for (ResponseSearchResponse result : List.of(scoped, fulltext)) {
+            assertThat(result.getList()).extracting(ResponseSearchHitVO::getSnippet)
+                    .containsExactlyInAnyOrder("希望改善交通", "交通还行");
+            assertThat(result.getNextCursor()).isNull();
+        }
+    }
+
+    private SurveyQuestion textQuestion(String surveyId) {
+        SurveyQuestion q = new SurveyQuestion();
+        q.setSurveyId(surveyId);
+        q.setSortOrder(1024);
+        q.setType("SHORT_TEXT");
+        q.setTitle("建议");
+        surveyQuestionMapper.insert(q);
+        return q;
+    }
+
+    private static ResponseItem textItem(Long responseId, Long questionId, String text) {
+        ResponseItem ri = new ResponseItem();
+        ri.setResponseId(responseId);
+        ri.setQuestionId(questionId);
+        ri.setValueType("TEXT");
+        ri.setTextValue(text);
+        return ri;
+    }
+
+    private static Response submitted(String surveyId, LocalDateTime submittedAt) {
+        Response r = new Response();
+        r.setSurveyId(surveyId);
+        r.setStatus("SUBMITTED");
+        r.setSubmittedAt(submittedAt);
+        return r;
+    }
+}
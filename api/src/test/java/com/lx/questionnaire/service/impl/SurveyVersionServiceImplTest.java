@@ -0,0 +1,89 @@
+package com.lx.questionnaire.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.lx.questionnaire.dto.SurveyVersionSnapshot;
+import com.lx.questionnaire.entity.Survey;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import com.lx.questionnaire.entity.SurveyVersion;
+import com.lx.questionnaire.mapper.SurveyMapper;
+import com.lx.questionnaire.mapper.SurveyQuestionMapper;
+import com.lx.questionnaire.mapper.SurveyVersionMapper;
+import com.lx.questionnaire.service.SurveyVersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 版本冻结随调用方事务提交或回滚：回滚后缓存里不会留下指向不存在快照的版本 id
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SurveyVersionServiceImplTest {
+
+    @Autowired
+    private SurveyVersionService surveyVersionService;
+    @Autowired
+    private SurveyMapper surveyMapper;
+    @Autowired
+    private SurveyQuestionMapper surveyQuestionMapper;
+    @Autowired
+    private SurveyVersionMapper surveyVersionMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Survey survey;
+
+    @BeforeEach
+    void setUp() {
+        survey = new Survey();
+        survey.setId(UUID.randomUUID().toString());
+        survey.setTitle("版本测试");
+        survey.setStatus("COLLECTING");
+        survey.setCreatorId("version-test");
+        surveyMapper.insert(survey);
+        SurveyQuestion q = new SurveyQuestion();
+        q.setSurveyId(survey.getId());
+        q.setSortOrder(1024);
+        q.setType("SHORT_TEXT");
+        q.setTitle("建议");
+        surveyQuestionMapper.insert(q);
+        survey = surveyMapper.selectById(survey.getId());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        surveyVersionMapper.delete(new LambdaQueryWrapper<SurveyVersion>().eq(SurveyVersion::getSurveyId, survey.getId()));
+        surveyQuestionMapper.delete(new LambdaQueryWrapper<SurveyQuestion>().eq(SurveyQuestion::getSurveyId, survey.getId()));
+        surveyMapper.deleteById(survey.getId());
+        surveyMapper.hardDeleteById(survey.getId());
+    }
+
+    @Test
+    void resolveInsideRolledBackTransactionFreezesAgainAfterwards() {
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        SurveyVersionSnapshot inTx = outer.execute(status -> {
+            SurveyVersionSnapshot v = surveyVersionService.resolve(survey);
+            status.setRollbackOnly();
+            return v;
+        });
+
+        assertThat(inTx).isNotNull();
+        assertThat(surveyVersionMapper.selectById(inTx.id())).isNull();
+        SurveyVersionSnapshot again = surveyVersionService.resolve(survey);
+        assertThat(again.id()).isNotEqualTo(inTx.id());
+        assertThat(surveyVersionMapper.selectById(again.id())).isNotNull();
+        assertThat(again.questions()).extracting(SurveyQuestion::getTitle).containsExactly("建议");
+        assertThat(surveyVersionService.resolve(survey).id()).isEqualTo(again.id());
+        assertThat(surveyVersionMapper.selectCount(new LambdaQueryWrapper<SurveyVersion>()
+                .eq(SurveyVersion::getSurveyId, survey.getId()))).isEqualTo(1);
+    }
+}
@@ -0,0 +1,82 @@
+package com.lx.questionnaire.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.lx.questionnaire.dto.UserImportResult;
+import com.lx.questionnaire.entity.Account;
+import com.lx.questionnaire.entity.User;
+import com.lx.questionnaire.entity.UserRole;
+import com.lx.questionnaire.mapper.AccountMapper;
+import com.lx.questionnaire.mapper.UserMapper;
+import com.lx.questionnaire.mapper.UserRoleMapper;
+import com.lx.questionnaire.service.UserImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 大文件 CSV 导入：校验逐行错误报告与重复导入的幂等性，并在日志输出吞吐。
+ * 默认 1 万行保证常规构建耗时可控；压测时用 -DuserImport.rows=100000 放大
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserImportServiceImplTest {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportServiceImplTest.class);
+    private static final int ROWS = Integer.getInteger("userImport.rows", 10_000);
+
+    @Autowired
+    private UserImportService userImportService;
+    @Autowired
+    private AccountMapper accountMapper;
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private UserRoleMapper userRoleMapper;
+
+    private final String prefix = "imp-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+
+    @AfterEach
+    void cleanUp() {
+        String userIds = "SELECT user_id FROM account WHERE login_id LIKE '" + prefix + "%'";
+        userRoleMapper.delete(new LambdaQueryWrapper<UserRole>().inSql(UserRole::getUserId, userIds));
+        userMapper.delete(new LambdaQueryWrapper<User>().inSql(User::getId, userIds));
+        accountMapper.delete(new LambdaQueryWrapper<Account>().likeRight(Account::getLoginId, prefix));
+    }
+
+    @Test
+    void importLargeFile_reportsBadRowsAndIsIdempotent() {
+        StringBuilder csv = new StringBuilder("学工号,姓名,邮箱,身份,角色\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(prefix).append(i).append(",学生").append(i).append(",s").append(i).append("@example.edu,学生,USER\n");
+        }
+        csv.append(prefix).append("0,重复,,,\n");
+        csv.append(prefix).append("bad-email,姓名,not-an-email,,\n");
+        csv.append(prefix).append("bad-role,姓名,,,NO_SUCH_ROLE\n");
+        MockMultipartFile file = new MockMultipartFile("file", "users.csv", "text/csv",
+                csv.toString().getBytes(StandardCharsets.UTF_8));
+
+        UserImportResult first = userImportService.importUsers(file, null);
+        log.info("imported {} rows in {} ms ({} rows/s)", first.getTotal(), first.getElapsedMillis(),
+                first.getTotal() * 1000L / Math.max(1, first.getElapsedMillis()));
+        assertThat(first.getTotal()).isEqualTo(ROWS + 3);
+        assertThat(first.getCreated()).isEqualTo(ROWS);
+        assertThat(first.getFailed()).isEqualTo(3);
+        assertThat(first.getErrors()).extracting("rowNumber").containsExactly(ROWS + 2, ROWS + 3, ROWS + 4);
+
+        UserImportResult second = userImportService.importUsers(file, null);
+        assertThat(second.getCreated()).isZero();
+        assertThat(second.getUpdated()).isEqualTo(ROWS);
+        assertThat(accountMapper.selectCount(
+                new LambdaQueryWrapper<Account>().likeRight(Account::getLoginId, prefix))).isEqualTo(ROWS);
+    }
+}
@@ -0,0 +1,46 @@
+package com.lx.questionnaire.service.userimport;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class XlsxImportReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void longNumericIdsAreReadWithoutScientificNotation() throws Exception {
+        Path file = dir.resolve("users.xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = wb.createSheet();
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("学工号");
+            header.createCell(1).setCellValue("姓名");
+            Row r1 = sheet.createRow(1);
+            r1.createCell(0).setCellValue(202400010001d);
+            r1.createCell(1).setCellValue("张三");
+            Row r2 = sheet.createRow(2);
+            r2.createCell(0).setCellValue(20240001d);
+            r2.createCell(2).setCellValue(1.5d);
+            wb.write(out);
+        }
+
+        List<List<String>> rows = new ArrayList<>();
+        XlsxImportReader.read(file, (rowNumber, cells) -> rows.add(cells));
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(1)).containsExactly("202400010001", "张三");
+        assertThat(rows.get(2)).containsExactly("20240001", "", "1.5");
+    }
+}
@@ -0,0 +1,47 @@
+package com.lx.questionnaire.util;
+
+import com.lx.questionnaire.entity.ResponseItem;
+import com.lx.questionnaire.entity.SurveyQuestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnswerFormatUtilsTest {
+
+    @Test
+    void summaryTruncatesOnCodePointBoundary() {
+        // 499 个汉字后跟 emoji：按 char 截到 500 会留下半个代理对
+        String text = "答".repeat(499) + "😀😀";
+        String summary = AnswerFormatUtils.buildSummary(List.of(question(1L)), Map.of(1L, textItem(1L, text)));
+
+        assertThat(summary.codePointCount(0, summary.length())).isEqualTo(500);
+        assertThat(summary).endsWith("答😀");
+        assertThat(Character.isHighSurrogate(summary.charAt(summary.length() - 1))).isFalse();
+    }
+
+    @Test
+    void shortSummaryIsKeptAsIs() {
+        String summary = AnswerFormatUtils.buildSummary(List.of(question(1L), question(2L)),
+                Map.of(1L, textItem(1L, "好😀"), 2L, textItem(2L, "无")));
+
+        assertThat(summary).isEqualTo("好😀；无");
+    }
+
+    private static SurveyQuestion question(Long id) {
+        SurveyQuestion q = new SurveyQuestion();
+        q.setId(id);
+        q.setType("SHORT_TEXT");
+        return q;
+    }
+
+    private static ResponseItem textItem(Long questionId, String text) {
+        ResponseItem ri = new ResponseItem();
+        ri.setQuestionId(questionId);
+        ri.setValueType("TEXT");
+        ri.setTextValue(text);
+        return ri;
+    }
+}
@@ -0,0 +1,39 @@
+package com.lx.questionnaire.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OptionMaskTest {
+
+    @Test
+    void roundTripsIndicesInAscendingOrder() {
+        Long mask = OptionMask.encode(new int[]{5, 0, 2, 63});
+
+        assertThat(mask).isNotNull();
+        assertThat(mask).isNegative();
+        assertThat(Long.bitCount(mask)).isEqualTo(4);
+        assertThat(OptionMask.toList(mask)).containsExactly(0, 2, 5, 63);
+        assertThat(OptionMask.toArray(mask)).containsExactly(0, 2, 5, 63);
+        assertThat(OptionMask.contains(mask, 2)).isTrue();
+        assertThat(OptionMask.contains(mask, 3)).isFalse();
+        assertThat(OptionMask.contains(mask, 64)).isFalse();
+    }
+
+    @Test
+    void refusesIndicesOutsideCapacity() {
+        assertThat(OptionMask.encode(new int[]{1, 64})).isNull();
+        assertThat(OptionMask.encode(new int[]{-1})).isNull();
+        assertThat(OptionMask.encode(new int[0])).isNull();
+        assertThat(OptionMask.encode(null)).isNull();
+    }
+
+    @Test
+    void addToCountsEachSetBit() {
+        long[] counts = new long[4];
+        OptionMask.addTo(OptionMask.encode(new int[]{0, 3}), counts);
+        OptionMask.addTo(OptionMask.encode(new int[]{3, 10}), counts);
+
+        assertThat(counts).containsExactly(1, 0, 0, 2);
+    }
+}
@@ -0,0 +1,73 @@
+package com.lx.questionnaire.util;
+
+import com.lx.questionnaire.entity.ResponseItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResponsePayloadTest {
+
+    @Test
+    void roundTripsEveryAnswerKindInQuestionOrder() {
+        ResponseItem multi = item(30L);
+        multi.setOptionMask(OptionMask.encode(new int[]{0, 3, 63}));
+        ResponseItem wide = item(40L);
+        wide.setOptionIndices("[2,70]");
+        ResponseItem single = item(10L);
+        single.setOptionIndex(1);
+        single.setTextValue("其他：自行车");
+        ResponseItem text = item(20L);
+        text.setTextValue("多行\n文本");
+        ResponseItem scale = item(50L);
+        scale.setScaleValue(-3);
+
+        byte[] payload = ResponsePayload.encode(List.of(multi, wide, single, text, scale));
+        List<ResponseItem> decoded = ResponsePayload.decode(9L, payload);
+
+        assertThat(decoded).extracting(ResponseItem::getQuestionId).containsExactly(10L, 20L, 30L, 40L, 50L);
+        assertThat(decoded).allMatch(ri -> ri.getResponseId() == 9L);
+        assertThat(decoded.get(0).getOptionIndex()).isEqualTo(1);
+        assertThat(decoded.get(0).getTextValue()).isEqualTo("其他：自行车");
+        assertThat(decoded.get(1).getValueType()).isEqualTo("TEXT");
+        assertThat(decoded.get(1).getTextValue()).isEqualTo("多行\n文本");
+        assertThat(OptionMask.toList(decoded.get(2).getOptionMask())).containsExactly(0, 3, 63);
+        assertThat(decoded.get(3).getOptionIndices()).isEqualTo("[2,70]");
+        assertThat(decoded.get(4).getScaleValue()).isEqualTo(-3);
+    }
+
+    @Test
+    void readerSkipsTextUntilAsked() {
+        ResponseItem text = item(1L);
+        text.setTextValue("x".repeat(300));
+        ResponseItem multi = item(2L);
+        multi.setOptionMask(OptionMask.encode(new int[]{4}));
+
+        ResponsePayload.Reader r = new ResponsePayload.Reader(ResponsePayload.encode(List.of(text, multi)));
+
+        assertThat(r.size()).isEqualTo(2);
+        assertThat(r.next()).isTrue();
+        assertThat(r.kind()).isEqualTo(ResponsePayload.KIND_TEXT);
+        assertThat(r.next()).isTrue();
+        assertThat(r.questionId()).isEqualTo(2L);
+        assertThat(r.isSelected(4)).isTrue();
+        assertThat(r.isSelected(5)).isFalse();
+        assertThat(r.hasText()).isFalse();
+        assertThat(r.next()).isFalse();
+    }
+
+    @Test
+    void rejectsUnknownVersionAndEmptyInput() {
+        assertThat(ResponsePayload.encode(List.of(item(1L)))).isNull();
+        assertThatThrownBy(() -> new ResponsePayload.Reader(new byte[]{2, 0, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ResponseItem item(Long questionId) {
+        ResponseItem ri = new ResponseItem();
+        ri.setQuestionId(questionId);
+        return ri;
+    }
+}
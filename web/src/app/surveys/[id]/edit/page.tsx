@@ -962,7 +962,11 @@ export default function EditSurveyPage() {
     surveysApi
       .publish(id)
       .then(() => {
-        if (survey) setSurvey({ ...survey, status: 'COLLECTING' })
+        if (survey) {
+          // 开始时间未到的问卷发布后为「待开始」，到点由后端调度器切换为收集中
+          const scheduled = !!survey.startTime && new Date(survey.startTime).getTime() > Date.now()
+          setSurvey({ ...survey, status: scheduled ? 'SCHEDULED' : 'COLLECTING' })
+        }
         alert('发布成功')
       })
       .catch((e) => alert(e?.response?.data?.message || '发布失败'))
@@ -995,7 +999,7 @@ export default function EditSurveyPage() {
 
   const handleUpdateQuestion = (qId: number, patch: Partial<SurveyQuestionVO>) => {
     if (!id || !survey) return
-    const needConfirm = survey.status === 'COLLECTING' || survey.status === 'PAUSED'
+    const needConfirm = survey.status === 'SCHEDULED' || survey.status === 'COLLECTING' || survey.status === 'PAUSED'
     if (needConfirm && confirmedForQuestion.current !== qId) {
       if (!window.confirm('修改题目会影响已回收数据与统计，是否继续？')) return
       confirmedForQuestion.current = qId
@@ -1020,7 +1024,7 @@ export default function EditSurveyPage() {
 
   const handleDeleteQuestion = (qId: number) => {
     if (!id || !survey) return
-    const needConfirm = survey.status === 'COLLECTING' || survey.status === 'PAUSED'
+    const needConfirm = survey.status === 'SCHEDULED' || survey.status === 'COLLECTING' || survey.status === 'PAUSED'
     const msg = needConfirm ? '修改题目会影响已回收数据与统计，确定删除该题？' : '确定删除该题？'
     if (!window.confirm(msg)) return
     surveysApi.deleteQuestion(id, qId).then(() => {
@@ -1039,7 +1043,7 @@ export default function EditSurveyPage() {
     const oldIndex = ids.indexOf(Number(String(active.id).replace(/^q-/, '')))
     const newIndex = ids.indexOf(Number(String(over.id).replace(/^q-/, '')))
     if (oldIndex < 0 || newIndex < 0) return
-    const needConfirm = survey.status === 'COLLECTING' || survey.status === 'PAUSED'
+    const needConfirm = survey.status === 'SCHEDULED' || survey.status === 'COLLECTING' || survey.status === 'PAUSED'
     if (needConfirm && !window.confirm('调整题目顺序会影响已回收数据与统计，是否继续？')) return
     const next = arrayMove(ids, oldIndex, newIndex)
     surveysApi.updateQuestionOrder(id, next).then(() => {
@@ -1059,7 +1063,7 @@ export default function EditSurveyPage() {
 
   const handleCopyQuestion = (qId: number) => {
     if (!id || !survey) return
-    const needConfirm = survey.status === 'COLLECTING' || survey.status === 'PAUSED'
+    const needConfirm = survey.status === 'SCHEDULED' || survey.status === 'COLLECTING' || survey.status === 'PAUSED'
     if (needConfirm && !window.confirm('修改题目会影响已回收数据与统计，是否继续？')) return
     surveysApi.copyQuestion(id, qId).then((res) => {
       if (res?.data?.id) {
@@ -1072,7 +1076,7 @@ export default function EditSurveyPage() {
 
   const applyReorder = (newOrder: number[]) => {
     if (!survey) return
-    const needConfirm = survey.status === 'COLLECTING' || survey.status === 'PAUSED'
+    const needConfirm = survey.status === 'SCHEDULED' || survey.status === 'COLLECTING' || survey.status === 'PAUSED'
     if (needConfirm && !window.confirm('调整题目顺序会影响已回收数据与统计，是否继续？')) return
     surveysApi.updateQuestionOrder(id!, newOrder).then(() => {
       const reordered = newOrder.map((oid) => survey!.questions!.find((q) => q.id === oid)!).filter(Boolean)
@@ -40,7 +40,7 @@ export default function ResponsesPage() {
 
   if (!survey) return <div className="p-0">加载中...</div>
 
-  const totalPages = data ? Math.ceil(data.total / pageSize) : 0
+  const totalPages = data ? Math.ceil((data.total ?? 0) / pageSize) : 0
   const from = (page - 1) * pageSize + 1
   const to = Math.min(page * pageSize, data?.total ?? 0)
 
@@ -103,7 +103,7 @@ export default function ResponsesPage() {
               ))}
             </tbody>
           </table>
-          {data.total > pageSize && (
+          {(data.total ?? 0) > pageSize && (
             <div className="px-6 py-3 border-t border-gray-200 bg-gray-50 flex justify-between items-center flex-wrap gap-2">
               <span className="text-sm text-gray-600">
                 显示 {from} 至 {to} 条，共 {data.total} 条
@@ -13,6 +13,7 @@ import ConfirmDialog from '@/app/_components/ConfirmDialog'
 
 const STATUS_LABELS: Record<string, string> = {
   DRAFT: '草稿',
+  SCHEDULED: '待开始',
   COLLECTING: '收集中',
   PAUSED: '已暂停',
   ENDED: '已结束',
@@ -32,7 +33,7 @@ function SurveyCard({
   router: ReturnType<typeof useRouter>
 }) {
   const statusClass =
-    item.status === 'DRAFT'
+    item.status === 'DRAFT' || item.status === 'SCHEDULED'
       ? 'info'
       : item.status === 'COLLECTING'
         ? 'success'
@@ -230,6 +231,7 @@ export default function MySurveysPage() {
             >
               <option value="">全部状态</option>
               <option value="DRAFT">草稿</option>
+              <option value="SCHEDULED">待开始</option>
               <option value="COLLECTING">收集中</option>
               <option value="PAUSED">已暂停</option>
               <option value="ENDED">已结束</option>
@@ -366,6 +368,22 @@ function SurveyStatusActions({
   }
   const btnClass =
     'p-2 rounded-lg text-gray-400 hover:text-blue-600 hover:bg-blue-50 transition-colors disabled:opacity-50'
+  if (item.status === 'SCHEDULED') {
+    return (
+      <button
+        type="button"
+        title="结束问卷"
+        disabled={loading}
+        onClick={() => {
+          if (!window.confirm('结束后问卷将不会开始收集，确定结束问卷吗？')) return
+          onAction(() => surveysApi.end(item.id))
+        }}
+        className={btnClass}
+      >
+        <i className="fas fa-stop" />
+      </button>
+    )
+  }
   if (item.status === 'COLLECTING') {
     return (
       <>
@@ -107,6 +107,30 @@ export const usersApi = {
     apiClient.get(`/users/${userId}/roles`) as Promise<ApiResponse<number[]>>,
   setRoles: (userId: string, roleIds: number[]) =>
     apiClient.put(`/users/${userId}/roles`, roleIds) as Promise<ApiResponse<null>>,
+  importUsers: (file: File) => {
+    const form = new FormData()
+    form.append('file', file)
+    return apiClient.post('/users/import', form, {
+      headers: { 'Content-Type': 'multipart/form-data' },
+      timeout: 0,
+    }) as Promise<ApiResponse<UserImportResult>>
+  },
+}
+
+export interface UserImportRowError {
+  rowNumber: number
+  loginId: string | null
+  message: string
+}
+
+export interface UserImportResult {
+  total: number
+  created: number
+  updated: number
+  failed: number
+  errors: UserImportRowError[]
+  errorsTruncated: boolean
+  elapsedMillis: number
 }
 
 export interface UpdateAccountRequest {
@@ -237,9 +261,19 @@ export interface PresetOptionCategoryVO {
   groups: PresetOptionGroupDetailVO[]
 }
 
+export interface PresetOptionSuggestionVO {
+  type: 'GROUP' | 'CATEGORY' | 'ITEM'
+  text: string
+  category: string
+  groupId: number | null
+  groupName: string | null
+}
+
 export const presetOptionsApi = {
   getTree: () =>
     apiClient.get('/preset-options/tree') as Promise<ApiResponse<PresetOptionCategoryVO[]>>,
+  suggest: (q: string, limit?: number) =>
+    apiClient.get('/preset-options/suggest', { params: { q, limit } }) as Promise<ApiResponse<PresetOptionSuggestionVO[]>>,
   query: (params?: { keyword?: string; category?: string; page?: number; pageSize?: number }) =>
     apiClient.get('/preset-options/query', { params }) as Promise<ApiResponse<PaginatedResponse<PresetOptionGroupVO>>>,
   getDetail: (id: number) =>
@@ -291,8 +325,20 @@ export interface SurveyDetailVO {
   thankYouText?: string | null
   limitByIp?: number
   limitByDevice?: number
+  /** 草稿保留小时数，0 或空为系统默认 */
+  draftTtlHours?: number | null
   createdAt?: string
   updatedAt?: string
+  /** 题目结构版本，整卷保存时作为 baseSchemaVersion 回传 */
+  schemaVersion?: number
+  questions: SurveyQuestionVO[]
+}
+
+export interface BulkSaveQuestionsResult {
+  schemaVersion: number
+  inserted: number
+  updated: number
+  deleted: number
   questions: SurveyQuestionVO[]
 }
 
@@ -301,6 +347,8 @@ export interface FillSurveyVO {
   title: string
   description?: string | null
   thankYouText?: string | null
+  /** 题目所属的问卷版本；预览时为空 */
+  versionId?: number | null
   questions: SurveyQuestionVO[]
 }
 
@@ -318,6 +366,22 @@ export interface SubmitRequestDTO {
   deviceId?: string | null
 }
 
+/** 删除问卷的结果与清理进度；dryRun 时 *Removed 为将要删除的行数 */
+export interface SurveyPurgeVO {
+  surveyId: string
+  dryRun: boolean
+  status: 'PENDING' | 'RUNNING' | 'DONE' | 'FAILED' | null
+  questionsRemoved: number
+  responsesRemoved: number
+  itemsRemoved: number
+  versionsRemoved: number
+  responsesTotal: number
+  error: string | null
+  nextAttemptAt: string | null
+  createdAt: string | null
+  finishedAt: string | null
+}
+
 export interface UpdateSettingsDTO {
   limitOncePerUser?: boolean
   allowAnonymous?: boolean
@@ -326,6 +390,8 @@ export interface UpdateSettingsDTO {
   thankYouText?: string | null
   limitByIp?: number | null
   limitByDevice?: number | null
+  /** 草稿保留小时数，0=使用系统默认 */
+  draftTtlHours?: number | null
 }
 
 export const surveysApi = {
@@ -344,7 +410,10 @@ export const surveysApi = {
   resume: (id: string) => apiClient.post(`/surveys/${id}/resume`) as Promise<ApiResponse<null>>,
   end: (id: string) => apiClient.post(`/surveys/${id}/end`) as Promise<ApiResponse<null>>,
   copy: (id: string) => apiClient.post(`/surveys/${id}/copy`) as Promise<ApiResponse<{ id: string }>>,
-  delete: (id: string) => apiClient.delete(`/surveys/${id}`) as Promise<ApiResponse<null>>,
+  delete: (id: string, dryRun = false) =>
+    apiClient.delete(`/surveys/${id}`, { params: dryRun ? { dryRun: true } : undefined }) as Promise<ApiResponse<SurveyPurgeVO>>,
+  getPurgeProgress: (id: string) =>
+    apiClient.get(`/surveys/${id}/purge`) as Promise<ApiResponse<SurveyPurgeVO>>,
   getFillUrl: (id: string) =>
     apiClient.get(`/surveys/${id}/fill-url`) as Promise<ApiResponse<{ fillUrl: string }>>,
   listQuestions: (surveyId: string) =>
@@ -359,14 +428,22 @@ export const surveysApi = {
     apiClient.post(`/surveys/${surveyId}/questions/${questionId}/copy`) as Promise<ApiResponse<SurveyQuestionVO>>,
   deleteQuestion: (surveyId: string, questionId: number) =>
     apiClient.delete(`/surveys/${surveyId}/questions/${questionId}`) as Promise<ApiResponse<null>>,
-  listResponses: (surveyId: string, params?: { page?: number; pageSize?: number }) =>
-    apiClient.get(`/surveys/${surveyId}/responses`, { params }) as Promise<ApiResponse<ResponseListResponse>>,
+  /** 整卷保存：questions 为完整有序列表，无 id 的新建、缺失的删除；baseSchemaVersion 不一致时保存失败 */
+  bulkSaveQuestions: (surveyId: string, data: { baseSchemaVersion?: number; questions: SurveyQuestionVO[] }) =>
+    apiClient.put(`/surveys/${surveyId}/questions:bulk`, data) as Promise<ApiResponse<BulkSaveQuestionsResult>>,
+  /** cursor 非空时按游标翻页（忽略 page）；withTotal=false 时不返回 total；其余为筛选条件，见 ResponseFilterParams */
+  listResponses: (surveyId: string, params?: { page?: number; pageSize?: number; cursor?: string; withTotal?: boolean } & ResponseFilterParams) =>
+    apiClient.get(`/surveys/${surveyId}/responses`, { params, paramsSerializer: { indexes: null } }) as Promise<ApiResponse<ResponseListResponse>>,
+  /** 填空内容全文检索；cursor 为上一页返回的 nextCursor */
+  searchResponses: (surveyId: string, params: { q: string; questionId?: number; cursor?: string; pageSize?: number }) =>
+    apiClient.get(`/surveys/${surveyId}/responses/search`, { params }) as Promise<ApiResponse<ResponseSearchResponse>>,
   getResponseDetail: (surveyId: string, responseId: number) =>
     apiClient.get(`/surveys/${surveyId}/responses/${responseId}`) as Promise<ApiResponse<ResponseDetailVO>>,
   getAnalytics: (surveyId: string) =>
     apiClient.get(`/surveys/${surveyId}/analytics`) as Promise<ApiResponse<AnalyticsResponse>>,
-  exportResponses: (surveyId: string) =>
-    apiClient.get(`/surveys/${surveyId}/export`, { responseType: 'blob' }) as Promise<Blob>,
+  /** format：xlsx（默认）| parquet */
+  exportResponses: (surveyId: string, format?: 'xlsx' | 'parquet') =>
+    apiClient.get(`/surveys/${surveyId}/export`, { params: format ? { format } : undefined, responseType: 'blob' }) as Promise<Blob>,
 }
 
 export interface ResponseListItemVO {
@@ -378,9 +455,40 @@ export interface ResponseListItemVO {
   summary?: string
 }
 
+/** 答卷筛选条件，各条件之间为 AND */
+export interface ResponseFilterParams {
+  /** ISO 时间，如 2025-01-01T00:00:00 */
+  submittedFrom?: string
+  submittedTo?: string
+  /** 用时范围（秒，含端点） */
+  minDuration?: number
+  maxDuration?: number
+  /** 答案条件，格式「题目id:操作:值」：12:option:1、12:scale:3..5、12:text:关键字 */
+  answer?: string[]
+}
+
 export interface ResponseListResponse {
   list: ResponseListItemVO[]
-  total: number
+  /** withTotal=false 时为 null */
+  total: number | null
+  /** 下一页游标，无更多数据时为 null */
+  nextCursor: string | null
+}
+
+export interface ResponseSearchHitVO {
+  responseId: number
+  questionId: number
+  questionTitle: string | null
+  submittedAt: string | null
+  /** 命中内容摘录，截断处带省略号 */
+  snippet: string
+  /** 关键字在 snippet 中的区间 [start, end) */
+  highlights: [number, number][]
+}
+
+export interface ResponseSearchResponse {
+  list: ResponseSearchHitVO[]
+  nextCursor: string | null
 }
 
 export interface ResponseDetailItemVO {